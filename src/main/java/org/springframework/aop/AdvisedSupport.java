@@ -3,6 +3,7 @@ package org.springframework.aop;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.springframework.aop.framework.AdvisorChainFactory;
 import org.springframework.aop.framework.DefaultAdvisorChainFactory;
+import org.springframework.aop.framework.InvocationTracker;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -30,6 +31,11 @@ public class AdvisedSupport {
 
 	private List<Advisor> advisors = new ArrayList<>();
 
+	/**
+	 * 统计经过代理的调用，为null时不统计
+	 */
+	private InvocationTracker invocationTracker;
+
 	public AdvisedSupport() {
 		this.methodCache = new ConcurrentHashMap<>(32);
 	}
@@ -49,6 +55,14 @@ public class AdvisedSupport {
 		return advisors;
 	}
 
+	public InvocationTracker getInvocationTracker() {
+		return invocationTracker;
+	}
+
+	public void setInvocationTracker(InvocationTracker invocationTracker) {
+		this.invocationTracker = invocationTracker;
+	}
+
 	public TargetSource getTargetSource() {
 		return targetSource;
 	}
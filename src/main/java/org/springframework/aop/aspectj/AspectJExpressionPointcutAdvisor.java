@@ -22,6 +22,13 @@ public class AspectJExpressionPointcutAdvisor implements PointcutAdvisor {
 		this.expression = expression;
 	}
 
+	/**
+	 * 直接使用已经解析好的切点，多个advisor可以共享同一个切点，不再重复解析表达式
+	 */
+	public void setPointcut(AspectJExpressionPointcut pointcut) {
+		this.pointcut = pointcut;
+	}
+
 	@Override
 	public Pointcut getPointcut() {
 		if (pointcut == null) {
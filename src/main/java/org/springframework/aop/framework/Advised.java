@@ -0,0 +1,11 @@
+package org.springframework.aop.framework;
+
+import org.springframework.aop.TargetSource;
+
+/**
+ * 代理对象实现的接口，通过它获取被代理的目标对象。调用不经过拦截器链，也不经过{@link InvocationTracker}
+ */
+public interface Advised {
+
+	TargetSource getTargetSource();
+}
@@ -0,0 +1,37 @@
+package org.springframework.aop.framework;
+
+import org.springframework.aop.AdvisedSupport;
+
+import java.util.Arrays;
+
+/**
+ * 代理对象的工具方法
+ */
+public final class AopProxyUtils {
+
+	private AopProxyUtils() {
+	}
+
+	/**
+	 * 如果是代理对象，返回被代理的目标对象，否则返回对象本身。需要修改bean状态(比如写字段)时使用，写到代理对象上的字段不会生效
+	 */
+	public static Object getTarget(Object candidate) {
+		if (candidate instanceof Advised) {
+			return ((Advised) candidate).getTargetSource().getTarget();
+		}
+		return candidate;
+	}
+
+	/**
+	 * 代理实现的接口：目标对象的接口以及{@link Advised}
+	 */
+	static Class<?>[] proxiedInterfaces(AdvisedSupport advised) {
+		Class<?>[] targetInterfaces = advised.getTargetSource().getTargetClass();
+		if (Arrays.asList(targetInterfaces).contains(Advised.class)) {
+			return targetInterfaces;
+		}
+		Class<?>[] interfaces = Arrays.copyOf(targetInterfaces, targetInterfaces.length + 1);
+		interfaces[targetInterfaces.length] = Advised.class;
+		return interfaces;
+	}
+}
@@ -8,6 +8,7 @@ import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 
 import org.springframework.aop.AdvisedSupport;
+import org.springframework.util.SpringNamingPolicy;
 
 /**
  * cglib动态代理
@@ -28,8 +29,9 @@ public class CglibAopProxy implements AopProxy {
 	public Object getProxy() {
 		// 创建动态代理增强类
 		Enhancer enhancer = new Enhancer();
+		enhancer.setNamingPolicy(SpringNamingPolicy.INSTANCE);
 		enhancer.setSuperclass(advised.getTargetSource().getTarget().getClass());
-		enhancer.setInterfaces(advised.getTargetSource().getTargetClass());
+		enhancer.setInterfaces(AopProxyUtils.proxiedInterfaces(advised));
 		enhancer.setCallback(new DynamicAdvisedInterceptor(advised));
 		return enhancer.create();
 	}
@@ -47,6 +49,22 @@ public class CglibAopProxy implements AopProxy {
 
 		@Override
 		public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+			if (method.getDeclaringClass() == Advised.class) {
+				return advised.getTargetSource();
+			}
+			InvocationTracker tracker = advised.getInvocationTracker();
+			if (tracker == null) {
+				return doIntercept(proxy, method, args, methodProxy);
+			}
+			tracker.enter(method);
+			try {
+				return doIntercept(proxy, method, args, methodProxy);
+			} finally {
+				tracker.exit();
+			}
+		}
+
+		private Object doIntercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
 			// 获取目标对象
 			Object target = advised.getTargetSource().getTarget();
 			Class<?> targetClass = target.getClass();
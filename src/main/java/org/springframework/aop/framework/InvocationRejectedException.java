@@ -0,0 +1,11 @@
+package org.springframework.aop.framework;
+
+/**
+ * 容器正在关闭，代理拒绝新的调用
+ */
+public class InvocationRejectedException extends IllegalStateException {
+
+	public InvocationRejectedException(String message) {
+		super(message);
+	}
+}
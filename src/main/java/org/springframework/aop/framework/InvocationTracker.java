@@ -0,0 +1,139 @@
+package org.springframework.aop.framework;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 统计正在经过代理执行的调用。关闭后拒绝新的调用，等待已经开始的调用结束。
+ * 同一个线程中嵌套的代理调用只算一次，正在执行的调用内部再调用其他代理不会被拒绝。
+ * 关闭后仍然放行{@link #setAdmittedAfterClose}认可的调用
+ */
+public class InvocationTracker {
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+	private final Object drainMonitor = new Object();
+
+	private volatile boolean closed;
+
+	private volatile BooleanSupplier admittedAfterClose = () -> false;
+
+	/**
+	 * 调用开始，需要与{@link #exit()}成对调用
+	 *
+	 * @throws InvocationRejectedException 已经关闭
+	 */
+	public void enter(Method method) {
+		int[] current = depth.get();
+		if (current[0] == 0) {
+			if (rejects()) {
+				throw rejected(method);
+			}
+			inFlight.incrementAndGet();
+			//关闭与计数之间的竞争：关闭后开始排空的调用方可能已经看到计数为0
+			if (rejects()) {
+				release();
+				throw rejected(method);
+			}
+		}
+		current[0]++;
+	}
+
+	public void exit() {
+		int[] current = depth.get();
+		if (--current[0] == 0) {
+			release();
+		}
+	}
+
+	private boolean rejects() {
+		return closed && !admittedAfterClose.getAsBoolean();
+	}
+
+	/**
+	 * 设置关闭后仍然放行的调用，比如销毁阶段中销毁方法对代理的调用。判断在调用线程上执行
+	 */
+	public void setAdmittedAfterClose(BooleanSupplier admittedAfterClose) {
+		this.admittedAfterClose = admittedAfterClose;
+	}
+
+	private void release() {
+		//排空的线程可能自己也在调用中，等待的是计数降到1，因此每次减少都要唤醒
+		if (inFlight.decrementAndGet() <= 1 && closed) {
+			synchronized (drainMonitor) {
+				drainMonitor.notifyAll();
+			}
+		}
+	}
+
+	private static InvocationRejectedException rejected(Method method) {
+		return new InvocationRejectedException("Application context is shutting down, rejected invocation of " + method);
+	}
+
+	/**
+	 * 拒绝新的调用，等待正在执行的调用结束。当前线程正在代理调用中时(比如在被代理的方法里关闭容器)，不等待它自己的调用
+	 *
+	 * @return 等待的时间，以及超时后仍然没有结束的调用数
+	 */
+	public DrainResult drain(long timeout, TimeUnit unit) {
+		closed = true;
+		//在代理调用内部关闭时，当前线程自己的调用要等drain返回后才能结束，不能等待它
+		int own = depth.get()[0] > 0 ? 1 : 0;
+		long start = System.nanoTime();
+		long deadline = start + unit.toNanos(timeout);
+		synchronized (drainMonitor) {
+			long remaining;
+			while (inFlight.get() > own && (remaining = deadline - System.nanoTime()) > 0) {
+				try {
+					TimeUnit.NANOSECONDS.timedWait(drainMonitor, remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		return new DrainResult(Duration.ofNanos(System.nanoTime() - start), Math.max(0, inFlight.get() - own));
+	}
+
+	public int getInFlightCount() {
+		return inFlight.get();
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * 排空的结果
+	 */
+	public static final class DrainResult {
+
+		private final Duration drainTime;
+
+		private final int cutOffInvocations;
+
+		public DrainResult(Duration drainTime, int cutOffInvocations) {
+			this.drainTime = drainTime;
+			this.cutOffInvocations = cutOffInvocations;
+		}
+
+		/**
+		 * 从开始拒绝新调用到正在执行的调用全部结束(或超时)的时间
+		 */
+		public Duration getDrainTime() {
+			return drainTime;
+		}
+
+		/**
+		 * 超时后仍在执行的调用数，这些调用执行期间bean可能已经被销毁
+		 */
+		public int getCutOffInvocations() {
+			return cutOffInvocations;
+		}
+	}
+}
@@ -30,11 +30,27 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
 	 */
 	@Override
 	public Object getProxy() {
-		return Proxy.newProxyInstance(getClass().getClassLoader(), advised.getTargetSource().getTargetClass(), this);
+		return Proxy.newProxyInstance(getClass().getClassLoader(), AopProxyUtils.proxiedInterfaces(advised), this);
 	}
 
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		if (method.getDeclaringClass() == Advised.class) {
+			return advised.getTargetSource();
+		}
+		InvocationTracker tracker = advised.getInvocationTracker();
+		if (tracker == null) {
+			return doInvoke(proxy, method, args);
+		}
+		tracker.enter(method);
+		try {
+			return doInvoke(proxy, method, args);
+		} finally {
+			tracker.exit();
+		}
+	}
+
+	private Object doInvoke(Object proxy, Method method, Object[] args) throws Throwable {
 		// 获取目标对象
 		Object target = advised.getTargetSource().getTarget();
 		Class<?> targetClass = target.getClass();
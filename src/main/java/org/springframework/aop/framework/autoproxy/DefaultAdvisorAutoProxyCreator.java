@@ -11,6 +11,7 @@ import org.springframework.aop.ClassFilter;
 import org.springframework.aop.Pointcut;
 import org.springframework.aop.TargetSource;
 import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.aop.framework.InvocationTracker;
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.PropertyValues;
@@ -28,6 +29,11 @@ public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPos
 
 	private Set<Object> earlyProxyReferences = new HashSet<>();
 
+	/**
+	 * 所有创建的代理共享，容器关闭时通过它等待正在执行的调用结束
+	 */
+	private final InvocationTracker invocationTracker = new InvocationTracker();
+
 	@Override
 	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
 		if (!earlyProxyReferences.contains(beanName)) {
@@ -61,7 +67,7 @@ public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPos
 			return bean;
 		}
 
-		Collection<AspectJExpressionPointcutAdvisor> advisors = beanFactory.getBeansOfType(AspectJExpressionPointcutAdvisor.class)
+		Collection<AspectJExpressionPointcutAdvisor> advisors = beanFactory.getBeansOfType(AspectJExpressionPointcutAdvisor.class, false)
 				.values();
 		try {
 			ProxyFactory proxyFactory = new ProxyFactory();
@@ -75,6 +81,7 @@ public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPos
 				}
 			}
 			if (!proxyFactory.getAdvisors().isEmpty()) {
+				proxyFactory.setInvocationTracker(invocationTracker);
 				return proxyFactory.getProxy();
 			}
 		} catch (Exception ex) {
@@ -83,6 +90,10 @@ public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPos
 		return bean;
 	}
 
+	public InvocationTracker getInvocationTracker() {
+		return invocationTracker;
+	}
+
 	private boolean isInfrastructureClass(Class<?> beanClass) {
 		return Advice.class.isAssignableFrom(beanClass)
 				|| Pointcut.class.isAssignableFrom(beanClass)
@@ -0,0 +1,110 @@
+package org.springframework.beans;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.convert.BasicType;
+import cn.hutool.core.convert.Convert;
+import org.springframework.core.convert.ConversionService;
+
+import java.lang.reflect.Field;
+
+/**
+ * 字段赋值工具。原始类型的字段通过Field#setInt等方法直接赋值，配合ConversionService的原始类型转换，整个注入过程不产生装箱对象
+ */
+public final class FieldAccessor {
+
+	private FieldAccessor() {
+	}
+
+	/**
+	 * 为字段赋值：原始类型字段直接转换并赋值；其他字段先按字段的泛型类型通过conversionService转换
+	 *
+	 * @param bean
+	 * @param field
+	 * @param value
+	 * @param conversionService 可以为null
+	 */
+	public static void setFieldValue(Object bean, Field field, Object value, ConversionService conversionService) {
+		if (setPrimitiveField(bean, field, value, conversionService)) {
+			return;
+		}
+		if (value != null && conversionService != null && conversionService.canConvert(value.getClass(), field.getType())) {
+			value = conversionService.convert(value, field.getGenericType());
+		}
+		BeanUtil.setFieldValue(bean, field.getName(), value);
+	}
+
+	/**
+	 * 将值转换为字段最终被赋予的值，原始类型字段返回对应的包装类型。与{@link #setFieldValue}的转换规则一致，
+	 * 转换结果可以通过{@link #writeField}直接赋值
+	 */
+	public static Object convertForField(Field field, Object value, ConversionService conversionService) {
+		if (value == null) {
+			return null;
+		}
+		Class<?> type = field.getType();
+		Class<?> wrapperType = BasicType.wrap(type);
+		if (wrapperType.isInstance(value)) {
+			return value;
+		}
+		if (conversionService != null && conversionService.canConvert(value.getClass(), type)) {
+			return conversionService.convert(value, field.getGenericType());
+		}
+		return Convert.convert(wrapperType, value);
+	}
+
+	/**
+	 * 为字段赋值，不做类型转换。原始类型字段的值需要是对应的包装类型，通过Field#setInt等方法拆箱赋值
+	 */
+	public static void writeField(Object bean, Field field, Object value) {
+		if (setPrimitiveField(bean, field, value, null)) {
+			return;
+		}
+		try {
+			if (!field.isAccessible()) {
+				field.setAccessible(true);
+			}
+			field.set(bean, value);
+		} catch (IllegalAccessException e) {
+			throw new BeansException("Could not set field '" + field.getName() + "' on " + bean.getClass().getName(), e);
+		}
+	}
+
+	/**
+	 * 为原始类型字段赋值
+	 *
+	 * @param bean
+	 * @param field
+	 * @param value             已经是对应包装类型的值直接拆箱；其他类型的值通过conversionService转换
+	 * @param conversionService 可以为null
+	 * @return 字段不是原始类型 或者 无法处理该值时返回false，由调用方走通用的赋值逻辑
+	 */
+	public static boolean setPrimitiveField(Object bean, Field field, Object value, ConversionService conversionService) {
+		Class<?> type = field.getType();
+		if (!type.isPrimitive() || value == null) {
+			return false;
+		}
+		if (!BasicType.wrap(type).isInstance(value)
+				&& (conversionService == null || !conversionService.canConvert(value.getClass(), type))) {
+			return false;
+		}
+		try {
+			if (!field.isAccessible()) {
+				field.setAccessible(true);
+			}
+			if (type == int.class) {
+				field.setInt(bean, value instanceof Integer ? (Integer) value : conversionService.convertToInt(value));
+			} else if (type == long.class) {
+				field.setLong(bean, value instanceof Long ? (Long) value : conversionService.convertToLong(value));
+			} else if (type == double.class) {
+				field.setDouble(bean, value instanceof Double ? (Double) value : conversionService.convertToDouble(value));
+			} else if (type == boolean.class) {
+				field.setBoolean(bean, value instanceof Boolean ? (Boolean) value : conversionService.convertToBoolean(value));
+			} else {
+				return false;
+			}
+			return true;
+		} catch (IllegalAccessException e) {
+			throw new BeansException("Could not set field '" + field.getName() + "' on " + bean.getClass().getName(), e);
+		}
+	}
+}
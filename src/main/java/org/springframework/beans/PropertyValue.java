@@ -13,7 +13,8 @@ public class PropertyValue {
 	private final Object value;
 
 	public PropertyValue(String name, Object value) {
-		this.name = name;
+		//属性名在大量BeanDefinition之间重复，驻留后共享同一个字符串
+		this.name = name.intern();
 		this.value = value;
 	}
 
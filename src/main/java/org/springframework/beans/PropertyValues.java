@@ -1,38 +1,203 @@
 package org.springframework.beans;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 
 /**
- *
+ * bean的属性集合。属性按添加顺序保存在数组中，属性较少时线性查找；超过{@link #INDEX_THRESHOLD}个属性时建立开放寻址的名称索引，
+ * 添加和查找都是O(1)。没有属性时不分配数组。通过{@link #PropertyValues(PropertyValues)}创建的副本与原集合共享数组，
+ * 任意一方第一次修改时才复制(写时复制)
  */
-public class PropertyValues {
+public class PropertyValues implements Iterable<PropertyValue> {
 
-	private final List<PropertyValue> propertyValueList = new ArrayList<>();
+	/**
+	 * 超过该数量的属性时建立名称索引
+	 */
+	public static final int INDEX_THRESHOLD = 8;
+
+	private static final PropertyValue[] EMPTY = new PropertyValue[0];
+
+	private PropertyValue[] propertyValues = EMPTY;
+
+	private int size;
+
+	/**
+	 * 名称索引，保存下标+1，0表示空位。属性数量不超过阈值时为null
+	 */
+	private int[] index;
+
+	/**
+	 * 数组和索引是否与其他PropertyValues共享，共享时修改前需要先复制
+	 */
+	private boolean shared;
+
+	public PropertyValues() {
+	}
+
+	/**
+	 * 创建与original共享存储的副本，合并父子BeanDefinition时子定义没有覆盖的属性不需要复制
+	 */
+	public PropertyValues(PropertyValues original) {
+		this.propertyValues = original.propertyValues;
+		this.size = original.size;
+		this.index = original.index;
+		if (original.size > 0) {
+			this.shared = true;
+			original.shared = true;
+		}
+	}
 
 	public void addPropertyValue(PropertyValue pv) {	//add属性的时候先判断有没有同名属性。有则覆盖，没有的话则新建
-		for (int i = 0; i < this.propertyValueList.size(); i++) {
-			PropertyValue currentPv = this.propertyValueList.get(i);
-			if (currentPv.getName().equals(pv.getName())) {
-				//覆盖原有的属性值
-				this.propertyValueList.set(i, pv);
-				return;
-			}
+		int i = indexOf(pv.getName());
+		if (shared) {
+			unshare();
+		}
+		if (i >= 0) {
+			//覆盖原有的属性值
+			propertyValues[i] = pv;
+			return;
+		}
+		if (size == propertyValues.length) {
+			propertyValues = Arrays.copyOf(propertyValues, Math.max(4, size * 2));
+		}
+		propertyValues[size++] = pv;
+		if (index != null && size * 2 <= index.length) {
+			insertIntoIndex(index, size - 1);
+		} else if (size > INDEX_THRESHOLD) {
+			rebuildIndex();
 		}
-		this.propertyValueList.add(pv);
 	}
 
-	public PropertyValue[] getPropertyValues() {	//这个方法的作用不是很理解
-		return this.propertyValueList.toArray(new PropertyValue[0]);
+	/**
+	 * 返回所有属性的数组副本。遍历属性时应直接使用for-each或者{@link #get(int)}，不会复制数组
+	 */
+	public PropertyValue[] getPropertyValues() {
+		return Arrays.copyOf(propertyValues, size);
 	}
 
 	public PropertyValue getPropertyValue(String propertyName) {
-		for (int i = 0; i < this.propertyValueList.size(); i++) {
-			PropertyValue pv = this.propertyValueList.get(i);
-			if (pv.getName().equals(propertyName)) {
-				return pv;
+		int i = indexOf(propertyName);
+		return i >= 0 ? propertyValues[i] : null;
+	}
+
+	public boolean contains(String propertyName) {
+		return indexOf(propertyName) >= 0;
+	}
+
+	public PropertyValue get(int i) {
+		if (i >= size) {
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+		}
+		return propertyValues[i];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * 遍历时可以覆盖已有属性的值，新添加的属性不会被遍历到
+	 */
+	@Override
+	public Iterator<PropertyValue> iterator() {
+		final int end = this.size;
+		return new Iterator<PropertyValue>() {
+
+			private int cursor;
+
+			@Override
+			public boolean hasNext() {
+				return cursor < end;
+			}
+
+			@Override
+			public PropertyValue next() {
+				if (cursor >= end) {
+					throw new NoSuchElementException();
+				}
+				//扩容时会复制已有的元素，始终从最新的数组中读取，能看到遍历过程中覆盖的值
+				return propertyValues[cursor++];
+			}
+		};
+	}
+
+	/**
+	 * 是否包含相同的属性和值，不考虑属性的顺序
+	 */
+	public boolean hasSameValues(PropertyValues other) {
+		if (size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			PropertyValue otherValue = other.getPropertyValue(propertyValues[i].getName());
+			if (otherValue == null || !Objects.equals(propertyValues[i].getValue(), otherValue.getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 是否与其他PropertyValues共享存储
+	 */
+	public boolean isShared() {
+		return shared;
+	}
+
+	private void unshare() {
+		propertyValues = Arrays.copyOf(propertyValues, Math.max(4, size + 1));
+		if (index != null) {
+			index = index.clone();
+		}
+		shared = false;
+	}
+
+	private int indexOf(String propertyName) {
+		int[] table = this.index;
+		if (table == null) {
+			for (int i = 0; i < size; i++) {
+				if (propertyValues[i].getName().equals(propertyName)) {
+					return i;
+				}
 			}
+			return -1;
 		}
-		return null;
+		int mask = table.length - 1;
+		int slot = spread(propertyName.hashCode()) & mask;
+		int entry;
+		while ((entry = table[slot]) != 0) {
+			if (propertyValues[entry - 1].getName().equals(propertyName)) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void rebuildIndex() {
+		int[] table = new int[Integer.highestOneBit(size * 4 - 1)];
+		for (int i = 0; i < size; i++) {
+			insertIntoIndex(table, i);
+		}
+		this.index = table;
+	}
+
+	private void insertIntoIndex(int[] table, int i) {
+		int mask = table.length - 1;
+		int slot = spread(propertyValues[i].getName().hashCode()) & mask;
+		while (table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = i + 1;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
 	}
 }
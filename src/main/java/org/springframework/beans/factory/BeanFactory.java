@@ -31,5 +31,24 @@ public interface BeanFactory {
 
 	<T> T getBean(Class<T> requiredType) throws BeansException;
 
+	/**
+	 * 返回按名称获取bean的句柄，反复获取时不再重复查找
+	 *
+	 * @param name
+	 * @param requiredType
+	 * @param <T>
+	 * @return
+	 */
+	<T> ObjectProvider<T> getBeanProvider(String name, Class<T> requiredType);
+
+	/**
+	 * 返回按类型获取bean的句柄，bean的名称在第一次获取时确定
+	 *
+	 * @param requiredType
+	 * @param <T>
+	 * @return
+	 */
+	<T> ObjectProvider<T> getBeanProvider(Class<T> requiredType);
+
 	boolean containsBean(String name);
 }
@@ -7,6 +7,8 @@ import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.support.AbstractBeanFactory;
 
+import java.util.Map;
+
 
 public interface ConfigurableListableBeanFactory extends ListableBeanFactory, AutowireCapableBeanFactory, ConfigurableBeanFactory {
 
@@ -19,6 +21,32 @@ public interface ConfigurableListableBeanFactory extends ListableBeanFactory, Au
 	 */
 	BeanDefinition getBeanDefinition(String beanName) throws BeansException;
 
+	/**
+	 * 返回指定类型的所有实例。容器刷新时查找BeanFactoryPostProcessor、BeanPostProcessor、监听器等基础设施bean使用，
+	 * includeLazyInit为false时跳过懒加载的bean，不会为了判断类型加载它们的类
+	 *
+	 * @param type
+	 * @param includeLazyInit 是否包含懒加载的bean
+	 * @param <T>
+	 * @return
+	 * @throws BeansException
+	 */
+	<T> Map<String, T> getBeansOfType(Class<T> type, boolean includeLazyInit) throws BeansException;
+
+	/**
+	 * 返回与父定义合并后的BeanDefinition，没有父定义时返回原始的BeanDefinition
+	 *
+	 * @param beanName
+	 * @return
+	 * @throws BeansException 如果找不到BeanDefintion 或者 父定义
+	 */
+	BeanDefinition getMergedBeanDefinition(String beanName) throws BeansException;
+
+	/**
+	 * 清空合并后的BeanDefinition缓存，修改BeanDefinition之后调用
+	 */
+	void clearMetadataCache();
+
 	/**
 	 * 提前实例化所有单例实例
 	 *
@@ -26,5 +54,12 @@ public interface ConfigurableListableBeanFactory extends ListableBeanFactory, Au
 	 */
 	void preInstantiateSingletons() throws BeansException;
 
+	/**
+	 * 冻结配置，之后BeanDefinition按只读快照查找。冻结后仍然可以注册BeanDefinition，注册时重新生成快照
+	 */
+	void freezeConfiguration();
+
+	boolean isConfigurationFrozen();
+
 	void addBeanPostProcessor(BeanPostProcessor beanPostProcessor);
 }
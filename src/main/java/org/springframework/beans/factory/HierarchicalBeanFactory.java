@@ -1,8 +1,20 @@
 package org.springframework.beans.factory;
 
 /**
+ * 有父容器的bean工厂。本地找不到的bean委托给父容器查找
+ *
  * @author derekyi
  * @date 2020/11/28
  */
 public interface HierarchicalBeanFactory extends BeanFactory {
+
+	/**
+	 * @return 没有父容器时返回null
+	 */
+	BeanFactory getParentBeanFactory();
+
+	/**
+	 * 只在本地查找，不查找父容器
+	 */
+	boolean containsLocalBean(String name);
 }
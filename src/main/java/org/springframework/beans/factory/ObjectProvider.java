@@ -0,0 +1,24 @@
+package org.springframework.beans.factory;
+
+import org.springframework.beans.BeansException;
+
+/**
+ * 获取bean的句柄。按名称或类型查找bean只在第一次获取时进行，之后单例bean直接返回缓存的实例，
+ * 适用于需要反复获取同一个bean的场景
+ *
+ * @see BeanFactory#getBeanProvider(String, Class)
+ * @see BeanFactory#getBeanProvider(Class)
+ */
+public interface ObjectProvider<T> extends ObjectFactory<T> {
+
+	/**
+	 * 获取bean，bean不存在时抛出异常
+	 */
+	@Override
+	T getObject() throws BeansException;
+
+	/**
+	 * 获取bean，bean不存在时返回null
+	 */
+	T getIfAvailable() throws BeansException;
+}
@@ -1,53 +1,177 @@
 package org.springframework.beans.factory;
 
+import org.springframework.aop.framework.AopProxyUtils;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.FieldAccessor;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.PropertyValues;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.PlaceholderBindingRegistry;
+import org.springframework.beans.factory.config.PlaceholderBindingRegistry.PlaceholderBinding;
+import org.springframework.core.env.MemoryMappedPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.PropertySourcesIndex;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
 import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.util.IntrospectionCache;
+import org.springframework.util.PlaceholderTemplate;
+import org.springframework.util.PlaceholderTemplate.PlaceholderResolver;
+import org.springframework.util.PlaceholderTemplate.TemplateCache;
 import org.springframework.util.StringValueResolver;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 【一句话】在spring配置文件中解析占位符
+ * <p>
+ * 占位符的值按优先级从高到低依次来自：额外添加的属性源、属性文件(后面的文件覆盖前面的)、系统属性、环境变量。
+ * 所有属性源在加载后合并成一个不可变的查找索引，环境变量按宽松规则匹配(FOO_BAR可以通过foo.bar查找)
+ * <p>
+ * 用到占位符的bean属性和@Value字段会记录在{@link PlaceholderBindingRegistry}中，调用{@link #refreshProperties()}重新加载属性后，
+ * 只有用到了变化属性的单例bean会被重新注入
  */
 public class PropertyPlaceholderConfigurer implements BeanFactoryPostProcessor {
 
-	public static final String PLACEHOLDER_PREFIX = "${";
+	public static final String PLACEHOLDER_PREFIX = PlaceholderTemplate.PLACEHOLDER_PREFIX;
 
-	public static final String PLACEHOLDER_SUFFIX = "}";
+	public static final String PLACEHOLDER_SUFFIX = PlaceholderTemplate.PLACEHOLDER_SUFFIX;
+
+	/**
+	 * 超过该大小(字节)的本地属性文件通过内存映射读取
+	 */
+	public static final long DEFAULT_MEMORY_MAP_THRESHOLD = 1024 * 1024;
 
 	private String location;
 
+	private String[] locations;
+
+	private boolean searchSystemProperties = true;
+
+	private boolean searchSystemEnvironment = true;
+
+	private long memoryMapThreshold = DEFAULT_MEMORY_MAP_THRESHOLD;
+
+	private MutablePropertySources propertySources;
+
+	/**
+	 * 解析好的占位符模板，键是原始字符串。@Value每次注入都会解析同样的字符串，缓存之后只需要渲染。
+	 * 只缓存包含占位符前缀的字符串，这类字符串来自配置，数量有限；普通属性值不进入缓存，避免缓存无限增长
+	 */
+	private final Map<String, PlaceholderTemplate> templateCache = new ConcurrentHashMap<>();
+
+	private final TemplateCache templateLookup = this::getTemplate;
+
+	/**
+	 * 当前的属性索引，重新加载属性时整体替换
+	 */
+	private volatile PropertySourcesIndex propertySourcesIndex;
+
+	private final PlaceholderResolver placeholderResolver = key -> propertySourcesIndex.getProperty(key);
+
+	private ConfigurableListableBeanFactory beanFactory;
+
+	private PlaceholderBindingRegistry bindingRegistry;
+
 	@Override
 	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
-		//加载属性配置文件
-		Properties properties = loadProperties();
+		this.beanFactory = beanFactory;
+
+		//加载所有属性源，合并成查找索引
+		this.propertySourcesIndex = PropertySourcesIndex.build(buildPropertySources());
+
+		//记录用到占位符的注入点，供AutowiredAnnotationBeanPostProcessor记录@Value字段。多个配置器共用一个注册表，
+		//注入点用到的属性由每个配置器分别计算
+		Object existingRegistry = beanFactory.getSingleton(PlaceholderBindingRegistry.PLACEHOLDER_BINDING_REGISTRY_BEAN_NAME);
+		if (existingRegistry instanceof PlaceholderBindingRegistry) {
+			this.bindingRegistry = (PlaceholderBindingRegistry) existingRegistry;
+			this.bindingRegistry.addKeyExtractor(this::extractKeys);
+		} else {
+			this.bindingRegistry = new PlaceholderBindingRegistry(this::extractKeys);
+			beanFactory.addSingleton(PlaceholderBindingRegistry.PLACEHOLDER_BINDING_REGISTRY_BEAN_NAME, bindingRegistry);
+		}
 
 		//属性值替换占位符，替换的是"${}"这种形式的占位符
-		processProperties(beanFactory, properties);
+		processProperties(beanFactory, placeholderResolver);
 
 		//往容器中添加字符解析器，供解析@Value注解使用
-		StringValueResolver valueResolver = new PlaceholderResolvingStringValueResolver(properties);
+		StringValueResolver valueResolver = new PlaceholderResolvingStringValueResolver(placeholderResolver);
 		beanFactory.addEmbeddedValueResolver(valueResolver);
 	}
 
 	/**
-	 * 加载属性配置文件，比如car.properties这个配置文件(设置了car的一些信息)
+	 * 按优先级从高到低组装属性源
 	 *
 	 * @return
 	 */
-	private Properties loadProperties() {
-		try {
-			DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
-			Resource resource = resourceLoader.getResource(location);	//在配置文件中通过property标签的value设置classpath，然后后续属性填充设置属性location的值
+	private MutablePropertySources buildPropertySources() {
+		MutablePropertySources sources = new MutablePropertySources();
+		if (propertySources != null) {
+			for (PropertySource propertySource : propertySources) {
+				sources.addLast(propertySource);
+			}
+		}
+		String[] allLocations = getAllLocations();
+		for (int i = allLocations.length - 1; i >= 0; i--) {
+			sources.addLast(loadPropertySource(allLocations[i]));
+		}
+		if (searchSystemProperties) {
+			sources.addLast(new PropertiesPropertySource(PropertiesPropertySource.SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME, System.getProperties()));
+		}
+		if (searchSystemEnvironment) {
+			sources.addLast(new SystemEnvironmentPropertySource(SystemEnvironmentPropertySource.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME, System.getenv()));
+		}
+		return sources;
+	}
+
+	private String[] getAllLocations() {
+		int count = (location != null ? 1 : 0) + (locations != null ? locations.length : 0);
+		String[] result = new String[count];
+		int i = 0;
+		if (location != null) {
+			result[i++] = location;
+		}
+		if (locations != null) {
+			for (String each : locations) {
+				result[i++] = each.trim();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 加载属性配置文件，比如car.properties这个配置文件(设置了car的一些信息)。较大的本地文件通过内存映射读取
+	 *
+	 * @return
+	 */
+	private PropertySource loadPropertySource(String location) {
+		DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
+		Resource resource = resourceLoader.getResource(location);	//在配置文件中通过property标签的value设置classpath，然后后续属性填充设置属性location的值
+		if (resource instanceof FileSystemResource) {
+			File file = new File(((FileSystemResource) resource).getPath());
+			if (file.isFile() && file.length() >= memoryMapThreshold) {
+				return new MemoryMappedPropertySource(location, file.toPath());
+			}
+		}
+		try (InputStream inputStream = resource.getInputStream()) {
 			Properties properties = new Properties();
-			properties.load(resource.getInputStream());
-			return properties;
+			properties.load(inputStream);
+			return new PropertiesPropertySource(location, properties);
 		} catch (IOException e) {
 			throw new BeansException("Could not load properties", e);
 		}
@@ -57,14 +181,36 @@ public class PropertyPlaceholderConfigurer implements BeanFactoryPostProcessor {
 	 * 属性值替换占位符
 	 *
 	 * @param beanFactory
-	 * @param properties
+	 * @param placeholderResolver
 	 * @throws BeansException
 	 */
-	private void processProperties(ConfigurableListableBeanFactory beanFactory, Properties properties) throws BeansException {
+	private void processProperties(ConfigurableListableBeanFactory beanFactory, PlaceholderResolver placeholderResolver) throws BeansException {
 		String[] beanDefinitionNames = beanFactory.getBeanDefinitionNames();
 		for (String beanName : beanDefinitionNames) {
 			BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
-			resolvePropertyValues(beanDefinition, properties);
+			resolvePropertyValues(beanName, beanDefinition, placeholderResolver);
+		}
+	}
+
+	/**
+	 * 解析单个BeanDefinition中的占位符并记录绑定，替换原有的绑定。用于配置加载完成之后新注册或者被替换的BeanDefinition
+	 *
+	 * @throws BeansException 配置还没有应用到bean工厂 或者 有无法解析的占位符
+	 */
+	public synchronized void processBeanDefinition(String beanName, BeanDefinition beanDefinition) throws BeansException {
+		if (beanFactory == null) {
+			throw new BeansException("PropertyPlaceholderConfigurer has not been applied to a bean factory yet");
+		}
+		bindingRegistry.unregisterBeanDefinition(beanName);
+		resolvePropertyValues(beanName, beanDefinition, placeholderResolver);
+	}
+
+	/**
+	 * BeanDefinition被删除，移除其中属性的绑定
+	 */
+	public void removeBeanDefinition(String beanName) {
+		if (bindingRegistry != null) {
+			bindingRegistry.unregisterBeanDefinition(beanName);
 		}
 	}
 
@@ -75,46 +221,209 @@ public class PropertyPlaceholderConfigurer implements BeanFactoryPostProcessor {
 	 支持SpEL表达式：除了简单的占位符替换，还可能支持Spring Expression Language (SpEL) 表达式的
 	 		求值。
 	 */
-	private void resolvePropertyValues(BeanDefinition beanDefinition, Properties properties) {
+	private void resolvePropertyValues(String beanName, BeanDefinition beanDefinition, PlaceholderResolver placeholderResolver) {
 		PropertyValues propertyValues = beanDefinition.getPropertyValues();
-		for (PropertyValue propertyValue : propertyValues.getPropertyValues()) {
+		for (PropertyValue propertyValue : propertyValues) {
 			Object value = propertyValue.getValue();
 			if (value instanceof String) {
-				value = resolvePlaceholder((String) value, properties);
-				propertyValues.addPropertyValue(new PropertyValue(propertyValue.getName(), value));
+				String resolved = resolvePlaceholder((String) value, placeholderResolver);
+				if (resolved != value) {
+					propertyValues.addPropertyValue(new PropertyValue(propertyValue.getName(), resolved));
+					bindingRegistry.registerPropertyBinding(beanName, propertyValue.getName(), (String) value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 重新加载所有属性源，找出变化的属性，只为用到这些属性的bean属性和@Value字段重新解析占位符、经过ConversionService转换后重新注入。
+	 * 配置文件中的bean属性同时更新BeanDefinition，之后创建的bean使用新值
+	 *
+	 * @return 变化的属性以及被重新注入的bean
+	 * @throws BeansException
+	 */
+	public synchronized RefreshResult refreshProperties() throws BeansException {
+		if (beanFactory == null) {
+			throw new BeansException("PropertyPlaceholderConfigurer has not been applied to a bean factory yet");
+		}
+		PropertySourcesIndex previous = this.propertySourcesIndex;
+		PropertySourcesIndex current = PropertySourcesIndex.build(buildPropertySources());
+		Set<String> changedKeys = previous.diff(current);
+		if (changedKeys.isEmpty()) {
+			return new RefreshResult(changedKeys, Collections.emptySet());
+		}
+		this.propertySourcesIndex = current;
+
+		//值中的占位符也可能发生了变化，清空模板缓存
+		templateCache.clear();
+
+		//先解析所有受影响的表达式，有无法解析的占位符时恢复原来的属性，不做任何注入
+		List<PlaceholderBinding> bindings = new ArrayList<>(bindingRegistry.getBindings(changedKeys));
+		String[] values = new String[bindings.size()];
+		try {
+			for (int i = 0; i < values.length; i++) {
+				values[i] = resolvePlaceholder(bindings.get(i).getExpression(), placeholderResolver);
+			}
+		} catch (BeansException e) {
+			this.propertySourcesIndex = previous;
+			templateCache.clear();
+			throw e;
+		}
+
+		bindingRegistry.propertiesChanged();
+
+		Set<String> updatedBeanNames = new LinkedHashSet<>();
+		for (int i = 0; i < values.length; i++) {
+			PlaceholderBinding binding = bindings.get(i);
+			boolean updated = false;
+			if (binding.isFieldBinding()) {
+				FieldAccessor.setFieldValue(binding.getBean(), binding.getField(), values[i], beanFactory.getConversionService());
+				updated = true;
+			} else {
+				if (!beanFactory.containsLocalBean(binding.getBeanName())) {
+					continue;
+				}
+				BeanDefinition beanDefinition = beanFactory.getBeanDefinition(binding.getBeanName());
+				beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue(binding.getPropertyName(), values[i]));
+				//还没有创建的bean只更新BeanDefinition；代理的字段不会被使用，写到目标对象上
+				Object bean = beanFactory.getSingleton(binding.getBeanName());
+				Object target = bean != null ? AopProxyUtils.getTarget(bean) : null;
+				Field field = target != null ? IntrospectionCache.getField(target.getClass(), binding.getPropertyName()) : null;
+				if (field != null) {
+					FieldAccessor.setFieldValue(target, field, values[i], beanFactory.getConversionService());
+					updated = true;
+				}
+			}
+			bindingRegistry.rebind(binding);
+			if (updated) {
+				updatedBeanNames.add(binding.getBeanName());
+			}
+		}
+		//合并后的子定义引用的是更新前的属性，重新合并
+		beanFactory.clearMetadataCache();
+		return new RefreshResult(changedKeys, updatedBeanNames);
+	}
+
+	/**
+	 * 计算表达式解析时查找过的属性名，包括嵌套占位符和属性值中的占位符
+	 */
+	private Set<String> extractKeys(String expression) {
+		PlaceholderTemplate template = getTemplate(expression);
+		if (!template.hasPlaceholders()) {
+			return Collections.emptySet();
+		}
+		Set<String> keys = new LinkedHashSet<>();
+		try {
+			template.render(key -> {
+				keys.add(key);
+				return propertySourcesIndex.getProperty(key);
+			}, templateLookup);
+		} catch (BeansException e) {
+			//无法解析的占位符也记录下来，属性出现后可以重新注入
+		}
+		return keys;
+	}
+
+	/**
+	 * 本地文件形式的属性文件，可以监听这些文件的变化
+	 */
+	protected List<File> getLocationFiles() {
+		List<File> files = new ArrayList<>();
+		DefaultResourceLoader resourceLoader = new DefaultResourceLoader();
+		for (String each : getAllLocations()) {
+			try {
+				files.add(resourceLoader.getResource(each).getFile());
+			} catch (IOException e) {
+				//不在文件系统中的资源无法监听
 			}
 		}
+		return files;
+	}
+
+	//下面的代码就是用于处理"${}"形式的占位符。字符串第一次出现时解析成模板并缓存，之后只做渲染
+	private String resolvePlaceholder(String value, PlaceholderResolver placeholderResolver) {
+		if (value.indexOf(PLACEHOLDER_PREFIX) == -1) {
+			return value;
+		}
+		return getTemplate(value).render(placeholderResolver, templateLookup);
 	}
 
-	//下面的代码就是用于处理"${}"形式的占位符。其实就是拿出${}中的字段名，然后从properties文件中去取这个变量的值
-	private String resolvePlaceholder(String value, Properties properties) {
-		//TODO 仅简单支持一个占位符的格式
-		String strVal = value;
-		StringBuffer buf = new StringBuffer(strVal);
-		int startIndex = strVal.indexOf(PLACEHOLDER_PREFIX);
-		int endIndex = strVal.indexOf(PLACEHOLDER_SUFFIX);
-		if (startIndex != -1 && endIndex != -1 && startIndex < endIndex) {	//如果验证通过则去Properties查找指定的键值
-			String propKey = strVal.substring(startIndex + 2, endIndex);
-			String propVal = properties.getProperty(propKey);
-			buf.replace(startIndex, endIndex + 1, propVal);
+	private PlaceholderTemplate getTemplate(String value) {
+		if (value.indexOf(PLACEHOLDER_PREFIX) == -1) {
+			//不包含占位符，模板只有一个文本片段，不缓存
+			return PlaceholderTemplate.compile(value);
+		}
+		PlaceholderTemplate template = templateCache.get(value);
+		if (template == null) {
+			template = templateCache.computeIfAbsent(value, PlaceholderTemplate::compile);
 		}
-		return buf.toString();
+		return template;
 	}
 
 	public void setLocation(String location) {
 		this.location = location;
 	}
 
+	public void setLocations(String[] locations) {
+		this.locations = locations;
+	}
+
+	public void setSearchSystemProperties(boolean searchSystemProperties) {
+		this.searchSystemProperties = searchSystemProperties;
+	}
+
+	public void setSearchSystemEnvironment(boolean searchSystemEnvironment) {
+		this.searchSystemEnvironment = searchSystemEnvironment;
+	}
+
+	public void setMemoryMapThreshold(long memoryMapThreshold) {
+		this.memoryMapThreshold = memoryMapThreshold;
+	}
+
+	/**
+	 * 额外的属性源，优先级高于属性文件
+	 */
+	public void setPropertySources(MutablePropertySources propertySources) {
+		this.propertySources = propertySources;
+	}
+
+	/**
+	 * 重新加载属性的结果
+	 */
+	public static final class RefreshResult {
+
+		private final Set<String> changedKeys;
+
+		private final Set<String> updatedBeanNames;
+
+		private RefreshResult(Set<String> changedKeys, Set<String> updatedBeanNames) {
+			this.changedKeys = Collections.unmodifiableSet(changedKeys);
+			this.updatedBeanNames = Collections.unmodifiableSet(updatedBeanNames);
+		}
+
+		public Set<String> getChangedKeys() {
+			return changedKeys;
+		}
+
+		public Set<String> getUpdatedBeanNames() {
+			return updatedBeanNames;
+		}
+
+		public boolean hasChanges() {
+			return !changedKeys.isEmpty();
+		}
+	}
+
 	private class PlaceholderResolvingStringValueResolver implements StringValueResolver {
 
-		private final Properties properties;
+		private final PlaceholderResolver placeholderResolver;
 
-		public PlaceholderResolvingStringValueResolver(Properties properties) {
-			this.properties = properties;
+		public PlaceholderResolvingStringValueResolver(PlaceholderResolver placeholderResolver) {
+			this.placeholderResolver = placeholderResolver;
 		}
 
 		public String resolveStringValue(String strVal) throws BeansException {
-			return PropertyPlaceholderConfigurer.this.resolvePlaceholder(strVal, properties);
+			return PropertyPlaceholderConfigurer.this.resolvePlaceholder(strVal, placeholderResolver);
 		}
 	}
 }
@@ -0,0 +1,13 @@
+package org.springframework.beans.factory;
+
+/**
+ * 需要预热的bean。容器在所有单例创建完成后、发布ContextReadyEvent之前，多次调用{@link #warmUp()}，
+ * 让热点代码在接收真实请求之前就被JIT编译。也可以在xml中通过warm-up-method属性指定预热方法
+ */
+public interface WarmableBean {
+
+	/**
+	 * 预热例程，会被调用多次，需要是幂等的、没有外部副作用的
+	 */
+	void warmUp() throws Exception;
+}
@@ -1,16 +1,39 @@
 package org.springframework.beans.factory.annotation;
 
-import cn.hutool.core.bean.BeanUtil;
-import cn.hutool.core.util.TypeUtil;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.FieldAccessor;
 import org.springframework.beans.PropertyValues;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.annotation.InjectionMetadata.InjectedElement;
+import org.springframework.beans.factory.annotation.InjectionMetadata.InjectionKind;
 import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.beans.factory.config.PlaceholderBindingRegistry;
 import org.springframework.core.convert.ConversionService;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 处理@Autowired和@Value注解的BeanPostProcessor
@@ -20,59 +43,111 @@ import java.lang.reflect.Field;
  */
 public class AutowiredAnnotationBeanPostProcessor implements InstantiationAwareBeanPostProcessor, BeanFactoryAware {
 
+	/**
+	 * 转换结果可以在实例之间共享的类型
+	 */
+	private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+			String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+			Float.class, Double.class, BigInteger.class, BigDecimal.class, Class.class,
+			Instant.class, Duration.class, Period.class, LocalDate.class, LocalTime.class, LocalDateTime.class,
+			OffsetTime.class, OffsetDateTime.class, ZonedDateTime.class, Year.class, YearMonth.class, MonthDay.class));
+
 	private ConfigurableListableBeanFactory beanFactory;
 
+	private PlaceholderBindingRegistry bindingRegistry;
+
+	private volatile ValueCache valueCache;
+
+	private final Map<Class<?>, InjectionMetadata> injectionMetadataCache = new ConcurrentHashMap<>();
+
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
 		this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+		Object registry = this.beanFactory.getSingleton(PlaceholderBindingRegistry.PLACEHOLDER_BINDING_REGISTRY_BEAN_NAME);
+		if (registry instanceof PlaceholderBindingRegistry) {
+			this.bindingRegistry = (PlaceholderBindingRegistry) registry;
+		}
 	}
 
 	@Override	//处理@Value和@Autowired注解
 	public PropertyValues postProcessPropertyValues(PropertyValues pvs, Object bean, String beanName) throws BeansException {
-		//处理@Value注解
-		Class<?> clazz = bean.getClass();
-		Field[] fields = clazz.getDeclaredFields();
-		for (Field field : fields) {		//遍历所有的字段，判断是不是有value注解
-			Value valueAnnotation = field.getAnnotation(Value.class);
-			if (valueAnnotation != null) {
-				Object value = valueAnnotation.value();
-				value = beanFactory.resolveEmbeddedValue((String) value);
-
-				//类型转换
-				Class<?> sourceType = value.getClass();		//计算property文件中value的类型
-				Class<?> targetType = (Class<?>) TypeUtil.getType(field);	//拿到该字段的类型
-				ConversionService conversionService = beanFactory.getConversionService();
-				if (conversionService != null) {
-					if (conversionService.canConvert(sourceType, targetType)) {
-						value = conversionService.convert(value, targetType);
-					}
+		InjectionMetadata metadata = findInjectionMetadata(bean.getClass());
+		for (InjectedElement element : metadata.getElements()) {
+			Field field = element.getField();
+			if (element.getKind() == InjectionKind.VALUE) {
+				//处理@Value注解
+				String expression = element.getExpression();
+				ResolvedValue resolved = resolveValue(expression, field);
+				if (resolved.shareable) {
+					//转换结果不可变，直接赋值
+					FieldAccessor.writeField(bean, field, resolved.value);
+				} else {
+					//类型转换后赋值，原始类型字段直接转换并赋值，不经过装箱
+					FieldAccessor.setFieldValue(bean, field, resolved.value, beanFactory.getConversionService());
 				}
 
-				BeanUtil.setFieldValue(bean, field.getName(), value);
-			}
-		}
-
-		//处理@Autowired注解
-		for (Field field : fields) {	//遍历所有的字段
-			Autowired autowiredAnnotation = field.getAnnotation(Autowired.class);	//拿到该字段的Autowired注解
-			if (autowiredAnnotation != null) {	//如果不是空，则说明该字段有Autowired注解，进入处理逻辑
-				Class<?> fieldType = field.getType();	//拿到该字段的类型
-				String dependentBeanName = null;
-				Qualifier qualifierAnnotation = field.getAnnotation(Qualifier.class);	//拿到该字段的Qualifier注解
-				Object dependentBean = null;
-				if (qualifierAnnotation != null) {
-					dependentBeanName = qualifierAnnotation.value();
-					dependentBean = beanFactory.getBean(dependentBeanName, fieldType);	//如果有Qualifier注解，则根据Qualifier注解的值(bean的名称) 以及 类型去三级缓存获取bean
+				//记录单例bean的字段用到了哪些属性，属性变化时只重新注入这些字段
+				if (bindingRegistry != null && beanFactory.getMergedBeanDefinition(beanName).isSingleton()) {
+					bindingRegistry.registerFieldBinding(beanName, bean, field, expression);
+				}
+			} else {
+				//处理@Autowired注解
+				Object dependentBean;
+				String dependentBeanName = element.getQualifier();
+				if (dependentBeanName != null) {
+					dependentBean = beanFactory.getBean(dependentBeanName, element.getFieldType());	//如果有Qualifier注解，则根据Qualifier注解的值(bean的名称) 以及 类型去三级缓存获取bean
 				} else {
-					dependentBean = beanFactory.getBean(fieldType);	//否则话按照bean的类型去获取
+					dependentBean = beanFactory.getBean(element.getFieldType());	//否则话按照bean的类型去获取
 				}
-				BeanUtil.setFieldValue(bean, field.getName(), dependentBean);
+				FieldAccessor.writeField(bean, field, dependentBean);
 			}
 		}
-
 		return pvs;
 	}
 
+	/**
+	 * 获取类的注入元数据，每个类只解析一次
+	 */
+	private InjectionMetadata findInjectionMetadata(Class<?> clazz) {
+		InjectionMetadata metadata = injectionMetadataCache.get(clazz);
+		if (metadata == null) {
+			metadata = injectionMetadataCache.computeIfAbsent(clazz, InjectionMetadata::forClass);
+		}
+		return metadata;
+	}
+
+	/**
+	 * 解析@Value的表达式并转换为字段类型，结果按(表达式, 字段类型)缓存。转换结果是不可变对象时缓存转换后的值，
+	 * 否则(比如集合、数组)只缓存解析后的字符串，每个实例各自转换
+	 */
+	private ResolvedValue resolveValue(String expression, Field field) {
+		ConversionService conversionService = beanFactory.getConversionService();
+		long version = bindingRegistry != null ? bindingRegistry.getPropertiesVersion() : 0;
+		ValueCache cache = this.valueCache;
+		if (cache == null || cache.version != version || cache.conversionService != conversionService) {
+			//属性发生变化或者类型转换服务已更换，缓存失效
+			cache = new ValueCache(version, conversionService);
+			this.valueCache = cache;
+		}
+		ValueCacheKey key = new ValueCacheKey(expression, field.getGenericType());
+		ResolvedValue resolved = cache.values.get(key);
+		if (resolved == null) {
+			String value = beanFactory.resolveEmbeddedValue(expression);
+			Object converted = FieldAccessor.convertForField(field, value, conversionService);
+			resolved = isImmutable(converted) ? new ResolvedValue(converted, true) : new ResolvedValue(value, false);
+			cache.values.put(key, resolved);
+		}
+		return resolved;
+	}
+
+	private static boolean isImmutable(Object value) {
+		if (value == null) {
+			return true;
+		}
+		//按具体类型判断，BigInteger、BigDecimal的子类可能是可变的。ZoneId的实现类不是公开的
+		return IMMUTABLE_TYPES.contains(value.getClass()) || value instanceof Enum || value instanceof ZoneId;
+	}
+
 	@Override
 	public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
 		return null;
@@ -92,4 +167,58 @@ public class AutowiredAnnotationBeanPostProcessor implements InstantiationAwareB
 	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
 		return null;
 	}
+
+	private static final class ValueCache {
+
+		private final long version;
+
+		private final ConversionService conversionService;
+
+		private final Map<ValueCacheKey, ResolvedValue> values = new ConcurrentHashMap<>();
+
+		private ValueCache(long version, ConversionService conversionService) {
+			this.version = version;
+			this.conversionService = conversionService;
+		}
+	}
+
+	private static final class ValueCacheKey {
+
+		private final String expression;
+
+		private final Type targetType;
+
+		private ValueCacheKey(String expression, Type targetType) {
+			this.expression = expression;
+			this.targetType = targetType;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof ValueCacheKey)) return false;
+			ValueCacheKey that = (ValueCacheKey) o;
+			return expression.equals(that.expression) && targetType.equals(that.targetType);
+		}
+
+		@Override
+		public int hashCode() {
+			return expression.hashCode() * 31 + targetType.hashCode();
+		}
+	}
+
+	private static final class ResolvedValue {
+
+		/**
+		 * 可以共享时是转换后的值，否则是解析后的字符串
+		 */
+		private final Object value;
+
+		private final boolean shareable;
+
+		private ResolvedValue(Object value, boolean shareable) {
+			this.value = value;
+			this.shareable = shareable;
+		}
+	}
 }
@@ -0,0 +1,141 @@
+package org.springframework.beans.factory.annotation;
+
+import org.springframework.util.IntrospectionCache;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一个类的注入元数据：类及其所有父类中带有@Value和@Autowired注解的字段。每个类只解析一次，
+ * 字段已经设置为可访问，注入时只需要按顺序遍历
+ *
+ * @see AutowiredAnnotationBeanPostProcessor
+ */
+public final class InjectionMetadata {
+
+	public static final InjectionMetadata EMPTY = new InjectionMetadata(Object.class, new InjectedElement[0]);
+
+	private final Class<?> targetClass;
+
+	private final InjectedElement[] elements;
+
+	private InjectionMetadata(Class<?> targetClass, InjectedElement[] elements) {
+		this.targetClass = targetClass;
+		this.elements = elements;
+	}
+
+	/**
+	 * 解析类的注入元数据。父类的字段排在子类前面；所有@Value字段排在@Autowired字段前面
+	 */
+	public static InjectionMetadata forClass(Class<?> clazz) {
+		List<Class<?>> hierarchy = new ArrayList<>();
+		for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+			hierarchy.add(0, current);
+		}
+		List<InjectedElement> valueElements = new ArrayList<>();
+		List<InjectedElement> autowiredElements = new ArrayList<>();
+		for (Class<?> current : hierarchy) {
+			for (Field field : IntrospectionCache.getDeclaredFields(current)) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				Value valueAnnotation = field.getAnnotation(Value.class);
+				if (valueAnnotation != null) {
+					field.setAccessible(true);
+					valueElements.add(new InjectedElement(InjectionKind.VALUE, field, valueAnnotation.value()));
+				}
+				if (field.getAnnotation(Autowired.class) != null) {
+					Qualifier qualifierAnnotation = field.getAnnotation(Qualifier.class);
+					field.setAccessible(true);
+					autowiredElements.add(new InjectedElement(InjectionKind.AUTOWIRED, field,
+							qualifierAnnotation != null ? qualifierAnnotation.value() : null));
+				}
+			}
+		}
+		if (valueElements.isEmpty() && autowiredElements.isEmpty()) {
+			return EMPTY;
+		}
+		valueElements.addAll(autowiredElements);
+		return new InjectionMetadata(clazz, valueElements.toArray(new InjectedElement[0]));
+	}
+
+	public Class<?> getTargetClass() {
+		return targetClass;
+	}
+
+	public InjectedElement[] getElements() {
+		return elements;
+	}
+
+	public boolean isEmpty() {
+		return elements.length == 0;
+	}
+
+	/**
+	 * 注入方式
+	 */
+	public enum InjectionKind {
+
+		/**
+		 * @Value，注入解析后的属性值
+		 */
+		VALUE,
+
+		/**
+		 * @Autowired，注入依赖的bean
+		 */
+		AUTOWIRED
+	}
+
+	/**
+	 * 一个注入点
+	 */
+	public static final class InjectedElement {
+
+		private final InjectionKind kind;
+
+		private final Field field;
+
+		private final Class<?> fieldType;
+
+		/**
+		 * @Value的表达式 或者 @Qualifier指定的bean名称
+		 */
+		private final String attribute;
+
+		private InjectedElement(InjectionKind kind, Field field, String attribute) {
+			this.kind = kind;
+			this.field = field;
+			this.fieldType = field.getType();
+			this.attribute = attribute;
+		}
+
+		public InjectionKind getKind() {
+			return kind;
+		}
+
+		public Field getField() {
+			return field;
+		}
+
+		public Class<?> getFieldType() {
+			return fieldType;
+		}
+
+		/**
+		 * @return @Value的表达式
+		 */
+		public String getExpression() {
+			return attribute;
+		}
+
+		/**
+		 * @return @Qualifier指定的bean名称，没有时返回null
+		 */
+		public String getQualifier() {
+			return attribute;
+		}
+	}
+}
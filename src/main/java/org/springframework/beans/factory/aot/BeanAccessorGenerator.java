@@ -0,0 +1,278 @@
+package org.springframework.beans.factory.aot;
+
+import cn.hutool.core.convert.BasicType;
+import cn.hutool.core.util.StrUtil;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 构建时运行的代码生成器：读取BeanDefinition，为每个bean类生成{@link GeneratedBeanAccessor}的源码，
+ * 再生成一个{@link BeanAccessorRegistrar}和对应的META-INF/services文件。生成的源码和应用一起编译后，
+ * 工厂创建bean时用直接调用代替反射。
+ * <p>
+ * 只为public、非抽象、有public无参构造器的类生成。属性与反射注入一样直接写字段，不调用setter：
+ * 只为类型不带泛型的public、非final的实例字段生成赋值代码，其他字段仍然通过反射赋值；初始化方法只为定义中出现的方法生成调用代码
+ */
+public class BeanAccessorGenerator {
+
+	public static final String ACCESSOR_SUFFIX = "__BeanAccessor";
+
+	public static final String SERVICES_FILE = "META-INF/services/" + BeanAccessorRegistrar.class.getName();
+
+	private final String registrarClassName;
+
+	public BeanAccessorGenerator(String registrarClassName) {
+		this.registrarClassName = registrarClassName;
+	}
+
+	/**
+	 * 用法：BeanAccessorGenerator &lt;xml配置&gt; &lt;源码目录&gt; &lt;资源目录&gt; &lt;注册类全名&gt;
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 4) {
+			System.err.println("Usage: BeanAccessorGenerator <configLocation> <sourceDirectory> <resourceDirectory> <registrarClassName>");
+			System.exit(1);
+		}
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(args[0]);
+		List<String> generated = new BeanAccessorGenerator(args[3]).generate(beanFactory, new File(args[1]), new File(args[2]));
+		System.out.println("Generated " + generated.size() + " bean accessors");
+	}
+
+	/**
+	 * 生成源码和services文件
+	 *
+	 * @return 生成的访问器类名，按bean定义的顺序排列
+	 * @throws BeansException 找不到bean类
+	 */
+	public List<String> generate(ConfigurableListableBeanFactory beanFactory, File sourceDirectory, File resourceDirectory)
+			throws IOException, BeansException {
+		Map<Class<?>, Set<String>> methodNamesByClass = new LinkedHashMap<>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition beanDefinition = beanFactory.getMergedBeanDefinition(beanName);
+			if (beanDefinition.isAbstract() || beanDefinition.getBeanClassName() == null) {
+				continue;
+			}
+			Class<?> beanClass = beanDefinition.getBeanClass();
+			if (!isGeneratable(beanClass)) {
+				continue;
+			}
+			Set<String> methodNames = methodNamesByClass.computeIfAbsent(beanClass, k -> new LinkedHashSet<>());
+			if (StrUtil.isNotEmpty(beanDefinition.getInitMethodName())) {
+				methodNames.add(beanDefinition.getInitMethodName());
+			}
+		}
+
+		Map<Class<?>, String> accessorNames = new LinkedHashMap<>();
+		for (Map.Entry<Class<?>, Set<String>> entry : methodNamesByClass.entrySet()) {
+			Class<?> beanClass = entry.getKey();
+			String accessorName = getAccessorClassName(beanClass);
+			writeSource(sourceDirectory, accessorName, generateAccessor(beanClass, accessorName, entry.getValue()));
+			accessorNames.put(beanClass, accessorName);
+		}
+		writeSource(sourceDirectory, registrarClassName, generateRegistrar(accessorNames));
+		writeServicesFile(resourceDirectory);
+		return new ArrayList<>(accessorNames.values());
+	}
+
+	/**
+	 * 访问器和bean类在同一个包中，嵌套类的$替换为_
+	 */
+	public static String getAccessorClassName(Class<?> beanClass) {
+		return beanClass.getName().replace('$', '_') + ACCESSOR_SUFFIX;
+	}
+
+	private static boolean isGeneratable(Class<?> beanClass) {
+		if (!isAccessible(beanClass) || beanClass.isInterface() || Modifier.isAbstract(beanClass.getModifiers())) {
+			return false;
+		}
+		try {
+			return Modifier.isPublic(beanClass.getConstructor().getModifiers());
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * 生成的类由其他类加载器加载时，只能访问public的类型
+	 */
+	private static boolean isAccessible(Class<?> type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive()) {
+			return true;
+		}
+		for (Class<?> current = type; current != null; current = current.getDeclaringClass()) {
+			if (!Modifier.isPublic(current.getModifiers()) || current.isAnonymousClass() || current.isLocalClass()
+					|| (current.isMemberClass() && !Modifier.isStatic(current.getModifiers()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 属性名到可以直接赋值的字段：public、非静态、非final、类型不带泛型。父类和子类有同名字段时不生成
+	 */
+	private static Map<String, Field> findWritableFields(Class<?> beanClass) {
+		Map<String, Field> fields = new TreeMap<>();
+		Set<String> hidden = new HashSet<>();
+		for (Field field : beanClass.getFields()) {
+			int modifiers = field.getModifiers();
+			if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+				continue;
+			}
+			if (fields.put(field.getName(), field) != null) {
+				hidden.add(field.getName());
+			}
+		}
+		fields.keySet().removeAll(hidden);
+		fields.values().removeIf(field -> {
+			Type fieldType = field.getGenericType();
+			return !(fieldType instanceof Class) || !isAccessible((Class<?>) fieldType);
+		});
+		return fields;
+	}
+
+	private String generateAccessor(Class<?> beanClass, String accessorName, Set<String> methodNames) {
+		String beanType = beanClass.getCanonicalName();
+		Map<String, Field> fields = findWritableFields(beanClass);
+		List<String> initMethods = new ArrayList<>();
+		for (String methodName : methodNames) {
+			try {
+				if (beanClass.getMethod(methodName).getParameterCount() == 0) {
+					initMethods.add(methodName);
+				}
+			} catch (NoSuchMethodException e) {
+				//找不到方法时由工厂在创建bean时报错
+			}
+		}
+
+		StringBuilder source = new StringBuilder();
+		appendHeader(source, accessorName);
+		source.append("public final class ").append(getSimpleName(accessorName))
+				.append(" implements ").append(GeneratedBeanAccessor.class.getName()).append(" {\n\n");
+
+		source.append("\t@Override\n");
+		source.append("\tpublic Object newInstance() {\n");
+		source.append("\t\treturn new ").append(beanType).append("();\n");
+		source.append("\t}\n\n");
+
+		source.append("\t@Override\n");
+		source.append("\tpublic Class<?> getPropertyType(String propertyName) {\n");
+		source.append("\t\tswitch (propertyName) {\n");
+		for (Map.Entry<String, Field> entry : fields.entrySet()) {
+			source.append("\t\t\tcase \"").append(entry.getKey()).append("\":\n");
+			source.append("\t\t\t\treturn ").append(getTypeName(BasicType.wrap(entry.getValue().getType()))).append(".class;\n");
+		}
+		source.append("\t\t\tdefault:\n");
+		source.append("\t\t\t\treturn null;\n");
+		source.append("\t\t}\n");
+		source.append("\t}\n\n");
+
+		source.append("\t@Override\n");
+		source.append("\tpublic void setPropertyValue(Object bean, String propertyName, Object value) {\n");
+		source.append("\t\t").append(beanType).append(" target = (").append(beanType).append(") bean;\n");
+		source.append("\t\tswitch (propertyName) {\n");
+		for (Map.Entry<String, Field> entry : fields.entrySet()) {
+			Field field = entry.getValue();
+			source.append("\t\t\tcase \"").append(entry.getKey()).append("\":\n");
+			source.append("\t\t\t\ttarget.").append(field.getName()).append(" = (")
+					.append(getTypeName(BasicType.wrap(field.getType()))).append(") value;\n");
+			source.append("\t\t\t\tbreak;\n");
+		}
+		source.append("\t\t\tdefault:\n");
+		source.append("\t\t\t\tthrow new IllegalArgumentException(\"No generated field write for property '\" + propertyName + \"'\");\n");
+		source.append("\t\t}\n");
+		source.append("\t}\n\n");
+
+		source.append("\t@Override\n");
+		source.append("\tpublic boolean invokeMethod(Object bean, String methodName) throws Exception {\n");
+		source.append("\t\tif (!(bean instanceof ").append(beanType).append(")) {\n");
+		source.append("\t\t\treturn false;\n");
+		source.append("\t\t}\n");
+		source.append("\t\tswitch (methodName) {\n");
+		for (String methodName : initMethods) {
+			source.append("\t\t\tcase \"").append(methodName).append("\":\n");
+			source.append("\t\t\t\t((").append(beanType).append(") bean).").append(methodName).append("();\n");
+			source.append("\t\t\t\treturn true;\n");
+		}
+		source.append("\t\t\tdefault:\n");
+		source.append("\t\t\t\treturn false;\n");
+		source.append("\t\t}\n");
+		source.append("\t}\n");
+		source.append("}\n");
+		return source.toString();
+	}
+
+	private String generateRegistrar(Map<Class<?>, String> accessorNames) {
+		StringBuilder source = new StringBuilder();
+		appendHeader(source, registrarClassName);
+		source.append("public final class ").append(getSimpleName(registrarClassName))
+				.append(" implements ").append(BeanAccessorRegistrar.class.getName()).append(" {\n\n");
+		source.append("\t@Override\n");
+		source.append("\tpublic void registerBeanAccessors(org.springframework.beans.factory.support.AbstractAutowireCapableBeanFactory beanFactory) {\n");
+		for (Map.Entry<Class<?>, String> entry : accessorNames.entrySet()) {
+			source.append("\t\tbeanFactory.registerGeneratedBeanAccessor(").append(entry.getKey().getCanonicalName())
+					.append(".class, new ").append(entry.getValue()).append("());\n");
+		}
+		source.append("\t}\n");
+		source.append("}\n");
+		return source.toString();
+	}
+
+	private static void appendHeader(StringBuilder source, String className) {
+		int lastDot = className.lastIndexOf('.');
+		if (lastDot > 0) {
+			source.append("package ").append(className, 0, lastDot).append(";\n\n");
+		}
+		source.append("/**\n * Generated by ").append(BeanAccessorGenerator.class.getSimpleName()).append(", do not edit\n */\n");
+	}
+
+	private static String getSimpleName(String className) {
+		return className.substring(className.lastIndexOf('.') + 1);
+	}
+
+	private static String getTypeName(Class<?> type) {
+		return type.getCanonicalName();
+	}
+
+	private static void writeSource(File sourceDirectory, String className, String source) throws IOException {
+		File file = new File(sourceDirectory, className.replace('.', File.separatorChar) + ".java");
+		Files.createDirectories(file.getParentFile().toPath());
+		Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 保留services文件中已有的其他注册类
+	 */
+	private void writeServicesFile(File resourceDirectory) throws IOException {
+		File file = new File(resourceDirectory, SERVICES_FILE);
+		Files.createDirectories(file.getParentFile().toPath());
+		List<String> lines = file.exists() ? new ArrayList<>(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) : new ArrayList<>();
+		if (!lines.contains(registrarClassName)) {
+			lines.add(registrarClassName);
+		}
+		Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+	}
+}
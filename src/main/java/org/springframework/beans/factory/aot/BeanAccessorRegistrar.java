@@ -0,0 +1,11 @@
+package org.springframework.beans.factory.aot;
+
+import org.springframework.beans.factory.support.AbstractAutowireCapableBeanFactory;
+
+/**
+ * 把生成的访问器注册到bean工厂。生成的实现类写在META-INF/services中，通过ServiceLoader发现
+ */
+public interface BeanAccessorRegistrar {
+
+	void registerBeanAccessors(AbstractAutowireCapableBeanFactory beanFactory);
+}
@@ -0,0 +1,33 @@
+package org.springframework.beans.factory.aot;
+
+/**
+ * 构建时为bean类生成的访问器，用直接的构造器调用、字段赋值和方法调用代替反射。
+ * 由{@link BeanAccessorGenerator}生成，工厂创建bean时优先使用，访问器不支持的属性和方法仍然走反射。
+ * 与反射注入一样直接写字段，不调用setter，有无生成的访问器注入行为相同
+ */
+public interface GeneratedBeanAccessor {
+
+	/**
+	 * 调用无参构造器创建实例
+	 */
+	Object newInstance();
+
+	/**
+	 * 属性对应字段的类型，原始类型返回对应的包装类型
+	 *
+	 * @return 没有为该属性生成字段赋值时返回null
+	 */
+	Class<?> getPropertyType(String propertyName);
+
+	/**
+	 * 直接为字段赋值，value已经转换为{@link #getPropertyType(String)}返回的类型
+	 */
+	void setPropertyValue(Object bean, String propertyName, Object value);
+
+	/**
+	 * 调用无参的初始化方法
+	 *
+	 * @return 没有为该方法生成调用代码，或者bean不是访问器对应的类型时返回false
+	 */
+	boolean invokeMethod(Object bean, String methodName) throws Exception;
+}
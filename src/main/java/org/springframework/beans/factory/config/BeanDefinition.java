@@ -1,8 +1,12 @@
 package org.springframework.beans.factory.config;
 
+import cn.hutool.core.util.ClassUtil;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
 import org.springframework.beans.PropertyValues;
 
 import java.util.Objects;
+import java.util.function.Supplier;
 
 /**
  * BeanDefinition实例保存bean的信息，包括class类型、方法构造参数、bean属性、bean的scope等，此处简化只包含class类型和bean属性
@@ -15,9 +19,15 @@ public class BeanDefinition {
 
 
 	 /**
-	  * bean class类
+	  * bean class类。可以先只保存类名(String)，第一次使用时再加载为Class，避免解析配置文件时加载所有的类。
+	  * 容器刷新时查找后处理器、监听器等基础设施bean会跳过懒加载的bean，懒加载bean的类在第一次使用时才加载
 	  */
-	 private Class beanClass;
+	 private volatile Object beanClass;
+
+	 /**
+	  * 函数式注册的bean通过supplier创建实例，不经过反射
+	  */
+	 private Supplier<?> instanceSupplier;
 
 	 /**
 	  * class 属性值
@@ -31,19 +41,47 @@ public class BeanDefinition {
 	  * 销毁方法名称
 	  */
 	private String destroyMethodName;
+	 /**
+	  * 预热方法名称
+	  */
+	private String warmUpMethodName;
 	 /**
 	  * 作用域 默认单例Bean
 	  */
 	private String scope = SCOPE_SINGLETON;
 
-	private boolean singleton = true;
+	private static final byte FLAG_SINGLETON = 1;
+
+	private static final byte FLAG_PROTOTYPE = 1 << 1;
+
+	private static final byte FLAG_LAZY_INIT = 1 << 2;
+
+	private static final byte FLAG_ABSTRACT = 1 << 3;
 
-	private boolean prototype = false;
+	/**
+	 * 显式设置过作用域，子定义没有设置时沿用父定义的作用域
+	 */
+	private static final byte FLAG_SCOPE_SET = 1 << 4;
+
+	/**
+	 * 显式设置过懒加载，子定义没有设置时沿用父定义的懒加载
+	 */
+	private static final byte FLAG_LAZY_INIT_SET = 1 << 5;
+
+	/**
+	 * 单例、原型、懒加载、抽象等标志位合并在一个字节中
+	 */
+	private byte flags = FLAG_SINGLETON;
+
+	/**
+	 * 父BeanDefinition的名称。子定义只保存与父定义不同的配置，使用时与父定义合并
+	 */
+	private String parentName;
 
-	/*/*
-		懒加载
+	/**
+	 * 懒加载单例在后台预热时的优先级，数值越大越先创建
 	 */
-	private boolean lazyInit=false;
+	private int initPriority;
 
 	public BeanDefinition(Class beanClass) {
 		this(beanClass, null);
@@ -55,27 +93,91 @@ public class BeanDefinition {
 	}
 
 	public void setScope(String scope) {
-		this.scope = scope;
-		this.singleton = SCOPE_SINGLETON.equals(scope);
-		this.prototype = SCOPE_PROTOTYPE.equals(scope);
+		this.scope = scope != null ? scope.intern() : null;
+		setFlag(FLAG_SINGLETON, SCOPE_SINGLETON.equals(scope));
+		setFlag(FLAG_PROTOTYPE, SCOPE_PROTOTYPE.equals(scope));
+		setFlag(FLAG_SCOPE_SET, true);
+	}
+
+	public String getScope() {
+		return scope;
 	}
 
 	public boolean isSingleton() {
-		return this.singleton;
+		return (flags & FLAG_SINGLETON) != 0;
 	}
 
 	public boolean isPrototype() {
-		return this.prototype;
+		return (flags & FLAG_PROTOTYPE) != 0;
+	}
+
+	private void setFlag(byte flag, boolean value) {
+		flags = (byte) (value ? flags | flag : flags & ~flag);
 	}
 
-	public Class getBeanClass() {
-		return beanClass;
+	/**
+	 * 返回bean的类，只设置了类名时在这里加载
+	 *
+	 * @throws BeansException 找不到类
+	 */
+	public Class getBeanClass() throws BeansException {
+		Object beanClassObject = this.beanClass;
+		if (beanClassObject == null || beanClassObject instanceof Class) {
+			return (Class) beanClassObject;
+		}
+		return resolveBeanClass();
 	}
 
 	public void setBeanClass(Class beanClass) {
 		this.beanClass = beanClass;
 	}
 
+	/**
+	 * 只设置类名，第一次调用{@link #getBeanClass()}时才加载类
+	 */
+	public void setBeanClassName(String beanClassName) {
+		this.beanClass = beanClassName;
+	}
+
+	public String getBeanClassName() {
+		Object beanClassObject = this.beanClass;
+		return beanClassObject instanceof Class ? ((Class) beanClassObject).getName() : (String) beanClassObject;
+	}
+
+	/**
+	 * 类是否已经加载
+	 */
+	public boolean hasBeanClass() {
+		return this.beanClass instanceof Class;
+	}
+
+	/**
+	 * 加载类但不初始化，静态代码块在第一次创建实例时才执行。多个线程同时加载时得到的是同一个Class
+	 *
+	 * @throws BeansException 找不到类
+	 */
+	public Class resolveBeanClass() throws BeansException {
+		Object beanClassObject = this.beanClass;
+		if (!(beanClassObject instanceof String)) {
+			return (Class) beanClassObject;
+		}
+		try {
+			Class resolved = Class.forName((String) beanClassObject, false, ClassUtil.getClassLoader());
+			this.beanClass = resolved;
+			return resolved;
+		} catch (ClassNotFoundException | LinkageError e) {
+			throw new BeansException("Cannot find class [" + beanClassObject + "]", e);
+		}
+	}
+
+	public Supplier<?> getInstanceSupplier() {
+		return instanceSupplier;
+	}
+
+	public void setInstanceSupplier(Supplier<?> instanceSupplier) {
+		this.instanceSupplier = instanceSupplier;
+	}
+
 	public PropertyValues getPropertyValues() {
 		return propertyValues;
 	}
@@ -89,7 +191,7 @@ public class BeanDefinition {
 	}
 
 	public void setInitMethodName(String initMethodName) {
-		this.initMethodName = initMethodName;
+		this.initMethodName = initMethodName != null ? initMethodName.intern() : null;
 	}
 
 	public String getDestroyMethodName() {
@@ -97,7 +199,40 @@ public class BeanDefinition {
 	}
 
 	public void setDestroyMethodName(String destroyMethodName) {
-		this.destroyMethodName = destroyMethodName;
+		this.destroyMethodName = destroyMethodName != null ? destroyMethodName.intern() : null;
+	}
+
+	/**
+	 * 创建副本，属性集合与原定义共享存储，任何一方修改属性时才复制
+	 */
+	public BeanDefinition copy() {
+		BeanDefinition copy = new BeanDefinition(null, new PropertyValues(propertyValues));
+		copy.beanClass = beanClass;
+		copy.instanceSupplier = instanceSupplier;
+		copy.initMethodName = initMethodName;
+		copy.destroyMethodName = destroyMethodName;
+		copy.warmUpMethodName = warmUpMethodName;
+		copy.scope = scope;
+		copy.flags = flags;
+		copy.parentName = parentName;
+		copy.initPriority = initPriority;
+		return copy;
+	}
+
+	/**
+	 * 配置是否完全相同。函数式注册的supplier无法比较，只比较是否都有supplier
+	 */
+	public boolean hasSameConfiguration(BeanDefinition other) {
+		return Objects.equals(getBeanClassName(), other.getBeanClassName())
+				&& flags == other.flags
+				&& initPriority == other.initPriority
+				&& Objects.equals(scope, other.scope)
+				&& Objects.equals(parentName, other.parentName)
+				&& Objects.equals(initMethodName, other.initMethodName)
+				&& Objects.equals(destroyMethodName, other.destroyMethodName)
+				&& Objects.equals(warmUpMethodName, other.warmUpMethodName)
+				&& (instanceSupplier == null) == (other.instanceSupplier == null)
+				&& propertyValues.hasSameValues(other.propertyValues);
 	}
 
 	@Override
@@ -105,19 +240,80 @@ public class BeanDefinition {
 		if (this == o) return true;
 		if (o == null || getClass() != o.getClass()) return false;
 		BeanDefinition that = (BeanDefinition) o;
-		return beanClass.equals(that.beanClass);
+		return Objects.equals(getBeanClassName(), that.getBeanClassName());
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(beanClass);
+		return Objects.hash(getBeanClassName());
 	}
 
 	public void setLazyInit(boolean b){
-		lazyInit=b;
+		setFlag(FLAG_LAZY_INIT, b);
+		setFlag(FLAG_LAZY_INIT_SET, true);
 	}
 
 	public boolean isLazyInit(){
-		return lazyInit;
+		return (flags & FLAG_LAZY_INIT) != 0;
+	}
+
+	/**
+	 * 抽象的BeanDefinition只作为其他定义的模板，不会被实例化
+	 */
+	public void setAbstract(boolean b) {
+		setFlag(FLAG_ABSTRACT, b);
+	}
+
+	public boolean isAbstract() {
+		return (flags & FLAG_ABSTRACT) != 0;
+	}
+
+	public String getParentName() {
+		return parentName;
+	}
+
+	public void setParentName(String parentName) {
+		this.parentName = parentName;
+	}
+
+	public String getWarmUpMethodName() {
+		return warmUpMethodName;
+	}
+
+	public void setWarmUpMethodName(String warmUpMethodName) {
+		this.warmUpMethodName = warmUpMethodName != null ? warmUpMethodName.intern() : null;
+	}
+
+	public int getInitPriority() {
+		return initPriority;
+	}
+
+	public void setInitPriority(int initPriority) {
+		this.initPriority = initPriority;
+	}
+
+	/**
+	 * 以父定义(已经合并过的)为基础，用当前定义中设置过的配置覆盖，得到新的BeanDefinition。
+	 * 属性集合与父定义共享存储，只有被覆盖时才复制；是否抽象不继承
+	 *
+	 * @param parent 合并后的父定义
+	 * @return 没有父定义名称的BeanDefinition
+	 */
+	public BeanDefinition mergeWithParent(BeanDefinition parent) {
+		PropertyValues mergedPropertyValues = new PropertyValues(parent.getPropertyValues());
+		for (PropertyValue propertyValue : propertyValues) {
+			mergedPropertyValues.addPropertyValue(propertyValue);
+		}
+		BeanDefinition merged = new BeanDefinition(null, mergedPropertyValues);
+		merged.beanClass = beanClass != null ? beanClass : parent.beanClass;
+		merged.instanceSupplier = instanceSupplier != null ? instanceSupplier : parent.instanceSupplier;
+		merged.setScope((flags & FLAG_SCOPE_SET) != 0 ? scope : parent.scope);
+		merged.setLazyInit((flags & FLAG_LAZY_INIT_SET) != 0 ? isLazyInit() : parent.isLazyInit());
+		merged.setAbstract(isAbstract());
+		merged.initMethodName = initMethodName != null ? initMethodName : parent.initMethodName;
+		merged.destroyMethodName = destroyMethodName != null ? destroyMethodName : parent.destroyMethodName;
+		merged.warmUpMethodName = warmUpMethodName != null ? warmUpMethodName : parent.warmUpMethodName;
+		merged.initPriority = initPriority != 0 ? initPriority : parent.initPriority;
+		return merged;
 	}
 }
@@ -0,0 +1,10 @@
+package org.springframework.beans.factory.config;
+
+/**
+ * 函数式注册bean时修改BeanDefinition的回调，比如设置作用域、初始化方法和销毁方法
+ */
+@FunctionalInterface
+public interface BeanDefinitionCustomizer {
+
+	void customize(BeanDefinition beanDefinition);
+}
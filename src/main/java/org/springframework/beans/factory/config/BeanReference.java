@@ -16,4 +16,16 @@ public class BeanReference {
 	public String getBeanName() {
 		return beanName;
 	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		return beanName.equals(((BeanReference) o).beanName);
+	}
+
+	@Override
+	public int hashCode() {
+		return beanName.hashCode();
+	}
 }
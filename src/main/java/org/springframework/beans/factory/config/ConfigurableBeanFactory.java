@@ -1,5 +1,6 @@
 package org.springframework.beans.factory.config;
 
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.HierarchicalBeanFactory;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.util.StringValueResolver;
@@ -10,6 +11,13 @@ import org.springframework.util.StringValueResolver;
  */
 public interface ConfigurableBeanFactory extends HierarchicalBeanFactory, SingletonBeanRegistry {
 
+	/**
+	 * 设置父容器，只能设置一次
+	 *
+	 * @throws org.springframework.beans.BeansException 已经设置了其他父容器
+	 */
+	void setParentBeanFactory(BeanFactory parentBeanFactory);
+
 	/**
 	 * @param beanPostProcessor
 	 */
@@ -0,0 +1,234 @@
+package org.springframework.beans.factory.config;
+
+import org.springframework.core.env.PropertySourcesIndex;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * 记录哪些bean属性和@Value字段用到了哪些占位符属性。属性值变化时根据变化的属性名找到需要重新注入的绑定，
+ * 不需要刷新整个容器。属性名按规范化名称索引，与宽松匹配的属性源保持一致
+ *
+ * @see org.springframework.beans.factory.PropertyPlaceholderConfigurer#refreshProperties()
+ */
+public class PlaceholderBindingRegistry {
+
+	public static final String PLACEHOLDER_BINDING_REGISTRY_BEAN_NAME = "placeholderBindingRegistry";
+
+	/**
+	 * 计算表达式解析时用到的属性名，每个共用这个注册表的配置器一个
+	 */
+	private final List<Function<String, Set<String>>> keyExtractors = new CopyOnWriteArrayList<>();
+
+	private final Map<String, Set<PlaceholderBinding>> bindingsByKey = new ConcurrentHashMap<>();
+
+	private final Map<PlaceholderBinding, Set<String>> keysByBinding = new ConcurrentHashMap<>();
+
+	/**
+	 * bean名称到@Value字段的绑定，这些绑定持有bean实例，bean销毁时需要移除
+	 */
+	private final Map<String, Set<PlaceholderBinding>> fieldBindingsByBean = new ConcurrentHashMap<>();
+
+	/**
+	 * bean名称到配置文件中属性的绑定，BeanDefinition被替换或者删除时需要移除
+	 */
+	private final Map<String, Set<PlaceholderBinding>> propertyBindingsByBean = new ConcurrentHashMap<>();
+
+	/**
+	 * 属性源的版本，每次属性发生变化时递增。缓存了解析结果的地方据此判断缓存是否失效
+	 */
+	private volatile long propertiesVersion;
+
+	public PlaceholderBindingRegistry(Function<String, Set<String>> keyExtractor) {
+		this.keyExtractors.add(keyExtractor);
+	}
+
+	/**
+	 * 另一个配置器共用这个注册表，之后注册的绑定同时记录它计算出的属性名
+	 */
+	public void addKeyExtractor(Function<String, Set<String>> keyExtractor) {
+		this.keyExtractors.add(keyExtractor);
+	}
+
+	/**
+	 * 记录@Value字段的绑定
+	 */
+	public void registerFieldBinding(String beanName, Object bean, Field field, String expression) {
+		PlaceholderBinding binding = new PlaceholderBinding(beanName, bean, field, field.getName(), expression);
+		if (register(binding)) {
+			fieldBindingsByBean.computeIfAbsent(beanName, k -> ConcurrentHashMap.newKeySet()).add(binding);
+		}
+	}
+
+	/**
+	 * 记录配置文件中bean属性的绑定，bean实例在重新注入时从容器中获取
+	 */
+	public void registerPropertyBinding(String beanName, String propertyName, String expression) {
+		PlaceholderBinding binding = new PlaceholderBinding(beanName, null, null, propertyName, expression);
+		if (register(binding)) {
+			propertyBindingsByBean.computeIfAbsent(beanName, k -> ConcurrentHashMap.newKeySet()).add(binding);
+		}
+	}
+
+	/**
+	 * 移除bean实例上@Value字段的绑定，单例销毁时调用。配置文件中的属性绑定属于BeanDefinition，重新创建的bean仍然使用，不移除
+	 */
+	public void unregisterBean(String beanName) {
+		Set<PlaceholderBinding> bindings = fieldBindingsByBean.remove(beanName);
+		if (bindings != null) {
+			for (PlaceholderBinding binding : bindings) {
+				unregister(binding);
+			}
+		}
+	}
+
+	/**
+	 * 移除BeanDefinition中属性的绑定，BeanDefinition被替换或者删除时调用
+	 */
+	public void unregisterBeanDefinition(String beanName) {
+		Set<PlaceholderBinding> bindings = propertyBindingsByBean.remove(beanName);
+		if (bindings != null) {
+			for (PlaceholderBinding binding : bindings) {
+				unregister(binding);
+			}
+		}
+	}
+
+	/**
+	 * 移除所有bean实例上@Value字段的绑定，销毁所有单例时调用
+	 */
+	public void unregisterAllBeans() {
+		for (String beanName : fieldBindingsByBean.keySet()) {
+			unregisterBean(beanName);
+		}
+	}
+
+	/**
+	 * 重新计算绑定用到的属性名，比如嵌套的占位符在属性变化后可能引用了其他属性
+	 */
+	public void rebind(PlaceholderBinding binding) {
+		unregister(binding);
+		register(binding);
+	}
+
+	/**
+	 * 找到用到了任一属性的绑定
+	 */
+	public Set<PlaceholderBinding> getBindings(Collection<String> keys) {
+		Set<PlaceholderBinding> result = new LinkedHashSet<>();
+		for (String key : keys) {
+			Set<PlaceholderBinding> bindings = bindingsByKey.get(PropertySourcesIndex.canonicalName(key));
+			if (bindings != null) {
+				result.addAll(bindings);
+			}
+		}
+		return result;
+	}
+
+	public long getPropertiesVersion() {
+		return propertiesVersion;
+	}
+
+	/**
+	 * 属性发生了变化
+	 */
+	public synchronized void propertiesChanged() {
+		propertiesVersion++;
+	}
+
+	public int getBindingCount() {
+		return keysByBinding.size();
+	}
+
+	private boolean register(PlaceholderBinding binding) {
+		Set<String> keys = new LinkedHashSet<>();
+		for (Function<String, Set<String>> keyExtractor : keyExtractors) {
+			keys.addAll(keyExtractor.apply(binding.getExpression()));
+		}
+		if (keys.isEmpty()) {
+			return false;
+		}
+		Set<String> canonicalKeys = new LinkedHashSet<>();
+		for (String key : keys) {
+			String canonicalKey = PropertySourcesIndex.canonicalName(key);
+			canonicalKeys.add(canonicalKey);
+			bindingsByKey.computeIfAbsent(canonicalKey, k -> ConcurrentHashMap.newKeySet()).add(binding);
+		}
+		keysByBinding.put(binding, canonicalKeys);
+		return true;
+	}
+
+	private void unregister(PlaceholderBinding binding) {
+		Set<String> keys = keysByBinding.remove(binding);
+		if (keys == null) {
+			return;
+		}
+		for (String key : keys) {
+			Set<PlaceholderBinding> bindings = bindingsByKey.get(key);
+			if (bindings != null) {
+				bindings.remove(binding);
+			}
+		}
+	}
+
+	/**
+	 * 一个用到了占位符的注入点
+	 */
+	public static final class PlaceholderBinding {
+
+		private final String beanName;
+
+		private final Object bean;
+
+		private final Field field;
+
+		private final String propertyName;
+
+		private final String expression;
+
+		private PlaceholderBinding(String beanName, Object bean, Field field, String propertyName, String expression) {
+			this.beanName = beanName;
+			this.bean = bean;
+			this.field = field;
+			this.propertyName = propertyName;
+			this.expression = expression;
+		}
+
+		public String getBeanName() {
+			return beanName;
+		}
+
+		/**
+		 * @return @Value字段所属的bean实例；配置文件中的属性返回null
+		 */
+		public Object getBean() {
+			return bean;
+		}
+
+		/**
+		 * @return @Value字段；配置文件中的属性返回null
+		 */
+		public Field getField() {
+			return field;
+		}
+
+		public String getPropertyName() {
+			return propertyName;
+		}
+
+		public String getExpression() {
+			return expression;
+		}
+
+		public boolean isFieldBinding() {
+			return field != null;
+		}
+	}
+}
@@ -1,20 +1,29 @@
 package org.springframework.beans.factory.support;
 
 import cn.hutool.core.bean.BeanUtil;
-import cn.hutool.core.util.ClassUtil;
+import cn.hutool.core.convert.Convert;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.core.util.TypeUtil;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.FieldAccessor;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.PropertyValues;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.aot.BeanAccessorRegistrar;
+import org.springframework.beans.factory.aot.GeneratedBeanAccessor;
 import org.springframework.beans.factory.config.*;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.util.IntrospectionCache;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 
 public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory
@@ -22,6 +31,59 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
 	private InstantiationStrategy instantiationStrategy = new SimpleInstantiationStrategy();
 
+	/**
+	 * 构建时生成的访问器，bean类到访问器
+	 */
+	private final Map<Class<?>, GeneratedBeanAccessor> generatedBeanAccessors = new ConcurrentHashMap<>();
+
+	/**
+	 * 注册构建时生成的访问器，创建该类的bean时用直接调用代替反射
+	 */
+	public void registerGeneratedBeanAccessor(Class<?> beanClass, GeneratedBeanAccessor accessor) {
+		generatedBeanAccessors.put(beanClass, accessor);
+	}
+
+	/**
+	 * 通过ServiceLoader查找类路径上生成的{@link BeanAccessorRegistrar}并注册其中的访问器
+	 *
+	 * @return 找到的注册类数量
+	 */
+	public int loadGeneratedBeanAccessors(ClassLoader classLoader) {
+		int count = 0;
+		for (BeanAccessorRegistrar registrar : ServiceLoader.load(BeanAccessorRegistrar.class, classLoader)) {
+			registrar.registerBeanAccessors(this);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * 同时复制构建时生成的访问器
+	 */
+	@Override
+	public void copyConfigurationFrom(AbstractBeanFactory otherFactory) {
+		super.copyConfigurationFrom(otherFactory);
+		if (otherFactory instanceof AbstractAutowireCapableBeanFactory) {
+			generatedBeanAccessors.putAll(((AbstractAutowireCapableBeanFactory) otherFactory).generatedBeanAccessors);
+		}
+	}
+
+	/**
+	 * 本地没有为bean的类注册访问器时使用父容器的访问器
+	 *
+	 * @return 没有为bean的类生成访问器时返回null
+	 */
+	public GeneratedBeanAccessor getGeneratedBeanAccessor(BeanDefinition beanDefinition) {
+		GeneratedBeanAccessor accessor = generatedBeanAccessors.isEmpty() ? null : generatedBeanAccessors.get(beanDefinition.getBeanClass());
+		if (accessor == null) {
+			BeanFactory parent = getParentBeanFactory();
+			if (parent instanceof AbstractAutowireCapableBeanFactory) {
+				accessor = ((AbstractAutowireCapableBeanFactory) parent).getGeneratedBeanAccessor(beanDefinition);
+			}
+		}
+		return accessor;
+	}
+
 	@Override
 	protected Object createBean(String beanName, BeanDefinition beanDefinition) throws BeansException {
 		//如果bean需要代理，则直接返回代理对象....resolveBeforeInstantiation方法主要是进行bean初始化之前和之后的工作；如果bean不需要代理就利用doCreateBean创建bean
@@ -63,6 +125,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
 	protected Object doCreateBean(String beanName, BeanDefinition beanDefinition) {
 		Object bean;
+		Object rawBean;
 		try {
 			bean = createBeanInstance(beanDefinition);		//通过无参构造器创建对象(准确的说是调用实例化策略类的实例化方法，实现自定义的实例化过程)。此时bean的各个属性值不是null 就是 零值
 
@@ -86,14 +149,15 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			applyBeanPostProcessorsBeforeApplyingPropertyValues(beanName, bean, beanDefinition);
 			//为bean填充属性，这一步是利用BeanDefinition中的PropertyValues为"实例化"后的bean填充属性值
 			applyPropertyValues(beanName, bean, beanDefinition);
+			rawBean = bean;
 			//按顺序执行：BeanPostProcessor接口实现类的postProcessBeforeInitialization、执行bean的初始化方法、BeanPostProcessor接口实现类的postProcessAfterInitialization
 			bean = initializeBean(beanName, bean, beanDefinition);
 		} catch (Exception e) {
 			throw new BeansException("Instantiation of bean failed", e);
 		}
 
-		//注册 定义销毁方法的bean
-		registerDisposableBeanIfNecessary(beanName, bean, beanDefinition);
+		//注册 定义销毁方法的bean。销毁方法在原始对象上调用，关闭时代理已经拒绝新的调用
+		registerDisposableBeanIfNecessary(beanName, rawBean, beanDefinition);
 
  		Object exposedObject = bean;
 		if (beanDefinition.isSingleton()) {
@@ -157,8 +221,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		for (BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
 			if (beanPostProcessor instanceof InstantiationAwareBeanPostProcessor) {
 				PropertyValues pvs = ((InstantiationAwareBeanPostProcessor) beanPostProcessor).postProcessPropertyValues(beanDefinition.getPropertyValues(), bean, beanName);	//占位符的替换就是在这里进行
-				if (pvs != null) {
-					for (PropertyValue propertyValue : pvs.getPropertyValues()) {
+				//返回的就是BeanDefinition中的属性集合时不需要合并
+				if (pvs != null && pvs != beanDefinition.getPropertyValues()) {
+					for (PropertyValue propertyValue : pvs) {
 						beanDefinition.getPropertyValues().addPropertyValue(propertyValue);
 					}
 				}
@@ -189,6 +254,20 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 * @return
 	 */
 	protected Object createBeanInstance(BeanDefinition beanDefinition) {
+		//函数式注册的bean直接调用supplier
+		Supplier<?> instanceSupplier = beanDefinition.getInstanceSupplier();
+		if (instanceSupplier != null) {
+			Object bean = instanceSupplier.get();
+			if (bean == null) {
+				throw new BeansException("Instance supplier for bean class [" + beanDefinition.getBeanClassName() + "] returned null");
+			}
+			return bean;
+		}
+		//生成的访问器只替代默认的反射实例化，自定义的实例化策略(如CGLIB子类)仍然生效
+		GeneratedBeanAccessor accessor = getGeneratedBeanAccessor(beanDefinition);
+		if (accessor != null && getInstantiationStrategy() instanceof SimpleInstantiationStrategy) {
+			return accessor.newInstance();
+		}
 		return getInstantiationStrategy().instantiate(beanDefinition);	//先拿到实例化策略；然后执行instantiate方法实例化对象
 	}
 
@@ -201,21 +280,36 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 */
 	protected void applyPropertyValues(String beanName, Object bean, BeanDefinition beanDefinition) {
 		try {
-			for (PropertyValue propertyValue : beanDefinition.getPropertyValues().getPropertyValues()) {
+			GeneratedBeanAccessor accessor = getGeneratedBeanAccessor(beanDefinition);
+			for (PropertyValue propertyValue : beanDefinition.getPropertyValues()) {
 				String name = propertyValue.getName();
 				Object value = propertyValue.getValue();
 				if (value instanceof BeanReference) {
 					// beanA依赖beanB。看beanB是不是在三级缓存，如果不是，先实例化beanB
 					BeanReference beanReference = (BeanReference) value;	//由于if判断满足，因此这里转换没有问题
 					value = getBean(beanReference.getBeanName());	//对于BeanReference类型的属性需要通过getBean进行获取
-				} else {
-					//类型转换
+				}
+
+				//有生成的字段赋值代码时不经过反射
+				Class<?> propertyType = accessor != null ? accessor.getPropertyType(name) : null;
+				if (propertyType != null) {
+					accessor.setPropertyValue(bean, name, convertForProperty(value, propertyType));
+					continue;
+				}
+
+				if (!(propertyValue.getValue() instanceof BeanReference)) {
+					//原始类型字段直接转换并赋值，不经过装箱
+					Field field = IntrospectionCache.getField(bean.getClass(), name);
+					if (field != null && FieldAccessor.setPrimitiveField(bean, field, value, getConversionService())) {
+						continue;
+					}
+
+					//类型转换。使用字段的泛型类型，集合和数组可以按元素类型转换
 					Class<?> sourceType = value.getClass();
-					Class<?> targetType = (Class<?>) TypeUtil.getFieldType(bean.getClass(), name);
 					ConversionService conversionService = getConversionService();
-					if (conversionService != null) {
-						if (conversionService.canConvert(sourceType, targetType)) {
-							value = conversionService.convert(value, targetType);
+					if (conversionService != null && field != null) {
+						if (conversionService.canConvert(sourceType, field.getType())) {
+							value = conversionService.convert(value, field.getGenericType());
 						}
 					}
 				}
@@ -228,6 +322,20 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		}
 	}
 
+	/**
+	 * 与{@link FieldAccessor#convertForField}的转换规则一致，propertyType已经是包装类型
+	 */
+	private Object convertForProperty(Object value, Class<?> propertyType) {
+		if (value == null || propertyType.isInstance(value)) {
+			return value;
+		}
+		ConversionService conversionService = getConversionService();
+		if (conversionService != null && conversionService.canConvert(value.getClass(), propertyType)) {
+			return conversionService.convert(value, propertyType);
+		}
+		return Convert.convert(propertyType, value);
+	}
+
 	protected Object initializeBean(String beanName, Object bean, BeanDefinition beanDefinition) {
 		if (bean instanceof BeanFactoryAware) {
 			((BeanFactoryAware) bean).setBeanFactory(this);
@@ -290,7 +398,11 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		}
 		String initMethodName = beanDefinition.getInitMethodName();
 		if (StrUtil.isNotEmpty(initMethodName) && !(bean instanceof InitializingBean && "afterPropertiesSet".equals(initMethodName))) {
-			Method initMethod = ClassUtil.getPublicMethod(beanDefinition.getBeanClass(), initMethodName);
+			GeneratedBeanAccessor accessor = getGeneratedBeanAccessor(beanDefinition);
+			if (accessor != null && accessor.invokeMethod(bean, initMethodName)) {
+				return;
+			}
+			Method initMethod = IntrospectionCache.getPublicMethod(beanDefinition.getBeanClass(), initMethodName);
 			if (initMethod == null) {
 				throw new BeansException("Could not find an init method named '" + initMethodName + "' on bean with name '" + beanName + "'");
 			}
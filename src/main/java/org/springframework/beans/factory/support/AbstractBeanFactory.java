@@ -1,17 +1,25 @@
 package org.springframework.beans.factory.support;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.config.PlaceholderBindingRegistry;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.util.StringValueResolver;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 这个类的这几个字段还是挺重要的，在refresh方法中会经常使用到
@@ -20,14 +28,34 @@ import java.util.Map;
  */
 public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry implements ConfigurableBeanFactory {
 
+	/**
+	 * 父容器。本地没有定义的bean从父容器获取，父定义也可以来自父容器
+	 */
+	private BeanFactory parentBeanFactory;
+
 	private final List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();	//添加所有的后置处理器，refresh方法的registerBeanPostProcessors步骤就是进行这个操作
 
-	private final Map<String, Object> factoryBeanObjectCache = new HashMap<>();		//FactoryBean#getObject创建的bean对象的缓存。键是beanName，值是FactoryBean实现类的对象。
+	private final Map<String, Object> factoryBeanObjectCache = new ConcurrentHashMap<>();		//FactoryBean#getObject创建的bean对象的缓存。键是beanName，值是FactoryBean实现类的对象。
 
 	private final List<StringValueResolver> embeddedValueResolvers = new ArrayList<StringValueResolver>();	//
 
 	private ConversionService conversionService;
 
+	/**
+	 * 有父定义的BeanDefinition合并后的结果，第一次使用时计算。没有父定义的BeanDefinition直接使用，不放入缓存
+	 */
+	private final Map<String, BeanDefinition> mergedBeanDefinitions = new ConcurrentHashMap<>();
+
+	/**
+	 * BeanDefinition的版本，每次清空合并缓存(注册、删除或者修改BeanDefinition)时递增。缓存了BeanDefinition的地方据此判断是否过期
+	 */
+	private final AtomicLong beanDefinitionVersion = new AtomicLong();
+
+	/**
+	 * 当前线程正在创建的bean，栈顶的bean在创建过程中获取的其他bean被记录为它的依赖
+	 */
+	private final ThreadLocal<Deque<String>> beansInCreation = ThreadLocal.withInitial(ArrayDeque::new);
+
 
 	/** 对于普通的bean，到执行这个方法的时候还没有完成创建。。但是BeanPostProcessor这种类型的bean就创建完成了
 	 * 首先去三级缓存获取bean，获取到的话会经过getObjectForBeanInstance方法(这个方法主要的作用就是判断 是不是FactoryBean类型，是的话会
@@ -35,17 +63,73 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
 	 * */
 	@Override
 	public Object getBean(String name) throws BeansException {
+		String dependentBeanName = beansInCreation.get().peek();
+		if (dependentBeanName != null && !dependentBeanName.equals(name)) {
+			registerDependentBean(name, dependentBeanName);
+		}
 		Object sharedInstance = getSingleton(name);		//通过三级缓存去查找bean。如果是普通的类型，在这里初次得到的是null,而对于BeanFactoryPostProcessor、BeanPostProcessor之前的时候就创建完了，从三级缓存能够查询到
 		if (sharedInstance != null) {	//含义：如果三级缓存能找到，就要看是不是FactoryBean类型
 			//如果是FactoryBean，从FactoryBean#getObject中创建 或者 从缓存中获取bean。。但是对于普通对象，此时必然是null，普通对象这个时候还不在三级缓存呢
 			return getObjectForBeanInstance(sharedInstance, name);
 		}
+		//本地没有定义时由父容器获取，父容器的单例被所有子容器共享
+		BeanFactory parent = this.parentBeanFactory;
+		if (parent != null && !containsBeanDefinition(name)) {
+			return parent.getBean(name);
+		}
 		//下面就是按照BeanDefinition来创建指定的bean对象
-		BeanDefinition beanDefinition = getBeanDefinition(name);	//去map中拿到name对应的BeanDefinition
-		Object bean = createBean(name, beanDefinition);		//利用beanName和beanDefinition信息创建bean对象
+		BeanDefinition beanDefinition = getMergedBeanDefinition(name);	//去map中拿到name对应的BeanDefinition，有父定义时与父定义合并
+		if (beanDefinition.isAbstract()) {
+			throw new BeansException("Bean definition '" + name + "' is abstract");
+		}
+		Object bean;
+		if (beanDefinition.isSingleton()) {
+			//单例在它自己的创建锁内创建，其他线程同时获取时等待创建完成
+			bean = getSingleton(name, () -> createTrackedBean(name, beanDefinition));
+		} else {
+			bean = createTrackedBean(name, beanDefinition);		//利用beanName和beanDefinition信息创建bean对象
+		}
 		return getObjectForBeanInstance(bean, name);
 	}
 
+	/**
+	 * 创建bean，期间获取的其他bean记录为它的依赖
+	 */
+	private Object createTrackedBean(String beanName, BeanDefinition beanDefinition) {
+		Deque<String> creating = beansInCreation.get();
+		creating.push(beanName);
+		try {
+			return createBean(beanName, beanDefinition);
+		} finally {
+			creating.pop();
+		}
+	}
+
+	@Override
+	protected void removeSingleton(String beanName) {
+		super.removeSingleton(beanName);
+		factoryBeanObjectCache.remove(beanName);
+		//销毁的实例不再重新注入属性
+		PlaceholderBindingRegistry bindingRegistry = getPlaceholderBindingRegistry();
+		if (bindingRegistry != null) {
+			bindingRegistry.unregisterBean(beanName);
+		}
+	}
+
+	@Override
+	public void destroySingletons() {
+		PlaceholderBindingRegistry bindingRegistry = getPlaceholderBindingRegistry();
+		if (bindingRegistry != null) {
+			bindingRegistry.unregisterAllBeans();
+		}
+		super.destroySingletons();
+	}
+
+	private PlaceholderBindingRegistry getPlaceholderBindingRegistry() {
+		Object registry = getCompletedSingleton(PlaceholderBindingRegistry.PLACEHOLDER_BINDING_REGISTRY_BEAN_NAME);
+		return registry instanceof PlaceholderBindingRegistry ? (PlaceholderBindingRegistry) registry : null;
+	}
+
 	/**
 	 * 如果是FactoryBean，从FactoryBean#getObject中创建bean
 	 */
@@ -58,8 +142,13 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
 					//singleton作用域bean，从缓存中获取
 					object = this.factoryBeanObjectCache.get(beanName);
 					if (object == null) {
-						object = factoryBean.getObject();
-						this.factoryBeanObjectCache.put(beanName, object);
+						synchronized (factoryBean) {
+							object = this.factoryBeanObjectCache.get(beanName);
+							if (object == null) {
+								object = factoryBean.getObject();
+								this.factoryBeanObjectCache.put(beanName, object);
+							}
+						}
 					}
 				} else {
 					//prototype作用域bean，新创建bean
@@ -78,17 +167,140 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
 		return ((T) getBean(name));
 	}
 
+	@Override
+	public <T> ObjectProvider<T> getBeanProvider(String name, Class<T> requiredType) {
+		if (parentBeanFactory != null && !containsBeanDefinition(name)) {
+			return parentBeanFactory.getBeanProvider(name, requiredType);
+		}
+		return new BeanHandle<>(this, name, requiredType);
+	}
+
+	/**
+	 * 创建原型bean，跳过单例缓存的查找
+	 */
+	Object createPrototype(String beanName, BeanDefinition beanDefinition) {
+		Object bean = createTrackedBean(beanName, beanDefinition);
+		return getObjectForBeanInstance(bean, beanName);
+	}
+
+	/**
+	 * 将单例记录到槽位中。只记录当前单例对外暴露的对象：单例还在创建过程中、是非单例的FactoryBean
+	 * 或者获取之后已经被替换、销毁时不记录，返回空的槽位
+	 */
+	SingletonSlot publishSingletonSlot(String beanName, Object exposedObject) {
+		SingletonSlot slot = getSingletonSlot(beanName);
+		Object singleton = getCompletedSingleton(beanName);
+		if (isExposedObject(beanName, singleton, exposedObject)) {
+			slot.instance = exposedObject;
+			//写入槽位的同时单例被替换或者销毁，替换时的清空可能发生在写入之前
+			if (getCompletedSingleton(beanName) != singleton) {
+				slot.clear();
+			}
+		}
+		return slot;
+	}
+
+	private boolean isExposedObject(String beanName, Object singleton, Object exposedObject) {
+		if (singleton instanceof FactoryBean) {
+			return ((FactoryBean<?>) singleton).isSingleton() && factoryBeanObjectCache.get(beanName) == exposedObject;
+		}
+		return singleton != null && singleton == exposedObject;
+	}
+
 	@Override
 	public boolean containsBean(String name) {
+		return containsBeanDefinition(name) || (parentBeanFactory != null && parentBeanFactory.containsBean(name));
+	}
+
+	@Override
+	public boolean containsLocalBean(String name) {
 		return containsBeanDefinition(name);
 	}
 
+	@Override
+	public BeanFactory getParentBeanFactory() {
+		return parentBeanFactory;
+	}
+
+	@Override
+	public void setParentBeanFactory(BeanFactory parentBeanFactory) {
+		if (this.parentBeanFactory != null && this.parentBeanFactory != parentBeanFactory) {
+			throw new BeansException("Already associated with parent BeanFactory: " + this.parentBeanFactory);
+		}
+		if (parentBeanFactory == this) {
+			throw new BeansException("Cannot set a BeanFactory as its own parent");
+		}
+		this.parentBeanFactory = parentBeanFactory;
+	}
+
 	protected abstract boolean containsBeanDefinition(String beanName);
 
 	protected abstract Object createBean(String beanName, BeanDefinition beanDefinition) throws BeansException;
 
 	protected abstract BeanDefinition getBeanDefinition(String beanName) throws BeansException;
 
+	/**
+	 * 返回与父定义合并后的BeanDefinition。合并结果会被缓存，BeanDefinition发生变化后需要调用{@link #clearMetadataCache()}。
+	 * 父定义不在本地(或者与bean同名)时从父容器查找，父容器中合并的结果被所有子容器共享
+	 *
+	 * @param beanName
+	 * @return 没有父定义时返回原始的BeanDefinition
+	 * @throws BeansException 找不到BeanDefinition 或者 父定义之间循环引用
+	 */
+	public BeanDefinition getMergedBeanDefinition(String beanName) throws BeansException {
+		BeanDefinition beanDefinition = getBeanDefinition(beanName);
+		if (beanDefinition.getParentName() == null) {
+			return beanDefinition;
+		}
+		BeanDefinition merged = mergedBeanDefinitions.get(beanName);
+		if (merged == null) {
+			merged = mergeBeanDefinition(beanName, beanDefinition, new HashSet<>());
+		}
+		return merged;
+	}
+
+	private BeanDefinition mergeBeanDefinition(String beanName, BeanDefinition beanDefinition, Set<String> visiting) {
+		String parentName = beanDefinition.getParentName();
+		if (parentName == null) {
+			return beanDefinition;
+		}
+		BeanDefinition merged = mergedBeanDefinitions.get(beanName);
+		if (merged != null) {
+			return merged;
+		}
+		if (!visiting.add(beanName)) {
+			throw new BeansException("Circular parent reference in bean definition '" + beanName + "'");
+		}
+		BeanDefinition parent;
+		try {
+			if ((parentName.equals(beanName) || !containsBeanDefinition(parentName)) && parentBeanFactory instanceof AbstractBeanFactory) {
+				parent = ((AbstractBeanFactory) parentBeanFactory).getMergedBeanDefinition(parentName);
+			} else {
+				parent = mergeBeanDefinition(parentName, getBeanDefinition(parentName), visiting);
+			}
+		} catch (BeansException e) {
+			throw new BeansException("Could not resolve parent bean definition '" + parentName + "' for bean '" + beanName + "'", e);
+		}
+		merged = beanDefinition.mergeWithParent(parent);
+		if (merged.getBeanClassName() == null) {
+			throw new BeansException("Bean definition '" + beanName + "' has no class and its parent does not specify one");
+		}
+		BeanDefinition existing = mergedBeanDefinitions.putIfAbsent(beanName, merged);
+		return existing != null ? existing : merged;
+	}
+
+	/**
+	 * 清空合并后的BeanDefinition缓存，BeanFactoryPostProcessor修改BeanDefinition后调用
+	 */
+	public void clearMetadataCache() {
+		mergedBeanDefinitions.clear();
+		beanDefinitionVersion.incrementAndGet();
+	}
+
+	long getBeanDefinitionVersion() {
+		return beanDefinitionVersion.get();
+	}
+
 	@Override
 	public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
 		//有则覆盖
@@ -100,11 +312,27 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
 		return this.beanPostProcessors;
 	}
 
+	/**
+	 * 复制另一个工厂的配置：占位符解析器和类型转换服务。不复制BeanDefinition、BeanPostProcessor和单例
+	 */
+	public void copyConfigurationFrom(AbstractBeanFactory otherFactory) {
+		this.embeddedValueResolvers.addAll(otherFactory.embeddedValueResolvers);
+		if (otherFactory.conversionService != null) {
+			this.conversionService = otherFactory.conversionService;
+		}
+	}
+
 	public void addEmbeddedValueResolver(StringValueResolver valueResolver) {
 		this.embeddedValueResolvers.add(valueResolver);
 	}
 
+	/**
+	 * 没有注册解析器时使用父容器的解析器
+	 */
 	public String resolveEmbeddedValue(String value) {
+		if (embeddedValueResolvers.isEmpty() && parentBeanFactory instanceof ConfigurableBeanFactory) {
+			return ((ConfigurableBeanFactory) parentBeanFactory).resolveEmbeddedValue(value);
+		}
 		String result = value;
 		for (StringValueResolver resolver : this.embeddedValueResolvers) {
 			result = resolver.resolveStringValue(result);
@@ -112,8 +340,14 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
 		return result;
 	}
 
+	/**
+	 * 没有设置时使用父容器的类型转换服务
+	 */
 	@Override
 	public ConversionService getConversionService() {
+		if (conversionService == null && parentBeanFactory instanceof ConfigurableBeanFactory) {
+			return ((ConfigurableBeanFactory) parentBeanFactory).getConversionService();
+		}
 		return conversionService;
 	}
 
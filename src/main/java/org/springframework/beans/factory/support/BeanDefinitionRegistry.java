@@ -1,7 +1,12 @@
 package org.springframework.beans.factory.support;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionCustomizer;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * BeanDefinition注册表接口
@@ -23,6 +28,38 @@ public interface BeanDefinitionRegistry {
 	 */
 	void registerBeanDefinition(String beanName, BeanDefinition beanDefinition);
 
+	/**
+	 * 函数式注册bean：通过supplier直接创建实例，不经过反射实例化。属性由supplier自己设置，
+	 * BeanPostProcessor、代理和销毁方法与其他bean一样处理
+	 *
+	 * @param beanName
+	 * @param beanClass   bean的类型，用于按类型查找和代理
+	 * @param supplier    创建实例
+	 * @param customizers 修改BeanDefinition，比如设置作用域、初始化方法
+	 */
+	default <T> void registerBean(String beanName, Class<T> beanClass, Supplier<T> supplier, BeanDefinitionCustomizer... customizers) {
+		BeanDefinition beanDefinition = new BeanDefinition(beanClass);
+		beanDefinition.setInstanceSupplier(supplier);
+		for (BeanDefinitionCustomizer customizer : customizers) {
+			customizer.customize(beanDefinition);
+		}
+		registerBeanDefinition(beanName, beanDefinition);
+	}
+
+	/**
+	 * 函数式注册bean，创建实例时可以从bean工厂获取依赖
+	 *
+	 * @see #registerBean(String, Class, Supplier, BeanDefinitionCustomizer...)
+	 */
+	<T> void registerBean(String beanName, Class<T> beanClass, Function<? super BeanFactory, T> factory, BeanDefinitionCustomizer... customizers);
+
+	/**
+	 * 移除BeanDefinition，已经创建的单例不受影响
+	 *
+	 * @throws BeansException 如果找不到BeanDefintion
+	 */
+	void removeBeanDefinition(String beanName) throws BeansException;
+
 	/**
 	 * 根据名称查找BeanDefinition
 	 *
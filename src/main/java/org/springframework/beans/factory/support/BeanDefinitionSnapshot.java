@@ -0,0 +1,100 @@
+package org.springframework.beans.factory.support;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+
+import java.util.Map;
+
+/**
+ * 冻结配置后BeanDefinition的只读快照：名称和BeanDefinition分别保存在数组中，顺序与beanDefinitionMap的迭代顺序相同
+ * (ConcurrentHashMap的哈希顺序，不是注册顺序)。名称到下标的映射是开放寻址的int数组，查找时没有节点对象和装箱，负载因子不超过0.5
+ */
+final class BeanDefinitionSnapshot {
+
+	private final String[] names;
+
+	private final BeanDefinition[] definitions;
+
+	/**
+	 * 保存下标+1，0表示空位
+	 */
+	private final int[] table;
+
+	private final int mask;
+
+	private BeanDefinitionSnapshot(String[] names, BeanDefinition[] definitions) {
+		this.names = names;
+		this.definitions = definitions;
+		int capacity = Integer.highestOneBit(Math.max(names.length, 1) * 4 - 1);
+		this.table = new int[capacity];
+		this.mask = capacity - 1;
+		for (int i = 0; i < names.length; i++) {
+			int slot = spread(names[i].hashCode()) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = i + 1;
+		}
+	}
+
+	static BeanDefinitionSnapshot of(Map<String, BeanDefinition> beanDefinitionMap) {
+		String[] names = new String[beanDefinitionMap.size()];
+		BeanDefinition[] definitions = new BeanDefinition[names.length];
+		int i = 0;
+		for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
+			if (i == names.length) {
+				break;
+			}
+			names[i] = entry.getKey();
+			definitions[i] = entry.getValue();
+			i++;
+		}
+		if (i < names.length) {
+			String[] trimmedNames = new String[i];
+			BeanDefinition[] trimmedDefinitions = new BeanDefinition[i];
+			System.arraycopy(names, 0, trimmedNames, 0, i);
+			System.arraycopy(definitions, 0, trimmedDefinitions, 0, i);
+			return new BeanDefinitionSnapshot(trimmedNames, trimmedDefinitions);
+		}
+		return new BeanDefinitionSnapshot(names, definitions);
+	}
+
+	/**
+	 * @return 不存在时返回-1
+	 */
+	int indexOf(String name) {
+		int slot = spread(name.hashCode()) & mask;
+		int entry;
+		while ((entry = table[slot]) != 0) {
+			if (names[entry - 1].equals(name)) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	BeanDefinition get(String name) {
+		int index = indexOf(name);
+		return index >= 0 ? definitions[index] : null;
+	}
+
+	int size() {
+		return names.length;
+	}
+
+	String getName(int index) {
+		return names[index];
+	}
+
+	BeanDefinition getDefinition(int index) {
+		return definitions[index];
+	}
+
+	String[] getNames() {
+		return names.clone();
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,122 @@
+package org.springframework.beans.factory.support;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+
+import java.util.function.Supplier;
+
+/**
+ * ObjectProvider的实现。第一次获取时确定bean的名称和作用域：
+ * <ul>
+ * <li>单例bean：创建完成后记录在单例表的槽位中，之后每次获取只读取槽位，不再查询三级缓存和FactoryBean缓存</li>
+ * <li>原型bean：记录BeanDefinition，之后直接创建，跳过单例缓存的查找</li>
+ * </ul>
+ * 单例被替换或者销毁时槽位会被清空，BeanDefinition发生变化时记录的原型定义失效，下次获取重新走完整的查找流程
+ */
+public final class BeanHandle<T> implements ObjectProvider<T> {
+
+	private final AbstractBeanFactory beanFactory;
+
+	private final Class<T> requiredType;
+
+	private final Supplier<String> beanNameResolver;
+
+	private volatile String beanName;
+
+	private volatile SingletonSlot slot;
+
+	private volatile PrototypeDefinition prototypeDefinition;
+
+	BeanHandle(AbstractBeanFactory beanFactory, String beanName, Class<T> requiredType) {
+		this.beanFactory = beanFactory;
+		this.beanName = beanName;
+		this.requiredType = requiredType;
+		this.beanNameResolver = null;
+	}
+
+	BeanHandle(AbstractBeanFactory beanFactory, Supplier<String> beanNameResolver, Class<T> requiredType) {
+		this.beanFactory = beanFactory;
+		this.requiredType = requiredType;
+		this.beanNameResolver = beanNameResolver;
+	}
+
+	@Override
+	public T getObject() throws BeansException {
+		SingletonSlot current = this.slot;
+		if (current != null) {
+			Object instance = current.instance;
+			if (instance != null) {
+				return (T) instance;
+			}
+		}
+		PrototypeDefinition prototype = this.prototypeDefinition;
+		if (prototype != null && prototype.version == beanFactory.getBeanDefinitionVersion()) {
+			return (T) beanFactory.createPrototype(beanName, prototype.beanDefinition);
+		}
+		return resolve();
+	}
+
+	@Override
+	public T getIfAvailable() throws BeansException {
+		String name = getBeanName();
+		if (name == null || !beanFactory.containsBean(name)) {
+			return null;
+		}
+		return getObject();
+	}
+
+	/**
+	 * bean的名称，按类型查找时第一次调用会确定名称
+	 */
+	public String getBeanName() {
+		String name = this.beanName;
+		if (name == null && beanNameResolver != null) {
+			name = beanNameResolver.get();
+			this.beanName = name;
+		}
+		return name;
+	}
+
+	private T resolve() {
+		String name = getBeanName();
+		//先读取版本，读取定义期间发生的变化会让记录的定义在下次获取时失效
+		long version = beanFactory.getBeanDefinitionVersion();
+		BeanDefinition beanDefinition = beanFactory.getMergedBeanDefinition(name);
+		Object bean;
+		if (beanDefinition.isSingleton()) {
+			this.prototypeDefinition = null;
+			bean = beanFactory.getBean(name);
+			checkType(name, bean);
+			this.slot = beanFactory.publishSingletonSlot(name, bean);
+		} else {
+			this.slot = null;
+			bean = beanFactory.createPrototype(name, beanDefinition);
+			checkType(name, bean);
+			this.prototypeDefinition = new PrototypeDefinition(beanDefinition, version);
+		}
+		return (T) bean;
+	}
+
+	private void checkType(String name, Object bean) {
+		if (requiredType != null && !requiredType.isInstance(bean)) {
+			throw new BeansException("Bean named '" + name + "' is expected to be of type '" + requiredType.getName()
+					+ "' but was actually of type '" + bean.getClass().getName() + "'");
+		}
+	}
+
+	/**
+	 * 记录的原型定义以及记录时BeanDefinition的版本
+	 */
+	private static final class PrototypeDefinition {
+
+		private final BeanDefinition beanDefinition;
+
+		private final long version;
+
+		private PrototypeDefinition(BeanDefinition beanDefinition, long version) {
+			this.beanDefinition = beanDefinition;
+			this.version = version;
+		}
+	}
+}
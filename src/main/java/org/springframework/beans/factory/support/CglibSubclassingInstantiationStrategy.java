@@ -4,6 +4,7 @@ import net.sf.cglib.proxy.Enhancer;
 import net.sf.cglib.proxy.MethodInterceptor;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.util.SpringNamingPolicy;
 
 /**
  * @author derekyi
@@ -21,6 +22,7 @@ public class CglibSubclassingInstantiationStrategy implements InstantiationStrat
 	@Override
 	public Object instantiate(BeanDefinition beanDefinition) throws BeansException {
 		Enhancer enhancer = new Enhancer();
+		enhancer.setNamingPolicy(SpringNamingPolicy.INSTANCE);
 		enhancer.setSuperclass(beanDefinition.getBeanClass());
 		enhancer.setCallback((MethodInterceptor) (obj, method, argsTemp, proxy) -> proxy.invokeSuper(obj,argsTemp));
 		return enhancer.create();
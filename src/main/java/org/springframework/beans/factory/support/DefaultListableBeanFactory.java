@@ -1,11 +1,16 @@
 package org.springframework.beans.factory.support;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionCustomizer;
 
+import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 
 /*
@@ -18,15 +23,65 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 	private Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>(256);	//BeanDefinition的存储地方
 
+	/**
+	 * 冻结配置后的只读快照，为null表示尚未冻结。冻结后再注册BeanDefinition会重新生成快照(写时复制)
+	 */
+	private volatile BeanDefinitionSnapshot frozenSnapshot;
+
+	/**
+	 * 冻结配置后按类型查找的bean名称缓存，快照重新生成时清空
+	 */
+	private final Map<Class<?>, String[]> beanNamesByType = new ConcurrentHashMap<>();
+
+	/**
+	 * 同上，不包含懒加载bean的查找结果
+	 */
+	private final Map<Class<?>, String[]> nonLazyBeanNamesByType = new ConcurrentHashMap<>();
+
+	public DefaultListableBeanFactory() {
+	}
+
+	/**
+	 * 创建子容器，本地没有的bean从父容器获取
+	 */
+	public DefaultListableBeanFactory(BeanFactory parentBeanFactory) {
+		setParentBeanFactory(parentBeanFactory);
+	}
 
 	@Override
 	public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
 		beanDefinitionMap.put(beanName, beanDefinition);
+		//子定义合并时可能用到了被替换的定义
+		clearMetadataCache();
+		if (frozenSnapshot != null) {
+			synchronized (this) {
+				rebuildSnapshot();
+			}
+		}
+	}
+
+	@Override
+	public void removeBeanDefinition(String beanName) throws BeansException {
+		if (beanDefinitionMap.remove(beanName) == null) {
+			throw new BeansException("No bean named '" + beanName + "' is defined");
+		}
+		clearMetadataCache();
+		if (frozenSnapshot != null) {
+			synchronized (this) {
+				rebuildSnapshot();
+			}
+		}
+	}
+
+	@Override
+	public <T> void registerBean(String beanName, Class<T> beanClass, Function<? super BeanFactory, T> factory, BeanDefinitionCustomizer... customizers) {
+		registerBean(beanName, beanClass, () -> factory.apply(this), customizers);
 	}
 
 	@Override
 	public BeanDefinition getBeanDefinition(String beanName) throws BeansException {
-		BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
+		BeanDefinitionSnapshot snapshot = this.frozenSnapshot;
+		BeanDefinition beanDefinition = snapshot != null ? snapshot.get(beanName) : beanDefinitionMap.get(beanName);
 		if (beanDefinition == null) {
 			throw new BeansException("No bean named '" + beanName + "' is defined");
 		}
@@ -36,7 +91,95 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
 	@Override
 	public boolean containsBeanDefinition(String beanName) {
-		return beanDefinitionMap.containsKey(beanName);
+		BeanDefinitionSnapshot snapshot = this.frozenSnapshot;
+		return snapshot != null ? snapshot.indexOf(beanName) >= 0 : beanDefinitionMap.containsKey(beanName);
+	}
+
+	/**
+	 * 冻结配置：BeanDefinition不再变化，生成只读快照，之后的查找不再经过ConcurrentHashMap
+	 */
+	@Override
+	public synchronized void freezeConfiguration() {
+		rebuildSnapshot();
+	}
+
+	@Override
+	public boolean isConfigurationFrozen() {
+		return frozenSnapshot != null;
+	}
+
+	private void rebuildSnapshot() {
+		this.frozenSnapshot = BeanDefinitionSnapshot.of(beanDefinitionMap);
+		beanNamesByType.clear();
+		nonLazyBeanNamesByType.clear();
+	}
+
+	private String[] getBeanNamesForType(Class<?> type) {
+		return getBeanNamesForType(type, true);
+	}
+
+	/**
+	 * 返回类型匹配的bean名称，冻结配置后按类型缓存
+	 *
+	 * @param includeLazyInit 为false时跳过懒加载的bean，不加载它们的类
+	 */
+	private String[] getBeanNamesForType(Class<?> type, boolean includeLazyInit) {
+		BeanDefinitionSnapshot snapshot = this.frozenSnapshot;
+		if (snapshot == null) {
+			return doGetBeanNamesForType(type, null, includeLazyInit);
+		}
+		Map<Class<?>, String[]> cache = includeLazyInit ? beanNamesByType : nonLazyBeanNamesByType;
+		String[] beanNames = cache.get(type);
+		if (beanNames == null) {
+			beanNames = doGetBeanNamesForType(type, snapshot, includeLazyInit);
+			if (snapshot == this.frozenSnapshot) {
+				cache.put(type, beanNames);
+			}
+		}
+		return beanNames;
+	}
+
+	private String[] doGetBeanNamesForType(Class<?> type, BeanDefinitionSnapshot snapshot, boolean includeLazyInit) {
+		List<String> beanNames = new ArrayList<>();
+		if (snapshot != null) {
+			for (int i = 0; i < snapshot.size(); i++) {
+				if (isTypeMatch(snapshot.getName(i), snapshot.getDefinition(i), type, includeLazyInit)) {
+					beanNames.add(snapshot.getName(i));
+				}
+			}
+		} else {
+			beanDefinitionMap.forEach((beanName, beanDefinition) -> {
+				if (isTypeMatch(beanName, beanDefinition, type, includeLazyInit)) {
+					beanNames.add(beanName);
+				}
+			});
+		}
+		return beanNames.toArray(new String[0]);
+	}
+
+	/**
+	 * 抽象的BeanDefinition不参与按类型查找，子定义按合并后的类型判断。
+	 * 只有类名的定义先按类名判断，只有无法通过类名确定时才加载类(不初始化)
+	 */
+	private boolean isTypeMatch(String beanName, BeanDefinition beanDefinition, Class<?> type, boolean includeLazyInit) {
+		if (beanDefinition.getParentName() != null) {
+			beanDefinition = getMergedBeanDefinition(beanName);
+		}
+		if (beanDefinition.isAbstract() || (!includeLazyInit && beanDefinition.isLazyInit())) {
+			return false;
+		}
+		if (!beanDefinition.hasBeanClass()) {
+			String beanClassName = beanDefinition.getBeanClassName();
+			if (type.getName().equals(beanClassName)) {
+				return true;
+			}
+			//final类没有子类，类名不同就不可能匹配
+			if (beanClassName != null && Modifier.isFinal(type.getModifiers()) && !type.isArray()) {
+				return false;
+			}
+		}
+		//使用isAssignableFrom方法合理判断 type(指的是传进来的BeanPostProcessor接口)是不是每一个beanClass的类型 或者 超类型 或者 实现的接口
+		return type.isAssignableFrom(beanDefinition.getBeanClass());
 	}
 
 	//这个方法不错，是根据传进来的参数，来从BeanDefinitionMap中查找所有符合BeanDifinition，存储到Map中并返回。。泛型的典型使用可以参考这个方法
@@ -46,47 +189,81 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	 */
 	@Override
 	public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {	//在一个map中查找所有指定接口的实现类，通过泛型提高复用性
+		return getBeansOfType(type, true);
+	}
+
+	@Override
+	public <T> Map<String, T> getBeansOfType(Class<T> type, boolean includeLazyInit) throws BeansException {
 		Map<String, T> result = new HashMap<>();
-		beanDefinitionMap.forEach((beanName, beanDefinition) -> {
-			Class beanClass = beanDefinition.getBeanClass();
-			//使用isAssignableFrom方法合理判断 type(指的是传进来的BeanPostProcessor接口)是不是每一个beanClass的类型 或者 超类型 或者 实现的接口
-			if (type.isAssignableFrom(beanClass)) {
-				T bean = (T) getBean(beanName);
-				result.put(beanName, bean);
-			}
-		});
+		for (String beanName : getBeanNamesForType(type, includeLazyInit)) {
+			T bean = (T) getBean(beanName);
+			result.put(beanName, bean);
+		}
 		return result;
 	}
 
+	/**
+	 * 本地没有该类型的bean时从父容器查找，父容器按类型的查找缓存被所有子容器共享
+	 */
 	public <T> T getBean(Class<T> requiredType) throws BeansException {		//获取指定类型的bean。由于是按照类型获取，因此需要保证这中类型的Bean只有一种(比如：对于接口就只能有一种实现类)
-		List<String> beanNames = new ArrayList<>();
-		for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
-			Class beanClass = entry.getValue().getBeanClass();
-			if (requiredType.isAssignableFrom(beanClass)) {
-				beanNames.add(entry.getKey());
-			}
+		BeanFactory parent = getParentBeanFactory();
+		if (parent != null && getBeanNamesForType(requiredType).length == 0) {
+			return parent.getBean(requiredType);
+		}
+		return getBean(resolveUniqueBeanName(requiredType), requiredType);
+	}
+
+	@Override
+	public <T> ObjectProvider<T> getBeanProvider(Class<T> requiredType) {
+		BeanFactory parent = getParentBeanFactory();
+		if (parent != null && getBeanNamesForType(requiredType).length == 0) {
+			return parent.getBeanProvider(requiredType);
 		}
-		if (beanNames.size() == 1) {
-			return getBean(beanNames.get(0), requiredType);
+		return new BeanHandle<>(this, () -> resolveUniqueBeanName(requiredType), requiredType);
+	}
+
+	/**
+	 * 找到指定类型唯一的bean的名称
+	 */
+	private String resolveUniqueBeanName(Class<?> requiredType) throws BeansException {
+		String[] beanNames = getBeanNamesForType(requiredType);
+		if (beanNames.length == 1) {
+			return beanNames[0];
 		}
 
 		throw new BeansException(requiredType + "expected single bean but found " +
-				beanNames.size() + ": " + beanNames);
+				beanNames.length + ": " + Arrays.toString(beanNames));
 	}
 
 	@Override
 	public String[] getBeanDefinitionNames() {
+		BeanDefinitionSnapshot snapshot = this.frozenSnapshot;
+		if (snapshot != null) {
+			return snapshot.getNames();
+		}
 		Set<String> beanNames = beanDefinitionMap.keySet();
 		return beanNames.toArray(new String[beanNames.size()]);	//将Collection<String>转换为String[]的安全的方式
 	}
 
 	@Override
 	public void preInstantiateSingletons() throws BeansException {
-		beanDefinitionMap.forEach((beanName, beanDefinition) -> {
-			//只有当bean是单例 且 不为懒加载才会被创建
-			if (beanDefinition.isSingleton() && !beanDefinition.isLazyInit()) {
-				getBean(beanName);
+		BeanDefinitionSnapshot snapshot = this.frozenSnapshot;
+		if (snapshot != null) {
+			for (int i = 0; i < snapshot.size(); i++) {
+				preInstantiateSingleton(snapshot.getName(i), snapshot.getDefinition(i));
 			}
-		});
+			return;
+		}
+		beanDefinitionMap.forEach(this::preInstantiateSingleton);
+	}
+
+	private void preInstantiateSingleton(String beanName, BeanDefinition beanDefinition) {
+		if (beanDefinition.getParentName() != null) {
+			beanDefinition = getMergedBeanDefinition(beanName);
+		}
+		//只有当bean是单例 且 不为懒加载 且 不是抽象的模板定义才会被创建
+		if (beanDefinition.isSingleton() && !beanDefinition.isLazyInit() && !beanDefinition.isAbstract()) {
+			getBean(beanName);
+		}
 	}
 }
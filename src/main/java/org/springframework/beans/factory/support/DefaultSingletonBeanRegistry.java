@@ -1,8 +1,15 @@
 package org.springframework.beans.factory.support;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.DisposableBean;
@@ -16,59 +23,322 @@ import org.springframework.beans.factory.config.SingletonBeanRegistry;
 public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
 
 	 /**
-	  * 一级缓存
+	  * 一级缓存。已经创建完成的单例可以不加锁直接读取
 	  */
-	private Map<String, Object> singletonObjects = new HashMap<>();
+	private final Map<String, Object> singletonObjects = new ConcurrentHashMap<>(256);
 
 	 /**
-	  * 二级缓存
+	  * 二级缓存，通过singletonMutex访问
 	  */
-	private Map<String, Object> earlySingletonObjects = new HashMap<>();
+	private final Map<String, Object> earlySingletonObjects = new HashMap<>();
 
 	 /**
-	  * 三级缓存
+	  * 三级缓存，通过singletonMutex访问
 	  */
-	private Map<String, ObjectFactory<?>> singletonFactories = new HashMap<String, ObjectFactory<?>>();
+	private final Map<String, ObjectFactory<?>> singletonFactories = new HashMap<String, ObjectFactory<?>>();
 
-	private final Map<String, DisposableBean> disposableBeans = new HashMap<>();	//有销毁方法的bean，会注册到这里。string是bean的name
+	/**
+	 * 正在创建的单例
+	 */
+	private final Set<String> singletonsCurrentlyInCreation = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * 保护二级、三级缓存以及创建单例的线程表，不在锁内创建bean
+	 */
+	private final Object singletonMutex = new Object();
+
+	/**
+	 * 每个单例的创建锁。不同的单例可以在不同线程中同时创建，其他线程获取正在创建的单例时只等待这一个单例，得到创建好的同一个实例
+	 */
+	private final Map<String, ReentrantLock> singletonCreationLocks = new ConcurrentHashMap<>();
+
+	/**
+	 * 单例名称到正在创建它的线程，通过singletonMutex访问
+	 */
+	private final Map<String, Thread> singletonCreators = new HashMap<>();
+
+	/**
+	 * 线程到它正在等待其他线程创建的单例，通过singletonMutex访问，用于发现线程之间的循环等待
+	 */
+	private final Map<Thread, String> awaitedSingletons = new HashMap<>();
+
+	private final Map<String, DisposableBean> disposableBeans = new LinkedHashMap<>();	//有销毁方法的bean，按注册顺序保存。string是bean的name
+
+	/**
+	 * 同时销毁的bean数量
+	 */
+	private int destroyParallelism = 1;
+
+	/**
+	 * 单个bean销毁方法的超时时间(纳秒)，0表示不限制
+	 */
+	private long destroyTimeoutNanos;
+
+	/**
+	 * 销毁所有单例的超时时间(纳秒)，0表示不限制
+	 */
+	private long shutdownTimeoutNanos;
+
+	private volatile SingletonDestructionReport destructionReport;
+
+	/**
+	 * 正在执行销毁方法的线程，销毁方法对代理的调用在关闭后仍然放行
+	 */
+	private final ThreadLocal<Boolean> destroyingSingleton = new ThreadLocal<>();
+
+	/**
+	 * bean名称到依赖它的bean的名称，在创建bean的过程中获取其他bean时记录
+	 */
+	private final Map<String, Set<String>> dependentBeanMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 单例表：bean名称到槽位。只有通过BeanHandle获取过的单例才会分配槽位
+	 */
+	private final Map<String, SingletonSlot> singletonSlotIndex = new ConcurrentHashMap<>();
 
 	@Override
 	public Object getSingleton(String beanName) {		//三级缓存出现的地方。。允许在 Bean 尚未完全初始化之前就可以被其他 Bean 引用，从而解决循环依赖问题。
 		Object singletonObject = singletonObjects.get(beanName);
-		if (singletonObject == null) {	//一级缓存查出来是null
-			singletonObject = earlySingletonObjects.get(beanName);
-			if (singletonObject == null) {	//二级缓存也没有查到
-				ObjectFactory<?> singletonFactory = singletonFactories.get(beanName);	//从三级缓存获取，得到的是一个ObjectFactory
-				if (singletonFactory != null) {		//三级缓存查到了。查到的话就会通过getObject来获取
-					singletonObject = singletonFactory.getObject();
-					//从三级缓存放进二级缓存
-					earlySingletonObjects.put(beanName, singletonObject);
-					singletonFactories.remove(beanName);
+		if (singletonObject == null && singletonsCurrentlyInCreation.contains(beanName)) {	//一级缓存查出来是null，并且正在创建
+			synchronized (singletonMutex) {
+				//其他线程正在创建时不暴露未完成的实例，调用方在getSingleton(beanName, singletonFactory)中等待创建完成
+				if (singletonCreators.get(beanName) != Thread.currentThread()) {
+					return singletonObjects.get(beanName);
 				}
 			}
+			singletonObject = getEarlySingleton(beanName);
 		}
 		return singletonObject;
 	}
 
+	/**
+	 * 从二级、三级缓存获取提前暴露的引用。三级缓存的ObjectFactory在锁外执行，其中可能获取其他bean
+	 */
+	private Object getEarlySingleton(String beanName) {
+		ObjectFactory<?> singletonFactory;
+		synchronized (singletonMutex) {
+			Object singletonObject = singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				singletonObject = earlySingletonObjects.get(beanName);
+			}
+			if (singletonObject != null) {
+				return singletonObject;
+			}
+			singletonFactory = singletonFactories.remove(beanName);	//从三级缓存获取，得到的是一个ObjectFactory
+		}
+		if (singletonFactory == null) {
+			return null;
+		}
+		Object singletonObject = singletonFactory.getObject();
+		//从三级缓存放进二级缓存
+		synchronized (singletonMutex) {
+			earlySingletonObjects.put(beanName, singletonObject);
+		}
+		return singletonObject;
+	}
+
+	/**
+	 * 获取单例，不存在时持有这个单例的创建锁通过singletonFactory创建。多个线程同时获取同一个单例时只有一个线程创建，
+	 * 其他线程等待并得到同一个实例；不同的单例互不等待
+	 *
+	 * @param beanName
+	 * @param singletonFactory 创建单例，创建完成时需要调用{@link #addSingleton}
+	 * @return
+	 */
+	public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) throws BeansException {
+		Object singletonObject = singletonObjects.get(beanName);
+		if (singletonObject != null) {
+			return singletonObject;
+		}
+		ReentrantLock creationLock = singletonCreationLocks.computeIfAbsent(beanName, name -> new ReentrantLock());
+		if (!creationLock.tryLock()) {
+			Object earlyReference = awaitSingletonCreation(beanName, creationLock);
+			if (earlyReference != null) {
+				return earlyReference;
+			}
+		}
+		try {
+			singletonObject = singletonObjects.get(beanName);
+			if (singletonObject != null) {
+				return singletonObject;
+			}
+			boolean newCreation = singletonsCurrentlyInCreation.add(beanName);
+			if (newCreation) {
+				synchronized (singletonMutex) {
+					singletonCreators.put(beanName, Thread.currentThread());
+				}
+			}
+			try {
+				return singletonFactory.getObject();
+			} finally {
+				if (newCreation) {
+					singletonsCurrentlyInCreation.remove(beanName);
+					synchronized (singletonMutex) {
+						singletonCreators.remove(beanName);
+						if (!singletonObjects.containsKey(beanName)) {
+							//创建失败，清理提前暴露的引用
+							earlySingletonObjects.remove(beanName);
+							singletonFactories.remove(beanName);
+						}
+					}
+				}
+			}
+		} finally {
+			creationLock.unlock();
+		}
+	}
+
+	/**
+	 * 等待其他线程创建完beanName，返回null时当前线程已经持有creationLock。
+	 * 如果创建beanName的线程(传递地)在等待当前线程正在创建的单例，继续等待会死锁，这时与同一线程内的循环依赖一样返回提前暴露的引用，不持有锁
+	 *
+	 * @throws BeansException 循环等待并且beanName还没有提前暴露引用(比如在实例化之前就需要对方)
+	 */
+	private Object awaitSingletonCreation(String beanName, ReentrantLock creationLock) {
+		Thread currentThread = Thread.currentThread();
+		boolean circular;
+		synchronized (singletonMutex) {
+			circular = isAwaitedBy(beanName, currentThread);
+			if (!circular) {
+				awaitedSingletons.put(currentThread, beanName);
+			}
+		}
+		if (circular) {
+			Object earlyReference = getEarlySingleton(beanName);
+			if (earlyReference == null) {
+				throw new BeansException("Singleton '" + beanName + "' is part of a circular reference between threads and has no early reference");
+			}
+			return earlyReference;
+		}
+		try {
+			creationLock.lock();
+		} finally {
+			synchronized (singletonMutex) {
+				awaitedSingletons.remove(currentThread);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 沿着"正在创建beanName的线程在等待哪个单例"查找，是否回到thread。需要持有singletonMutex
+	 */
+	private boolean isAwaitedBy(String beanName, Thread thread) {
+		String current = beanName;
+		for (int i = 0; current != null && i <= singletonCreators.size(); i++) {
+			Thread creator = singletonCreators.get(current);
+			if (creator == null) {
+				return false;
+			}
+			if (creator == thread) {
+				return true;
+			}
+			current = awaitedSingletons.get(creator);
+		}
+		return false;
+	}
+
+	/**
+	 * 单例是否正在创建
+	 */
+	public boolean isSingletonCurrentlyInCreation(String beanName) {
+		return singletonsCurrentlyInCreation.contains(beanName);
+	}
+
 	@Override
 	public void addSingleton(String beanName, Object singletonObject) {		//用于将一个已经创建好的 Bean 实例注册为单例 Bean 并存储在容器的单例缓存中
-		singletonObjects.put(beanName, singletonObject); // 1
-		earlySingletonObjects.remove(beanName); // 2
-		singletonFactories.remove(beanName); // 3
+		synchronized (singletonMutex) {
+			singletonObjects.put(beanName, singletonObject); // 1
+			earlySingletonObjects.remove(beanName); // 2
+			singletonFactories.remove(beanName); // 3
+		}
+		//单例被替换，句柄需要重新获取
+		SingletonSlot slot = singletonSlotIndex.get(beanName);
+		if (slot != null) {
+			slot.clear();
+		}
+	}
+
+	/**
+	 * 获取已经完全创建好的单例，不查询二级、三级缓存
+	 */
+	protected Object getCompletedSingleton(String beanName) {
+		return singletonObjects.get(beanName);
+	}
+
+	/**
+	 * 获取bean对应的槽位，不存在时创建
+	 */
+	protected SingletonSlot getSingletonSlot(String beanName) {
+		SingletonSlot slot = singletonSlotIndex.get(beanName);
+		if (slot == null) {
+			slot = singletonSlotIndex.computeIfAbsent(beanName, name -> new SingletonSlot());
+		}
+		return slot;
+	}
+
+	/**
+	 * 清空所有槽位
+	 */
+	protected void clearSingletonSlots() {
+		for (SingletonSlot slot : singletonSlotIndex.values()) {
+			slot.clear();
+		}
 	}
 
 	protected void addSingletonFactory(String beanName, ObjectFactory<?> singletonFactory) {
-		singletonFactories.put(beanName, singletonFactory);
+		synchronized (singletonMutex) {
+			singletonFactories.put(beanName, singletonFactory);
+		}
 	}
 
 	public void registerDisposableBean(String beanName, DisposableBean bean) {
-		disposableBeans.put(beanName, bean);
+		synchronized (disposableBeans) {
+			disposableBeans.put(beanName, bean);
+		}
 	}
 
-	public void destroySingletons() {
-		ArrayList<String> beanNames = new ArrayList<>(disposableBeans.keySet());	//从disposableBeans拿到有销毁方法的bean
-		for (String beanName : beanNames) {
-			DisposableBean disposableBean = disposableBeans.remove(beanName);
+	/**
+	 * 记录dependentBeanName依赖beanName，销毁beanName时先销毁dependentBeanName
+	 */
+	public void registerDependentBean(String beanName, String dependentBeanName) {
+		Set<String> dependentBeans = dependentBeanMap.get(beanName);
+		if (dependentBeans == null) {
+			dependentBeans = dependentBeanMap.computeIfAbsent(beanName, k -> ConcurrentHashMap.newKeySet());
+		}
+		dependentBeans.add(dependentBeanName);
+	}
+
+	/**
+	 * 直接依赖beanName的bean
+	 */
+	public Set<String> getDependentBeans(String beanName) {
+		Set<String> dependentBeans = dependentBeanMap.get(beanName);
+		return dependentBeans != null ? Collections.unmodifiableSet(new LinkedHashSet<>(dependentBeans)) : Collections.emptySet();
+	}
+
+	/**
+	 * 销毁单个单例：先销毁依赖它的bean，再从缓存中移除并执行销毁方法。下次获取时重新创建
+	 *
+	 * @param beanName 不存在该单例时只销毁依赖它的bean
+	 */
+	public void destroySingleton(String beanName) {
+		Set<String> dependentBeans = dependentBeanMap.remove(beanName);
+		if (dependentBeans != null) {
+			for (String dependentBeanName : dependentBeans) {
+				destroySingleton(dependentBeanName);
+			}
+		}
+		removeSingleton(beanName);
+		//beanName不再依赖其他bean，重新创建时重新记录
+		for (Set<String> dependents : dependentBeanMap.values()) {
+			dependents.remove(beanName);
+		}
+		DisposableBean disposableBean;
+		synchronized (disposableBeans) {
+			disposableBean = disposableBeans.remove(beanName);
+		}
+		if (disposableBean != null) {
 			try {
 				disposableBean.destroy();
 			} catch (Exception e) {
@@ -76,4 +346,88 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
 			}
 		}
 	}
+
+	/**
+	 * 从各级缓存中移除单例
+	 */
+	protected void removeSingleton(String beanName) {
+		synchronized (singletonMutex) {
+			singletonObjects.remove(beanName);
+			earlySingletonObjects.remove(beanName);
+			singletonFactories.remove(beanName);
+		}
+		SingletonSlot slot = singletonSlotIndex.get(beanName);
+		if (slot != null) {
+			slot.clear();
+		}
+	}
+
+	/**
+	 * 按依赖关系的逆序销毁所有单例，互不依赖的bean可以并行销毁。某个bean销毁失败或者超时不影响其他bean，
+	 * 全部结束后抛出汇总的异常，每个bean的耗时见{@link #getDestructionReport()}
+	 *
+	 * @throws BeansException 有bean销毁失败或者超时
+	 */
+	public void destroySingletons() {
+		clearSingletonSlots();
+		Map<String, DisposableBean> disposableBeansToDestroy;
+		synchronized (disposableBeans) {
+			disposableBeansToDestroy = new LinkedHashMap<>(disposableBeans);	//从disposableBeans拿到有销毁方法的bean
+			disposableBeans.clear();
+		}
+		disposableBeansToDestroy.replaceAll((beanName, disposableBean) -> () -> {
+			destroyingSingleton.set(Boolean.TRUE);
+			try {
+				disposableBean.destroy();
+			} finally {
+				destroyingSingleton.remove();
+			}
+		});
+		SingletonDestructionReport report = new SingletonDestroyer(disposableBeansToDestroy, this::getDependentBeans,
+				destroyParallelism, destroyTimeoutNanos, shutdownTimeoutNanos, TimeUnit.NANOSECONDS).destroy();
+		dependentBeanMap.clear();
+		this.destructionReport = report;
+		if (!report.getFailures().isEmpty()) {
+			BeansException exception = new BeansException("Failed to destroy beans " + report.getFailures().keySet());
+			for (Throwable failure : report.getFailures().values()) {
+				exception.addSuppressed(failure);
+			}
+			throw exception;
+		}
+	}
+
+	/**
+	 * 当前线程是否正在执行单例的销毁方法(包括并行销毁时的销毁线程)
+	 */
+	public boolean isDestroyingSingletonOnCurrentThread() {
+		return destroyingSingleton.get() != null;
+	}
+
+	/**
+	 * 最近一次{@link #destroySingletons()}的结果，还没有销毁过时为null
+	 */
+	public SingletonDestructionReport getDestructionReport() {
+		return destructionReport;
+	}
+
+	/**
+	 * 设置同时销毁的bean数量，默认为1
+	 */
+	public void setDestroyParallelism(int destroyParallelism) {
+		this.destroyParallelism = destroyParallelism;
+	}
+
+	/**
+	 * 设置单个bean销毁方法的超时时间，超时的bean记为失败，依赖它的bean继续销毁
+	 */
+	public void setDestroyTimeout(long timeout, TimeUnit unit) {
+		this.destroyTimeoutNanos = unit.toNanos(timeout);
+	}
+
+	/**
+	 * 设置销毁所有单例的超时时间，超时后没有销毁完的bean记为失败
+	 */
+	public void setShutdownTimeout(long timeout, TimeUnit unit) {
+		this.shutdownTimeoutNanos = unit.toNanos(timeout);
+	}
 }
@@ -1,10 +1,10 @@
 package org.springframework.beans.factory.support;
 
-import cn.hutool.core.util.ClassUtil;
 import cn.hutool.core.util.StrUtil;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.util.IntrospectionCache;
 
 import java.lang.reflect.Method;
 
@@ -35,7 +35,7 @@ public class DisposableBeanAdapter implements DisposableBean {
 		//避免同时继承自DisposableBean，且自定义方法与DisposableBean方法同名，销毁方法执行两次的情况
 		if (StrUtil.isNotEmpty(destroyMethodName) && !(bean instanceof DisposableBean && "destroy".equals(this.destroyMethodName))) {
 			//执行自定义方法
-			Method destroyMethod = ClassUtil.getPublicMethod(bean.getClass(), destroyMethodName);
+			Method destroyMethod = IntrospectionCache.getPublicMethod(bean.getClass(), destroyMethodName);
 			if (destroyMethod == null) {
 				throw new BeansException("Couldn't find a destroy method named '" + destroyMethodName + "' on bean with name '" + beanName + "'");
 			}
@@ -0,0 +1,276 @@
+package org.springframework.beans.factory.support;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 按依赖关系的逆序销毁单例：一个bean在所有(传递地)依赖它的bean销毁之后才销毁，互不依赖的bean并行销毁。
+ * 销毁方法抛出异常或者超时不影响其他bean，结果汇总到{@link SingletonDestructionReport}
+ */
+final class SingletonDestroyer {
+
+	private final Map<String, DisposableBean> disposableBeans;
+
+	private final Function<String, Set<String>> dependentBeans;
+
+	private final int parallelism;
+
+	private final long destroyTimeoutNanos;
+
+	private final long shutdownTimeoutNanos;
+
+	/**
+	 * bean名称到还没有销毁的、依赖它的bean
+	 */
+	private final Map<String, Set<String>> blockers = new HashMap<>();
+
+	/**
+	 * bean名称到等待它销毁的bean
+	 */
+	private final Map<String, List<String>> waiters = new HashMap<>();
+
+	private final Map<String, Duration> destroyTimes = new LinkedHashMap<>();
+
+	private final Map<String, Throwable> failures = new LinkedHashMap<>();
+
+	/**
+	 * @param disposableBeans 按注册顺序排列
+	 * @param dependentBeans  直接依赖某个bean的bean
+	 * @param parallelism     同时销毁的bean数量
+	 * @param destroyTimeout  单个bean的超时时间，0表示不限制
+	 * @param shutdownTimeout 全部销毁的超时时间，0表示不限制
+	 */
+	SingletonDestroyer(Map<String, DisposableBean> disposableBeans, Function<String, Set<String>> dependentBeans,
+			int parallelism, long destroyTimeout, long shutdownTimeout, TimeUnit unit) {
+		this.disposableBeans = disposableBeans;
+		this.dependentBeans = dependentBeans;
+		this.parallelism = Math.max(1, parallelism);
+		this.destroyTimeoutNanos = unit.toNanos(destroyTimeout);
+		this.shutdownTimeoutNanos = unit.toNanos(shutdownTimeout);
+	}
+
+	SingletonDestructionReport destroy() {
+		long start = System.nanoTime();
+		//后注册的bean先销毁
+		Deque<String> ready = new ArrayDeque<>();
+		List<String> beanNames = new ArrayList<>(disposableBeans.keySet());
+		for (int i = beanNames.size() - 1; i >= 0; i--) {
+			String beanName = beanNames.get(i);
+			Set<String> dependents = collectDisposableDependents(beanName);
+			blockers.put(beanName, dependents);
+			for (String dependent : dependents) {
+				waiters.computeIfAbsent(dependent, k -> new ArrayList<>()).add(beanName);
+			}
+			if (dependents.isEmpty()) {
+				ready.add(beanName);
+			}
+		}
+
+		boolean concurrent = parallelism > 1 || destroyTimeoutNanos > 0 || shutdownTimeoutNanos > 0;
+		ExecutorService executor = concurrent ? newExecutor() : null;
+		BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+		Map<String, Running> running = new LinkedHashMap<>();
+		Set<String> remaining = new HashSet<>(beanNames);
+		try {
+			while (!remaining.isEmpty()) {
+				while (running.size() < parallelism && !ready.isEmpty()) {
+					String beanName = ready.poll();
+					Runnable task = () -> completions.add(invokeDestroy(beanName));
+					if (executor != null) {
+						running.put(beanName, new Running(System.nanoTime(), executor.submit(task)));
+					} else {
+						running.put(beanName, new Running(System.nanoTime(), null));
+						task.run();
+					}
+				}
+				if (running.isEmpty()) {
+					//循环依赖，从后注册的bean开始打破
+					String beanName = latestRegistered(beanNames, remaining);
+					blockers.get(beanName).clear();
+					ready.add(beanName);
+					continue;
+				}
+
+				long now = System.nanoTime();
+				long deadline = nextDeadline(running, start);
+				Completion completion = deadline == Long.MAX_VALUE ? completions.take()
+						: completions.poll(Math.max(0, deadline - now), TimeUnit.NANOSECONDS);
+				if (completion != null) {
+					if (running.remove(completion.beanName) != null) {
+						destroyTimes.put(completion.beanName, Duration.ofNanos(completion.nanos));
+						if (completion.failure != null) {
+							failures.put(completion.beanName, completion.failure);
+						}
+						finish(completion.beanName, remaining, ready);
+					}
+					continue;
+				}
+
+				now = System.nanoTime();
+				if (shutdownTimeoutNanos > 0 && now - start >= shutdownTimeoutNanos) {
+					for (String beanName : remaining) {
+						Running task = running.get(beanName);
+						if (task != null) {
+							task.cancel();
+							destroyTimes.put(beanName, Duration.ofNanos(now - task.startNanos));
+						}
+						failures.put(beanName, new TimeoutException("Bean '" + beanName + "' was not destroyed within the shutdown timeout"));
+					}
+					break;
+				}
+				List<String> timedOut = new ArrayList<>();
+				for (Map.Entry<String, Running> entry : running.entrySet()) {
+					if (destroyTimeoutNanos > 0 && now - entry.getValue().startNanos >= destroyTimeoutNanos) {
+						timedOut.add(entry.getKey());
+					}
+				}
+				for (String beanName : timedOut) {
+					Running task = running.remove(beanName);
+					task.cancel();
+					destroyTimes.put(beanName, Duration.ofNanos(now - task.startNanos));
+					failures.put(beanName, new TimeoutException("Destroy method on bean '" + beanName + "' did not complete within "
+							+ TimeUnit.NANOSECONDS.toMillis(destroyTimeoutNanos) + "ms"));
+					finish(beanName, remaining, ready);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			for (String beanName : remaining) {
+				failures.put(beanName, e);
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+		return new SingletonDestructionReport(destroyTimes, failures, Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	/**
+	 * 传递地依赖beanName的、有销毁方法的bean。依赖关系可以经过没有销毁方法的bean
+	 */
+	private Set<String> collectDisposableDependents(String beanName) {
+		Set<String> visited = new HashSet<>();
+		Set<String> result = new HashSet<>();
+		Deque<String> pending = new ArrayDeque<>(dependentBeans.apply(beanName));
+		while (!pending.isEmpty()) {
+			String dependent = pending.pop();
+			if (!visited.add(dependent)) {
+				continue;
+			}
+			if (disposableBeans.containsKey(dependent) && !dependent.equals(beanName)) {
+				result.add(dependent);
+			}
+			pending.addAll(dependentBeans.apply(dependent));
+		}
+		return result;
+	}
+
+	private void finish(String beanName, Set<String> remaining, Deque<String> ready) {
+		remaining.remove(beanName);
+		List<String> waiting = waiters.remove(beanName);
+		if (waiting == null) {
+			return;
+		}
+		for (String waiter : waiting) {
+			Set<String> waiterBlockers = blockers.get(waiter);
+			if (waiterBlockers.remove(beanName) && waiterBlockers.isEmpty() && remaining.contains(waiter)) {
+				ready.add(waiter);
+			}
+		}
+	}
+
+	private long nextDeadline(Map<String, Running> running, long start) {
+		long deadline = shutdownTimeoutNanos > 0 ? start + shutdownTimeoutNanos : Long.MAX_VALUE;
+		if (destroyTimeoutNanos > 0) {
+			for (Running task : running.values()) {
+				deadline = Math.min(deadline, task.startNanos + destroyTimeoutNanos);
+			}
+		}
+		return deadline;
+	}
+
+	private static String latestRegistered(List<String> beanNames, Set<String> remaining) {
+		for (int i = beanNames.size() - 1; i >= 0; i--) {
+			if (remaining.contains(beanNames.get(i))) {
+				return beanNames.get(i);
+			}
+		}
+		throw new IllegalStateException("No remaining bean");
+	}
+
+	private Completion invokeDestroy(String beanName) {
+		long start = System.nanoTime();
+		Throwable failure = null;
+		try {
+			disposableBeans.get(beanName).destroy();
+		} catch (Throwable e) {
+			failure = e;
+		}
+		return new Completion(beanName, System.nanoTime() - start, failure);
+	}
+
+	/**
+	 * 超时的销毁方法所在的线程可能一直不结束，每个任务使用新的守护线程，不占用其他bean的并行度
+	 */
+	private static ExecutorService newExecutor() {
+		AtomicInteger threadNumber = new AtomicInteger();
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "singleton-destroyer-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private static final class Running {
+
+		private final long startNanos;
+
+		private final Future<?> future;
+
+		private Running(long startNanos, Future<?> future) {
+			this.startNanos = startNanos;
+			this.future = future;
+		}
+
+		private void cancel() {
+			if (future != null) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private static final class Completion {
+
+		private final String beanName;
+
+		private final long nanos;
+
+		private final Throwable failure;
+
+		private Completion(String beanName, long nanos, Throwable failure) {
+			this.beanName = beanName;
+			this.nanos = nanos;
+			this.failure = failure;
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package org.springframework.beans.factory.support;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 一次销毁所有单例的结果：每个bean销毁方法的耗时(按完成顺序)，以及失败或超时的bean
+ */
+public class SingletonDestructionReport {
+
+	private final Map<String, Duration> destroyTimes;
+
+	private final Map<String, Throwable> failures;
+
+	private final Duration totalTime;
+
+	SingletonDestructionReport(Map<String, Duration> destroyTimes, Map<String, Throwable> failures, Duration totalTime) {
+		this.destroyTimes = Collections.unmodifiableMap(destroyTimes);
+		this.failures = Collections.unmodifiableMap(failures);
+		this.totalTime = totalTime;
+	}
+
+	/**
+	 * 销毁方法的耗时，包括失败和超时的bean
+	 */
+	public Map<String, Duration> getDestroyTimes() {
+		return destroyTimes;
+	}
+
+	/**
+	 * 销毁方法抛出的异常；超时的bean为{@link java.util.concurrent.TimeoutException}
+	 */
+	public Map<String, Throwable> getFailures() {
+		return failures;
+	}
+
+	public Duration getTotalTime() {
+		return totalTime;
+	}
+}
@@ -0,0 +1,16 @@
+package org.springframework.beans.factory.support;
+
+/**
+ * 单例表中的一个槽位，保存对外暴露的单例对象(FactoryBean则是其创建的对象)。
+ * BeanHandle直接持有槽位，获取单例只需要一次volatile读
+ *
+ * @see DefaultSingletonBeanRegistry#getSingletonSlot(String)
+ */
+final class SingletonSlot {
+
+	volatile Object instance;
+
+	void clear() {
+		this.instance = null;
+	}
+}
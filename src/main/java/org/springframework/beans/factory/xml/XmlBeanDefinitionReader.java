@@ -20,6 +20,7 @@ import org.springframework.core.io.ResourceLoader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * 作用：读取配置在xml文件中的bean定义信息
@@ -36,11 +37,20 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 	public static final String REF_ATTRIBUTE = "ref";
 	public static final String INIT_METHOD_ATTRIBUTE = "init-method";
 	public static final String DESTROY_METHOD_ATTRIBUTE = "destroy-method";
+	public static final String WARM_UP_METHOD_ATTRIBUTE = "warm-up-method";
 	public static final String SCOPE_ATTRIBUTE = "scope";
 	public static final String LAZYINIT_ATTRIBUTE = "lazyInit";
+	public static final String PARENT_ATTRIBUTE = "parent";
+	public static final String ABSTRACT_ATTRIBUTE = "abstract";
+	public static final String INIT_PRIORITY_ATTRIBUTE = "init-priority";
 	public static final String BASE_PACKAGE_ATTRIBUTE = "base-package";
 	public static final String COMPONENT_SCAN_ELEMENT = "component-scan";
 
+	/**
+	 * 提前加载非懒加载单例的类，为null时不加载
+	 */
+	private Executor preloadExecutor;
+
 	public XmlBeanDefinitionReader(BeanDefinitionRegistry registry) {
 		super(registry);
 	}
@@ -103,28 +113,53 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 			String className = bean.attributeValue(CLASS_ATTRIBUTE);
 			String initMethodName = bean.attributeValue(INIT_METHOD_ATTRIBUTE);
 			String destroyMethodName = bean.attributeValue(DESTROY_METHOD_ATTRIBUTE);
+			String warmUpMethodName = bean.attributeValue(WARM_UP_METHOD_ATTRIBUTE);
 			String beanScope = bean.attributeValue(SCOPE_ATTRIBUTE);
 			String lazyInit = bean.attributeValue(LAZYINIT_ATTRIBUTE);
-			Class<?> clazz;		//clazz是加载进来的类对象
-			try {	//Class.forName时如果只是想获取类对象而不想触发类的初始化，可以使用Class类中重载的forName方法
-				clazz = Class.forName(className);	// Class.forName方法的本质是告诉jvm去加载指定的类(此时会自动执行静态代码块 和 静态变量初始化)。。方法内部会通过Reflection.getCallerClass()拿到是哪一个类在执行这个语句
-			} catch (ClassNotFoundException e) {
-				throw new BeansException("Cannot find class [" + className + "]");
+			String parentName = bean.attributeValue(PARENT_ATTRIBUTE);
+			String abstractFlag = bean.attributeValue(ABSTRACT_ATTRIBUTE);
+			String initPriority = bean.attributeValue(INIT_PRIORITY_ATTRIBUTE);
+			//只记录类名，第一次使用时才加载类。指定了parent时可以省略，沿用父定义的类
+			if (StrUtil.isEmpty(className) && StrUtil.isEmpty(parentName)) {
+				throw new BeansException("The class attribute is required for bean without parent");
 			}
 			//id优先于name
 			beanName = StrUtil.isNotEmpty(beanId) ? beanId : beanName;		//优先使用beanId进行寻找bean，其次是name
 			if (StrUtil.isEmpty(beanName)) {	//如果指定了id，默认id就是当前bean的名字
+				if (StrUtil.isEmpty(className)) {
+					throw new BeansException("The id or name attribute is required for bean without class");
+				}
 				//如果 id 和 name 都为空，将类名的第一个字母转为小写后作为bean的名称
-				beanName = StrUtil.lowerFirst(clazz.getSimpleName());		//如果没有指定beanId和beanName，默认是类名(简单类名)的首字母小写
+				beanName = StrUtil.lowerFirst(getSimpleClassName(className));		//如果没有指定beanId和beanName，默认是类名(简单类名)的首字母小写
 			}
 
-			BeanDefinition beanDefinition = new BeanDefinition(clazz);		//其实所有的BeanDefinition都是通过new得到的，然后下面把xml文件解析的属性设置进去
+			BeanDefinition beanDefinition = new BeanDefinition(null);		//其实所有的BeanDefinition都是通过new得到的，然后下面把xml文件解析的属性设置进去
+			if (StrUtil.isNotEmpty(className)) {
+				beanDefinition.setBeanClassName(className);
+			}
 			beanDefinition.setInitMethodName(initMethodName);
 			beanDefinition.setDestroyMethodName(destroyMethodName);
-			beanDefinition.setLazyInit(Boolean.parseBoolean(lazyInit));
+			if (StrUtil.isNotEmpty(warmUpMethodName)) {
+				beanDefinition.setWarmUpMethodName(warmUpMethodName);
+			}
+			//子定义中没有出现的配置沿用父定义，因此只设置出现的属性
+			if (StrUtil.isNotEmpty(lazyInit)) {
+				beanDefinition.setLazyInit(Boolean.parseBoolean(lazyInit));
+			}
 			if (StrUtil.isNotEmpty(beanScope)) {
 				beanDefinition.setScope(beanScope);
 			}
+			if (StrUtil.isNotEmpty(parentName)) {
+				beanDefinition.setParentName(parentName);
+			}
+			beanDefinition.setAbstract(Boolean.parseBoolean(abstractFlag));
+			if (StrUtil.isNotEmpty(initPriority)) {
+				try {
+					beanDefinition.setInitPriority(Integer.parseInt(initPriority.trim()));
+				} catch (NumberFormatException e) {
+					throw new BeansException("Invalid init-priority [" + initPriority + "] for bean '" + beanName + "'", e);
+				}
+			}
 
 			List<Element> propertyList = bean.elements(PROPERTY_ELEMENT);	//从这里开始是从xml解析当前bean的property标签，然后设置到beanDefinition中
 			for (Element property : propertyList) {		//这个for循环每一轮会完成当前bean一个属性的解析，并构造这个属性为PropertyValue对象
@@ -147,11 +182,42 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
 				//beanName不能重名
 				throw new BeansException("Duplicate beanName[" + beanName + "] is not allowed");
 			}
+			preloadBeanClass(beanDefinition);
 			//注册BeanDefinition。上面的步骤会先new一个BeanDifinition然后根据标签内容把propertyValue设置好，这样一个BeanDifinition就完整了，这里就是放入到beanDefinitionMap
 			getRegistry().registerBeanDefinition(beanName, beanDefinition);
 		}
 	}
 
+	/**
+	 * 容器启动时就会创建的bean，在后台线程中提前加载类，与剩余的解析工作并行。加载失败时忽略，第一次使用时再报告
+	 */
+	private void preloadBeanClass(BeanDefinition beanDefinition) {
+		Executor executor = this.preloadExecutor;
+		if (executor == null || beanDefinition.getBeanClassName() == null || beanDefinition.hasBeanClass()
+				|| beanDefinition.isAbstract() || beanDefinition.isLazyInit() || !beanDefinition.isSingleton()) {
+			return;
+		}
+		executor.execute(() -> {
+			try {
+				beanDefinition.resolveBeanClass();
+			} catch (BeansException e) {
+				//第一次使用时重新加载并抛出异常
+			}
+		});
+	}
+
+	private static String getSimpleClassName(String className) {
+		String simpleName = className.substring(className.lastIndexOf('.') + 1);
+		return simpleName.substring(simpleName.lastIndexOf('$') + 1);
+	}
+
+	/**
+	 * 设置后台加载类的线程池，为null时不提前加载
+	 */
+	public void setPreloadExecutor(Executor preloadExecutor) {
+		this.preloadExecutor = preloadExecutor;
+	}
+
 	/**
 	 * 扫描注解Component的类，提取信息，组装成BeanDefinition
 	 *
@@ -11,4 +11,8 @@ import org.springframework.core.io.ResourceLoader;
  */
 public interface ApplicationContext extends ListableBeanFactory, HierarchicalBeanFactory, ResourceLoader, ApplicationEventPublisher {
 
+	/**
+	 * @return 没有父上下文时返回null
+	 */
+	ApplicationContext getParent();
 }
@@ -6,6 +6,11 @@ import org.springframework.beans.BeansException;
  */
 public interface ConfigurableApplicationContext extends ApplicationContext {
 
+	/**
+	 * 设置父上下文，需要在refresh之前设置。本地没有定义的bean从父上下文获取
+	 */
+	void setParent(ApplicationContext parent);
+
 	/**
 	 * 刷新容器
 	 *
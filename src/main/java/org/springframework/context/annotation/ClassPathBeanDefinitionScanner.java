@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostP
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.stereotype.Component;
+import org.springframework.util.IntrospectionCache;
 
 import java.util.Set;
 
@@ -52,7 +53,7 @@ public class ClassPathBeanDefinitionScanner extends ClassPathScanningCandidateCo
 	 */
 	private String resolveBeanScope(BeanDefinition beanDefinition) {
 		Class<?> beanClass = beanDefinition.getBeanClass();
-		Scope scope = beanClass.getAnnotation(Scope.class);	//拿到当前类的注解@Scope的值
+		Scope scope = IntrospectionCache.getAnnotation(beanClass, Scope.class);	//拿到当前类的注解@Scope的值
 		if (scope != null) {		//如果有注解@Scope就返回注解指定的值；否则的话返回 StrUtil.EMPTY
 			return scope.value();
 		}
@@ -69,7 +70,7 @@ public class ClassPathBeanDefinitionScanner extends ClassPathScanningCandidateCo
 	 */
 	private String determineBeanName(BeanDefinition beanDefinition) {
 		Class<?> beanClass = beanDefinition.getBeanClass();
-		Component component = beanClass.getAnnotation(Component.class);		//拿到注解Component，然后获取value值，如果有的化就将value值设置为bean的name
+		Component component = IntrospectionCache.getAnnotation(beanClass, Component.class);		//拿到注解Component，然后获取value值，如果有的化就将value值设置为bean的name
 		String value = component.value();
 		if (StrUtil.isEmpty(value)) {		//如果Component注解没有设置bean的名称(也就是没有设置value值)，则使用getSimpleName()第一个字母小写后的值作为name
 			value = StrUtil.lowerFirst(beanClass.getSimpleName());
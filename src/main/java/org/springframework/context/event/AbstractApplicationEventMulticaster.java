@@ -6,15 +6,15 @@ import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  *
  */
 public abstract class AbstractApplicationEventMulticaster implements ApplicationEventMulticaster, BeanFactoryAware {
 
-	public final Set<ApplicationListener<ApplicationEvent>> applicationListeners = new HashSet<>();		//将程序中所有的监听器加入到集合中，这些监听器表示想收到感兴趣的事件
+	public final Set<ApplicationListener<ApplicationEvent>> applicationListeners = new CopyOnWriteArraySet<>();		//将程序中所有的监听器加入到集合中，这些监听器表示想收到感兴趣的事件。合并事件会在后台线程投递，因此使用线程安全的集合
 
 	private BeanFactory beanFactory;
 
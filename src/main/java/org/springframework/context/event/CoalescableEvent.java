@@ -0,0 +1,33 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 可合并的事件。同一合并键的事件在时间窗口内只会被投递一次，适用于配置变更、缓存失效这类只关心最新值的高频事件。
+ * 需要由ApplicationEvent的子类实现
+ *
+ * @see EventCoalescer
+ */
+public interface CoalescableEvent {
+
+	/**
+	 * 合并键，键相同(equals)的事件会在窗口内被合并
+	 */
+	Object getCoalescingKey();
+
+	/**
+	 * 合并窗口，单位毫秒。小于等于0表示不合并，直接投递
+	 */
+	long getCoalescingWindowMillis();
+
+	/**
+	 * 将窗口内先到达的事件与当前事件合并，返回最终要投递的事件。默认只保留最新的事件(前一个事件被丢弃)，
+	 * 	子类可以覆盖此方法实现自定义的合并逻辑
+	 *
+	 * @param previous 窗口内尚未投递的上一个事件
+	 * @return 合并后的事件
+	 */
+	default ApplicationEvent coalesce(ApplicationEvent previous) {
+		return (ApplicationEvent) this;
+	}
+}
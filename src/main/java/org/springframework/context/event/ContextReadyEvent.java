@@ -0,0 +1,27 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationContext;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 容器刷新完成并且所有bean的预热例程执行完毕后发布，表示可以开始接收请求。携带每个bean的预热耗时
+ */
+public class ContextReadyEvent extends ApplicationContextEvent {
+
+	private final Map<String, Duration> warmUpTimings;
+
+	public ContextReadyEvent(ApplicationContext source, Map<String, Duration> warmUpTimings) {
+		super(source);
+		this.warmUpTimings = Collections.unmodifiableMap(warmUpTimings);
+	}
+
+	/**
+	 * bean名称到预热总耗时，按预热顺序排列
+	 */
+	public Map<String, Duration> getWarmUpTimings() {
+		return warmUpTimings;
+	}
+}
@@ -0,0 +1,266 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 事件合并器：按(事件类型, 合并键)缓存窗口内最后一个事件(或合并后的事件)，窗口结束时只投递一次。
+ * 窗口从该键的第一个事件到达时开始计时，投递在后台的调度线程中执行。
+ * 每个窗口有自己的标识，窗口被flushAll提前投递后，原来安排的定时任务不会投递下一个窗口的事件。
+ * 调度线程中监听器抛出的异常不会中断调度线程，只计数并记录最后一个异常；flushAll和shutdown在调用线程中投递，
+ * 监听器的异常在全部事件投递完后抛出。关闭后提交的事件在调用线程中直接投递
+ *
+ * @see CoalescableEvent
+ */
+public class EventCoalescer {
+
+	private final Map<PendingKey, PendingEvent> pendingEvents = new ConcurrentHashMap<>();
+
+	private final Consumer<ApplicationEvent> delivery;
+
+	private volatile ScheduledExecutorService scheduler;
+
+	/**
+	 * 关闭后不再创建调度线程，通过this访问
+	 */
+	private boolean shutdown;
+
+	private final AtomicLong receivedCount = new AtomicLong();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private final AtomicLong mergedCount = new AtomicLong();
+
+	private final AtomicLong deliveredCount = new AtomicLong();
+
+	private final AtomicLong failedCount = new AtomicLong();
+
+	private volatile Throwable lastFailure;
+
+	public EventCoalescer(Consumer<ApplicationEvent> delivery) {
+		this.delivery = delivery;
+	}
+
+	/**
+	 * 接收一个可合并事件。窗口内已有同键事件时与之合并，否则放入缓存并安排在窗口结束时投递
+	 */
+	public void submit(ApplicationEvent event) {
+		CoalescableEvent coalescableEvent = (CoalescableEvent) event;
+		PendingKey key = new PendingKey(event.getClass(), coalescableEvent.getCoalescingKey());
+		receivedCount.incrementAndGet();
+		Object[] newWindow = new Object[1];
+		pendingEvents.compute(key, (k, previous) -> {
+			if (previous == null) {
+				Object window = new Object();
+				newWindow[0] = window;
+				return new PendingEvent(event, window);
+			}
+			ApplicationEvent result = coalescableEvent.coalesce(previous.event);
+			if (result == event || result == previous.event) {
+				droppedCount.incrementAndGet();
+			} else {
+				mergedCount.incrementAndGet();
+			}
+			return new PendingEvent(result, previous.window);
+		});
+		if (newWindow[0] != null) {
+			Object window = newWindow[0];
+			ScheduledExecutorService current = getScheduler();
+			if (current != null) {
+				try {
+					current.schedule(() -> {
+						flush(key, window);
+					}, coalescableEvent.getCoalescingWindowMillis(), TimeUnit.MILLISECONDS);
+					return;
+				} catch (RejectedExecutionException e) {
+					//与shutdown并发，调度线程已经关闭
+				}
+			}
+			//已经关闭，不再等待窗口结束
+			RuntimeException failure = flush(key, window);
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	/**
+	 * 在调用线程中立即投递所有尚在窗口内的事件，比如容器关闭之前
+	 *
+	 * @throws RuntimeException 监听器抛出的第一个异常，其余的异常作为suppressed附加在上面。所有事件都投递完才抛出
+	 */
+	public void flushAll() {
+		RuntimeException failure = null;
+		List<PendingKey> keys = new ArrayList<>(pendingEvents.keySet());
+		for (PendingKey key : keys) {
+			RuntimeException e = flush(key, null);
+			if (e == null) {
+				continue;
+			}
+			if (failure == null) {
+				failure = e;
+			} else {
+				failure.addSuppressed(e);
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * 关闭调度线程并投递剩余事件，监听器的异常同{@link #flushAll()}
+	 */
+	public void shutdown() {
+		ScheduledExecutorService current;
+		synchronized (this) {
+			shutdown = true;
+			current = this.scheduler;
+			this.scheduler = null;
+		}
+		if (current != null) {
+			current.shutdownNow();
+		}
+		flushAll();
+	}
+
+	/**
+	 * 投递键对应的事件
+	 *
+	 * @param window 只投递这个窗口的事件，为null时投递当前的任意窗口
+	 * @return 监听器抛出的异常，已经计数
+	 */
+	private RuntimeException flush(PendingKey key, Object window) {
+		PendingEvent[] removed = new PendingEvent[1];
+		pendingEvents.computeIfPresent(key, (k, pending) -> {
+			if (window != null && pending.window != window) {
+				return pending;
+			}
+			removed[0] = pending;
+			return null;
+		});
+		if (removed[0] != null) {
+			deliveredCount.incrementAndGet();
+			try {
+				delivery.accept(removed[0].event);
+			} catch (RuntimeException e) {
+				failedCount.incrementAndGet();
+				lastFailure = e;
+				return e;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return 已经关闭时为null
+	 */
+	private ScheduledExecutorService getScheduler() {
+		ScheduledExecutorService current = this.scheduler;
+		if (current == null) {
+			synchronized (this) {
+				current = this.scheduler;
+				if (current == null && !shutdown) {
+					current = Executors.newSingleThreadScheduledExecutor(r -> {
+						Thread thread = new Thread(r, "event-coalescer");
+						thread.setDaemon(true);
+						return thread;
+					});
+					this.scheduler = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	public int getPendingCount() {
+		return pendingEvents.size();
+	}
+
+	public long getReceivedCount() {
+		return receivedCount.get();
+	}
+
+	/**
+	 * 被后到事件直接覆盖掉的事件数
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * 通过CoalescableEvent#coalesce合并成新事件的次数
+	 */
+	public long getMergedCount() {
+		return mergedCount.get();
+	}
+
+	public long getDeliveredCount() {
+		return deliveredCount.get();
+	}
+
+	/**
+	 * 投递时监听器抛出异常的次数
+	 */
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	/**
+	 * 最后一次投递失败的异常，没有失败时为null
+	 */
+	public Throwable getLastFailure() {
+		return lastFailure;
+	}
+
+	/**
+	 * 窗口内缓存的事件，以及该窗口的标识
+	 */
+	private static final class PendingEvent {
+
+		private final ApplicationEvent event;
+
+		private final Object window;
+
+		private PendingEvent(ApplicationEvent event, Object window) {
+			this.event = event;
+			this.window = window;
+		}
+	}
+
+	private static final class PendingKey {
+
+		private final Class<?> eventType;
+
+		private final Object coalescingKey;
+
+		private PendingKey(Class<?> eventType, Object coalescingKey) {
+			this.eventType = eventType;
+			this.coalescingKey = coalescingKey;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof PendingKey)) return false;
+			PendingKey that = (PendingKey) o;
+			return eventType.equals(that.eventType) && Objects.equals(coalescingKey, that.coalescingKey);
+		}
+
+		@Override
+		public int hashCode() {
+			return eventType.hashCode() * 31 + Objects.hashCode(coalescingKey);
+		}
+	}
+}
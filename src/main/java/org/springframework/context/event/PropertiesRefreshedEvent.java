@@ -0,0 +1,31 @@
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationContext;
+
+import java.util.Set;
+
+/**
+ * 属性重新加载完成后发布的事件，包含变化的属性名以及被重新注入的bean
+ *
+ * @see org.springframework.context.support.ReloadablePropertyPlaceholderConfigurer
+ */
+public class PropertiesRefreshedEvent extends ApplicationContextEvent {
+
+	private final Set<String> changedKeys;
+
+	private final Set<String> updatedBeanNames;
+
+	public PropertiesRefreshedEvent(ApplicationContext source, Set<String> changedKeys, Set<String> updatedBeanNames) {
+		super(source);
+		this.changedKeys = changedKeys;
+		this.updatedBeanNames = updatedBeanNames;
+	}
+
+	public Set<String> getChangedKeys() {
+		return changedKeys;
+	}
+
+	public Set<String> getUpdatedBeanNames() {
+		return updatedBeanNames;
+	}
+}
@@ -1,12 +1,10 @@
 package org.springframework.context.event;
 
-import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
+import org.springframework.util.IntrospectionCache;
 
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 
 /**
  * 一句话：用于管理和分发应用程序事件（Application Events），确保事件能够正确地传递给所有感兴趣的监听器。
@@ -23,12 +21,23 @@ import java.lang.reflect.Type;
  * */
 public class SimpleApplicationEventMulticaster extends AbstractApplicationEventMulticaster {
 
+	private final EventCoalescer eventCoalescer = new EventCoalescer(this::invokeListeners);
+
 	public SimpleApplicationEventMulticaster(BeanFactory beanFactory) {
 		setBeanFactory(beanFactory);
 	}
 
 	@Override
 	public void multicastEvent(ApplicationEvent event) {
+		//可合并事件先进入合并器，窗口结束时再投递
+		if (event instanceof CoalescableEvent && ((CoalescableEvent) event).getCoalescingWindowMillis() > 0) {
+			eventCoalescer.submit(event);
+			return;
+		}
+		invokeListeners(event);
+	}
+
+	protected void invokeListeners(ApplicationEvent event) {
 		for (ApplicationListener<ApplicationEvent> applicationListener : applicationListeners) {
 			if (supportsEvent(applicationListener, event)) {	//检查监听器 和 事件是否匹配，从而决定是否将事件分发给监听器
 				applicationListener.onApplicationEvent(event);
@@ -36,6 +45,24 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 		}
 	}
 
+	/**
+	 * 立即投递所有尚在合并窗口内的事件
+	 */
+	public void flushCoalescedEvents() {
+		eventCoalescer.flushAll();
+	}
+
+	/**
+	 * 投递剩余的合并事件并释放合并器的调度线程
+	 */
+	public void shutdown() {
+		eventCoalescer.shutdown();
+	}
+
+	public EventCoalescer getEventCoalescer() {
+		return eventCoalescer;
+	}
+
 	/**
 	 * 监听器是否对该事件感兴趣
 	 *
@@ -44,15 +71,9 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 	 * @return
 	 */
 	protected boolean supportsEvent(ApplicationListener<ApplicationEvent> applicationListener, ApplicationEvent event) {
-		Type type = applicationListener.getClass().getGenericInterfaces()[0];	//获取指定类或接口的泛型类型
-		Type actualTypeArgument = ((ParameterizedType) type).getActualTypeArguments()[0];	//getActualTypeArguments获取泛型参数的实际类型
-		String className = actualTypeArgument.getTypeName();
-		Class<?> eventClassName;
-		try {
-			eventClassName = Class.forName(className);
-		} catch (ClassNotFoundException e) {
-			throw new BeansException("wrong event class name: " + className);
-		}
-		return eventClassName.isAssignableFrom(event.getClass());
+		//监听器实现的ApplicationListener<E>的泛型参数，没有指定时监听所有事件
+		Class<?>[] typeArguments = IntrospectionCache.resolveTypeArguments(applicationListener.getClass(), ApplicationListener.class);
+		Class<?> eventClass = typeArguments != null ? typeArguments[0] : ApplicationEvent.class;
+		return eventClass.isAssignableFrom(event.getClass());
 	}
 }
@@ -1,21 +1,33 @@
 package org.springframework.context.support;
 
+import org.springframework.aop.framework.InvocationTracker;
+import org.springframework.aop.framework.autoproxy.DefaultAdvisorAutoProxyCreator;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.event.ApplicationEventMulticaster;
 import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextReadyEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.SimpleApplicationEventMulticaster;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.io.DefaultResourceLoader;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 抽象应用上下文
@@ -27,12 +39,71 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 
 	public static final String CONVERSION_SERVICE_BEAN_NAME = "conversionService";
 
+	/**
+	 * 设置该系统属性后，refresh作为训练运行：记录刷新过程中加载的所有类，写到属性指定的文件中
+	 */
+	public static final String CLASS_LIST_FILE_PROPERTY = "spring.context.classlist";
+
+	private ApplicationContext parent;
+
 	private ApplicationEventMulticaster applicationEventMulticaster;
 
+	private String classListFile;
+
+	/**
+	 * 后台预热懒加载单例的线程数，0表示不预热
+	 */
+	private int lazySingletonWarmUpThreads;
+
+	private LazySingletonWarmer lazySingletonWarmer;
+
+	/**
+	 * 每个bean的预热例程执行次数
+	 */
+	private int warmUpIterations = 1000;
+
+	/**
+	 * 同时预热的bean数量
+	 */
+	private int warmUpParallelism = 1;
+
+	private Map<String, Duration> warmUpTimings = Collections.emptyMap();
+
+	/**
+	 * 关闭时等待经过代理的调用结束的最长时间
+	 */
+	private long shutdownDrainTimeoutNanos = TimeUnit.SECONDS.toNanos(10);
+
+	private InvocationTracker.DrainResult shutdownDrainResult;
+
 	// BeanPostProcessor(允许在bean实例化之后 但是 在初始化之前 做一些处理)
 	// BeanFactoryPostProcessor(仅一个抽象方法，用于修改bean的配置元数据。BeanDefinition创建完成(即refreshBeanFactory()方法)之后 但是 在bean实例化之前)
 	@Override
 	public void refresh() throws BeansException {
+		String classListFile = getClassListFile();
+		if (classListFile == null) {
+			doRefresh();
+			return;
+		}
+		//训练运行，记录刷新过程中加载的类，用于生成AppCDS归档
+		ClassListRecorder recorder = ClassListRecorder.start();
+		try {
+			doRefresh();
+		} finally {
+			try {
+				recorder.stop();
+			} catch (IOException e) {
+				throw new BeansException("Could not record loaded classes", e);
+			}
+		}
+		try {
+			recorder.writeTo(new File(classListFile));
+		} catch (IOException e) {
+			throw new BeansException("Could not write class list to " + classListFile, e);
+		}
+	}
+
+	protected void doRefresh() throws BeansException {
 		//创建BeanFactory，根据xml文件创建所有的BeanDefinition并且存放在beanDefinitionMap。会根据所有bean的定义信息创建对应的beanDefinition对象存起来
 		refreshBeanFactory();	//最终会执型doLoadBeanDefinitions方法，会利用流来读取并解析xml文件将所有的bean标签定义的bean，每一个bean标签构造出一个BeanDefinition，并将所有的BeanDefinition存储在BeanDefinitionMap中
 		ConfigurableListableBeanFactory beanFactory = getBeanFactory();		//默认是DefaultListableBeanFactory对象
@@ -64,6 +135,70 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 		finishRefresh();
 	}
 
+	/**
+	 * 设置类列表文件，refresh时记录加载的类并写到该文件。没有设置时使用系统属性{@link #CLASS_LIST_FILE_PROPERTY}
+	 */
+	public void setClassListFile(String classListFile) {
+		this.classListFile = classListFile;
+	}
+
+	public String getClassListFile() {
+		return classListFile != null ? classListFile : System.getProperty(CLASS_LIST_FILE_PROPERTY);
+	}
+
+	/**
+	 * 设置后台预热懒加载单例的线程数，需要在refresh之前设置。大于0时refresh不等待懒加载单例，发布刷新完成事件后在后台按优先级创建
+	 */
+	public void setLazySingletonWarmUpThreads(int lazySingletonWarmUpThreads) {
+		this.lazySingletonWarmUpThreads = lazySingletonWarmUpThreads;
+	}
+
+	/**
+	 * 后台预热懒加载单例的执行器，没有开启预热时为null
+	 */
+	public LazySingletonWarmer getLazySingletonWarmer() {
+		return lazySingletonWarmer;
+	}
+
+	/**
+	 * 设置每个bean的预热例程执行次数，0表示不预热
+	 */
+	public void setWarmUpIterations(int warmUpIterations) {
+		this.warmUpIterations = warmUpIterations;
+	}
+
+	public int getWarmUpIterations() {
+		return warmUpIterations;
+	}
+
+	/**
+	 * 设置同时预热的bean数量，同一个bean的预热总是在一个线程中执行
+	 */
+	public void setWarmUpParallelism(int warmUpParallelism) {
+		this.warmUpParallelism = warmUpParallelism;
+	}
+
+	/**
+	 * 最近一次refresh中每个bean的预热耗时
+	 */
+	public Map<String, Duration> getWarmUpTimings() {
+		return warmUpTimings;
+	}
+
+	/**
+	 * 设置关闭时等待正在执行的代理调用结束的最长时间，超时后不再等待，直接销毁单例
+	 */
+	public void setShutdownDrainTimeout(long timeout, TimeUnit unit) {
+		this.shutdownDrainTimeoutNanos = unit.toNanos(timeout);
+	}
+
+	/**
+	 * 最近一次关闭时排空代理调用的耗时和被截断的调用数，还没有关闭时为null
+	 */
+	public InvocationTracker.DrainResult getShutdownDrainResult() {
+		return shutdownDrainResult;
+	}
+
 	protected void finishBeanFactoryInitialization(ConfigurableListableBeanFactory beanFactory) {
 		//设置类型转换器，作用？？
 		if (beanFactory.containsBean(CONVERSION_SERVICE_BEAN_NAME)) {
@@ -73,6 +208,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 			}
 		}
 
+		//BeanDefinition不会再变化，冻结配置
+		beanFactory.freezeConfiguration();
+
 		//提前实例化单例bean。。普通的、单例的bean就会在这一步进行创建完成(BeanPostProcessor接口实现类的bean在之前添加时通过getBean方法已经完成创建了)。同时涉及到了三级缓存的使用。。。默认bean都是单例的
 		beanFactory.preInstantiateSingletons();
 	}
@@ -93,10 +231,12 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 	 * @param beanFactory
 	 */
 	protected void invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory beanFactory) {	//这个方法BeanFactoryPostProcessor会发挥作用，在getBeansOfType方法中已经完成了这些Bean的创建
-		Map<String, BeanFactoryPostProcessor> beanFactoryPostProcessorMap = beanFactory.getBeansOfType(BeanFactoryPostProcessor.class);		//获取BeanFactoryPostProcessor类型的所有bean的定义信息(是处理BeanDefinition的扩展点)
+		Map<String, BeanFactoryPostProcessor> beanFactoryPostProcessorMap = beanFactory.getBeansOfType(BeanFactoryPostProcessor.class, false);		//获取BeanFactoryPostProcessor类型的所有bean的定义信息(是处理BeanDefinition的扩展点)
 		for (BeanFactoryPostProcessor beanFactoryPostProcessor : beanFactoryPostProcessorMap.values()) {
 			beanFactoryPostProcessor.postProcessBeanFactory(beanFactory);
 		}
+		//BeanFactoryPostProcessor可能修改了父定义，之前合并的结果不再有效
+		beanFactory.clearMetadataCache();
 	}
 
 	/**
@@ -107,7 +247,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 	 * @param beanFactory
 	 */
 	protected void registerBeanPostProcessors(ConfigurableListableBeanFactory beanFactory) {
-		Map<String, BeanPostProcessor> beanPostProcessorMap = beanFactory.getBeansOfType(BeanPostProcessor.class);	//从BeanDefinitionMap中拿
+		Map<String, BeanPostProcessor> beanPostProcessorMap = beanFactory.getBeansOfType(BeanPostProcessor.class, false);	//从BeanDefinitionMap中拿
 		for (BeanPostProcessor beanPostProcessor : beanPostProcessorMap.values()) {
 			beanFactory.addBeanPostProcessor(beanPostProcessor);
 		}
@@ -124,21 +264,46 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 		beanFactory.addSingleton(APPLICATION_EVENT_MULTICASTER_BEAN_NAME, applicationEventMulticaster);		//将创建的对象直接注册在一级缓存。由于这里是创建对象直接存到一级缓存，因此可知：BeanDefinitionMap中并不是包括了所有的bean，我们可以通过new的方式创建并放入到三级缓存
 	}
 
+	protected ApplicationEventMulticaster getApplicationEventMulticaster() {
+		return applicationEventMulticaster;
+	}
+
 	/**
 	 * 注册事件监听器
 	 */
 	protected void registerListeners() {	//获取所有ApplicationListener接口类型的bean，并添加到applicationEventMulticaster中
-		Collection<ApplicationListener> applicationListeners = getBeansOfType(ApplicationListener.class).values();
+		Collection<ApplicationListener> applicationListeners = getBeanFactory().getBeansOfType(ApplicationListener.class, false).values();
 		for (ApplicationListener applicationListener : applicationListeners) {
 			applicationEventMulticaster.addApplicationListener(applicationListener);
 		}
 	}
 
 	/**
-	 * 发布容器刷新完成事件
+	 * 发布容器刷新完成事件，执行bean的预热例程后发布容器就绪事件
 	 */
 	protected void finishRefresh() {
 		publishEvent(new ContextRefreshedEvent(this));
+
+		Map<String, Duration> timings;
+		try {
+			timings = new BeanWarmUpRunner(getBeanFactory(), warmUpIterations, warmUpParallelism).run();
+		} catch (BeansException e) {
+			//预热失败时容器不能就绪，销毁已经创建的单例并停止后台任务，不留下启动了一半的容器
+			try {
+				destroyActiveBeanFactory();
+			} catch (RuntimeException destroyFailure) {
+				e.addSuppressed(destroyFailure);
+			}
+			throw e;
+		}
+		ContextReadyEvent readyEvent = new ContextReadyEvent(this, timings);
+		warmUpTimings = readyEvent.getWarmUpTimings();
+		publishEvent(readyEvent);
+
+		if (lazySingletonWarmUpThreads > 0) {
+			lazySingletonWarmer = new LazySingletonWarmer(getBeanFactory(), lazySingletonWarmUpThreads);
+			lazySingletonWarmer.start();
+		}
 	}
 
 	@Override
@@ -170,12 +335,49 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 		return getBeanFactory().getBean(name);
 	}
 
+	@Override
+	public <T> ObjectProvider<T> getBeanProvider(String name, Class<T> requiredType) {
+		return getBeanFactory().getBeanProvider(name, requiredType);
+	}
+
+	@Override
+	public <T> ObjectProvider<T> getBeanProvider(Class<T> requiredType) {
+		return getBeanFactory().getBeanProvider(requiredType);
+	}
+
 	public String[] getBeanDefinitionNames() {
 		return getBeanFactory().getBeanDefinitionNames();
 	}
 
 	public abstract ConfigurableListableBeanFactory getBeanFactory();
 
+	@Override
+	public ApplicationContext getParent() {
+		return parent;
+	}
+
+	@Override
+	public void setParent(ApplicationContext parent) {
+		this.parent = parent;
+	}
+
+	@Override
+	public BeanFactory getParentBeanFactory() {
+		return parent;
+	}
+
+	@Override
+	public boolean containsLocalBean(String name) {
+		return getBeanFactory().containsLocalBean(name);
+	}
+
+	/**
+	 * 子上下文的bean工厂直接以父上下文的bean工厂为父容器，共享其中合并的BeanDefinition、按类型查找的缓存和生成的访问器
+	 */
+	protected BeanFactory getInternalParentBeanFactory() {
+		return parent instanceof AbstractApplicationContext ? ((AbstractApplicationContext) parent).getBeanFactory() : parent;
+	}
+
 	public void close() {
 		doClose();
 	}
@@ -191,11 +393,64 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 	}
 
 	protected void doClose() {
-		//发布容器关闭事件
-		publishEvent(new ContextClosedEvent(this));
+		//投递尚在合并窗口内的事件，保证关闭事件是最后一个事件。监听器抛出的异常在销毁完成后抛出
+		try {
+			if (applicationEventMulticaster instanceof SimpleApplicationEventMulticaster) {
+				((SimpleApplicationEventMulticaster) applicationEventMulticaster).flushCoalescedEvents();
+			}
+		} finally {
+			//发布容器关闭事件
+			publishEvent(new ContextClosedEvent(this));
 
-		//执行单例bean的销毁方法
-		destroyBeans();
+			destroyActiveBeanFactory();
+		}
+	}
+
+	/**
+	 * 停止当前bean工厂的后台任务，排空代理调用并销毁单例。关闭容器时调用，重新refresh替换bean工厂之前也要调用，
+	 * 否则旧单例的销毁方法不会执行，它们持有的线程也不会停止
+	 */
+	protected void destroyActiveBeanFactory() {
+		try {
+			//投递剩余的合并事件，监听器抛出的异常在销毁完成后抛出
+			if (applicationEventMulticaster instanceof SimpleApplicationEventMulticaster) {
+				((SimpleApplicationEventMulticaster) applicationEventMulticaster).shutdown();
+			}
+		} finally {
+			//停止预热，等待正在创建的单例完成后再销毁
+			if (lazySingletonWarmer != null) {
+				lazySingletonWarmer.shutdown(10, TimeUnit.SECONDS);
+				lazySingletonWarmer = null;
+			}
+
+			//拒绝新的代理调用，等待正在执行的调用结束后再销毁
+			shutdownDrainResult = drainInvocations();
+
+			//执行单例bean的销毁方法
+			destroyBeans();
+		}
+	}
+
+	/**
+	 * 所有自动代理共用同一个截止时间，耗时从开始排空第一个代理算起，被截断的调用数累加
+	 */
+	protected InvocationTracker.DrainResult drainInvocations() {
+		ConfigurableListableBeanFactory beanFactory = getBeanFactory();
+		long start = System.nanoTime();
+		int cutOffInvocations = 0;
+		if (beanFactory instanceof AbstractBeanFactory) {
+			AbstractBeanFactory abstractBeanFactory = (AbstractBeanFactory) beanFactory;
+			long deadline = start + shutdownDrainTimeoutNanos;
+			for (BeanPostProcessor beanPostProcessor : abstractBeanFactory.getBeanPostProcessors()) {
+				if (beanPostProcessor instanceof DefaultAdvisorAutoProxyCreator) {
+					InvocationTracker tracker = ((DefaultAdvisorAutoProxyCreator) beanPostProcessor).getInvocationTracker();
+					//销毁方法仍然可以调用代理，只拒绝外部的调用
+					tracker.setAdmittedAfterClose(abstractBeanFactory::isDestroyingSingletonOnCurrentThread);
+					cutOffInvocations += tracker.drain(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS).getCutOffInvocations();
+				}
+			}
+		}
+		return new InvocationTracker.DrainResult(Duration.ofNanos(System.nanoTime() - start), cutOffInvocations);
 	}
 
 	protected void destroyBeans() {
@@ -1,7 +1,26 @@
 package org.springframework.context.support;
 
+import cn.hutool.core.util.ClassUtil;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.PropertyPlaceholderConfigurer;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.AbstractAutowireCapableBeanFactory;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ApplicationEventMulticaster;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 抽象的 可刷新的 应用上下文
@@ -15,23 +34,205 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 	private DefaultListableBeanFactory beanFactory;
 
 	/**
-	 * 创建beanFactory并加载BeanDefinition
+	 * 从配置中读取的BeanDefinition的副本，在BeanFactoryPostProcessor修改之前保存，增量刷新时与重新读取的结果比较
+	 */
+	private Map<String, BeanDefinition> loadedBeanDefinitions = Collections.emptyMap();
+
+	/**
+	 * 创建beanFactory并加载BeanDefinition，已经有beanFactory时先销毁其中的单例
 	 *
 	 * @throws BeansException
 	 */
 	protected final void refreshBeanFactory() throws BeansException {
+		//再次refresh时先销毁旧工厂中的单例
+		if (this.beanFactory != null) {
+			destroyActiveBeanFactory();
+		}
 		DefaultListableBeanFactory beanFactory = createBeanFactory();	//创建DefaultListableBeanFactory(默认情况)
+		loadGeneratedBeanAccessors(beanFactory);
 		loadBeanDefinitions(beanFactory);	//完成xml文件的解析，将所有的BeanDefinition放入到BeanDefinitionMap中
+		this.loadedBeanDefinitions = copyBeanDefinitions(beanFactory);
 		this.beanFactory = beanFactory;
 	}
 
+	/**
+	 * 类路径上有构建时生成的访问器时，创建bean不再使用反射。子上下文使用父上下文加载的访问器
+	 */
+	protected void loadGeneratedBeanAccessors(DefaultListableBeanFactory beanFactory) {
+		if (!(beanFactory.getParentBeanFactory() instanceof AbstractAutowireCapableBeanFactory)) {
+			beanFactory.loadGeneratedBeanAccessors(ClassUtil.getClassLoader());
+		}
+	}
+
+	/**
+	 * 增量刷新：重新读取配置，只销毁并重新创建BeanDefinition发生变化的bean以及(传递地)依赖它们的bean，其他单例保持不变。
+	 * 变化的BeanDefinition中的占位符通过已注册的占位符解析器解析，其他BeanFactoryPostProcessor不会重新执行；
+	 * BeanFactoryPostProcessor或BeanPostProcessor本身发生变化时执行完整的refresh
+	 *
+	 * @return 被销毁或者重新创建的bean名称
+	 * @throws BeansException
+	 */
+	public Set<String> refreshIncrementally() throws BeansException {
+		DefaultListableBeanFactory beanFactory = this.beanFactory;
+		if (beanFactory == null) {
+			refresh();
+			return new LinkedHashSet<>(Arrays.asList(getBeanDefinitionNames()));
+		}
+
+		DefaultListableBeanFactory candidate = createBeanFactory();
+		loadBeanDefinitions(candidate);
+		String[] candidateNames = candidate.getBeanDefinitionNames();
+		Set<String> changed = new LinkedHashSet<>();
+		for (String beanName : candidateNames) {
+			BeanDefinition previous = loadedBeanDefinitions.get(beanName);
+			if (previous == null || !previous.hasSameConfiguration(candidate.getBeanDefinition(beanName))) {
+				changed.add(beanName);
+			}
+		}
+		Set<String> removed = new LinkedHashSet<>(loadedBeanDefinitions.keySet());
+		removed.removeAll(Arrays.asList(candidateNames));
+		if (changed.isEmpty() && removed.isEmpty()) {
+			return Collections.emptySet();
+		}
+		addChildDefinitions(candidate, changed, removed);
+
+		for (String beanName : changed) {
+			if (isPostProcessor(candidate.getBeanDefinition(beanName)) || (beanFactory.containsBeanDefinition(beanName)
+					&& isPostProcessor(beanFactory.getBeanDefinition(beanName)))) {
+				refresh();
+				return new LinkedHashSet<>(Arrays.asList(getBeanDefinitionNames()));
+			}
+		}
+		for (String beanName : removed) {
+			if (isPostProcessor(beanFactory.getBeanDefinition(beanName))) {
+				refresh();
+				return new LinkedHashSet<>(Arrays.asList(getBeanDefinitionNames()));
+			}
+		}
+
+		//先收集受影响的bean，销毁时依赖关系会被清除
+		Set<String> affected = new LinkedHashSet<>(changed);
+		affected.addAll(removed);
+		collectDependentBeans(beanFactory, affected);
+
+		ApplicationEventMulticaster multicaster = getApplicationEventMulticaster();
+		for (String beanName : affected) {
+			Object singleton = beanFactory.getSingleton(beanName);
+			if (singleton instanceof ApplicationListener) {
+				multicaster.removeApplicationListener((ApplicationListener<?>) singleton);
+			}
+		}
+		for (String beanName : affected) {
+			beanFactory.destroySingleton(beanName);
+		}
+
+		//被替换和删除的BeanDefinition的占位符绑定随之移除，新的BeanDefinition由占位符配置器重新解析并记录绑定
+		Collection<PropertyPlaceholderConfigurer> configurers = beanFactory.getBeansOfType(PropertyPlaceholderConfigurer.class, false).values();
+		for (String beanName : removed) {
+			for (PropertyPlaceholderConfigurer configurer : configurers) {
+				configurer.removeBeanDefinition(beanName);
+			}
+			beanFactory.removeBeanDefinition(beanName);
+		}
+		Map<String, BeanDefinition> updated = new HashMap<>(loadedBeanDefinitions);
+		updated.keySet().removeAll(removed);
+		for (String beanName : changed) {
+			BeanDefinition beanDefinition = candidate.getBeanDefinition(beanName);
+			updated.put(beanName, beanDefinition.copy());
+			if (configurers.isEmpty()) {
+				resolvePlaceholders(beanDefinition);
+			} else {
+				for (PropertyPlaceholderConfigurer configurer : configurers) {
+					configurer.processBeanDefinition(beanName, beanDefinition);
+				}
+			}
+			beanFactory.registerBeanDefinition(beanName, beanDefinition);
+		}
+		this.loadedBeanDefinitions = updated;
+
+		//与preInstantiateSingletons相同，重新创建非懒加载的单例
+		for (String beanName : affected) {
+			if (!beanFactory.containsBeanDefinition(beanName)) {
+				continue;
+			}
+			BeanDefinition beanDefinition = beanFactory.getMergedBeanDefinition(beanName);
+			if (beanDefinition.isSingleton() && !beanDefinition.isLazyInit() && !beanDefinition.isAbstract()) {
+				beanFactory.getBean(beanName);
+			}
+			Object singleton = beanFactory.getSingleton(beanName);
+			if (singleton instanceof ApplicationListener) {
+				multicaster.addApplicationListener((ApplicationListener<?>) singleton);
+			}
+		}
+		return affected;
+	}
+
+	/**
+	 * 父定义变化或者被删除时，子定义合并后的结果也随之变化
+	 */
+	private static void addChildDefinitions(DefaultListableBeanFactory candidate, Set<String> changed, Set<String> removed) {
+		boolean added = true;
+		while (added) {
+			added = false;
+			for (String beanName : candidate.getBeanDefinitionNames()) {
+				String parentName = candidate.getBeanDefinition(beanName).getParentName();
+				if (parentName != null && (changed.contains(parentName) || removed.contains(parentName))
+						&& changed.add(beanName)) {
+					added = true;
+				}
+			}
+		}
+	}
+
+	private static void collectDependentBeans(DefaultListableBeanFactory beanFactory, Set<String> beanNames) {
+		Deque<String> pending = new ArrayDeque<>(beanNames);
+		while (!pending.isEmpty()) {
+			for (String dependentBeanName : beanFactory.getDependentBeans(pending.pop())) {
+				if (beanNames.add(dependentBeanName)) {
+					pending.push(dependentBeanName);
+				}
+			}
+		}
+	}
+
+	private static boolean isPostProcessor(BeanDefinition beanDefinition) {
+		if (beanDefinition.getBeanClassName() == null) {
+			return false;
+		}
+		Class<?> beanClass = beanDefinition.getBeanClass();
+		return BeanFactoryPostProcessor.class.isAssignableFrom(beanClass) || BeanPostProcessor.class.isAssignableFrom(beanClass);
+	}
+
+	/**
+	 * 没有PropertyPlaceholderConfigurer时，通过注册的占位符解析器解析字符串属性值中的占位符
+	 */
+	private void resolvePlaceholders(BeanDefinition beanDefinition) {
+		for (PropertyValue propertyValue : beanDefinition.getPropertyValues()) {
+			Object value = propertyValue.getValue();
+			if (value instanceof String) {
+				String resolved = beanFactory.resolveEmbeddedValue((String) value);
+				if (!resolved.equals(value)) {
+					beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue(propertyValue.getName(), resolved));
+				}
+			}
+		}
+	}
+
+	private static Map<String, BeanDefinition> copyBeanDefinitions(DefaultListableBeanFactory beanFactory) {
+		Map<String, BeanDefinition> copies = new HashMap<>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			copies.put(beanName, beanFactory.getBeanDefinition(beanName).copy());
+		}
+		return copies;
+	}
+
 	/**
 	 * 创建bean工厂
 	 *
 	 * @return
 	 */
 	protected DefaultListableBeanFactory createBeanFactory() {
-		return new DefaultListableBeanFactory();
+		return new DefaultListableBeanFactory(getInternalParentBeanFactory());
 	}
 
 	/**
@@ -3,14 +3,26 @@ package org.springframework.context.support;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 
+import java.util.concurrent.Executor;
+
 /**
  * @author derekyi
  * @date 2020/11/28
  */
 public abstract class AbstractXmlApplicationContext extends AbstractRefreshableApplicationContext {
 
+	private Executor preloadExecutor;
+
+	/**
+	 * 设置后台提前加载非懒加载单例的类的线程池，需要在refresh之前设置
+	 */
+	public void setPreloadExecutor(Executor preloadExecutor) {
+		this.preloadExecutor = preloadExecutor;
+	}
+
 	protected void loadBeanDefinitions(DefaultListableBeanFactory beanFactory) {
 		XmlBeanDefinitionReader beanDefinitionReader = new XmlBeanDefinitionReader(beanFactory, this);		//创建一个xml类型的读取对象
+		beanDefinitionReader.setPreloadExecutor(preloadExecutor);
 		String[] configLocations = getConfigLocations();		//得到开始时指定的xml文件路径
 		if (configLocations != null) {
 			beanDefinitionReader.loadBeanDefinitions(configLocations);		//借助XmlBeanDefinitionReader读取 指定路径的xml文件
@@ -0,0 +1,134 @@
+package org.springframework.context.support;
+
+import cn.hutool.core.util.StrUtil;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.WarmableBean;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.util.IntrospectionCache;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在单例全部创建完成之后，对实现了{@link WarmableBean}或者配置了预热方法的单例，重复执行预热例程，
+ * 让热点代码在容器就绪之前被JIT编译。同一个bean的多次调用在一个线程中依次执行，不同的bean可以并行预热
+ */
+public class BeanWarmUpRunner {
+
+	private final ConfigurableListableBeanFactory beanFactory;
+
+	private final int iterations;
+
+	private final int parallelism;
+
+	public BeanWarmUpRunner(ConfigurableListableBeanFactory beanFactory, int iterations, int parallelism) {
+		this.beanFactory = beanFactory;
+		this.iterations = iterations;
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * 执行所有预热例程，全部完成后返回
+	 *
+	 * @return bean名称到预热总耗时，按注册顺序排列
+	 * @throws BeansException 预热例程抛出异常或者找不到预热方法
+	 */
+	public Map<String, Duration> run() throws BeansException {
+		Map<String, Duration> timings = new LinkedHashMap<>();
+		List<String> beanNames = getWarmableBeanNames();
+		if (beanNames.isEmpty() || iterations <= 0) {
+			return timings;
+		}
+		if (parallelism == 1 || beanNames.size() == 1) {
+			for (String beanName : beanNames) {
+				timings.put(beanName, warmUp(beanName));
+			}
+			return timings;
+		}
+
+		AtomicInteger threadNumber = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, beanNames.size()), runnable -> {
+			Thread thread = new Thread(runnable, "bean-warm-up-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			Map<String, Future<Duration>> futures = new LinkedHashMap<>();
+			for (String beanName : beanNames) {
+				futures.put(beanName, executor.submit(() -> warmUp(beanName)));
+			}
+			for (Map.Entry<String, Future<Duration>> entry : futures.entrySet()) {
+				timings.put(entry.getKey(), entry.getValue().get());
+			}
+			return timings;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof BeansException) {
+				throw (BeansException) cause;
+			}
+			throw new BeansException("Warm-up failed", cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BeansException("Interrupted while warming up beans", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * 已经创建的、需要预热的单例。懒加载且还没有被使用的单例不预热
+	 */
+	private List<String> getWarmableBeanNames() {
+		List<String> beanNames = new ArrayList<>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition beanDefinition = beanFactory.getMergedBeanDefinition(beanName);
+			if (!beanDefinition.isSingleton() || beanDefinition.isAbstract()) {
+				continue;
+			}
+			Object bean = beanFactory.getSingleton(beanName);
+			if (bean instanceof WarmableBean || (bean != null && StrUtil.isNotEmpty(beanDefinition.getWarmUpMethodName()))) {
+				beanNames.add(beanName);
+			}
+		}
+		return beanNames;
+	}
+
+	private Duration warmUp(String beanName) throws BeansException {
+		Object bean = beanFactory.getSingleton(beanName);
+		String warmUpMethodName = beanFactory.getMergedBeanDefinition(beanName).getWarmUpMethodName();
+		Method warmUpMethod = null;
+		if (StrUtil.isNotEmpty(warmUpMethodName) && !(bean instanceof WarmableBean && "warmUp".equals(warmUpMethodName))) {
+			warmUpMethod = IntrospectionCache.getPublicMethod(bean.getClass(), warmUpMethodName);
+			if (warmUpMethod == null) {
+				throw new BeansException("Could not find a warm-up method named '" + warmUpMethodName + "' on bean with name '" + beanName + "'");
+			}
+		}
+		long start = System.nanoTime();
+		try {
+			for (int i = 0; i < iterations; i++) {
+				if (bean instanceof WarmableBean) {
+					((WarmableBean) bean).warmUp();
+				}
+				if (warmUpMethod != null) {
+					warmUpMethod.invoke(bean);
+				}
+			}
+		} catch (InvocationTargetException e) {
+			throw new BeansException("Warm-up of bean '" + beanName + "' failed", e.getTargetException());
+		} catch (Exception e) {
+			throw new BeansException("Warm-up of bean '" + beanName + "' failed", e);
+		}
+		return Duration.ofNanos(System.nanoTime() - start);
+	}
+}
@@ -0,0 +1,133 @@
+package org.springframework.context.support;
+
+import cn.hutool.core.util.ClassUtil;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedClassLoader;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 通过JFR的jdk.ClassLoad事件记录一段时间内加载的所有类，生成AppCDS可以使用的类列表(-XX:SharedClassListFile)。
+ * 只有能从类路径找到class文件的类才能放入归档，CGLIB代理类、lambda等运行时生成的类单独记录
+ */
+public final class ClassListRecorder {
+
+	private static final String CLASS_LOAD_EVENT = "jdk.ClassLoad";
+
+	private final Recording recording;
+
+	private final List<String> classNames = new ArrayList<>();
+
+	private final List<String> generatedClassNames = new ArrayList<>();
+
+	private ClassListRecorder(Recording recording) {
+		this.recording = recording;
+	}
+
+	/**
+	 * 开始记录类加载
+	 */
+	public static ClassListRecorder start() {
+		Recording recording = new Recording();
+		recording.enable(CLASS_LOAD_EVENT).withThreshold(Duration.ZERO).withoutStackTrace();
+		recording.start();
+		return new ClassListRecorder(recording);
+	}
+
+	/**
+	 * 停止记录并整理加载过的类
+	 *
+	 * @throws IOException 读取JFR记录失败
+	 */
+	public void stop() throws IOException {
+		Path dump = Files.createTempFile("class-list", ".jfr");
+		try {
+			recording.stop();
+			recording.dump(dump);
+			Set<String> archivable = new LinkedHashSet<>();
+			Set<String> generated = new LinkedHashSet<>();
+			for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+				RecordedClass loadedClass = event.getValue("loadedClass");
+				if (loadedClass == null || !isBuiltinLoader(event.getValue("definingClassLoader"))) {
+					continue;
+				}
+				String className = loadedClass.getName();
+				if (hasClassFile(className)) {
+					archivable.add(className.replace('.', '/'));
+				} else {
+					generated.add(className);
+				}
+			}
+			classNames.addAll(archivable);
+			generatedClassNames.addAll(generated);
+		} finally {
+			recording.close();
+			Files.deleteIfExists(dump);
+		}
+	}
+
+	/**
+	 * AppCDS只归档内置类加载器(bootstrap、platform、app)加载的类
+	 */
+	private static boolean isBuiltinLoader(RecordedClassLoader classLoader) {
+		if (classLoader == null) {
+			return true;
+		}
+		String name = classLoader.getName();
+		return "app".equals(name) || "platform".equals(name) || "bootstrap".equals(name);
+	}
+
+	private static boolean hasClassFile(String className) {
+		if (className.indexOf('/') != -1) {
+			//隐藏类，名称中带有/0x...
+			return false;
+		}
+		return ClassUtil.getClassLoader().getResource(className.replace('.', '/') + ".class") != null;
+	}
+
+	/**
+	 * 写出类列表，每行一个类，格式为java/lang/Object
+	 */
+	public void writeTo(File file) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null) {
+			parent.mkdirs();
+		}
+		try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			writer.write("# Classes loaded during ApplicationContext refresh, usable with -XX:SharedClassListFile");
+			writer.newLine();
+			for (String className : classNames) {
+				writer.write(className);
+				writer.newLine();
+			}
+		}
+	}
+
+	/**
+	 * 可以归档的类，格式为java/lang/Object
+	 */
+	public List<String> getClassNames() {
+		return Collections.unmodifiableList(classNames);
+	}
+
+	/**
+	 * 运行时生成、无法归档的类
+	 */
+	public List<String> getGeneratedClassNames() {
+		return Collections.unmodifiableList(generatedClassNames);
+	}
+}
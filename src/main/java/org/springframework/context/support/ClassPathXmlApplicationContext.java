@@ -1,6 +1,7 @@
 package org.springframework.context.support;
 
 import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
 
 /**
  *	保持 classpath类型配置文件路径
@@ -26,8 +27,45 @@ public class ClassPathXmlApplicationContext extends AbstractXmlApplicationContex
 	 * @throws BeansException 应用上下文创建失败
 	 */
 	public ClassPathXmlApplicationContext(String[] configLocations) throws BeansException {
+		this(configLocations, true);
+	}
+
+	/**
+	 * 从xml文件加载BeanDefinition
+	 *
+	 * @param configLocations xml配置文件
+	 * @param refresh         是否自动刷新上下文，为false时可以先进行配置，再手动调用refresh
+	 * @throws BeansException 应用上下文创建失败
+	 */
+	public ClassPathXmlApplicationContext(String[] configLocations, boolean refresh) throws BeansException {
+		this(configLocations, refresh, null);
+	}
+
+	/**
+	 * 从xml文件加载BeanDefinition，创建子上下文。本地没有定义的bean从父上下文获取，父上下文中的定义可以作为父定义使用
+	 *
+	 * @param configLocations xml配置文件
+	 * @param parent          父上下文
+	 * @throws BeansException 应用上下文创建失败
+	 */
+	public ClassPathXmlApplicationContext(String[] configLocations, ApplicationContext parent) throws BeansException {
+		this(configLocations, true, parent);
+	}
+
+	/**
+	 * 从xml文件加载BeanDefinition
+	 *
+	 * @param configLocations xml配置文件
+	 * @param refresh         是否自动刷新上下文
+	 * @param parent          父上下文，可以为null
+	 * @throws BeansException 应用上下文创建失败
+	 */
+	public ClassPathXmlApplicationContext(String[] configLocations, boolean refresh, ApplicationContext parent) throws BeansException {
+		setParent(parent);
 		this.configLocations = configLocations;		//就是设置了配置文件，比如：{"classpath:applicationContext.xml"}
-		refresh();
+		if (refresh) {
+			refresh();
+		}
 	}
 
 	protected String[] getConfigLocations() {
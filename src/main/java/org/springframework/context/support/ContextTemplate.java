@@ -0,0 +1,117 @@
+package org.springframework.context.support;
+
+import cn.hutool.core.util.ClassUtil;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 上下文模板：xml解析、BeanFactoryPostProcessor(如PropertyPlaceholderConfigurer)、合并父定义、加载bean类、
+ * 查找BeanPostProcessor以及解析切点表达式只在创建模板时执行一次。之后通过{@link #newContext()}创建的上下文
+ * 只重新创建bean，适合大量创建相同配置的上下文。
+ * <p>
+ * BeanFactoryPostProcessor只作用于模板，不会出现在创建的上下文中；依赖每个上下文状态的BeanFactoryPostProcessor
+ * (如ReloadablePropertyPlaceholderConfigurer)不适合使用模板。
+ * 不再创建上下文时调用{@link #close()}销毁模板自己持有的单例，已经创建的上下文不受影响
+ */
+public class ContextTemplate {
+
+	private final DefaultListableBeanFactory templateFactory;
+
+	/**
+	 * 处理完成的BeanDefinition，已经与父定义合并
+	 */
+	private final Map<String, BeanDefinition> beanDefinitions;
+
+	private final List<String> beanPostProcessorNames;
+
+	private volatile boolean closed;
+
+	public ContextTemplate(String... configLocations) throws BeansException {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.loadGeneratedBeanAccessors(ClassUtil.getClassLoader());
+		new XmlBeanDefinitionReader(beanFactory, new DefaultResourceLoader()).loadBeanDefinitions(configLocations);
+		for (BeanFactoryPostProcessor beanFactoryPostProcessor : beanFactory.getBeansOfType(BeanFactoryPostProcessor.class, false).values()) {
+			beanFactoryPostProcessor.postProcessBeanFactory(beanFactory);
+		}
+		beanFactory.clearMetadataCache();
+
+		Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>();
+		List<String> beanPostProcessorNames = new ArrayList<>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition beanDefinition = beanFactory.getMergedBeanDefinition(beanName).copy();
+			Class<?> beanClass = beanDefinition.getBeanClassName() != null ? beanDefinition.getBeanClass() : null;
+			if (beanClass != null && BeanFactoryPostProcessor.class.isAssignableFrom(beanClass)) {
+				continue;
+			}
+			if (beanClass != null && !beanDefinition.isAbstract()) {
+				if (BeanPostProcessor.class.isAssignableFrom(beanClass)) {
+					beanPostProcessorNames.add(beanName);
+				}
+				if (AspectJExpressionPointcutAdvisor.class.isAssignableFrom(beanClass)) {
+					preparePointcut(beanDefinition);
+				}
+			}
+			beanDefinitions.put(beanName, beanDefinition);
+		}
+		this.templateFactory = beanFactory;
+		this.beanDefinitions = Collections.unmodifiableMap(beanDefinitions);
+		this.beanPostProcessorNames = Collections.unmodifiableList(beanPostProcessorNames);
+	}
+
+	/**
+	 * 切点表达式只解析一次，解析结果被所有上下文中的advisor共享
+	 */
+	private static void preparePointcut(BeanDefinition beanDefinition) {
+		PropertyValue expression = beanDefinition.getPropertyValues().getPropertyValue("expression");
+		if (expression != null && expression.getValue() instanceof String) {
+			AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut((String) expression.getValue());
+			beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue("pointcut", pointcut));
+		}
+	}
+
+	/**
+	 * 创建并刷新一个新的上下文
+	 */
+	public TemplateApplicationContext newContext() throws BeansException {
+		if (closed) {
+			throw new BeansException("ContextTemplate has been closed");
+		}
+		TemplateApplicationContext applicationContext = new TemplateApplicationContext(this);
+		applicationContext.refresh();
+		return applicationContext;
+	}
+
+	/**
+	 * 销毁模板工厂中的单例(BeanFactoryPostProcessor等)，之后不能再创建上下文
+	 */
+	public void close() {
+		closed = true;
+		templateFactory.destroySingletons();
+	}
+
+	DefaultListableBeanFactory getTemplateFactory() {
+		return templateFactory;
+	}
+
+	public Map<String, BeanDefinition> getBeanDefinitions() {
+		return beanDefinitions;
+	}
+
+	public List<String> getBeanPostProcessorNames() {
+		return beanPostProcessorNames;
+	}
+}
@@ -0,0 +1,119 @@
+package org.springframework.context.support;
+
+import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 容器刷新完成后，在低优先级的后台线程中按{@link BeanDefinition#getInitPriority()}从高到低创建懒加载的单例。
+ * 业务线程获取正在创建的单例时会等待这次创建完成，不会重复创建(见DefaultSingletonBeanRegistry#getSingleton)
+ */
+public class LazySingletonWarmer {
+
+	private final ConfigurableListableBeanFactory beanFactory;
+
+	private final ThreadPoolExecutor executor;
+
+	private final List<String> warmedBeanNames = new CopyOnWriteArrayList<>();
+
+	private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+	private volatile CountDownLatch completion = new CountDownLatch(0);
+
+	public LazySingletonWarmer(ConfigurableListableBeanFactory beanFactory, int threads) {
+		this.beanFactory = beanFactory;
+		AtomicInteger threadNumber = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, "lazy-singleton-warmer-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		this.executor = executor;
+	}
+
+	/**
+	 * 提交所有懒加载单例的创建任务，立即返回
+	 *
+	 * @return 按创建顺序排列的bean名称
+	 */
+	public List<String> start() {
+		List<String> beanNames = getLazySingletonNames();
+		CountDownLatch latch = new CountDownLatch(beanNames.size());
+		this.completion = latch;
+		for (String beanName : beanNames) {
+			executor.execute(() -> {
+				try {
+					beanFactory.getBean(beanName);
+					warmedBeanNames.add(beanName);
+				} catch (Throwable ex) {
+					//预热失败不影响容器，业务线程获取时会重新创建并抛出异常
+					failures.put(beanName, ex);
+				} finally {
+					latch.countDown();
+				}
+			});
+		}
+		return beanNames;
+	}
+
+	private List<String> getLazySingletonNames() {
+		List<String> beanNames = new ArrayList<>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition beanDefinition = beanFactory.getMergedBeanDefinition(beanName);
+			if (beanDefinition.isSingleton() && beanDefinition.isLazyInit() && !beanDefinition.isAbstract()) {
+				beanNames.add(beanName);
+			}
+		}
+		//排序是稳定的，优先级相同时保持注册顺序
+		beanNames.sort(Comparator.comparingInt((String beanName) -> beanFactory.getMergedBeanDefinition(beanName).getInitPriority()).reversed());
+		return beanNames;
+	}
+
+	/**
+	 * 等待所有预热任务结束
+	 *
+	 * @return 超时返回false
+	 */
+	public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+		return completion.await(timeout, unit);
+	}
+
+	/**
+	 * 放弃还没有开始的任务，等待正在创建的单例完成，避免在销毁单例之后还有新的单例创建出来
+	 */
+	public void shutdown(long timeout, TimeUnit unit) {
+		//不中断正在创建的单例
+		executor.getQueue().clear();
+		executor.shutdown();
+		try {
+			executor.awaitTermination(timeout, unit);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * 预热完成的bean，按完成顺序排列
+	 */
+	public List<String> getWarmedBeanNames() {
+		return Collections.unmodifiableList(warmedBeanNames);
+	}
+
+	public Map<String, Throwable> getFailures() {
+		return Collections.unmodifiableMap(failures);
+	}
+}
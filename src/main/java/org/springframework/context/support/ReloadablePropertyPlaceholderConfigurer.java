@@ -0,0 +1,84 @@
+package org.springframework.context.support;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.PropertyPlaceholderConfigurer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.event.PropertiesRefreshedEvent;
+import org.springframework.core.io.FileWatcher;
+
+import java.io.IOException;
+
+/**
+ * 监听属性文件变化的PropertyPlaceholderConfigurer。本地文件(包括classpath下以文件形式存在的资源)发生变化时重新加载属性，
+ * 只重新注入用到了变化属性的bean，然后发布{@link PropertiesRefreshedEvent}，不需要刷新整个容器
+ */
+public class ReloadablePropertyPlaceholderConfigurer extends PropertyPlaceholderConfigurer implements ApplicationContextAware, DisposableBean {
+
+	private ApplicationContext applicationContext;
+
+	private boolean watch = true;
+
+	private long quietPeriodMillis = FileWatcher.DEFAULT_QUIET_PERIOD_MILLIS;
+
+	private FileWatcher fileWatcher;
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+		super.postProcessBeanFactory(beanFactory);
+		if (watch) {
+			startWatching();
+		}
+	}
+
+	/**
+	 * 重新加载属性，有变化时发布PropertiesRefreshedEvent
+	 */
+	@Override
+	public synchronized RefreshResult refreshProperties() throws BeansException {
+		RefreshResult result = super.refreshProperties();
+		if (result.hasChanges() && applicationContext != null) {
+			applicationContext.publishEvent(new PropertiesRefreshedEvent(applicationContext,
+					result.getChangedKeys(), result.getUpdatedBeanNames()));
+		}
+		return result;
+	}
+
+	private void startWatching() {
+		fileWatcher = new FileWatcher(getLocationFiles(), changed -> {
+			try {
+				refreshProperties();
+			} catch (BeansException e) {
+				//属性文件可能正在编辑中，保留原来的属性，等待下一次变化
+			}
+		});
+		fileWatcher.setQuietPeriodMillis(quietPeriodMillis);
+		try {
+			fileWatcher.start();
+		} catch (IOException e) {
+			throw new BeansException("Could not watch property files", e);
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if (fileWatcher != null) {
+			fileWatcher.stop();
+		}
+	}
+
+	@Override
+	public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+		this.applicationContext = applicationContext;
+	}
+
+	public void setWatch(boolean watch) {
+		this.watch = watch;
+	}
+
+	public void setQuietPeriodMillis(long quietPeriodMillis) {
+		this.quietPeriodMillis = quietPeriodMillis;
+	}
+}
@@ -0,0 +1,56 @@
+package org.springframework.context.support;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.Map;
+
+/**
+ * 由{@link ContextTemplate}创建的上下文。BeanDefinition从模板复制，不再解析配置、执行BeanFactoryPostProcessor
+ * 和按类型查找BeanPostProcessor
+ */
+public class TemplateApplicationContext extends AbstractRefreshableApplicationContext {
+
+	private final ContextTemplate template;
+
+	TemplateApplicationContext(ContextTemplate template) {
+		this.template = template;
+	}
+
+	/**
+	 * 访问器和占位符解析器从模板复制
+	 */
+	@Override
+	protected void loadGeneratedBeanAccessors(DefaultListableBeanFactory beanFactory) {
+	}
+
+	@Override
+	protected void loadBeanDefinitions(DefaultListableBeanFactory beanFactory) throws BeansException {
+		beanFactory.copyConfigurationFrom(template.getTemplateFactory());
+		for (Map.Entry<String, BeanDefinition> entry : template.getBeanDefinitions().entrySet()) {
+			//创建bean时BeanPostProcessor会修改属性集合，每个上下文使用自己的副本
+			beanFactory.registerBeanDefinition(entry.getKey(), entry.getValue().copy());
+		}
+	}
+
+	/**
+	 * BeanFactoryPostProcessor已经在创建模板时执行过
+	 */
+	@Override
+	protected void invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory beanFactory) {
+	}
+
+	@Override
+	protected void registerBeanPostProcessors(ConfigurableListableBeanFactory beanFactory) {
+		for (String beanName : template.getBeanPostProcessorNames()) {
+			beanFactory.addBeanPostProcessor((BeanPostProcessor) beanFactory.getBean(beanName));
+		}
+	}
+
+	public ContextTemplate getTemplate() {
+		return template;
+	}
+}
@@ -1,5 +1,9 @@
 package org.springframework.core.convert;
 
+import cn.hutool.core.util.TypeUtil;
+
+import java.lang.reflect.Type;
+
 /**
  * 类型转换抽象接口
  *
@@ -11,4 +15,30 @@ public interface ConversionService {
 	boolean canConvert(Class<?> sourceType, Class<?> targetType);
 
 	<T> T convert(Object source, Class<T> targetType);
+
+	/**
+	 * 转换为带泛型信息的目标类型，比如字段的Field#getGenericType()。默认忽略泛型信息
+	 */
+	default Object convert(Object source, Type targetType) {
+		return convert(source, TypeUtil.getClass(targetType));
+	}
+
+	/**
+	 * 转换为原始类型。默认实现借助包装类型转换，实现类可以提供不装箱的版本
+	 */
+	default int convertToInt(Object source) {
+		return convert(source, Integer.class);
+	}
+
+	default long convertToLong(Object source) {
+		return convert(source, Long.class);
+	}
+
+	default double convertToDouble(Object source) {
+		return convert(source, Double.class);
+	}
+
+	default boolean convertToBoolean(Object source) {
+		return convert(source, Boolean.class);
+	}
 }
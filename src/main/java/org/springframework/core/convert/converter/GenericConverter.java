@@ -1,5 +1,8 @@
 package org.springframework.core.convert.converter;
 
+import cn.hutool.core.util.TypeUtil;
+
+import java.lang.reflect.Type;
 import java.util.Set;
 
 /**
@@ -12,6 +15,13 @@ public interface GenericConverter {
 
 	Object convert(Object source, Class sourceType, Class targetType);
 
+	/**
+	 * 带泛型信息的类型转换，比如目标类型是List&lt;Long&gt;时可以拿到元素类型。默认忽略泛型信息
+	 */
+	default Object convert(Object source, Class sourceType, Type targetType) {
+		return convert(source, sourceType, TypeUtil.getClass(targetType));
+	}
+
 	public static final class ConvertiblePair {
 
 		private final Class<?> sourceType;
@@ -0,0 +1,11 @@
+package org.springframework.core.convert.converter;
+
+/**
+ * 转换为int的原始类型转换器，避免装箱
+ *
+ * @param <S> 源类型
+ */
+public interface ToIntConverter<S> {
+
+	int convertToInt(S source);
+}
@@ -0,0 +1,194 @@
+package org.springframework.core.convert.support;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.TypeUtil;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.converter.GenericConverter;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * 集合/数组转换器的公共逻辑：按元素类型逐个转换元素，元素数量超过阈值时并行转换。
+ * 原始类型数组直接写入long[]、int[]等，不经过装箱
+ */
+abstract class AbstractCollectionConverter implements GenericConverter {
+
+	/**
+	 * 默认的并行转换阈值，元素个数达到该值时使用并行流转换
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 10000;
+
+	public static final char DEFAULT_DELIMITER = ',';
+
+	protected final ConversionService conversionService;
+
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+	protected AbstractCollectionConverter(ConversionService conversionService) {
+		this.conversionService = conversionService;
+	}
+
+	@Override
+	public Object convert(Object source, Class sourceType, Class targetType) {
+		return convert(source, sourceType, (Type) targetType);
+	}
+
+	/**
+	 * 转换单个元素
+	 *
+	 * @param element
+	 * @param elementType 元素的目标类型，可以带泛型信息；null表示不转换
+	 */
+	protected Object convertElement(Object element, Type elementType) {
+		if (element == null || elementType == null) {
+			return element;
+		}
+		Class<?> rawElementType = TypeUtil.getClass(elementType);
+		if (rawElementType == null || (elementType instanceof Class && rawElementType.isInstance(element))) {
+			return element;
+		}
+		if (!conversionService.canConvert(element.getClass(), rawElementType)) {
+			throw new IllegalArgumentException("Cannot convert element [" + element + "] to " + elementType.getTypeName());
+		}
+		return conversionService.convert(element, elementType);
+	}
+
+	/**
+	 * 将size个元素转换后填入指定类型的数组
+	 */
+	protected Object toArray(IntFunction<Object> elementAt, int size, Class<?> componentType) {
+		if (componentType == int.class) {
+			int[] result = new int[size];
+			forEachIndex(size, i -> result[i] = conversionService.convertToInt(elementAt.apply(i)));
+			return result;
+		} else if (componentType == long.class) {
+			long[] result = new long[size];
+			forEachIndex(size, i -> result[i] = conversionService.convertToLong(elementAt.apply(i)));
+			return result;
+		} else if (componentType == double.class) {
+			double[] result = new double[size];
+			forEachIndex(size, i -> result[i] = conversionService.convertToDouble(elementAt.apply(i)));
+			return result;
+		} else if (componentType == boolean.class) {
+			boolean[] result = new boolean[size];
+			forEachIndex(size, i -> result[i] = conversionService.convertToBoolean(elementAt.apply(i)));
+			return result;
+		} else if (componentType.isPrimitive()) {
+			Object result = Array.newInstance(componentType, size);
+			forEachIndex(size, i -> Array.set(result, i, convertElement(elementAt.apply(i), componentType)));
+			return result;
+		}
+		Object[] result = (Object[]) Array.newInstance(componentType, size);
+		forEachIndex(size, i -> result[i] = convertElement(elementAt.apply(i), componentType));
+		return result;
+	}
+
+	/**
+	 * 将size个元素转换后放入目标类型的集合，元素顺序保持不变
+	 */
+	protected Collection<Object> toCollection(IntFunction<Object> elementAt, int size, Class<?> collectionType, Type elementType) {
+		Collection<Object> result = CollUtil.create(collectionType);
+		if (size >= parallelThreshold) {
+			Object[] elements = new Object[size];
+			forEachIndex(size, i -> elements[i] = convertElement(elementAt.apply(i), elementType));
+			for (Object element : elements) {
+				result.add(element);
+			}
+		} else {
+			for (int i = 0; i < size; i++) {
+				result.add(convertElement(elementAt.apply(i), elementType));
+			}
+		}
+		return result;
+	}
+
+	private void forEachIndex(int size, IntConsumer action) {
+		if (size >= parallelThreshold) {
+			IntStream.range(0, size).parallel().forEach(action);
+		} else {
+			for (int i = 0; i < size; i++) {
+				action.accept(i);
+			}
+		}
+	}
+
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * 设置并行转换阈值，Integer.MAX_VALUE表示总是串行转换
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * 分隔符字符串的切分结果。只记录每个元素的起止下标(去掉首尾空白，跳过空元素)，取元素时才创建子串，不产生中间的String[]
+	 */
+	protected static final class DelimitedTokens {
+
+		private final String source;
+
+		private int[] bounds;
+
+		private int size;
+
+		private DelimitedTokens(String source) {
+			this.source = source;
+			this.bounds = new int[16];
+		}
+
+		public static DelimitedTokens tokenize(String source, char delimiter) {
+			DelimitedTokens tokens = new DelimitedTokens(source);
+			int length = source.length();
+			if (source.trim().isEmpty()) {
+				return tokens;
+			}
+			int start = 0;
+			while (start <= length) {
+				int end = source.indexOf(delimiter, start);
+				if (end == -1) {
+					end = length;
+				}
+				tokens.add(start, end);
+				start = end + 1;
+			}
+			return tokens;
+		}
+
+		private void add(int start, int end) {
+			while (start < end && Character.isWhitespace(source.charAt(start))) {
+				start++;
+			}
+			while (end > start && Character.isWhitespace(source.charAt(end - 1))) {
+				end--;
+			}
+			if (start == end) {
+				//空元素，比如"1,2,"和"1,,2"
+				return;
+			}
+			if (size * 2 + 2 > bounds.length) {
+				int[] expanded = new int[bounds.length * 2];
+				System.arraycopy(bounds, 0, expanded, 0, size * 2);
+				bounds = expanded;
+			}
+			bounds[size * 2] = start;
+			bounds[size * 2 + 1] = end;
+			size++;
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public String get(int index) {
+			return source.substring(bounds[index * 2], bounds[index * 2 + 1]);
+		}
+	}
+}
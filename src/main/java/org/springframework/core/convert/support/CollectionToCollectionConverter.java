@@ -0,0 +1,50 @@
+package org.springframework.core.convert.support;
+
+import cn.hutool.core.util.TypeUtil;
+import org.springframework.core.convert.ConversionService;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 集合之间的转换，同时按目标类型的泛型参数转换元素，比如List&lt;String&gt;转换为Set&lt;Long&gt;
+ */
+public class CollectionToCollectionConverter extends AbstractCollectionConverter {
+
+	public CollectionToCollectionConverter(ConversionService conversionService) {
+		super(conversionService);
+	}
+
+	@Override
+	public Set<ConvertiblePair> getConvertibleTypes() {
+		return Collections.singleton(new ConvertiblePair(Collection.class, Collection.class));
+	}
+
+	@Override
+	public Object convert(Object source, Class sourceType, Type targetType) {
+		Collection<?> sourceCollection = (Collection<?>) source;
+		Class<?> collectionType = TypeUtil.getClass(targetType);
+		Type elementType = TypeUtil.getTypeArgument(targetType);
+		if (collectionType.isInstance(source) && !needsElementConversion(sourceCollection, elementType)) {
+			return source;
+		}
+		List<?> elements = sourceCollection instanceof List ? (List<?>) sourceCollection : new ArrayList<>(sourceCollection);
+		return toCollection(elements::get, elements.size(), collectionType, elementType);
+	}
+
+	private boolean needsElementConversion(Collection<?> source, Type elementType) {
+		if (!(elementType instanceof Class)) {
+			return elementType != null;
+		}
+		for (Object element : source) {
+			if (element != null && !((Class<?>) elementType).isInstance(element)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
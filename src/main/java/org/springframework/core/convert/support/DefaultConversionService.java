@@ -1,5 +1,6 @@
 package org.springframework.core.convert.support;
 
+import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.converter.ConverterRegistry;
 
 /**
@@ -14,6 +15,19 @@ public class DefaultConversionService extends GenericConversionService {
 
 	public static void addDefaultConverters(ConverterRegistry converterRegistry) {
 		converterRegistry.addConverterFactory(new StringToNumberConverterFactory());
+		converterRegistry.addConverter(new StringToBooleanConverter());
+		addCollectionConverters(converterRegistry);
 		//TODO 添加其他ConverterFactory
 	}
+
+	/**
+	 * 集合和数组转换器需要借助ConversionService转换元素，因此converterRegistry必须同时是ConversionService
+	 */
+	public static void addCollectionConverters(ConverterRegistry converterRegistry) {
+		ConversionService conversionService = (ConversionService) converterRegistry;
+		converterRegistry.addConverter(new StringToArrayConverter(conversionService));
+		converterRegistry.addConverter(new StringToCollectionConverter(conversionService));
+		converterRegistry.addConverter(new CollectionToCollectionConverter(conversionService));
+		converterRegistry.addConverter(new ResourceToCollectionConverter(conversionService));
+	}
 }
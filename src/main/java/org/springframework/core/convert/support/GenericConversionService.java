@@ -1,16 +1,22 @@
 package org.springframework.core.convert.support;
 
 import cn.hutool.core.convert.BasicType;
+import cn.hutool.core.util.TypeUtil;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.convert.converter.ConverterFactory;
 import org.springframework.core.convert.converter.ConverterRegistry;
 import org.springframework.core.convert.converter.GenericConverter;
 import org.springframework.core.convert.converter.GenericConverter.ConvertiblePair;
+import org.springframework.core.convert.converter.ToBooleanConverter;
+import org.springframework.core.convert.converter.ToDoubleConverter;
+import org.springframework.core.convert.converter.ToIntConverter;
+import org.springframework.core.convert.converter.ToLongConverter;
+import org.springframework.util.IntrospectionCache;
 
-import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author derekyi
@@ -18,7 +24,17 @@ import java.util.*;
  */
 public class GenericConversionService implements ConversionService, ConverterRegistry {
 
-	private Map<ConvertiblePair, GenericConverter> converters = new HashMap<>();
+	/**
+	 * 表示没有匹配转换器的占位对象，用于缓存查找失败的结果
+	 */
+	private static final GenericConverter NO_MATCH = new NoOpConverter();
+
+	private final Map<ConvertiblePair, GenericConverter> converters = new ConcurrentHashMap<>();
+
+	/**
+	 * 转换器查找缓存：sourceType -> (targetType -> converter)。两级map避免每次查找都创建ConvertiblePair，添加转换器时清空
+	 */
+	private final Map<Class<?>, Map<Class<?>, GenericConverter>> converterCache = new ConcurrentHashMap<>();
 
 	@Override
 	public boolean canConvert(Class<?> sourceType, Class<?> targetType) {
@@ -34,22 +50,85 @@ public class GenericConversionService implements ConversionService, ConverterReg
 		return (T) converter.convert(source, sourceType, targetType);
 	}
 
+	@Override
+	public Object convert(Object source, Type targetType) {
+		Class<?> sourceType = source.getClass();
+		Class<?> rawTargetType = BasicType.wrap(TypeUtil.getClass(targetType));
+		GenericConverter converter = getConverter(sourceType, rawTargetType);
+		if (targetType instanceof Class) {
+			return converter.convert(source, sourceType, rawTargetType);
+		}
+		return converter.convert(source, sourceType, targetType);
+	}
+
+	@Override
+	public int convertToInt(Object source) {
+		Object converter = getPrimitiveConverter(source.getClass(), int.class);
+		if (converter instanceof ToIntConverter) {
+			return ((ToIntConverter<Object>) converter).convertToInt(source);
+		}
+		return convert(source, Integer.class);
+	}
+
+	@Override
+	public long convertToLong(Object source) {
+		Object converter = getPrimitiveConverter(source.getClass(), long.class);
+		if (converter instanceof ToLongConverter) {
+			return ((ToLongConverter<Object>) converter).convertToLong(source);
+		}
+		return convert(source, Long.class);
+	}
+
+	@Override
+	public double convertToDouble(Object source) {
+		Object converter = getPrimitiveConverter(source.getClass(), double.class);
+		if (converter instanceof ToDoubleConverter) {
+			return ((ToDoubleConverter<Object>) converter).convertToDouble(source);
+		}
+		return convert(source, Double.class);
+	}
+
+	@Override
+	public boolean convertToBoolean(Object source) {
+		Object converter = getPrimitiveConverter(source.getClass(), boolean.class);
+		if (converter instanceof ToBooleanConverter) {
+			return ((ToBooleanConverter<Object>) converter).convertToBoolean(source);
+		}
+		return convert(source, Boolean.class);
+	}
+
+	/**
+	 * 拿到适配器背后真正的转换器，用于判断是否实现了原始类型的转换接口
+	 */
+	private Object getPrimitiveConverter(Class<?> sourceType, Class<?> primitiveType) {
+		GenericConverter converter = getConverter(sourceType, primitiveType);
+		if (converter instanceof ConverterAdapter) {
+			return ((ConverterAdapter) converter).converter;
+		}
+		if (converter instanceof ConverterFactoryAdapter) {
+			return ((ConverterFactoryAdapter) converter).getConverter(BasicType.wrap(primitiveType));
+		}
+		return converter;
+	}
+
 	@Override
 	public void addConverter(Converter<?, ?> converter) {
-		ConvertiblePair typeInfo = getRequiredTypeInfo(converter);
+		ConvertiblePair typeInfo = getRequiredTypeInfo(converter, Converter.class);
 		ConverterAdapter converterAdapter = new ConverterAdapter(typeInfo, converter);
 		for (ConvertiblePair convertibleType : converterAdapter.getConvertibleTypes()) {
 			converters.put(convertibleType, converterAdapter);
 		}
+		invalidateCache();
 	}
 
 	@Override
 	public void addConverterFactory(ConverterFactory<?, ?> converterFactory) {
-		ConvertiblePair typeInfo = getRequiredTypeInfo(converterFactory);
+		ConvertiblePair typeInfo = getRequiredTypeInfo(converterFactory, ConverterFactory.class);
 		ConverterFactoryAdapter converterFactoryAdapter = new ConverterFactoryAdapter(typeInfo, converterFactory);
 		for (ConvertiblePair convertibleType : converterFactoryAdapter.getConvertibleTypes()) {
 			converters.put(convertibleType, converterFactoryAdapter);
 		}
+		invalidateCache();
 	}
 
 	@Override
@@ -57,18 +136,38 @@ public class GenericConversionService implements ConversionService, ConverterReg
 		for (ConvertiblePair convertibleType : converter.getConvertibleTypes()) {
 			converters.put(convertibleType, converter);
 		}
+		invalidateCache();
 	}
 
-	private ConvertiblePair getRequiredTypeInfo(Object object) {
-		Type[] types = object.getClass().getGenericInterfaces();
-		ParameterizedType parameterized = (ParameterizedType) types[0];
-		Type[] actualTypeArguments = parameterized.getActualTypeArguments();
-		Class sourceType = (Class) actualTypeArguments[0];
-		Class targetType = (Class) actualTypeArguments[1];
-		return new ConvertiblePair(sourceType, targetType);
+	private void invalidateCache() {
+		converterCache.clear();
+	}
+
+	private ConvertiblePair getRequiredTypeInfo(Object object, Class<?> genericInterface) {
+		Class<?>[] typeArguments = IntrospectionCache.resolveTypeArguments(object.getClass(), genericInterface);
+		if (typeArguments == null) {
+			throw new IllegalArgumentException("Unable to determine source type and target type for " + object.getClass().getName());
+		}
+		return new ConvertiblePair(typeArguments[0], typeArguments[1]);
 	}
 
 	protected GenericConverter getConverter(Class<?> sourceType, Class<?> targetType) {
+		Map<Class<?>, GenericConverter> targetCache = converterCache.get(sourceType);
+		if (targetCache == null) {
+			targetCache = converterCache.computeIfAbsent(sourceType, key -> new ConcurrentHashMap<>());
+		}
+		GenericConverter converter = targetCache.get(targetType);
+		if (converter == null) {
+			converter = findConverter(sourceType, targetType);
+			targetCache.put(targetType, converter != null ? converter : NO_MATCH);
+		}
+		return converter != NO_MATCH ? converter : null;
+	}
+
+	/**
+	 * 按照源类型和目标类型的继承层次(包括接口)依次查找注册的转换器
+	 */
+	private GenericConverter findConverter(Class<?> sourceType, Class<?> targetType) {
 		List<Class<?>> sourceCandidates = getClassHierarchy(sourceType);
 		List<Class<?>> targetCandidates = getClassHierarchy(targetType);
 		for (Class<?> sourceCandidate : sourceCandidates) {
@@ -83,17 +182,38 @@ public class GenericConversionService implements ConversionService, ConverterReg
 		return null;
 	}
 
+	/**
+	 * 返回类型的继承层次：自身、父类和实现的接口(广度优先)，最后是Object
+	 */
 	private List<Class<?>> getClassHierarchy(Class<?> clazz) {
 		List<Class<?>> hierarchy = new ArrayList<>();
+		Set<Class<?>> visited = new HashSet<>();
 		//原始类转为包装类
-		clazz = BasicType.wrap(clazz);
-		while (clazz != null) {
-			hierarchy.add(clazz);
-			clazz = clazz.getSuperclass();
+		addToClassHierarchy(BasicType.wrap(clazz), hierarchy, visited);
+		for (int i = 0; i < hierarchy.size(); i++) {
+			Class<?> candidate = hierarchy.get(i);
+			Class<?> superclass = candidate.getSuperclass();
+			if (superclass != null && superclass != Object.class) {
+				addToClassHierarchy(superclass, hierarchy, visited);
+			}
+			for (Class<?> implementedInterface : candidate.getInterfaces()) {
+				addToClassHierarchy(implementedInterface, hierarchy, visited);
+			}
 		}
+		//数组统一匹配Object[]，比如String转long[]、String转String[]
+		if (clazz.isArray()) {
+			addToClassHierarchy(Object[].class, hierarchy, visited);
+		}
+		addToClassHierarchy(Object.class, hierarchy, visited);
 		return hierarchy;
 	}
 
+	private void addToClassHierarchy(Class<?> type, List<Class<?>> hierarchy, Set<Class<?>> visited) {
+		if (visited.add(type)) {
+			hierarchy.add(type);
+		}
+	}
+
 	private final class ConverterAdapter implements GenericConverter {
 
 		private final ConvertiblePair typeInfo;
@@ -122,11 +242,24 @@ public class GenericConversionService implements ConversionService, ConverterReg
 
 		private final ConverterFactory<Object, Object> converterFactory;
 
+		/**
+		 * 按目标类型缓存工厂创建的转换器，避免每次转换都新建
+		 */
+		private final Map<Class<?>, Converter<Object, ?>> converterCache = new ConcurrentHashMap<>();
+
 		public ConverterFactoryAdapter(ConvertiblePair typeInfo, ConverterFactory<?, ?> converterFactory) {
 			this.typeInfo = typeInfo;
 			this.converterFactory = (ConverterFactory<Object, Object>) converterFactory;
 		}
 
+		private Converter<Object, ?> getConverter(Class<?> targetType) {
+			Converter<Object, ?> converter = converterCache.get(targetType);
+			if (converter == null) {
+				converter = converterCache.computeIfAbsent(targetType, type -> converterFactory.getConverter((Class<Object>) type));
+			}
+			return converter;
+		}
+
 		@Override
 		public Set<ConvertiblePair> getConvertibleTypes() {
 			return Collections.singleton(typeInfo);
@@ -134,7 +267,20 @@ public class GenericConversionService implements ConversionService, ConverterReg
 
 		@Override
 		public Object convert(Object source, Class sourceType, Class targetType) {
-			return converterFactory.getConverter(targetType).convert(source);
+			return getConverter(targetType).convert(source);
+		}
+	}
+
+	private static final class NoOpConverter implements GenericConverter {
+
+		@Override
+		public Set<ConvertiblePair> getConvertibleTypes() {
+			return Collections.emptySet();
+		}
+
+		@Override
+		public Object convert(Object source, Class sourceType, Class targetType) {
+			return source;
 		}
 	}
 }
@@ -0,0 +1,75 @@
+package org.springframework.core.convert.support;
+
+import cn.hutool.core.util.TypeUtil;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 文件内容转换为集合或数组，每行一个元素。逐行读取，不把整个文件读成一个字符串；
+ * 行首尾空白会去掉，空行和以#开头的注释行跳过，比如ids.txt转换为List&lt;Long&gt;或者long[]
+ */
+public class ResourceToCollectionConverter extends AbstractCollectionConverter {
+
+	public static final String COMMENT_PREFIX = "#";
+
+	public ResourceToCollectionConverter(ConversionService conversionService) {
+		super(conversionService);
+	}
+
+	@Override
+	public Set<ConvertiblePair> getConvertibleTypes() {
+		Set<ConvertiblePair> convertibleTypes = new HashSet<>();
+		convertibleTypes.add(new ConvertiblePair(Resource.class, Collection.class));
+		convertibleTypes.add(new ConvertiblePair(Resource.class, Object[].class));
+		convertibleTypes.add(new ConvertiblePair(File.class, Collection.class));
+		convertibleTypes.add(new ConvertiblePair(File.class, Object[].class));
+		return convertibleTypes;
+	}
+
+	@Override
+	public Object convert(Object source, Class sourceType, Type targetType) {
+		List<String> lines = readLines(source);
+		Class<?> rawTargetType = TypeUtil.getClass(targetType);
+		if (rawTargetType.isArray()) {
+			return toArray(lines::get, lines.size(), rawTargetType.getComponentType());
+		}
+		return toCollection(lines::get, lines.size(), rawTargetType, TypeUtil.getTypeArgument(targetType));
+	}
+
+	private List<String> readLines(Object source) {
+		List<String> lines = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(openStream(source), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith(COMMENT_PREFIX)) {
+					lines.add(line);
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Cannot read elements from " + source, e);
+		}
+		return lines;
+	}
+
+	private InputStream openStream(Object source) throws IOException {
+		if (source instanceof File) {
+			return new FileInputStream((File) source);
+		}
+		return ((Resource) source).getInputStream();
+	}
+}
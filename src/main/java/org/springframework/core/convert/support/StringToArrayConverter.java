@@ -0,0 +1,30 @@
+package org.springframework.core.convert.support;
+
+import cn.hutool.core.util.TypeUtil;
+import org.springframework.core.convert.ConversionService;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 逗号分隔的字符串转换为数组，比如"1,2,3"转换为long[]或者String[]
+ */
+public class StringToArrayConverter extends AbstractCollectionConverter {
+
+	public StringToArrayConverter(ConversionService conversionService) {
+		super(conversionService);
+	}
+
+	@Override
+	public Set<ConvertiblePair> getConvertibleTypes() {
+		return Collections.singleton(new ConvertiblePair(String.class, Object[].class));
+	}
+
+	@Override
+	public Object convert(Object source, Class sourceType, Type targetType) {
+		Class<?> arrayType = TypeUtil.getClass(targetType);
+		DelimitedTokens tokens = DelimitedTokens.tokenize((String) source, DEFAULT_DELIMITER);
+		return toArray(tokens::get, tokens.size(), arrayType.getComponentType());
+	}
+}
@@ -0,0 +1,31 @@
+package org.springframework.core.convert.support;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.converter.ToBooleanConverter;
+
+/**
+ * String转换为Boolean，支持true/false、yes/no、on/off、1/0
+ */
+public class StringToBooleanConverter implements Converter<String, Boolean>, ToBooleanConverter<String> {
+
+	@Override
+	public Boolean convert(String source) {
+		String value = source.trim();
+		if (value.isEmpty()) {
+			return null;
+		}
+		return convertToBoolean(value);
+	}
+
+	@Override
+	public boolean convertToBoolean(String source) {
+		String value = source.trim();
+		if ("true".equalsIgnoreCase(value) || "yes".equalsIgnoreCase(value) || "on".equalsIgnoreCase(value) || "1".equals(value)) {
+			return true;
+		}
+		if ("false".equalsIgnoreCase(value) || "no".equalsIgnoreCase(value) || "off".equalsIgnoreCase(value) || "0".equals(value)) {
+			return false;
+		}
+		throw new IllegalArgumentException("Invalid boolean value '" + source + "'");
+	}
+}
@@ -0,0 +1,30 @@
+package org.springframework.core.convert.support;
+
+import cn.hutool.core.util.TypeUtil;
+import org.springframework.core.convert.ConversionService;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 逗号分隔的字符串转换为集合，元素类型取自目标类型的泛型参数，比如List&lt;Long&gt;、Set&lt;String&gt;
+ */
+public class StringToCollectionConverter extends AbstractCollectionConverter {
+
+	public StringToCollectionConverter(ConversionService conversionService) {
+		super(conversionService);
+	}
+
+	@Override
+	public Set<ConvertiblePair> getConvertibleTypes() {
+		return Collections.singleton(new ConvertiblePair(String.class, Collection.class));
+	}
+
+	@Override
+	public Object convert(Object source, Class sourceType, Type targetType) {
+		DelimitedTokens tokens = DelimitedTokens.tokenize((String) source, DEFAULT_DELIMITER);
+		return toCollection(tokens::get, tokens.size(), TypeUtil.getClass(targetType), TypeUtil.getTypeArgument(targetType));
+	}
+}
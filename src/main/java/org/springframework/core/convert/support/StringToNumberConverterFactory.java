@@ -2,6 +2,9 @@ package org.springframework.core.convert.support;
 
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.convert.converter.ConverterFactory;
+import org.springframework.core.convert.converter.ToDoubleConverter;
+import org.springframework.core.convert.converter.ToIntConverter;
+import org.springframework.core.convert.converter.ToLongConverter;
 
 /**
  * @author derekyi
@@ -14,7 +17,11 @@ public class StringToNumberConverterFactory implements ConverterFactory<String,
 		return new StringToNumber<T>(targetType);
 	}
 
-	private static final class StringToNumber<T extends Number> implements Converter<String, T> {
+	/**
+	 * 除了返回包装类型的convert方法，还实现了原始类型的转换接口，注入int/long/double字段时不需要装箱
+	 */
+	private static final class StringToNumber<T extends Number> implements Converter<String, T>,
+			ToIntConverter<String>, ToLongConverter<String>, ToDoubleConverter<String> {
 
 		private final Class<T> targetType;
 
@@ -32,6 +39,14 @@ public class StringToNumberConverterFactory implements ConverterFactory<String,
 				return (T) Integer.valueOf(source);
 			} else if (targetType.equals(Long.class)) {
 				return (T) Long.valueOf(source);
+			} else if (targetType.equals(Double.class)) {
+				return (T) Double.valueOf(source);
+			} else if (targetType.equals(Float.class)) {
+				return (T) Float.valueOf(source);
+			} else if (targetType.equals(Short.class)) {
+				return (T) Short.valueOf(source);
+			} else if (targetType.equals(Byte.class)) {
+				return (T) Byte.valueOf(source);
 			}
 			//TODO 其他数字类型
 
@@ -40,6 +55,21 @@ public class StringToNumberConverterFactory implements ConverterFactory<String,
 						"Cannot convert String [" + source + "] to target class [" + targetType.getName() + "]");
 			}
 		}
+
+		@Override
+		public int convertToInt(String source) {
+			return Integer.parseInt(source);
+		}
+
+		@Override
+		public long convertToLong(String source) {
+			return Long.parseLong(source);
+		}
+
+		@Override
+		public double convertToDouble(String source) {
+			return Double.parseDouble(source);
+		}
 	}
 
-}
\ No newline at end of file
+}
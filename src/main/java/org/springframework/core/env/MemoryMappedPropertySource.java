@@ -0,0 +1,182 @@
+package org.springframework.core.env;
+
+import org.springframework.beans.BeansException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 通过内存映射读取的属性文件，适用于很大的属性文件：直接扫描映射的字节，不经过InputStream和Properties的逐字符读取。
+ * 与Properties#load(InputStream)一致，文件按ISO-8859-1解码，其他字符通过\\uXXXX转义表示。支持的格式：
+ * <ul>
+ * <li>以#或!开头的注释行和空行</li>
+ * <li>key=value、key:value以及用空白分隔的key value</li>
+ * <li>以\结尾的续行</li>
+ * <li>转义字符：\\、\n、\t、\r、\=、\:以及\\uXXXX</li>
+ * </ul>
+ */
+public class MemoryMappedPropertySource extends PropertySource {
+
+	private final Map<String, String> properties;
+
+	public MemoryMappedPropertySource(String name, Path path) {
+		super(name);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			this.properties = parse(buffer);
+		} catch (IOException e) {
+			throw new BeansException("Could not map properties file " + path, e);
+		}
+	}
+
+	@Override
+	public String getProperty(String key) {
+		return properties.get(key);
+	}
+
+	@Override
+	public String[] getPropertyNames() {
+		return properties.keySet().toArray(new String[0]);
+	}
+
+	private static Map<String, String> parse(MappedByteBuffer buffer) {
+		Map<String, String> result = new HashMap<>();
+		int limit = buffer.limit();
+		byte[] line = new byte[256];
+		int position = 0;
+		while (position < limit) {
+			//读取一个逻辑行，续行拼接到一起
+			int length = 0;
+			boolean firstLine = true;
+			boolean continued;
+			do {
+				continued = false;
+				//跳过行首空白
+				while (position < limit && isWhitespace(buffer.get(position))) {
+					position++;
+				}
+				//注释只在逻辑行的第一个物理行判断，注释行末尾的\不是续行
+				boolean comment = firstLine && position < limit && (buffer.get(position) == '#' || buffer.get(position) == '!');
+				int start = position;
+				while (position < limit && buffer.get(position) != '\n' && buffer.get(position) != '\r') {
+					position++;
+				}
+				int end = position;
+				while (position < limit && (buffer.get(position) == '\n' || buffer.get(position) == '\r')) {
+					if (buffer.get(position++) == '\n') {
+						break;
+					}
+				}
+				if (comment) {
+					break;
+				}
+				firstLine = false;
+				if (end > start && countTrailingBackslashes(buffer, start, end) % 2 == 1) {
+					continued = true;
+					end--;
+				}
+				if (length + end - start > line.length) {
+					byte[] expanded = new byte[Math.max(line.length * 2, length + end - start)];
+					System.arraycopy(line, 0, expanded, 0, length);
+					line = expanded;
+				}
+				for (int i = start; i < end; i++) {
+					line[length++] = buffer.get(i);
+				}
+			} while (continued && position < limit);
+
+			if (length == 0) {
+				continue;
+			}
+			String text = new String(line, 0, length, StandardCharsets.ISO_8859_1);
+			//行首空白已经跳过，key在第一个未转义的空白处结束，转义的空白属于key
+			int separator = findSeparator(text);
+			String key = unescape(text.substring(0, separator));
+			int valueStart = separator;
+			while (valueStart < text.length() && Character.isWhitespace(text.charAt(valueStart))) {
+				valueStart++;
+			}
+			if (valueStart < text.length() && (text.charAt(valueStart) == '=' || text.charAt(valueStart) == ':')) {
+				valueStart++;
+			}
+			while (valueStart < text.length() && Character.isWhitespace(text.charAt(valueStart))) {
+				valueStart++;
+			}
+			result.put(key, unescape(text.substring(valueStart)));
+		}
+		return result;
+	}
+
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\f';
+	}
+
+	private static int countTrailingBackslashes(MappedByteBuffer buffer, int start, int end) {
+		int count = 0;
+		for (int i = end - 1; i >= start && buffer.get(i) == '\\'; i--) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * 找到key的结束位置：第一个未转义的=、:或空白
+	 */
+	private static int findSeparator(String text) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '=' || c == ':' || Character.isWhitespace(c)) {
+				return i;
+			}
+		}
+		return text.length();
+	}
+
+	private static String unescape(String text) {
+		if (text.indexOf('\\') == -1) {
+			return text;
+		}
+		StringBuilder sb = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c != '\\' || i + 1 == text.length()) {
+				sb.append(c);
+				continue;
+			}
+			char next = text.charAt(++i);
+			switch (next) {
+				case 'n':
+					sb.append('\n');
+					break;
+				case 't':
+					sb.append('\t');
+					break;
+				case 'r':
+					sb.append('\r');
+					break;
+				case 'f':
+					sb.append('\f');
+					break;
+				case 'u':
+					if (i + 4 < text.length()) {
+						sb.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+						i += 4;
+					} else {
+						sb.append(next);
+					}
+					break;
+				default:
+					sb.append(next);
+			}
+		}
+		return sb.toString();
+	}
+}
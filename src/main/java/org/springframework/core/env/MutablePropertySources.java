@@ -0,0 +1,59 @@
+package org.springframework.core.env;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 有序的属性源集合，排在前面的属性源优先级更高
+ */
+public class MutablePropertySources implements Iterable<PropertySource> {
+
+	private final List<PropertySource> propertySources = new CopyOnWriteArrayList<>();
+
+	/**
+	 * 添加优先级最高的属性源
+	 */
+	public void addFirst(PropertySource propertySource) {
+		removeIfPresent(propertySource.getName());
+		propertySources.add(0, propertySource);
+	}
+
+	/**
+	 * 添加优先级最低的属性源
+	 */
+	public void addLast(PropertySource propertySource) {
+		removeIfPresent(propertySource.getName());
+		propertySources.add(propertySource);
+	}
+
+	public PropertySource get(String name) {
+		for (PropertySource propertySource : propertySources) {
+			if (propertySource.getName().equals(name)) {
+				return propertySource;
+			}
+		}
+		return null;
+	}
+
+	public PropertySource remove(String name) {
+		PropertySource propertySource = get(name);
+		if (propertySource != null) {
+			propertySources.remove(propertySource);
+		}
+		return propertySource;
+	}
+
+	public int size() {
+		return propertySources.size();
+	}
+
+	private void removeIfPresent(String name) {
+		remove(name);
+	}
+
+	@Override
+	public Iterator<PropertySource> iterator() {
+		return propertySources.iterator();
+	}
+}
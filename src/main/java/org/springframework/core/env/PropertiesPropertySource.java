@@ -0,0 +1,30 @@
+package org.springframework.core.env;
+
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 基于Properties的属性源，用于属性文件和系统属性
+ */
+public class PropertiesPropertySource extends PropertySource {
+
+	public static final String SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME = "systemProperties";
+
+	private final Properties properties;
+
+	public PropertiesPropertySource(String name, Properties properties) {
+		super(name);
+		this.properties = properties;
+	}
+
+	@Override
+	public String getProperty(String key) {
+		return properties.getProperty(key);
+	}
+
+	@Override
+	public String[] getPropertyNames() {
+		Set<String> names = properties.stringPropertyNames();
+		return names.toArray(new String[0]);
+	}
+}
@@ -0,0 +1,42 @@
+package org.springframework.core.env;
+
+/**
+ * 属性源，比如属性文件、系统属性、环境变量。属性源需要能列出所有的属性名，以便合并成查找索引
+ *
+ * @see MutablePropertySources
+ * @see PropertySourcesIndex
+ */
+public abstract class PropertySource {
+
+	private final String name;
+
+	protected PropertySource(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 查找属性值，不存在时返回null
+	 */
+	public abstract String getProperty(String key);
+
+	/**
+	 * 返回所有的属性名
+	 */
+	public abstract String[] getPropertyNames();
+
+	/**
+	 * 属性名是否按宽松规则匹配，比如环境变量FOO_BAR可以通过foo.bar查找
+	 */
+	public boolean isRelaxed() {
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {name='" + name + "'}";
+	}
+}
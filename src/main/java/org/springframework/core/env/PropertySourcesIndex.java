@@ -0,0 +1,123 @@
+package org.springframework.core.env;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 将多个属性源合并成的不可变查找索引。属性源加载完成后构建一次，之后每次查找只需要一次hash查找，而不是依次遍历所有属性源。
+ * 宽松匹配的属性源(比如环境变量)同时以规范化的名称写入同一个索引：小写，'_'和'-'替换为'.'，因此环境变量FOO_BAR
+ * 可以覆盖优先级更低的属性文件中的foo.bar
+ */
+public final class PropertySourcesIndex {
+
+	private final Map<String, String> index;
+
+	/**
+	 * 当前值来自宽松匹配的属性源的规范化名称，只有这些名称可以通过规范化后的查找名称命中
+	 */
+	private final Set<String> relaxedNames;
+
+	private PropertySourcesIndex(Map<String, String> index, Set<String> relaxedNames) {
+		this.index = index;
+		this.relaxedNames = relaxedNames;
+	}
+
+	/**
+	 * 按优先级合并属性源，前面的属性源覆盖后面的
+	 */
+	public static PropertySourcesIndex build(Iterable<PropertySource> propertySources) {
+		List<PropertySource> ordered = new ArrayList<>();
+		for (PropertySource propertySource : propertySources) {
+			ordered.add(propertySource);
+		}
+		Map<String, String> index = new HashMap<>(256);
+		Set<String> relaxedNames = new HashSet<>();
+		//从优先级最低的开始写入，优先级高的覆盖优先级低的
+		for (int i = ordered.size() - 1; i >= 0; i--) {
+			PropertySource propertySource = ordered.get(i);
+			boolean relaxed = propertySource.isRelaxed();
+			for (String name : propertySource.getPropertyNames()) {
+				String value = propertySource.getProperty(name);
+				if (value == null) {
+					continue;
+				}
+				index.put(name, value);
+				if (relaxed) {
+					String canonicalName = canonicalName(name);
+					index.put(canonicalName, value);
+					relaxedNames.add(canonicalName);
+				} else {
+					relaxedNames.remove(name);
+				}
+			}
+		}
+		return new PropertySourcesIndex(index, relaxedNames);
+	}
+
+	/**
+	 * 查找属性值。先按原名称查找，找不到时按规范化名称查找宽松匹配的属性源写入的属性(FOO_BAR和foo.bar、foo-bar视为同一个属性)
+	 */
+	public String getProperty(String key) {
+		String value = index.get(key);
+		if (value == null) {
+			String canonicalKey = canonicalName(key);
+			if (relaxedNames.contains(canonicalKey)) {
+				value = index.get(canonicalKey);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * 与另一个索引比较，返回新增、删除或者值发生变化的属性名
+	 */
+	public Set<String> diff(PropertySourcesIndex other) {
+		Set<String> changed = new HashSet<>();
+		for (Map.Entry<String, String> entry : index.entrySet()) {
+			if (!entry.getValue().equals(other.index.get(entry.getKey()))) {
+				changed.add(entry.getKey());
+			}
+		}
+		for (String key : other.index.keySet()) {
+			if (!index.containsKey(key)) {
+				changed.add(key);
+			}
+		}
+		return changed;
+	}
+
+	public boolean containsProperty(String key) {
+		return getProperty(key) != null;
+	}
+
+	public int size() {
+		return index.size();
+	}
+
+	/**
+	 * 规范化属性名：小写，'_'和'-'替换为'.'
+	 */
+	public static String canonicalName(String name) {
+		boolean needsConversion = false;
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c == '_' || c == '-' || Character.isUpperCase(c)) {
+				needsConversion = true;
+				break;
+			}
+		}
+		if (!needsConversion) {
+			return name;
+		}
+		char[] chars = new char[name.length()];
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			chars[i] = (c == '_' || c == '-') ? '.' : Character.toLowerCase(c);
+		}
+		return new String(chars);
+	}
+}
@@ -0,0 +1,39 @@
+package org.springframework.core.env;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 环境变量属性源。环境变量通常写成FOO_BAR的形式，按宽松规则匹配，可以通过foo.bar或者foo-bar查找
+ */
+public class SystemEnvironmentPropertySource extends PropertySource {
+
+	public static final String SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME = "systemEnvironment";
+
+	private final Map<String, String> environment;
+
+	public SystemEnvironmentPropertySource(String name, Map<String, String> environment) {
+		super(name);
+		this.environment = environment;
+	}
+
+	@Override
+	public String getProperty(String key) {
+		String value = environment.get(key);
+		if (value == null) {
+			value = environment.get(PropertySourcesIndex.canonicalName(key).replace('.', '_').toUpperCase());
+		}
+		return value;
+	}
+
+	@Override
+	public String[] getPropertyNames() {
+		Set<String> names = environment.keySet();
+		return names.toArray(new String[0]);
+	}
+
+	@Override
+	public boolean isRelaxed() {
+		return true;
+	}
+}
@@ -1,5 +1,6 @@
 package org.springframework.core.io;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -24,4 +25,9 @@ public class ClassPathResource implements Resource {
 		}
 		return is;
 	}
+
+	@Override
+	public File getFile() throws IOException {
+		return Resource.toFile(this.getClass().getClassLoader().getResource(this.path));
+	}
 }
@@ -30,4 +30,13 @@ public class FileSystemResource implements Resource {
 			throw new FileNotFoundException(ex.getMessage());
 		}
 	}
+
+	@Override
+	public File getFile() {
+		return new File(filePath);
+	}
+
+	public String getPath() {
+		return filePath;
+	}
 }
@@ -0,0 +1,128 @@
+package org.springframework.core.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 基于WatchService监听一组文件的变化。WatchService只能监听目录，因此监听文件所在的目录并过滤出关心的文件。
+ * 编辑器保存文件时通常会产生多个事件，在静默期内没有新事件后才回调一次
+ */
+public class FileWatcher {
+
+	public static final long DEFAULT_QUIET_PERIOD_MILLIS = 50;
+
+	private final Set<Path> files = new HashSet<>();
+
+	private final Consumer<Set<Path>> callback;
+
+	private long quietPeriodMillis = DEFAULT_QUIET_PERIOD_MILLIS;
+
+	private volatile WatchService watchService;
+
+	private Thread thread;
+
+	public FileWatcher(Collection<File> files, Consumer<Set<Path>> callback) {
+		for (File file : files) {
+			this.files.add(file.toPath().toAbsolutePath().normalize());
+		}
+		this.callback = callback;
+	}
+
+	public void setQuietPeriodMillis(long quietPeriodMillis) {
+		this.quietPeriodMillis = quietPeriodMillis;
+	}
+
+	/**
+	 * 开始监听，监听在后台的守护线程中进行
+	 */
+	public synchronized void start() throws IOException {
+		if (watchService != null || files.isEmpty()) {
+			return;
+		}
+		WatchService service = FileSystems.getDefault().newWatchService();
+		Set<Path> directories = new HashSet<>();
+		for (Path file : files) {
+			directories.add(file.getParent());
+		}
+		for (Path directory : directories) {
+			directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		}
+		this.watchService = service;
+		this.thread = new Thread(this::watch, "file-watcher");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * 停止监听
+	 */
+	public synchronized void stop() {
+		WatchService service = this.watchService;
+		if (service == null) {
+			return;
+		}
+		this.watchService = null;
+		try {
+			service.close();
+		} catch (IOException e) {
+			//ignore
+		}
+		if (thread != null) {
+			thread.interrupt();
+			thread = null;
+		}
+	}
+
+	public boolean isRunning() {
+		return watchService != null;
+	}
+
+	private void watch() {
+		WatchService service = this.watchService;
+		try {
+			while (service != null && service == this.watchService) {
+				Set<Path> changed = new LinkedHashSet<>();
+				collect(service.take(), changed);
+				//静默期内继续收集事件，合并成一次回调
+				WatchKey key;
+				while ((key = service.poll(quietPeriodMillis, TimeUnit.MILLISECONDS)) != null) {
+					collect(key, changed);
+				}
+				if (!changed.isEmpty()) {
+					callback.accept(changed);
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			//停止监听
+		}
+	}
+
+	private void collect(WatchKey key, Set<Path> changed) {
+		Path directory = (Path) key.watchable();
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				changed.addAll(files);
+				continue;
+			}
+			Path file = directory.resolve((Path) event.context()).toAbsolutePath().normalize();
+			if (files.contains(file)) {
+				changed.add(file);
+			}
+		}
+		key.reset();
+	}
+}
@@ -1,7 +1,11 @@
 package org.springframework.core.io;
 
+import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
 
 /**
  * 资源的抽象和访问接口
@@ -13,4 +17,24 @@ public interface Resource {
 
 	InputStream getInputStream() throws IOException;
 
+	/**
+	 * 资源对应的本地文件，资源不在文件系统中时抛出FileNotFoundException
+	 */
+	default File getFile() throws IOException {
+		throw new FileNotFoundException(this + " cannot be resolved to a file");
+	}
+
+	/**
+	 * 将file协议的url转换为本地文件
+	 */
+	static File toFile(URL url) throws IOException {
+		if (url == null || !"file".equals(url.getProtocol())) {
+			throw new FileNotFoundException(url + " cannot be resolved to a file");
+		}
+		try {
+			return new File(url.toURI());
+		} catch (URISyntaxException ex) {
+			return new File(url.getFile());
+		}
+	}
 }
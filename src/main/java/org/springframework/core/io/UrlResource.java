@@ -1,5 +1,6 @@
 package org.springframework.core.io;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -26,4 +27,9 @@ public class UrlResource implements Resource {
 			throw ex;
 		}
 	}
+
+	@Override
+	public File getFile() throws IOException {
+		return Resource.toFile(this.url);
+	}
 }
@@ -0,0 +1,256 @@
+package org.springframework.util;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * JVM范围内共享的类反射信息缓存：字段、public方法、泛型接口的类型参数以及类上的注解。
+ * 基于ClassValue实现，缓存随类一起回收，不会因为持有类的引用导致类加载器无法卸载。
+ * 返回的数组是共享的，调用方不能修改
+ */
+public final class IntrospectionCache {
+
+	private static final Object NONE = new Object();
+
+	private static final ClassValue<ClassIntrospection> CACHE = new ClassValue<ClassIntrospection>() {
+		@Override
+		protected ClassIntrospection computeValue(Class<?> type) {
+			introspectedClassCount.increment();
+			return new ClassIntrospection();
+		}
+	};
+
+	private static final LongAdder introspectedClassCount = new LongAdder();
+
+	private static final LongAdder hitCount = new LongAdder();
+
+	private static final LongAdder missCount = new LongAdder();
+
+	private IntrospectionCache() {
+	}
+
+	/**
+	 * 类中声明的字段，同Class#getDeclaredFields
+	 */
+	public static Field[] getDeclaredFields(Class<?> clazz) {
+		ClassIntrospection introspection = CACHE.get(clazz);
+		Field[] fields = introspection.declaredFields;
+		if (fields == null) {
+			missCount.increment();
+			fields = clazz.getDeclaredFields();
+			introspection.declaredFields = fields;
+		} else {
+			hitCount.increment();
+		}
+		return fields;
+	}
+
+	/**
+	 * 按名称查找字段，包括父类中声明的字段，子类的字段优先
+	 *
+	 * @return 不存在时返回null
+	 */
+	public static Field getField(Class<?> clazz, String name) {
+		ClassIntrospection introspection = CACHE.get(clazz);
+		Map<String, Field> fields = introspection.fieldsByName;
+		if (fields == null) {
+			missCount.increment();
+			fields = new HashMap<>();
+			for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+				for (Field field : getDeclaredFields(current)) {
+					fields.putIfAbsent(field.getName(), field);
+				}
+			}
+			introspection.fieldsByName = fields;
+		} else {
+			hitCount.increment();
+		}
+		return fields.get(name);
+	}
+
+	/**
+	 * 查找public方法，包括继承的方法，同Class#getMethod
+	 *
+	 * @return 不存在时返回null
+	 */
+	public static Method getPublicMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+		MethodKey key = new MethodKey(name, parameterTypes);
+		Object method = lookup(CACHE.get(clazz).methods, key, k -> {
+			try {
+				return clazz.getMethod(name, parameterTypes);
+			} catch (NoSuchMethodException e) {
+				return null;
+			}
+		});
+		return (Method) method;
+	}
+
+	/**
+	 * 解析类实现的泛型接口的类型参数，沿父类和父接口查找，泛型父类上的类型变量按子类给出的类型参数解析。类型参数本身是泛型类型时取其原始类型
+	 *
+	 * @param clazz            实现类
+	 * @param genericInterface 泛型接口，比如ApplicationListener
+	 * @return 类型参数，无法解析时(比如没有指定类型参数)返回null
+	 */
+	public static Class<?>[] resolveTypeArguments(Class<?> clazz, Class<?> genericInterface) {
+		Object arguments = lookup(CACHE.get(clazz).typeArguments, genericInterface, k -> doResolveTypeArguments(clazz, genericInterface));
+		return (Class<?>[]) arguments;
+	}
+
+	/**
+	 * 类上的注解，同Class#getAnnotation
+	 */
+	public static <A extends Annotation> A getAnnotation(Class<?> clazz, Class<A> annotationType) {
+		Object annotation = lookup(CACHE.get(clazz).annotations, annotationType, k -> clazz.getAnnotation(annotationType));
+		return annotationType.cast(annotation);
+	}
+
+	public static long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public static long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * 被缓存过反射信息的类的数量
+	 */
+	public static long getIntrospectedClassCount() {
+		return introspectedClassCount.sum();
+	}
+
+	private static <K> Object lookup(Map<K, Object> cache, K key, Function<K, Object> loader) {
+		Object value = cache.get(key);
+		if (value == null) {
+			missCount.increment();
+			value = loader.apply(key);
+			cache.putIfAbsent(key, value != null ? value : NONE);
+		} else {
+			hitCount.increment();
+		}
+		return value != NONE ? value : null;
+	}
+
+	private static Class<?>[] doResolveTypeArguments(Class<?> clazz, Class<?> genericInterface) {
+		Type[] arguments = findTypeArguments(clazz, genericInterface, Collections.emptyMap());
+		if (arguments == null) {
+			return null;
+		}
+		Class<?>[] result = new Class<?>[arguments.length];
+		for (int i = 0; i < arguments.length; i++) {
+			Type argument = arguments[i];
+			if (argument instanceof ParameterizedType) {
+				argument = ((ParameterizedType) argument).getRawType();
+			}
+			if (!(argument instanceof Class)) {
+				return null;
+			}
+			result[i] = (Class<?>) argument;
+		}
+		return result;
+	}
+
+	/**
+	 * 沿着父类和父接口查找泛型接口，途中的类型变量用子类型给出的类型参数替换。
+	 * 比如Base&lt;E&gt; implements ApplicationListener&lt;E&gt;，子类继承Base&lt;FooEvent&gt;时解析为FooEvent
+	 *
+	 * @param bindings type所属类型的类型变量到实际类型
+	 * @return 泛型接口的类型参数，找不到泛型接口 或者 以原始类型实现时返回null
+	 */
+	private static Type[] findTypeArguments(Type type, Class<?> genericInterface, Map<TypeVariable<?>, Type> bindings) {
+		Class<?> rawType;
+		Map<TypeVariable<?>, Type> typeBindings;
+		if (type instanceof ParameterizedType) {
+			ParameterizedType parameterizedType = (ParameterizedType) type;
+			rawType = (Class<?>) parameterizedType.getRawType();
+			TypeVariable<?>[] variables = rawType.getTypeParameters();
+			Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
+			typeBindings = new HashMap<>(variables.length * 2);
+			for (int i = 0; i < variables.length; i++) {
+				Type argument = actualTypeArguments[i];
+				typeBindings.put(variables[i], argument instanceof TypeVariable && bindings.containsKey(argument) ? bindings.get(argument) : argument);
+			}
+		} else if (type instanceof Class) {
+			rawType = (Class<?>) type;
+			typeBindings = Collections.emptyMap();
+		} else {
+			return null;
+		}
+
+		if (rawType == genericInterface) {
+			if (!(type instanceof ParameterizedType)) {
+				return null;
+			}
+			TypeVariable<?>[] variables = rawType.getTypeParameters();
+			Type[] result = new Type[variables.length];
+			for (int i = 0; i < variables.length; i++) {
+				result[i] = typeBindings.get(variables[i]);
+			}
+			return result;
+		}
+		if (!genericInterface.isAssignableFrom(rawType)) {
+			return null;
+		}
+		for (Type superInterface : rawType.getGenericInterfaces()) {
+			Type[] result = findTypeArguments(superInterface, genericInterface, typeBindings);
+			if (result != null) {
+				return result;
+			}
+		}
+		Type superclass = rawType.getGenericSuperclass();
+		return superclass != null ? findTypeArguments(superclass, genericInterface, typeBindings) : null;
+	}
+
+	/**
+	 * 一个类的反射信息，各部分在第一次使用时计算
+	 */
+	private static final class ClassIntrospection {
+
+		private volatile Field[] declaredFields;
+
+		private volatile Map<String, Field> fieldsByName;
+
+		private final Map<MethodKey, Object> methods = new ConcurrentHashMap<>(4);
+
+		private final Map<Class<?>, Object> typeArguments = new ConcurrentHashMap<>(4);
+
+		private final Map<Class<? extends Annotation>, Object> annotations = new ConcurrentHashMap<>(4);
+	}
+
+	private static final class MethodKey {
+
+		private final String name;
+
+		private final Class<?>[] parameterTypes;
+
+		private MethodKey(String name, Class<?>[] parameterTypes) {
+			this.name = name;
+			this.parameterTypes = parameterTypes;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof MethodKey)) return false;
+			MethodKey that = (MethodKey) o;
+			return name.equals(that.name) && Arrays.equals(parameterTypes, that.parameterTypes);
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode() * 31 + Arrays.hashCode(parameterTypes);
+		}
+	}
+}
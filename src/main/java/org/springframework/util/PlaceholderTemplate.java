@@ -0,0 +1,255 @@
+package org.springframework.util;
+
+import org.springframework.beans.BeansException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 预先解析好的占位符模板。字符串只解析一次，之后每次渲染只需要按顺序拼接文本片段和占位符的值，不再重新扫描字符串。
+ * 支持的语法：
+ * <ul>
+ * <li>多个占位符：${a}-${b}</li>
+ * <li>默认值：${key:default}，默认值中也可以包含占位符</li>
+ * <li>嵌套：${outer.${inner}}，先解析内层占位符得到key</li>
+ * <li>占位符的值中包含占位符时会继续解析，出现循环引用时抛出异常</li>
+ * <li>转义：\${key}原样输出${key}</li>
+ * </ul>
+ */
+public final class PlaceholderTemplate {
+
+	public static final String PLACEHOLDER_PREFIX = "${";
+
+	public static final String PLACEHOLDER_SUFFIX = "}";
+
+	public static final char VALUE_SEPARATOR = ':';
+
+	public static final char ESCAPE_CHAR = '\\';
+
+	private final String text;
+
+	private final Part[] parts;
+
+	private final boolean hasPlaceholders;
+
+	private PlaceholderTemplate(String text, Part[] parts) {
+		this.text = text;
+		this.parts = parts;
+		boolean found = false;
+		for (Part part : parts) {
+			if (part instanceof Placeholder) {
+				found = true;
+				break;
+			}
+		}
+		this.hasPlaceholders = found;
+	}
+
+	/**
+	 * 解析字符串得到模板
+	 */
+	public static PlaceholderTemplate compile(String text) {
+		List<Part> parts = new ArrayList<>();
+		StringBuilder literal = new StringBuilder();
+		int length = text.length();
+		int i = 0;
+		while (i < length) {
+			if (text.charAt(i) == ESCAPE_CHAR && text.startsWith(PLACEHOLDER_PREFIX, i + 1)) {
+				literal.append(PLACEHOLDER_PREFIX);
+				i += 1 + PLACEHOLDER_PREFIX.length();
+			} else if (text.startsWith(PLACEHOLDER_PREFIX, i)) {
+				int contentStart = i + PLACEHOLDER_PREFIX.length();
+				int end = findPlaceholderEnd(text, contentStart);
+				if (end == -1) {
+					//没有匹配的后缀，剩余部分当作普通文本
+					literal.append(text, i, length);
+					break;
+				}
+				if (literal.length() > 0) {
+					parts.add(new Literal(literal.toString()));
+					literal.setLength(0);
+				}
+				String content = text.substring(contentStart, end);
+				int separator = findDefaultSeparator(content);
+				if (separator == -1) {
+					parts.add(new Placeholder(compile(content), null));
+				} else {
+					parts.add(new Placeholder(compile(content.substring(0, separator)), compile(content.substring(separator + 1))));
+				}
+				i = end + PLACEHOLDER_SUFFIX.length();
+			} else {
+				literal.append(text.charAt(i));
+				i++;
+			}
+		}
+		if (literal.length() > 0) {
+			//不包含占位符时直接引用原字符串，渲染结果与原字符串是同一个对象
+			parts.add(new Literal(parts.isEmpty() && literal.length() == length ? text : literal.toString()));
+		}
+		return new PlaceholderTemplate(text, parts.toArray(new Part[0]));
+	}
+
+	/**
+	 * 找到与前缀匹配的后缀位置，跳过嵌套的占位符
+	 */
+	private static int findPlaceholderEnd(String text, int start) {
+		int depth = 0;
+		int i = start;
+		while (i < text.length()) {
+			if (text.startsWith(PLACEHOLDER_PREFIX, i)) {
+				depth++;
+				i += PLACEHOLDER_PREFIX.length();
+			} else if (text.startsWith(PLACEHOLDER_SUFFIX, i)) {
+				if (depth == 0) {
+					return i;
+				}
+				depth--;
+				i += PLACEHOLDER_SUFFIX.length();
+			} else {
+				i++;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 找到最外层的默认值分隔符
+	 */
+	private static int findDefaultSeparator(String content) {
+		int depth = 0;
+		int i = 0;
+		while (i < content.length()) {
+			if (content.startsWith(PLACEHOLDER_PREFIX, i)) {
+				depth++;
+				i += PLACEHOLDER_PREFIX.length();
+			} else if (content.startsWith(PLACEHOLDER_SUFFIX, i)) {
+				depth--;
+				i += PLACEHOLDER_SUFFIX.length();
+			} else {
+				if (depth == 0 && content.charAt(i) == VALUE_SEPARATOR) {
+					return i;
+				}
+				i++;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 是否包含占位符
+	 */
+	public boolean hasPlaceholders() {
+		return hasPlaceholders;
+	}
+
+	/**
+	 * 渲染模板
+	 *
+	 * @param resolver 根据key查找占位符的值
+	 * @param cache    用于获取占位符的值中的模板，可以为null
+	 * @return
+	 * @throws BeansException 占位符没有对应的值且没有默认值，或者出现循环引用
+	 */
+	public String render(PlaceholderResolver resolver, TemplateCache cache) throws BeansException {
+		return render(resolver, cache, null);
+	}
+
+	private String render(PlaceholderResolver resolver, TemplateCache cache, Set<String> visiting) {
+		if (parts.length == 0) {
+			return "";
+		}
+		if (parts.length == 1) {
+			//只有一个片段时直接返回，不创建StringBuilder
+			return parts[0].resolve(resolver, cache, visiting, text);
+		}
+		StringBuilder result = new StringBuilder(text.length() + 16);
+		for (Part part : parts) {
+			result.append(part.resolve(resolver, cache, visiting, text));
+		}
+		return result.toString();
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public String toString() {
+		return text;
+	}
+
+	/**
+	 * 根据key查找占位符的值，找不到时返回null
+	 */
+	@FunctionalInterface
+	public interface PlaceholderResolver {
+
+		String resolvePlaceholder(String key);
+	}
+
+	/**
+	 * 模板缓存，相同的字符串复用同一个模板
+	 */
+	@FunctionalInterface
+	public interface TemplateCache {
+
+		PlaceholderTemplate getTemplate(String text);
+	}
+
+	private abstract static class Part {
+
+		abstract String resolve(PlaceholderResolver resolver, TemplateCache cache, Set<String> visiting, String text);
+	}
+
+	private static final class Literal extends Part {
+
+		private final String value;
+
+		private Literal(String value) {
+			this.value = value;
+		}
+
+		@Override
+		String resolve(PlaceholderResolver resolver, TemplateCache cache, Set<String> visiting, String text) {
+			return value;
+		}
+	}
+
+	private static final class Placeholder extends Part {
+
+		private final PlaceholderTemplate key;
+
+		private final PlaceholderTemplate defaultValue;
+
+		private Placeholder(PlaceholderTemplate key, PlaceholderTemplate defaultValue) {
+			this.key = key;
+			this.defaultValue = defaultValue;
+		}
+
+		@Override
+		String resolve(PlaceholderResolver resolver, TemplateCache cache, Set<String> visiting, String text) {
+			String resolvedKey = key.render(resolver, cache, visiting);
+			String value = resolver.resolvePlaceholder(resolvedKey);
+			if (value == null) {
+				if (defaultValue == null) {
+					throw new BeansException("Could not resolve placeholder '" + resolvedKey + "' in value \"" + text + "\"");
+				}
+				return defaultValue.render(resolver, cache, visiting);
+			}
+			if (value.indexOf(PLACEHOLDER_PREFIX) == -1) {
+				return value;
+			}
+			//值中还有占位符，继续解析并检测循环引用
+			Set<String> current = visiting != null ? visiting : new HashSet<>();
+			if (!current.add(resolvedKey)) {
+				throw new BeansException("Circular placeholder reference '" + resolvedKey + "' in property definitions");
+			}
+			PlaceholderTemplate valueTemplate = cache != null ? cache.getTemplate(value) : compile(value);
+			String result = valueTemplate.render(resolver, cache, current);
+			current.remove(resolvedKey);
+			return result;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package org.springframework.util;
+
+import net.sf.cglib.core.NamingPolicy;
+import net.sf.cglib.core.Predicate;
+
+/**
+ * CGLIB生成类的命名策略。默认策略在类名中使用key的hashCode，每次启动都可能不同；这里改为
+ * 父类名 + 固定标记 + 序号，同样的启动顺序总是得到同样的类名，便于记录到类列表中
+ */
+public final class SpringNamingPolicy implements NamingPolicy {
+
+	public static final SpringNamingPolicy INSTANCE = new SpringNamingPolicy();
+
+	public static final String CGLIB_CLASS_SEPARATOR = "$$";
+
+	private SpringNamingPolicy() {
+	}
+
+	@Override
+	public String getClassName(String prefix, String source, Object key, Predicate names) {
+		if (prefix == null) {
+			prefix = "net.sf.cglib.empty.Object";
+		} else if (prefix.startsWith("java")) {
+			//java包下不能定义类
+			prefix = "$" + prefix;
+		}
+		String base = prefix + CGLIB_CLASS_SEPARATOR + getTag(source) + CGLIB_CLASS_SEPARATOR;
+		int index = 0;
+		String className = base + index;
+		while (names.evaluate(className)) {
+			className = base + (++index);
+		}
+		return className;
+	}
+
+	/**
+	 * Enhancer生成的代理类使用SpringCGLIB，FastClass等其他生成器带上生成器的类名
+	 */
+	private static String getTag(String source) {
+		String simpleName = source.substring(source.lastIndexOf('.') + 1);
+		return "Enhancer".equals(simpleName) ? "SpringCGLIB" : simpleName + "BySpringCGLIB";
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof SpringNamingPolicy;
+	}
+
+	@Override
+	public int hashCode() {
+		return SpringNamingPolicy.class.hashCode();
+	}
+}
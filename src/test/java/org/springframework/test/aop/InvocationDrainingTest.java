@@ -0,0 +1,151 @@
+package org.springframework.test.aop;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.InvocationRejectedException;
+import org.springframework.aop.framework.InvocationTracker;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.service.ReportService;
+import org.springframework.test.service.ReportServiceImpl;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 关闭容器时拒绝新的代理调用，等待正在执行的调用结束后再销毁单例
+ */
+public class InvocationDrainingTest {
+
+	@Before
+	public void setUp() {
+		ReportServiceImpl.EVENTS.clear();
+	}
+
+	@Test
+	public void testCloseWaitsForInFlightInvocations() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:invocation-draining.xml");
+		ReportService reportService = applicationContext.getBean("reportService", ReportService.class);
+		assertThat(reportService.ping()).isEqualTo("pong");
+
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<String> report = executor.submit(() -> reportService.generate(started, release));
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+			Future<?> close = executor.submit(applicationContext::close);
+			//关闭开始后新的调用被拒绝
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (applicationContext.getShutdownDrainResult() == null && System.nanoTime() < deadline) {
+				try {
+					reportService.ping();
+					Thread.sleep(5);
+				} catch (InvocationRejectedException e) {
+					break;
+				}
+			}
+			assertThatThrownBy(reportService::ping).isInstanceOf(InvocationRejectedException.class);
+			assertThat(ReportServiceImpl.EVENTS).isEmpty();
+
+			Thread.sleep(50);
+			release.countDown();
+			assertThat(report.get(5, TimeUnit.SECONDS)).isEqualTo("report");
+			close.get(5, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(ReportServiceImpl.EVENTS).containsExactly("generated", "destroyed");
+		InvocationTracker.DrainResult drainResult = applicationContext.getShutdownDrainResult();
+		assertThat(drainResult.getCutOffInvocations()).isZero();
+		assertThat(drainResult.getDrainTime().toMillis()).isGreaterThanOrEqualTo(50);
+	}
+
+	@Test
+	public void testInvocationsExceedingDrainTimeoutAreCutOff() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:invocation-draining.xml");
+		applicationContext.setShutdownDrainTimeout(100, TimeUnit.MILLISECONDS);
+		ReportService reportService = applicationContext.getBean("reportService", ReportService.class);
+
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<String> report = executor.submit(() -> reportService.generate(started, release));
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+			applicationContext.close();
+			assertThat(ReportServiceImpl.EVENTS).containsExactly("destroyed");
+			InvocationTracker.DrainResult drainResult = applicationContext.getShutdownDrainResult();
+			assertThat(drainResult.getCutOffInvocations()).isEqualTo(1);
+			assertThat(drainResult.getDrainTime().toMillis()).isGreaterThanOrEqualTo(100);
+
+			release.countDown();
+			assertThat(report.get(5, TimeUnit.SECONDS)).isEqualTo("report");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testCloseFromInsideAdvisedMethod() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:invocation-draining.xml");
+		ReportService reportService = applicationContext.getBean("reportService", ReportService.class);
+
+		//关闭不等待当前线程自己的调用，不会等到超时
+		long start = System.nanoTime();
+		reportService.run(applicationContext::close);
+		assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start)).isLessThan(5);
+
+		assertThat(ReportServiceImpl.EVENTS).containsExactly("destroyed", "ran");
+		assertThat(applicationContext.getShutdownDrainResult().getCutOffInvocations()).isZero();
+		assertThatThrownBy(reportService::ping).isInstanceOf(InvocationRejectedException.class);
+	}
+
+	@Test
+	public void testDestroyMethodsMayInvokeProxies() throws Exception {
+		for (int parallelism : new int[]{1, 2}) {
+			ReportServiceImpl.EVENTS.clear();
+			ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:invocation-draining-destroy.xml");
+			((DefaultListableBeanFactory) applicationContext.getBeanFactory()).setDestroyParallelism(parallelism);
+			ReportService reportService = applicationContext.getBean("reportService", ReportService.class);
+
+			//销毁方法在排空之后执行，对代理的调用仍然放行，外部调用被拒绝
+			applicationContext.close();
+			assertThat(ReportServiceImpl.EVENTS).containsExactly("archived pong", "destroyed");
+			assertThat(((DefaultListableBeanFactory) applicationContext.getBeanFactory()).getDestructionReport().getFailures()).isEmpty();
+			assertThatThrownBy(reportService::ping).isInstanceOf(InvocationRejectedException.class);
+		}
+	}
+
+	@Test
+	public void testNestedInvocationsOnCallingThreadAreNotRejected() throws Exception {
+		InvocationTracker tracker = new InvocationTracker();
+		Method method = ReportService.class.getMethod("ping");
+		tracker.enter(method);
+		Thread drainer = new Thread(() -> tracker.drain(5, TimeUnit.SECONDS));
+		drainer.start();
+		while (!tracker.isClosed()) {
+			Thread.sleep(1);
+		}
+		//已经在调用中的线程继续调用其他代理
+		tracker.enter(method);
+		tracker.exit();
+		assertThat(tracker.getInFlightCount()).isEqualTo(1);
+		tracker.exit();
+		drainer.join(5000);
+		assertThat(drainer.isAlive()).isFalse();
+		assertThat(tracker.getInFlightCount()).isZero();
+		assertThatThrownBy(() -> tracker.enter(method)).isInstanceOf(InvocationRejectedException.class)
+				.hasMessageContaining("shutting down");
+	}
+}
@@ -0,0 +1,24 @@
+package org.springframework.test.bean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * 父类中声明的注入字段
+ */
+public abstract class AbstractGarage {
+
+	@Value("${brand}")
+	private String brand;
+
+	@Autowired
+	private Car car;
+
+	public String getBrand() {
+		return brand;
+	}
+
+	public Car getCar() {
+		return car;
+	}
+}
@@ -0,0 +1,39 @@
+package org.springframework.test.bean;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.List;
+
+/**
+ * 通过@Value注入属性的配置bean
+ */
+public class AppSettings {
+
+	@Value("${app.name}")
+	private String name;
+
+	@Value("${app.timeout}")
+	private int timeout;
+
+	@Value("${app.mode:standalone}")
+	private String mode;
+
+	@Value("${app.tags:web,batch}")
+	private List<String> tags;
+
+	public String getName() {
+		return name;
+	}
+
+	public int getTimeout() {
+		return timeout;
+	}
+
+	public String getMode() {
+		return mode;
+	}
+
+	public List<String> getTags() {
+		return tags;
+	}
+}
@@ -0,0 +1,37 @@
+package org.springframework.test.bean;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 销毁时记录顺序的bean，可以模拟耗时的销毁和销毁失败
+ */
+public class ClosableResource implements DisposableBean {
+
+	public static final List<String> DESTROYED = new CopyOnWriteArrayList<>();
+
+	private final String name;
+
+	private final long destroyMillis;
+
+	private final boolean failOnDestroy;
+
+	public ClosableResource(String name, long destroyMillis, boolean failOnDestroy) {
+		this.name = name;
+		this.destroyMillis = destroyMillis;
+		this.failOnDestroy = failOnDestroy;
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if (destroyMillis > 0) {
+			Thread.sleep(destroyMillis);
+		}
+		if (failOnDestroy) {
+			throw new IllegalStateException("Could not close " + name);
+		}
+		DESTROYED.add(name);
+	}
+}
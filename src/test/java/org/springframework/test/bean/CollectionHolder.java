@@ -0,0 +1,34 @@
+package org.springframework.test.bean;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 包含集合和数组字段的bean
+ */
+public class CollectionHolder {
+
+	private List<Long> ids;
+
+	private long[] timestamps;
+
+	private Set<String> tags;
+
+	private String[] names;
+
+	public List<Long> getIds() {
+		return ids;
+	}
+
+	public long[] getTimestamps() {
+		return timestamps;
+	}
+
+	public Set<String> getTags() {
+		return tags;
+	}
+
+	public String[] getNames() {
+		return names;
+	}
+}
@@ -0,0 +1,17 @@
+package org.springframework.test.bean;
+
+/**
+ *
+ */
+public class Crankshaft {
+
+	private int stroke;
+
+	public int getStroke() {
+		return stroke;
+	}
+
+	public void setStroke(int stroke) {
+		this.stroke = stroke;
+	}
+}
@@ -0,0 +1,67 @@
+package org.springframework.test.bean;
+
+/**
+ * setter和初始化方法都有记录的bean，用于区分属性是通过setter还是直接写字段注入的。
+ * model和cylinders是public字段，生成的访问器可以直接赋值；crankshaft是private字段，只能通过反射赋值
+ */
+public class Engine {
+
+	public String model;
+
+	public int cylinders;
+
+	private Crankshaft crankshaft;
+
+	private boolean started;
+
+	private boolean stopped;
+
+	private int setterCalls;
+
+	public void start() {
+		started = true;
+	}
+
+	public void stop() {
+		stopped = true;
+	}
+
+	public String getModel() {
+		return model;
+	}
+
+	public void setModel(String model) {
+		this.model = model;
+		setterCalls++;
+	}
+
+	public int getCylinders() {
+		return cylinders;
+	}
+
+	public void setCylinders(int cylinders) {
+		this.cylinders = cylinders;
+		setterCalls++;
+	}
+
+	public Crankshaft getCrankshaft() {
+		return crankshaft;
+	}
+
+	public void setCrankshaft(Crankshaft crankshaft) {
+		this.crankshaft = crankshaft;
+		setterCalls++;
+	}
+
+	public boolean isStarted() {
+		return started;
+	}
+
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	public int getSetterCalls() {
+		return setterCalls;
+	}
+}
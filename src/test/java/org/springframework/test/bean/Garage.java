@@ -0,0 +1,16 @@
+package org.springframework.test.bean;
+
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * 注入字段分布在父类和子类中
+ */
+public class Garage extends AbstractGarage {
+
+	@Value("${garage.capacity:8}")
+	private int capacity;
+
+	public int getCapacity() {
+		return capacity;
+	}
+}
@@ -0,0 +1,21 @@
+package org.springframework.test.bean;
+
+/**
+ *
+ */
+public class Gearbox {
+
+	private int gears;
+
+	public int shift(int gear) {
+		return Math.min(gear, gears);
+	}
+
+	public int getGears() {
+		return gears;
+	}
+
+	public void setGears(int gears) {
+		this.gears = gears;
+	}
+}
@@ -0,0 +1,52 @@
+package org.springframework.test.bean;
+
+import org.springframework.beans.factory.WarmableBean;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 通过{@link WarmableBean}或者xml中的warm-up-method预热的bean，记录预热次数和执行预热的线程
+ */
+public class PricingService implements WarmableBean {
+
+	private final Set<String> warmUpThreads = ConcurrentHashMap.newKeySet();
+
+	private int warmUpCount;
+
+	private int primeCount;
+
+	private int basePrice;
+
+	public int price(int quantity) {
+		return basePrice * quantity - (quantity > 10 ? quantity : 0);
+	}
+
+	@Override
+	public void warmUp() {
+		warmUpCount++;
+		warmUpThreads.add(Thread.currentThread().getName());
+		price(warmUpCount % 20);
+	}
+
+	public void prime() {
+		primeCount++;
+		warmUpThreads.add(Thread.currentThread().getName());
+	}
+
+	public int getWarmUpCount() {
+		return warmUpCount;
+	}
+
+	public int getPrimeCount() {
+		return primeCount;
+	}
+
+	public Set<String> getWarmUpThreads() {
+		return warmUpThreads;
+	}
+
+	public void setBasePrice(int basePrice) {
+		this.basePrice = basePrice;
+	}
+}
@@ -0,0 +1,24 @@
+package org.springframework.test.bean;
+
+import org.springframework.test.service.ReportService;
+import org.springframework.test.service.ReportServiceImpl;
+
+/**
+ * 销毁方法中调用被代理的ReportService
+ */
+public class ReportArchiver {
+
+	private ReportService reportService;
+
+	public void archive() {
+		ReportServiceImpl.EVENTS.add("archived " + reportService.ping());
+	}
+
+	public ReportService getReportService() {
+		return reportService;
+	}
+
+	public void setReportService(ReportService reportService) {
+		this.reportService = reportService;
+	}
+}
@@ -0,0 +1,31 @@
+package org.springframework.test.bean;
+
+/**
+ * 只包含原始类型字段的配置bean
+ */
+public class ServerConfig {
+
+	private int port;
+
+	private long timeout;
+
+	private double loadFactor;
+
+	private boolean enabled;
+
+	public int getPort() {
+		return port;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public double getLoadFactor() {
+		return loadFactor;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+}
@@ -0,0 +1,22 @@
+package org.springframework.test.bean;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 静态代码块执行时留下记录的bean，用于判断类是否已经初始化
+ */
+public class StaticInitBean {
+
+	static {
+		Log.INITIALIZED.add(StaticInitBean.class.getName());
+	}
+
+	/**
+	 * 访问嵌套类不会初始化外部类
+	 */
+	public static class Log {
+
+		public static final List<String> INITIALIZED = new CopyOnWriteArrayList<>();
+	}
+}
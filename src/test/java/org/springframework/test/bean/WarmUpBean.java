@@ -0,0 +1,36 @@
+package org.springframework.test.bean;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录创建顺序的bean，名称为blocking的bean在初始化时等待{@link #RELEASE}
+ */
+public class WarmUpBean {
+
+	public static final List<String> CREATED = new CopyOnWriteArrayList<>();
+
+	public static volatile CountDownLatch STARTED = new CountDownLatch(1);
+
+	public static volatile CountDownLatch RELEASE = new CountDownLatch(1);
+
+	private String name;
+
+	public void init() throws InterruptedException {
+		if ("blocking".equals(name)) {
+			STARTED.countDown();
+			RELEASE.await(10, TimeUnit.SECONDS);
+		}
+		CREATED.add(name);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+}
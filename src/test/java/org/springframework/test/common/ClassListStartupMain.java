@@ -0,0 +1,21 @@
+package org.springframework.test.common;
+
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.Gearbox;
+
+/**
+ * 在独立的JVM中启动容器并输出刷新耗时，用于比较使用AppCDS归档前后的启动时间
+ */
+public class ClassListStartupMain {
+
+	public static final String ELAPSED_PREFIX = "refresh-millis=";
+
+	public static void main(String[] args) {
+		long start = System.nanoTime();
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:class-list-training.xml");
+		long elapsed = (System.nanoTime() - start) / 1_000_000;
+		applicationContext.getBean("gearbox", Gearbox.class).shift(3);
+		applicationContext.close();
+		System.out.println(ELAPSED_PREFIX + elapsed);
+	}
+}
@@ -0,0 +1,49 @@
+package org.springframework.test.common;
+
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.context.support.ContextTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较每秒能创建的上下文数量：每次完整解析配置 与 从模板创建
+ */
+public class ContextTemplateBenchmark {
+
+	public static final String CONFIG_LOCATION = "classpath:context-template.xml";
+
+	public static void main(String[] args) {
+		long millis = args.length > 0 ? Long.parseLong(args[0]) : 5000;
+		//预热
+		measureFullRefresh(millis / 5);
+		measureTemplate(millis / 5);
+		System.out.printf("full refresh: %.1f contexts/s%n", measureFullRefresh(millis));
+		System.out.printf("template:     %.1f contexts/s%n", measureTemplate(millis));
+	}
+
+	public static double measureFullRefresh(long millis) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+		long start = System.nanoTime();
+		int count = 0;
+		while (System.nanoTime() < deadline) {
+			new ClassPathXmlApplicationContext(CONFIG_LOCATION).close();
+			count++;
+		}
+		return count * 1e9 / (System.nanoTime() - start);
+	}
+
+	/**
+	 * 模板的创建时间计入结果
+	 */
+	public static double measureTemplate(long millis) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+		long start = System.nanoTime();
+		ContextTemplate template = new ContextTemplate(CONFIG_LOCATION);
+		int count = 0;
+		while (System.nanoTime() < deadline) {
+			template.newContext().close();
+			count++;
+		}
+		return count * 1e9 / (System.nanoTime() - start);
+	}
+}
@@ -0,0 +1,22 @@
+package org.springframework.test.common;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.test.service.WorldService;
+import org.springframework.test.service.WorldServiceImpl;
+
+/**
+ * 在xml配置的容器中函数式注册bean
+ */
+public class FunctionalBeanRegistrar implements BeanFactoryPostProcessor {
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+		BeanDefinitionRegistry registry = (BeanDefinitionRegistry) beanFactory;
+		registry.registerBean("worldService", WorldService.class, WorldServiceImpl::new,
+				beanDefinition -> beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE));
+	}
+}
@@ -0,0 +1,97 @@
+package org.springframework.test.common;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * 估算对象图占用的内存，假设64位JVM开启压缩指针(对象头12字节，引用4字节，按8字节对齐)。
+ * 同一个对象只计算一次，Class对象不计算在内
+ */
+public final class ObjectFootprint {
+
+	private static final int HEADER = 12;
+
+	private static final int ARRAY_HEADER = 16;
+
+	private static final int REFERENCE = 4;
+
+	private ObjectFootprint() {
+	}
+
+	public static long sizeOf(Object root) {
+		Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+		Deque<Object> pending = new ArrayDeque<>();
+		pending.push(root);
+		long total = 0;
+		while (!pending.isEmpty()) {
+			Object object = pending.pop();
+			if (object == null || object instanceof Class || !visited.add(object)) {
+				continue;
+			}
+			Class<?> type = object.getClass();
+			if (type.isArray()) {
+				Class<?> componentType = type.getComponentType();
+				int length = Array.getLength(object);
+				total += align(ARRAY_HEADER + (long) length * sizeOfType(componentType));
+				if (!componentType.isPrimitive()) {
+					for (int i = 0; i < length; i++) {
+						push(pending, Array.get(object, i));
+					}
+				}
+				continue;
+			}
+			long size = HEADER;
+			for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+				for (Field field : current.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers())) {
+						continue;
+					}
+					size += sizeOfType(field.getType());
+					if (!field.getType().isPrimitive()) {
+						try {
+							field.setAccessible(true);
+							push(pending, field.get(object));
+						} catch (Exception e) {
+							//无法访问的字段只计算引用本身
+						}
+					}
+				}
+			}
+			total += align(size);
+		}
+		return total;
+	}
+
+	private static void push(Deque<Object> pending, Object object) {
+		//ArrayDeque不接受null，值为null的引用只计算引用本身
+		if (object != null) {
+			pending.push(object);
+		}
+	}
+
+	private static int sizeOfType(Class<?> type) {
+		if (type == long.class || type == double.class) {
+			return 8;
+		}
+		if (type == int.class || type == float.class) {
+			return 4;
+		}
+		if (type == short.class || type == char.class) {
+			return 2;
+		}
+		if (type == byte.class || type == boolean.class) {
+			return 1;
+		}
+		return REFERENCE;
+	}
+
+	private static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+}
@@ -0,0 +1,63 @@
+package org.springframework.test.common.event;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.ApplicationContextEvent;
+import org.springframework.context.event.CoalescableEvent;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 配置变更事件，同一配置组的变更在窗口内合并
+ */
+public class ConfigChangedEvent extends ApplicationContextEvent implements CoalescableEvent {
+
+	private final String group;
+
+	private final Set<String> changedKeys;
+
+	private final boolean mergeKeys;
+
+	private final long windowMillis;
+
+	public ConfigChangedEvent(ApplicationContext source, String group, Set<String> changedKeys, boolean mergeKeys) {
+		this(source, group, changedKeys, mergeKeys, 100);
+	}
+
+	public ConfigChangedEvent(ApplicationContext source, String group, Set<String> changedKeys, boolean mergeKeys, long windowMillis) {
+		super(source);
+		this.group = group;
+		this.changedKeys = changedKeys;
+		this.mergeKeys = mergeKeys;
+		this.windowMillis = windowMillis;
+	}
+
+	@Override
+	public Object getCoalescingKey() {
+		return group;
+	}
+
+	@Override
+	public long getCoalescingWindowMillis() {
+		return windowMillis;
+	}
+
+	@Override
+	public ApplicationEvent coalesce(ApplicationEvent previous) {
+		if (!mergeKeys) {
+			return this;
+		}
+		Set<String> keys = new LinkedHashSet<>(((ConfigChangedEvent) previous).getChangedKeys());
+		keys.addAll(changedKeys);
+		return new ConfigChangedEvent(getApplicationContext(), group, keys, true, windowMillis);
+	}
+
+	public String getGroup() {
+		return group;
+	}
+
+	public Set<String> getChangedKeys() {
+		return changedKeys;
+	}
+}
@@ -0,0 +1,23 @@
+package org.springframework.test.common.event;
+
+import org.springframework.context.ApplicationListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 记录收到的配置变更事件
+ */
+public class ConfigChangedEventListener implements ApplicationListener<ConfigChangedEvent> {
+
+	private final List<ConfigChangedEvent> receivedEvents = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void onApplicationEvent(ConfigChangedEvent event) {
+		receivedEvents.add(event);
+	}
+
+	public List<ConfigChangedEvent> getReceivedEvents() {
+		return receivedEvents;
+	}
+}
@@ -0,0 +1,21 @@
+package org.springframework.test.common.event;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextReadyEvent;
+import org.springframework.test.bean.PricingService;
+
+/**
+ * 记录收到的就绪事件，以及收到事件时预热例程的执行次数
+ */
+public class ContextReadyEventListener implements ApplicationListener<ContextReadyEvent> {
+
+	public static volatile ContextReadyEvent lastEvent;
+
+	public static volatile int warmUpCountWhenReady;
+
+	@Override
+	public void onApplicationEvent(ContextReadyEvent event) {
+		lastEvent = event;
+		warmUpCountWhenReady = ((PricingService) event.getApplicationContext().getBean("pricingService")).getWarmUpCount();
+	}
+}
@@ -0,0 +1,9 @@
+package org.springframework.test.common.event;
+
+import org.springframework.context.ApplicationListener;
+
+/**
+ * 通过子接口指定事件类型的监听器
+ */
+public interface CustomEventHandler extends ApplicationListener<CustomEvent> {
+}
@@ -0,0 +1,24 @@
+package org.springframework.test.common.event;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.PropertiesRefreshedEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 记录收到的属性刷新事件
+ */
+public class PropertiesRefreshedEventListener implements ApplicationListener<PropertiesRefreshedEvent> {
+
+	private final List<PropertiesRefreshedEvent> receivedEvents = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void onApplicationEvent(PropertiesRefreshedEvent event) {
+		receivedEvents.add(event);
+	}
+
+	public List<PropertiesRefreshedEvent> getReceivedEvents() {
+		return receivedEvents;
+	}
+}
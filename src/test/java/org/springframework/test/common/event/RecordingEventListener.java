@@ -0,0 +1,24 @@
+package org.springframework.test.common.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * 事件类型由子类的泛型参数决定的监听器，记录收到的事件
+ */
+public abstract class RecordingEventListener<E extends ApplicationEvent> implements ApplicationListener<E> {
+
+	private final List<E> events = new ArrayList<>();
+
+	@Override
+	public void onApplicationEvent(E event) {
+		events.add(event);
+	}
+
+	public List<E> getEvents() {
+		return events;
+	}
+}
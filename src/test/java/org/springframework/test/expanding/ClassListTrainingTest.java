@@ -0,0 +1,175 @@
+package org.springframework.test.expanding;
+
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.context.support.ClassListRecorder;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.common.ClassListStartupMain;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 训练运行生成AppCDS类列表
+ */
+public class ClassListTrainingTest {
+
+	private static final String TRAINING_XML = "class-list-training.xml";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testTrainingRun() throws Exception {
+		File classList = new File(temporaryFolder.getRoot(), "app.classlist");
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:" + TRAINING_XML}, false);
+		applicationContext.setClassListFile(classList.getPath());
+		applicationContext.refresh();
+
+		//代理类的名称是确定的
+		assertThat(applicationContext.getBean("gearbox").getClass().getName())
+				.isEqualTo("org.springframework.test.bean.Gearbox$$SpringCGLIB$$0");
+		applicationContext.close();
+
+		List<String> lines = Files.readAllLines(classList.toPath(), StandardCharsets.UTF_8);
+		assertThat(lines.get(0)).startsWith("#");
+		List<String> classNames = lines.subList(1, lines.size());
+		assertThat(classNames).contains("org/springframework/test/bean/Gearbox");
+		//运行时生成的类无法归档
+		assertThat(classNames).noneMatch(name -> name.contains("$$"));
+		assertThat(classNames).allMatch(name -> !name.contains("."));
+	}
+
+	@Test
+	public void testRecorder() throws Exception {
+		ClassListRecorder recorder = ClassListRecorder.start();
+		Class.forName("org.springframework.test.bean.CollectionHolder");
+		recorder.stop();
+		assertThat(recorder.getClassNames()).contains("org/springframework/test/bean/CollectionHolder");
+	}
+
+	/**
+	 * 在独立的JVM中比较冷启动和使用AppCDS归档启动。归档只能包含jar中的类，先将编译结果打包
+	 */
+	@Test
+	public void testStartupWithArchive() throws Exception {
+		//需要JDK 10以上的AppCDS
+		Assume.assumeFalse(System.getProperty("java.specification.version").startsWith("1."));
+		File testClasses = new File(getClass().getResource("/" + TRAINING_XML).toURI()).getParentFile();
+		File mainClasses = codeSource(ClassListRecorder.class);
+		File appJar = temporaryFolder.newFile("app.jar");
+		try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(appJar))) {
+			addToJar(jar, mainClasses.toPath());
+			addToJar(jar, testClasses.toPath());
+		}
+		List<String> classPath = new ArrayList<>();
+		classPath.add(appJar.getPath());
+		for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			if (entry.endsWith(".jar") && !entry.contains("surefire")) {
+				classPath.add(entry);
+			}
+		}
+		String cp = String.join(File.pathSeparator, classPath);
+
+		//训练运行，再加上JDK默认的类列表
+		File classList = new File(temporaryFolder.getRoot(), "app.classlist");
+		run(Arrays.asList("-Xshare:off", "-D" + ClassPathXmlApplicationContext.CLASS_LIST_FILE_PROPERTY + "=" + classList.getPath(),
+				"-cp", cp, ClassListStartupMain.class.getName()));
+		assertThat(Files.readAllLines(classList.toPath())).contains("org/springframework/test/bean/Gearbox");
+		File defaultClassList = new File(System.getProperty("java.home"), "lib/classlist");
+		if (defaultClassList.isFile()) {
+			Files.write(classList.toPath(), Files.readAllBytes(defaultClassList.toPath()), StandardOpenOption.APPEND);
+		}
+
+		File archive = new File(temporaryFolder.getRoot(), "app.jsa");
+		Process dump = start(Arrays.asList("-Xshare:dump", "-XX:SharedClassListFile=" + classList.getPath(),
+				"-XX:SharedArchiveFile=" + archive.getPath(), "-cp", cp));
+		String dumpOutput = readOutput(dump);
+		Assume.assumeTrue("AppCDS is not supported: " + dumpOutput, dump.exitValue() == 0 && archive.isFile());
+
+		String coldOutput = run(Arrays.asList("-Xlog:class+load=info", "-cp", cp, ClassListStartupMain.class.getName()));
+		String archivedOutput = run(Arrays.asList("-XX:SharedArchiveFile=" + archive.getPath(), "-Xlog:class+load=info",
+				"-cp", cp, ClassListStartupMain.class.getName()));
+
+		assertThat(coldOutput).doesNotContain("org.springframework.test.bean.Gearbox source: shared objects file");
+		assertThat(archivedOutput).contains("org.springframework.test.bean.Gearbox source: shared objects file");
+		System.out.println("cold start: " + elapsed(coldOutput) + "ms, start from archive: " + elapsed(archivedOutput) + "ms");
+	}
+
+	private static File codeSource(Class<?> clazz) throws URISyntaxException {
+		return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI());
+	}
+
+	private static void addToJar(JarOutputStream jar, Path root) throws IOException {
+		List<Path> files;
+		try (Stream<Path> stream = Files.walk(root)) {
+			files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+		}
+		for (Path file : files) {
+			jar.putNextEntry(new JarEntry(root.relativize(file).toString().replace(File.separatorChar, '/')));
+			Files.copy(file, jar);
+			jar.closeEntry();
+		}
+	}
+
+	private static Process start(List<String> arguments) throws IOException {
+		List<String> command = new ArrayList<>();
+		command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+		//CGLIB通过反射调用ClassLoader#defineClass
+		command.add("--add-opens");
+		command.add("java.base/java.lang=ALL-UNNAMED");
+		command.addAll(arguments);
+		return new ProcessBuilder(command).redirectErrorStream(true).start();
+	}
+
+	private static String run(List<String> arguments) throws Exception {
+		Process process = start(arguments);
+		String output = readOutput(process);
+		assertThat(process.exitValue()).as(output).isEqualTo(0);
+		return output;
+	}
+
+	private static String readOutput(Process process) throws Exception {
+		String output;
+		try (InputStream inputStream = process.getInputStream()) {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			byte[] bytes = new byte[8192];
+			int read;
+			while ((read = inputStream.read(bytes)) != -1) {
+				buffer.write(bytes, 0, read);
+			}
+			output = new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+		}
+		assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+		return output;
+	}
+
+	private static String elapsed(String output) {
+		for (String line : output.split("\\R")) {
+			if (line.startsWith(ClassListStartupMain.ELAPSED_PREFIX)) {
+				return line.substring(ClassListStartupMain.ELAPSED_PREFIX.length());
+			}
+		}
+		return "?";
+	}
+}
@@ -0,0 +1,146 @@
+package org.springframework.test.expanding;
+
+import org.junit.Test;
+import org.springframework.beans.factory.aot.BeanAccessorGenerator;
+import org.springframework.beans.factory.aot.GeneratedBeanAccessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.Crankshaft;
+import org.springframework.test.bean.Engine;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 构建时生成访问器，编译后放到类路径上，容器创建bean时使用生成的代码
+ */
+public class GeneratedBeanAccessorTest {
+
+	private static final String REGISTRAR_CLASS_NAME = "org.springframework.test.generated.AotBeanAccessors";
+
+	@Test
+	public void testGeneratedAccessorsReplaceReflection() throws Exception {
+		Path sourceDirectory = Files.createTempDirectory("aot-sources");
+		Path classesDirectory = Files.createTempDirectory("aot-classes");
+
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("classpath:aot-beans.xml");
+		List<String> accessorNames = new BeanAccessorGenerator(REGISTRAR_CLASS_NAME)
+				.generate(beanFactory, sourceDirectory.toFile(), classesDirectory.toFile());
+		assertThat(accessorNames).containsExactlyInAnyOrder(
+				"org.springframework.test.bean.Crankshaft__BeanAccessor", "org.springframework.test.bean.Engine__BeanAccessor");
+
+		List<String> sources;
+		try (Stream<Path> files = Files.walk(sourceDirectory)) {
+			sources = files.filter(path -> path.toString().endsWith(".java")).map(Path::toString).collect(Collectors.toList());
+		}
+		for (String source : sources) {
+			assertThat(new String(Files.readAllBytes(new File(source).toPath()), StandardCharsets.UTF_8)).doesNotContain("reflect");
+		}
+		compile(sources, classesDirectory);
+
+		ClassLoader original = Thread.currentThread().getContextClassLoader();
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDirectory.toUri().toURL()}, original)) {
+			Thread.currentThread().setContextClassLoader(classLoader);
+			ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:aot-beans.xml");
+
+			GeneratedBeanAccessor accessor = applicationContext.getBeanFactory()
+					.getGeneratedBeanAccessor(applicationContext.getBeanFactory().getBeanDefinition("engine"));
+			assertThat(accessor.getClass().getName()).isEqualTo("org.springframework.test.bean.Engine__BeanAccessor");
+
+			//public字段直接赋值，private字段走反射，都不经过setter；原始类型经过类型转换，初始化方法直接调用
+			assertThat(accessor.getPropertyType("model")).isEqualTo(String.class);
+			assertThat(accessor.getPropertyType("cylinders")).isEqualTo(Integer.class);
+			assertThat(accessor.getPropertyType("crankshaft")).isNull();
+			Engine engine = applicationContext.getBean("engine", Engine.class);
+			assertThat(engine.getSetterCalls()).isZero();
+			assertThat(engine.getModel()).isEqualTo("V8");
+			assertThat(engine.getCylinders()).isEqualTo(8);
+			assertThat(engine.getCrankshaft()).isSameAs(applicationContext.getBean("crankshaft", Crankshaft.class));
+			assertThat(engine.getCrankshaft().getStroke()).isEqualTo(86);
+			assertThat(engine.isStarted()).isTrue();
+
+			//原型bean每次创建都使用生成的代码
+			Engine spareEngine = applicationContext.getBean("spareEngine", Engine.class);
+			assertThat(spareEngine.getSetterCalls()).isZero();
+			assertThat(spareEngine.getCylinders()).isEqualTo(4);
+			assertThat(spareEngine.isStarted()).isFalse();
+			applicationContext.close();
+		} finally {
+			Thread.currentThread().setContextClassLoader(original);
+		}
+	}
+
+	@Test
+	public void testReflectionWithoutGeneratedAccessors() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:aot-beans.xml");
+		//没有生成的代码时同样直接写字段，不经过setter
+		Engine engine = applicationContext.getBean("engine", Engine.class);
+		assertThat(engine.getSetterCalls()).isZero();
+		assertThat(engine.getModel()).isEqualTo("V8");
+		assertThat(engine.getCylinders()).isEqualTo(8);
+		assertThat(engine.isStarted()).isTrue();
+		applicationContext.close();
+	}
+
+	@Test
+	public void testChildFallsBackToParentAccessorPerBeanClass() throws Exception {
+		DefaultListableBeanFactory parent = new DefaultListableBeanFactory();
+		GeneratedBeanAccessor engineAccessor = new StubBeanAccessor();
+		parent.registerGeneratedBeanAccessor(Engine.class, engineAccessor);
+		DefaultListableBeanFactory child = new DefaultListableBeanFactory(parent);
+		GeneratedBeanAccessor crankshaftAccessor = new StubBeanAccessor();
+		child.registerGeneratedBeanAccessor(Crankshaft.class, crankshaftAccessor);
+		new XmlBeanDefinitionReader(child).loadBeanDefinitions("classpath:aot-beans.xml");
+
+		//子容器已有其他类的访问器时，本地没有的类仍然使用父容器的访问器
+		assertThat(child.getGeneratedBeanAccessor(child.getBeanDefinition("engine"))).isSameAs(engineAccessor);
+		assertThat(child.getGeneratedBeanAccessor(child.getBeanDefinition("crankshaft"))).isSameAs(crankshaftAccessor);
+	}
+
+	private static void compile(List<String> sources, Path classesDirectory) {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		List<String> arguments = new ArrayList<>();
+		arguments.add("-classpath");
+		arguments.add(System.getProperty("java.class.path"));
+		arguments.add("-d");
+		arguments.add(classesDirectory.toString());
+		arguments.addAll(sources);
+		assertThat(compiler.run(null, null, null, arguments.toArray(new String[0]))).isZero();
+	}
+
+	private static class StubBeanAccessor implements GeneratedBeanAccessor {
+
+		@Override
+		public Object newInstance() {
+			return null;
+		}
+
+		@Override
+		public Class<?> getPropertyType(String propertyName) {
+			return null;
+		}
+
+		@Override
+		public void setPropertyValue(Object bean, String propertyName, Object value) {
+		}
+
+		@Override
+		public boolean invokeMethod(Object bean, String methodName) {
+			return false;
+		}
+	}
+}
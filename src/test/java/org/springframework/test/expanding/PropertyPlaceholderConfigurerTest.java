@@ -1,10 +1,26 @@
 package org.springframework.test.expanding;
 
 import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.core.env.MemoryMappedPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.PropertySourcesIndex;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+import org.springframework.util.PlaceholderTemplate;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.test.bean.Car;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  *
@@ -18,4 +34,163 @@ public class PropertyPlaceholderConfigurerTest {
 		Car car = applicationContext.getBean("car", Car.class);
 		assertThat(car.getBrand()).isEqualTo("lamborghini");
 	}
+
+	@Test
+	public void testMultiplePlaceholdersWithDefault() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:property-placeholder-template.xml");
+
+		Car car = applicationContext.getBean("car", Car.class);
+		assertThat(car.getBrand()).isEqualTo("lamborghini-urus-yellow");
+	}
+
+	@Test
+	public void testPlaceholderTemplate() throws Exception {
+		Properties properties = new Properties();
+		properties.load(getClass().getClassLoader().getResourceAsStream("placeholder-template.properties"));
+		PlaceholderTemplate.PlaceholderResolver resolver = properties::getProperty;
+
+		assertThat(render("no placeholder", resolver)).isEqualTo("no placeholder");
+		assertThat(render("${brand}/${model}", resolver)).isEqualTo("lamborghini/urus");
+		assertThat(render("${missing:${brand}}", resolver)).isEqualTo("lamborghini");
+		assertThat(render("${missing:}", resolver)).isEmpty();
+		assertThat(render("${db.url.${env}}", resolver)).isEqualTo("jdbc:mysql://prod");
+		assertThat(render("${db.url}", resolver)).isEqualTo("jdbc:mysql://prod");
+		assertThat(render("name: ${full.name}", resolver)).isEqualTo("name: lamborghini urus");
+		assertThat(render("\\${brand} is ${brand}", resolver)).isEqualTo("${brand} is lamborghini");
+
+		assertThatThrownBy(() -> render("${missing}", resolver)).isInstanceOf(BeansException.class);
+		assertThatThrownBy(() -> render("${loop.a}", resolver)).isInstanceOf(BeansException.class)
+				.hasMessageContaining("Circular");
+
+		//不含占位符的模板渲染结果是原字符串本身
+		String text = "plain";
+		assertThat(PlaceholderTemplate.compile(text).render(resolver, null)).isSameAs(text);
+	}
+
+	@Test
+	public void testMultipleLocationsAndSystemProperties() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:property-sources.xml");
+
+		//后面的属性文件覆盖前面的，属性文件中没有的从系统属性中查找
+		Car car = applicationContext.getBean("car", Car.class);
+		assertThat(car.getBrand()).isEqualTo("lamborghini-huracan-" + System.getProperty("java.version"));
+	}
+
+	@Test
+	public void testPropertySourcesIndex() throws Exception {
+		Properties first = new Properties();
+		first.setProperty("server.port", "9090");
+		Properties second = new Properties();
+		second.setProperty("server.port", "8080");
+		second.setProperty("server.host", "localhost");
+		Map<String, String> environment = new HashMap<>();
+		environment.put("SERVER_HOST", "example.com");
+		environment.put("CACHE_MAX_SIZE", "100");
+
+		MutablePropertySources sources = new MutablePropertySources();
+		sources.addLast(new PropertiesPropertySource("second", second));
+		sources.addFirst(new PropertiesPropertySource("first", first));
+		sources.addLast(new SystemEnvironmentPropertySource("env", environment));
+		PropertySourcesIndex index = PropertySourcesIndex.build(sources);
+
+		assertThat(index.getProperty("server.port")).isEqualTo("9090");
+		assertThat(index.getProperty("server.host")).isEqualTo("localhost");
+		//环境变量按宽松规则匹配
+		assertThat(index.getProperty("cache.max.size")).isEqualTo("100");
+		assertThat(index.getProperty("cache.max-size")).isEqualTo("100");
+		assertThat(index.getProperty("CACHE_MAX_SIZE")).isEqualTo("100");
+		assertThat(index.getProperty("missing")).isNull();
+	}
+
+	@Test
+	public void testRelaxedSourceOverridesLowerPriorityFile() throws Exception {
+		Properties file = new Properties();
+		file.setProperty("server.host", "localhost");
+		file.setProperty("server.port", "8080");
+		Map<String, String> environment = new HashMap<>();
+		environment.put("SERVER_HOST", "example.com");
+
+		MutablePropertySources sources = new MutablePropertySources();
+		sources.addLast(new SystemEnvironmentPropertySource("env", environment));
+		sources.addLast(new PropertiesPropertySource("file", file));
+		PropertySourcesIndex index = PropertySourcesIndex.build(sources);
+
+		//优先级更高的环境变量覆盖属性文件中的同名属性
+		assertThat(index.getProperty("server.host")).isEqualTo("example.com");
+		assertThat(index.getProperty("SERVER_HOST")).isEqualTo("example.com");
+		//非宽松匹配的属性源只能按原名称查找
+		assertThat(index.getProperty("server.port")).isEqualTo("8080");
+		assertThat(index.getProperty("SERVER_PORT")).isNull();
+	}
+
+	@Test
+	public void testMemoryMappedPropertySource() throws Exception {
+		Path file = Files.createTempFile("mapped", ".properties");
+		try {
+			String content = "# comment\n"
+					+ "brand=lamborghini\n"
+					+ "  model : urus\r\n"
+					+ "\n"
+					+ "colors=red,\\\n"
+					+ "       yellow\n"
+					+ "name=\\u4e2d\n"
+					+ "city=caf\u00e9\n"
+					+ "key\\=with\\:separators=value\n"
+					+ "last value";
+			MemoryMappedPropertySource source = loadMapped(file, content);
+			assertThat(source.getProperty("colors")).isEqualTo("red,yellow");
+			assertThat(source.getProperty("name")).isEqualTo("\u4e2d");
+			assertThat(source.getProperty("city")).isEqualTo("caf\u00e9");
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void testMemoryMappedCommentsAndEscapedKeys() throws Exception {
+		Path file = Files.createTempFile("mapped", ".properties");
+		try {
+			String content = "# comment ending with a backslash \\\n"
+					+ "after.comment=kept\n"
+					+ "  ! indented comment \\\n"
+					+ "after.bang=kept\n"
+					+ "colors=red,\\\n"
+					+ "# not a comment\n"
+					+ "key\\ =escaped space\n"
+					+ "two\\ \\  : spaces\n"
+					+ "value.spaces=end  \n";
+			MemoryMappedPropertySource source = loadMapped(file, content);
+			//注释行末尾的\不会把下一行并入注释
+			assertThat(source.getProperty("after.comment")).isEqualTo("kept");
+			assertThat(source.getProperty("after.bang")).isEqualTo("kept");
+			assertThat(source.getProperty("colors")).isEqualTo("red,# not a comment");
+			//转义的空白属于key
+			assertThat(source.getProperty("key ")).isEqualTo("escaped space");
+			assertThat(source.getProperty("two  ")).isEqualTo("spaces");
+			assertThat(source.getProperty("value.spaces")).isEqualTo("end  ");
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/**
+	 * 写入文件后通过内存映射读取，结果与Properties#load(InputStream)相同(按ISO-8859-1解码)
+	 */
+	private MemoryMappedPropertySource loadMapped(Path file, String content) throws Exception {
+		Files.write(file, content.getBytes(StandardCharsets.ISO_8859_1));
+		MemoryMappedPropertySource source = new MemoryMappedPropertySource("mapped", file);
+		Properties expected = new Properties();
+		try (InputStream inputStream = Files.newInputStream(file)) {
+			expected.load(inputStream);
+		}
+		assertThat(source.getPropertyNames()).containsExactlyInAnyOrderElementsOf(expected.stringPropertyNames());
+		for (String name : expected.stringPropertyNames()) {
+			assertThat(source.getProperty(name)).isEqualTo(expected.getProperty(name));
+		}
+		return source;
+	}
+
+	private String render(String text, PlaceholderTemplate.PlaceholderResolver resolver) {
+		return PlaceholderTemplate.compile(text).render(resolver, null);
+	}
 }
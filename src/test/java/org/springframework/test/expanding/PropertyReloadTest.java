@@ -0,0 +1,169 @@
+package org.springframework.test.expanding;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.PropertyPlaceholderConfigurer;
+import org.springframework.beans.factory.PropertyPlaceholderConfigurer.RefreshResult;
+import org.springframework.beans.factory.config.PlaceholderBindingRegistry;
+import org.springframework.context.event.PropertiesRefreshedEvent;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.context.support.ReloadablePropertyPlaceholderConfigurer;
+import org.springframework.test.bean.AppSettings;
+import org.springframework.test.bean.ServerConfig;
+import org.springframework.test.common.event.PropertiesRefreshedEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 属性文件变化后只重新注入用到了变化属性的bean
+ */
+public class PropertyReloadTest {
+
+	private Path propertiesFile;
+
+	private byte[] originalContent;
+
+	private ClassPathXmlApplicationContext applicationContext;
+
+	@Before
+	public void setUp() throws Exception {
+		propertiesFile = Paths.get(getClass().getClassLoader().getResource("reloadable.properties").toURI());
+		originalContent = Files.readAllBytes(propertiesFile);
+		applicationContext = new ClassPathXmlApplicationContext("classpath:property-reload.xml");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		applicationContext.close();
+		Files.write(propertiesFile, originalContent);
+	}
+
+	@Test
+	public void testRefreshProperties() throws Exception {
+		AppSettings appSettings = applicationContext.getBean("appSettings", AppSettings.class);
+		ServerConfig serverConfig = applicationContext.getBean("serverConfig", ServerConfig.class);
+		assertThat(appSettings.getName()).isEqualTo("demo");
+		assertThat(appSettings.getTimeout()).isEqualTo(30);
+		assertThat(serverConfig.getPort()).isEqualTo(8080);
+
+		writeProperties("app.name=demo\napp.timeout=60\nserver.port=8081\napp.mode=cluster\n");
+		ReloadablePropertyPlaceholderConfigurer configurer = applicationContext.getBean("propertyConfigurer", ReloadablePropertyPlaceholderConfigurer.class);
+		RefreshResult result = configurer.refreshProperties();
+
+		assertThat(result.getChangedKeys()).containsExactlyInAnyOrder("app.timeout", "server.port", "app.mode");
+		assertThat(result.getUpdatedBeanNames()).containsExactlyInAnyOrder("appSettings", "serverConfig");
+		//原来的bean实例被重新注入，而不是重新创建
+		assertThat(applicationContext.getBean("appSettings")).isSameAs(appSettings);
+		assertThat(appSettings.getTimeout()).isEqualTo(60);
+		assertThat(appSettings.getMode()).isEqualTo("cluster");
+		assertThat(appSettings.getName()).isEqualTo("demo");
+		assertThat(serverConfig.getPort()).isEqualTo(8081);
+		assertThat(applicationContext.getBean("fixedServerConfig", ServerConfig.class).getPort()).isEqualTo(9090);
+		//还没有创建的懒加载bean不计入重新注入的bean，创建时使用新值
+		assertThat(applicationContext.getBean("lazyServerConfig", ServerConfig.class).getPort()).isEqualTo(8081);
+
+		PropertiesRefreshedEventListener listener = applicationContext.getBean("refreshedEventListener", PropertiesRefreshedEventListener.class);
+		assertThat(listener.getReceivedEvents()).hasSize(1);
+		assertThat(listener.getReceivedEvents().get(0).getUpdatedBeanNames()).containsExactlyInAnyOrder("appSettings", "serverConfig");
+
+		//没有变化时不发布事件
+		assertThat(configurer.refreshProperties().hasChanges()).isFalse();
+		assertThat(listener.getReceivedEvents()).hasSize(1);
+	}
+
+	@Test
+	public void testWatchPropertyFile() throws Exception {
+		AppSettings appSettings = applicationContext.getBean("appSettings", AppSettings.class);
+		PropertiesRefreshedEventListener listener = applicationContext.getBean("refreshedEventListener", PropertiesRefreshedEventListener.class);
+
+		writeProperties("app.name=renamed\napp.timeout=30\nserver.port=8080\n");
+
+		long deadline = System.currentTimeMillis() + 10000;
+		while (listener.getReceivedEvents().isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(listener.getReceivedEvents()).isNotEmpty();
+		PropertiesRefreshedEvent event = listener.getReceivedEvents().get(0);
+		assertThat(event.getChangedKeys()).containsExactly("app.name");
+		assertThat(event.getUpdatedBeanNames()).containsExactly("appSettings");
+		assertThat(appSettings.getName()).isEqualTo("renamed");
+	}
+
+	@Test
+	public void testPrototypeValueCache() throws Exception {
+		AppSettings first = applicationContext.getBean("prototypeSettings", AppSettings.class);
+		AppSettings second = applicationContext.getBean("prototypeSettings", AppSettings.class);
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.getTimeout()).isEqualTo(30);
+		//不可变的转换结果在实例之间共享，集合每个实例各自转换
+		assertThat(second.getName()).isSameAs(first.getName());
+		assertThat(second.getTags()).containsExactly("web", "batch").isNotSameAs(first.getTags());
+
+		//属性变化后缓存失效，新创建的实例使用新值
+		writeProperties("app.name=demo\napp.timeout=45\nserver.port=8080\n");
+		applicationContext.getBean("propertyConfigurer", ReloadablePropertyPlaceholderConfigurer.class).refreshProperties();
+		AppSettings third = applicationContext.getBean("prototypeSettings", AppSettings.class);
+		assertThat(third.getTimeout()).isEqualTo(45);
+		//原型bean不会被重新注入
+		assertThat(first.getTimeout()).isEqualTo(30);
+	}
+
+	@Test
+	public void testDestroyedBeanIsNotReinjected() throws Exception {
+		AppSettings destroyed = applicationContext.getBean("appSettings", AppSettings.class);
+		PlaceholderBindingRegistry bindingRegistry = applicationContext.getBean(
+				PlaceholderBindingRegistry.PLACEHOLDER_BINDING_REGISTRY_BEAN_NAME, PlaceholderBindingRegistry.class);
+		int bindingCount = bindingRegistry.getBindingCount();
+
+		//销毁后重新创建，绑定数量不增加
+		applicationContext.getBeanFactory().destroySingleton("appSettings");
+		AppSettings recreated = applicationContext.getBean("appSettings", AppSettings.class);
+		assertThat(recreated).isNotSameAs(destroyed);
+		assertThat(bindingRegistry.getBindingCount()).isEqualTo(bindingCount);
+
+		writeProperties("app.name=demo\napp.timeout=60\nserver.port=8080\n");
+		RefreshResult result = applicationContext.getBean("propertyConfigurer", ReloadablePropertyPlaceholderConfigurer.class).refreshProperties();
+		assertThat(result.getUpdatedBeanNames()).containsExactly("appSettings");
+		assertThat(recreated.getTimeout()).isEqualTo(60);
+		assertThat(destroyed.getTimeout()).isEqualTo(30);
+
+		//销毁后没有重新创建的bean不再出现在结果中
+		applicationContext.getBeanFactory().destroySingleton("appSettings");
+		writeProperties("app.name=demo\napp.timeout=90\nserver.port=8080\n");
+		result = applicationContext.getBean("propertyConfigurer", ReloadablePropertyPlaceholderConfigurer.class).refreshProperties();
+		assertThat(result.getChangedKeys()).containsExactly("app.timeout");
+		assertThat(result.getUpdatedBeanNames()).isEmpty();
+		assertThat(recreated.getTimeout()).isEqualTo(60);
+	}
+
+	@Test
+	public void testRefreshWritesThroughProxyWithSharedRegistry() throws Exception {
+		ClassPathXmlApplicationContext proxyContext = new ClassPathXmlApplicationContext("classpath:property-reload-proxy.xml");
+		try {
+			ServerConfig serverConfig = proxyContext.getBean("serverConfig", ServerConfig.class);
+			AppSettings appSettings = proxyContext.getBean("appSettings", AppSettings.class);
+			assertThat(serverConfig).isInstanceOf(Advised.class);
+			assertThat(serverConfig.getPort()).isEqualTo(8080);
+
+			writeProperties("app.name=demo\napp.timeout=45\nserver.port=8082\n");
+			RefreshResult result = proxyContext.getBean("propertyConfigurer", PropertyPlaceholderConfigurer.class).refreshProperties();
+			//字段写到代理的目标对象上；两个配置器共用一个注册表，@Value字段的绑定不会丢失
+			assertThat(result.getUpdatedBeanNames()).containsExactlyInAnyOrder("appSettings", "serverConfig");
+			assertThat(serverConfig.getPort()).isEqualTo(8082);
+			assertThat(appSettings.getTimeout()).isEqualTo(45);
+		} finally {
+			proxyContext.close();
+		}
+	}
+
+	private void writeProperties(String content) throws Exception {
+		Files.write(propertiesFile, content.getBytes(StandardCharsets.ISO_8859_1));
+	}
+}
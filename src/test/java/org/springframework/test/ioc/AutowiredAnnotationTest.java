@@ -2,6 +2,10 @@ package org.springframework.test.ioc;
 
 import org.junit.Test;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.beans.factory.annotation.InjectionMetadata;
+import org.springframework.beans.factory.annotation.InjectionMetadata.InjectionKind;
+import org.springframework.test.bean.Car;
+import org.springframework.test.bean.Garage;
 import org.springframework.test.bean.Person;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -18,4 +22,24 @@ public class AutowiredAnnotationTest {
 		Person person = applicationContext.getBean(Person.class);
 		assertThat(person.getCar()).isNotNull();
 	}
+
+	@Test
+	public void testInheritedInjectionPoints() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:inherited-injection.xml");
+
+		Car car = applicationContext.getBean("car", Car.class);
+		for (int i = 0; i < 2; i++) {
+			Garage garage = applicationContext.getBean("garage", Garage.class);
+			assertThat(garage.getBrand()).isEqualTo("lamborghini");
+			assertThat(garage.getCar()).isSameAs(car);
+			assertThat(garage.getCapacity()).isEqualTo(8);
+		}
+
+		//父类的字段在前，@Value在@Autowired之前
+		InjectionMetadata metadata = InjectionMetadata.forClass(Garage.class);
+		assertThat(metadata.getElements()).extracting(element -> element.getField().getName())
+				.containsExactly("brand", "capacity", "car");
+		assertThat(metadata.getElements()[2].getKind()).isEqualTo(InjectionKind.AUTOWIRED);
+		assertThat(InjectionMetadata.forClass(String.class).isEmpty()).isTrue();
+	}
 }
@@ -0,0 +1,88 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import org.springframework.test.bean.Car;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ *
+ */
+public class BeanDefinitionInheritanceTest {
+
+	@Test
+	public void testInheritance() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		XmlBeanDefinitionReader beanDefinitionReader = new XmlBeanDefinitionReader(beanFactory);
+		beanDefinitionReader.loadBeanDefinitions("classpath:bean-inheritance.xml");
+
+		//子定义只保存自己的配置
+		assertThat(beanFactory.getBeanDefinition("plainCar").getPropertyValues().isEmpty()).isTrue();
+		assertThat(beanFactory.getBeanDefinition("cheapCar").getPropertyValues().size()).isEqualTo(1);
+
+		Car plainCar = beanFactory.getBean("plainCar", Car.class);
+		assertThat(plainCar.getBrand()).isEqualTo("porsche");
+		assertThat(plainCar.getPrice()).isEqualTo(1000000);
+		//作用域沿用父定义
+		assertThat(beanFactory.getBean("plainCar")).isNotSameAs(plainCar);
+
+		Car cheapCar = beanFactory.getBean("cheapCar", Car.class);
+		assertThat(cheapCar.getBrand()).isEqualTo("porsche");
+		assertThat(cheapCar.getPrice()).isEqualTo(500000);
+
+		//多级继承，子定义覆盖作用域
+		Car singletonCar = beanFactory.getBean("singletonCar", Car.class);
+		assertThat(singletonCar.getBrand()).isEqualTo("lamborghini");
+		assertThat(singletonCar.getPrice()).isEqualTo(500000);
+		assertThat(beanFactory.getBean("singletonCar")).isSameAs(singletonCar);
+
+		//抽象定义不能实例化，也不参与按类型查找
+		assertThatThrownBy(() -> beanFactory.getBean("carTemplate")).isInstanceOf(BeansException.class);
+		assertThat(beanFactory.getBeansOfType(Car.class)).containsOnlyKeys("plainCar", "cheapCar", "singletonCar");
+	}
+
+	@Test
+	public void testMergedDefinitionSharesPropertyValues() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		XmlBeanDefinitionReader beanDefinitionReader = new XmlBeanDefinitionReader(beanFactory);
+		beanDefinitionReader.loadBeanDefinitions("classpath:bean-inheritance.xml");
+
+		//合并结果被缓存，没有覆盖属性的子定义与父定义共享存储
+		BeanDefinition plainCar = beanFactory.getMergedBeanDefinition("plainCar");
+		assertThat(beanFactory.getMergedBeanDefinition("plainCar")).isSameAs(plainCar);
+		assertThat(plainCar.getParentName()).isNull();
+		assertThat(plainCar.isAbstract()).isFalse();
+		assertThat(plainCar.getPropertyValues().isShared()).isTrue();
+		assertThat(plainCar.getPropertyValues().get(0)).isSameAs(beanFactory.getBeanDefinition("carTemplate").getPropertyValues().get(0));
+
+		//修改父定义时复制，不影响已经合并的子定义
+		beanFactory.getBeanDefinition("carTemplate").getPropertyValues().addPropertyValue(new PropertyValue("brand", "ferrari"));
+		assertThat(plainCar.getPropertyValues().getPropertyValue("brand").getValue()).isEqualTo("porsche");
+
+		//清空缓存后重新合并
+		beanFactory.clearMetadataCache();
+		assertThat(beanFactory.getMergedBeanDefinition("plainCar").getPropertyValues().getPropertyValue("brand").getValue()).isEqualTo("ferrari");
+		assertThat(beanFactory.getBean("cheapCar", Car.class).getBrand()).isEqualTo("ferrari");
+	}
+
+	@Test
+	public void testMissingParent() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		BeanDefinition orphan = new BeanDefinition(null);
+		orphan.setParentName("missing");
+		beanFactory.registerBeanDefinition("orphan", orphan);
+		assertThatThrownBy(() -> beanFactory.getBean("orphan")).isInstanceOf(BeansException.class);
+
+		BeanDefinition self = new BeanDefinition(Car.class);
+		self.setParentName("self");
+		beanFactory.registerBeanDefinition("self", self);
+		assertThatThrownBy(() -> beanFactory.getBean("self")).isInstanceOf(BeansException.class)
+				.hasMessageContaining("parent");
+	}
+}
@@ -0,0 +1,60 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.Car;
+import org.springframework.test.bean.Person;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ *
+ */
+public class BeanHandleTest {
+
+	@Test
+	public void testBeanHandle() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:bean-handle.xml");
+
+		//单例
+		ObjectProvider<Person> personProvider = applicationContext.getBeanProvider("person", Person.class);
+		Person person = personProvider.getObject();
+		assertThat(person).isSameAs(applicationContext.getBean("person"));
+		assertThat(personProvider.getObject()).isSameAs(person);
+		assertThat(applicationContext.getBeanProvider(Person.class).getObject()).isSameAs(person);
+
+		//单例被替换后句柄返回新的实例
+		Person replaced = new Person();
+		applicationContext.getBeanFactory().addSingleton("person", replaced);
+		assertThat(personProvider.getObject()).isSameAs(replaced);
+
+		//原型
+		ObjectProvider<Car> prototypeProvider = applicationContext.getBeanProvider("prototypeCar", Car.class);
+		Car first = prototypeProvider.getObject();
+		Car second = prototypeProvider.getObject();
+		assertThat(first).isNotSameAs(second);
+		assertThat(second.getBrand()).isEqualTo("ferrari");
+
+		//原型的BeanDefinition被替换后句柄使用新的定义
+		BeanDefinition replacedDefinition = new BeanDefinition(Car.class);
+		replacedDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		replacedDefinition.getPropertyValues().addPropertyValue(new PropertyValue("brand", "maserati"));
+		((DefaultListableBeanFactory) applicationContext.getBeanFactory()).registerBeanDefinition("prototypeCar", replacedDefinition);
+		assertThat(prototypeProvider.getObject().getBrand()).isEqualTo("maserati");
+
+		//FactoryBean创建的单例
+		ObjectProvider<Car> factoryProvider = applicationContext.getBeanProvider("factoryCar", Car.class);
+		assertThat(factoryProvider.getObject()).isSameAs(applicationContext.getBean("factoryCar"));
+		assertThat(factoryProvider.getObject().getBrand()).isEqualTo("porsche");
+
+		assertThat(applicationContext.getBeanProvider("missing", Car.class).getIfAvailable()).isNull();
+		assertThatThrownBy(() -> applicationContext.getBeanProvider("person", Car.class).getObject())
+				.isInstanceOf(BeansException.class);
+	}
+}
@@ -1,10 +1,19 @@
 package org.springframework.test.ioc;
 
 import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyValues;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.test.bean.A;
 import org.springframework.test.bean.B;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Java6Assertions.assertThat;
 
 /**
@@ -19,6 +28,54 @@ public class CircularReferenceWithoutProxyBeanTest {
 		B b = applicationContext.getBean("b", B.class);
 		assertThat(a.getB() == b).isTrue();
 	}
+
+	/**
+	 * a和b在两个线程中同时创建，实例化之后互相等待对方。循环等待时与同一线程内的循环依赖一样使用提前暴露的引用，不会死锁
+	 */
+	@Test
+	public void testCircularReferenceAcrossThreads() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("classpath:circular-reference-without-proxy-bean.xml");
+		CyclicBarrier instantiated = new CyclicBarrier(2);
+		beanFactory.addBeanPostProcessor(new InstantiationAwareBeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+				return null;
+			}
+
+			@Override
+			public boolean postProcessAfterInstantiation(Object bean, String beanName) throws BeansException {
+				try {
+					instantiated.await(10, TimeUnit.SECONDS);
+				} catch (Exception e) {
+					throw new BeansException("Bean '" + beanName + "' was not instantiated concurrently", e);
+				}
+				return true;
+			}
+
+			@Override
+			public PropertyValues postProcessPropertyValues(PropertyValues pvs, Object bean, String beanName) throws BeansException {
+				return pvs;
+			}
+
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+				return bean;
+			}
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+				return bean;
+			}
+		});
+
+		CompletableFuture<A> a = CompletableFuture.supplyAsync(() -> beanFactory.getBean("a", A.class));
+		CompletableFuture<B> b = CompletableFuture.supplyAsync(() -> beanFactory.getBean("b", B.class));
+		assertThat(a.get(10, TimeUnit.SECONDS).getB()).isSameAs(b.get(10, TimeUnit.SECONDS));
+		assertThat(b.get().getA()).isSameAs(a.get());
+		assertThat(beanFactory.getBean("a")).isSameAs(a.get());
+		assertThat(beanFactory.getBean("b")).isSameAs(b.get());
+	}
 }
 /**
  * 1. 在执行initApplicationEventMulticaster方法的时候，可以看一下beanFactory的内容，此时可以看到：
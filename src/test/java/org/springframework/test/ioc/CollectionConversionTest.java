@@ -0,0 +1,101 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.core.convert.support.CollectionToCollectionConverter;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.convert.support.StringToCollectionConverter;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.bean.CollectionHolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 演示：逗号分隔的字符串以及集合按字段的泛型元素类型转换
+ */
+public class CollectionConversionTest {
+
+	public List<Long> longList;
+
+	public Set<Integer> integerSet;
+
+	@Test
+	public void testInjectCollectionAndArray() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:collection-conversion.xml");
+
+		CollectionHolder holder = applicationContext.getBean("collectionHolder", CollectionHolder.class);
+		assertThat(holder.getIds()).containsExactly(1L, 2L, 3L);
+		assertThat(holder.getTimestamps()).containsExactly(1609459200000L, 1612137600000L);
+		assertThat(holder.getTags()).containsExactly("a", "b", "c");
+		assertThat(holder.getNames()).containsExactly("derek", "yi");
+	}
+
+	@Test
+	public void testConvertWithGenericType() throws Exception {
+		DefaultConversionService conversionService = new DefaultConversionService();
+
+		Object longs = conversionService.convert("7,8,9", CollectionConversionTest.class.getField("longList").getGenericType());
+		assertThat((List<Long>) longs).containsExactly(7L, 8L, 9L);
+
+		Object integers = conversionService.convert(Arrays.asList("1", "2", "2"), CollectionConversionTest.class.getField("integerSet").getGenericType());
+		assertThat((Set<Integer>) integers).containsExactly(1, 2);
+
+		assertThat(conversionService.convert("", long[].class)).isEmpty();
+	}
+
+	@Test
+	public void testSkipBlankTokens() throws Exception {
+		DefaultConversionService conversionService = new DefaultConversionService();
+		Object trailing = conversionService.convert("1,2,", CollectionConversionTest.class.getField("longList").getGenericType());
+		assertThat((List<Long>) trailing).containsExactly(1L, 2L);
+
+		Object empty = conversionService.convert("1,, 2 , ", CollectionConversionTest.class.getField("longList").getGenericType());
+		assertThat((List<Long>) empty).containsExactly(1L, 2L);
+
+		assertThat((long[]) conversionService.convert(",3,", long[].class)).containsExactly(3L);
+	}
+
+	@Test
+	public void testConvertFileBackedList() throws Exception {
+		DefaultConversionService conversionService = new DefaultConversionService();
+		ClassPathResource resource = new ClassPathResource("collection-ids.txt");
+
+		//每行一个元素，空行和注释行跳过
+		Object ids = conversionService.convert(resource, CollectionConversionTest.class.getField("longList").getGenericType());
+		assertThat((List<Long>) ids).containsExactly(1L, 2L, 3L);
+		assertThat((long[]) conversionService.convert(resource, long[].class)).containsExactly(1L, 2L, 3L);
+
+		File file = resource.getFile();
+		Object integers = conversionService.convert(file, CollectionConversionTest.class.getField("integerSet").getGenericType());
+		assertThat((Set<Integer>) integers).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	public void testParallelConversion() throws Exception {
+		DefaultConversionService conversionService = new DefaultConversionService();
+		StringToCollectionConverter converter = new StringToCollectionConverter(conversionService);
+		converter.setParallelThreshold(100);
+
+		StringBuilder source = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			source.append(i).append(',');
+		}
+		source.setLength(source.length() - 1);
+		List<Long> result = (List<Long>) converter.convert(source.toString(), String.class,
+				CollectionConversionTest.class.getField("longList").getGenericType());
+		assertThat(result).hasSize(1000);
+		for (int i = 0; i < 1000; i++) {
+			assertThat(result.get(i)).isEqualTo(i);
+		}
+
+		CollectionToCollectionConverter collectionConverter = new CollectionToCollectionConverter(conversionService);
+		List<Long> same = Arrays.asList(1L, 2L);
+		assertThat(collectionConverter.convert(same, List.class,
+				CollectionConversionTest.class.getField("longList").getGenericType())).isSameAs(same);
+	}
+}
@@ -0,0 +1,99 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.PropertyValues;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.test.bean.Person;
+import org.springframework.test.common.ObjectFootprint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *
+ */
+public class CompactBeanDefinitionTest {
+
+	@Test
+	public void testPropertyValues() throws Exception {
+		PropertyValues propertyValues = new PropertyValues();
+		assertThat(propertyValues.isEmpty()).isTrue();
+		for (int i = 0; i < 50; i++) {
+			propertyValues.addPropertyValue(new PropertyValue("property" + i, i));
+		}
+		//超过阈值后通过索引查找，覆盖时保持原来的顺序
+		propertyValues.addPropertyValue(new PropertyValue("property7", "replaced"));
+		assertThat(propertyValues.size()).isEqualTo(50);
+		assertThat(propertyValues.getPropertyValue("property7").getValue()).isEqualTo("replaced");
+		assertThat(propertyValues.get(7).getValue()).isEqualTo("replaced");
+		assertThat(propertyValues.getPropertyValue("property49").getValue()).isEqualTo(49);
+		assertThat(propertyValues.getPropertyValue("missing")).isNull();
+
+		//遍历过程中覆盖属性值
+		int count = 0;
+		for (PropertyValue propertyValue : propertyValues) {
+			propertyValues.addPropertyValue(new PropertyValue(propertyValue.getName(), "v" + count));
+			count++;
+		}
+		assertThat(count).isEqualTo(50);
+		assertThat(propertyValues.getPropertyValue("property0").getValue()).isEqualTo("v0");
+		assertThat(propertyValues.getPropertyValues()).hasSize(50);
+	}
+
+	@Test
+	public void testMemoryFootprint() throws Exception {
+		List<BeanDefinition> beanDefinitions = new ArrayList<>();
+		Object value = "value";
+		for (int i = 0; i < 1000; i++) {
+			BeanDefinition beanDefinition = new BeanDefinition(Person.class);
+			//模拟解析配置文件得到的属性名，每个都是新的字符串对象
+			beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue(new String("name"), value));
+			beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue(new String("age"), value));
+			beanDefinition.setScope(new String("prototype"));
+			beanDefinition.setLazyInit(true);
+			beanDefinitions.add(beanDefinition);
+		}
+		BeanDefinition first = beanDefinitions.get(0);
+		BeanDefinition last = beanDefinitions.get(999);
+		assertThat(last.getPropertyValues().get(0).getName()).isSameAs(first.getPropertyValues().get(0).getName());
+		assertThat(last.getScope()).isSameAs(first.getScope());
+		assertThat(last.isPrototype()).isTrue();
+		assertThat(last.isSingleton()).isFalse();
+		assertThat(last.isLazyInit()).isTrue();
+
+		//BeanDefinition只有beanClass、instanceSupplier、propertyValues、三个方法名、scope、parentName八个引用以及flags和initPriority，
+		//属性名和作用域在所有定义间共享：整体占用比逐个单独估算的总和至少少了重复的字符串
+		long sharedStrings = ObjectFootprint.sizeOf("name") + ObjectFootprint.sizeOf("age") + ObjectFootprint.sizeOf("prototype");
+		assertThat(sumOfFootprints(beanDefinitions) - footprintOf(beanDefinitions))
+				.isGreaterThanOrEqualTo(sharedStrings * (beanDefinitions.size() - 1));
+
+		//没有属性的BeanDefinition共享同一个空数组，不为每个定义单独分配
+		List<BeanDefinition> emptyDefinitions = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			emptyDefinitions.add(new BeanDefinition(Person.class));
+		}
+		assertThat(sumOfFootprints(emptyDefinitions) - footprintOf(emptyDefinitions))
+				.isGreaterThanOrEqualTo(ObjectFootprint.sizeOf(new PropertyValue[0]) * (emptyDefinitions.size() - 1));
+	}
+
+	/**
+	 * 所有定义一起估算，共享的对象只计算一次
+	 */
+	private static long footprintOf(List<BeanDefinition> beanDefinitions) {
+		return ObjectFootprint.sizeOf(beanDefinitions.toArray()) - ObjectFootprint.sizeOf(new Object[beanDefinitions.size()]);
+	}
+
+	/**
+	 * 逐个单独估算后求和，共享的对象每个定义都计算一次
+	 */
+	private static long sumOfFootprints(List<BeanDefinition> beanDefinitions) {
+		long total = 0;
+		for (BeanDefinition beanDefinition : beanDefinitions) {
+			total += ObjectFootprint.sizeOf(beanDefinition);
+		}
+		return total;
+	}
+}
@@ -0,0 +1,79 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.context.support.ContextTemplate;
+import org.springframework.context.support.TemplateApplicationContext;
+import org.springframework.test.bean.Car;
+import org.springframework.test.bean.Person;
+import org.springframework.test.common.ContextTemplateBenchmark;
+import org.springframework.test.common.CustomBeanFactoryPostProcessor;
+import org.springframework.test.service.ReportService;
+import org.springframework.test.service.ReportServiceImpl;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 从模板创建的上下文只重新创建bean，配置解析和后置处理只执行一次
+ */
+public class ContextTemplateTest {
+
+	@Test
+	public void testContextsFromTemplateAreIndependent() throws Exception {
+		ContextTemplate template = new ContextTemplate(ContextTemplateBenchmark.CONFIG_LOCATION);
+		assertThat(template.getBeanDefinitions()).doesNotContainKey("propertyPlaceholderConfigurer");
+		assertThat(template.getBeanPostProcessorNames()).hasSize(1);
+
+		TemplateApplicationContext first = template.newContext();
+		TemplateApplicationContext second = template.newContext();
+
+		//占位符在模板中已经解析，父定义已经合并
+		Car car = first.getBean("car", Car.class);
+		assertThat(car.getBrand()).isEqualTo("lamborghini");
+		assertThat(car.getPrice()).isEqualTo(1000000);
+		assertThat(first.getBean("person", Person.class).getCar()).isSameAs(car);
+		assertThat(second.getBean("car")).isNotSameAs(car);
+
+		//BeanPostProcessor在每个上下文中重新创建，切点在上下文之间共享
+		ReportService reportService = first.getBean("reportService", ReportService.class);
+		assertThat(reportService.getClass()).isNotEqualTo(ReportServiceImpl.class);
+		assertThat(reportService.ping()).isEqualTo("pong");
+		AspectJExpressionPointcutAdvisor firstAdvisor = first.getBean("pointcutAdvisor", AspectJExpressionPointcutAdvisor.class);
+		AspectJExpressionPointcutAdvisor secondAdvisor = second.getBean("pointcutAdvisor", AspectJExpressionPointcutAdvisor.class);
+		assertThat(firstAdvisor).isNotSameAs(secondAdvisor);
+		assertThat(firstAdvisor.getPointcut()).isSameAs(secondAdvisor.getPointcut());
+
+		first.close();
+		assertThat(second.getBean("reportService", ReportService.class).ping()).isEqualTo("pong");
+		second.close();
+	}
+
+	@Test
+	public void testCloseDestroysTemplateSingletons() throws Exception {
+		DisposablePostProcessor.DESTROYED.set(false);
+		ContextTemplate template = new ContextTemplate("classpath:context-template-close.xml");
+		TemplateApplicationContext context = template.newContext();
+
+		//模板中的BeanFactoryPostProcessor在关闭模板时销毁，已经创建的上下文不受影响
+		template.close();
+		assertThat(DisposablePostProcessor.DESTROYED.get()).isTrue();
+		assertThat(context.getBean("person", Person.class).getName()).isEqualTo("ivy");
+		assertThatThrownBy(template::newContext).isInstanceOf(BeansException.class).hasMessageContaining("closed");
+		context.close();
+	}
+
+	public static class DisposablePostProcessor extends CustomBeanFactoryPostProcessor implements DisposableBean {
+
+		static final AtomicBoolean DESTROYED = new AtomicBoolean();
+
+		@Override
+		public void destroy() {
+			DESTROYED.set(true);
+		}
+	}
+}
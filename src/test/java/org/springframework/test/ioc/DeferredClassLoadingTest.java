@@ -0,0 +1,81 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.Car;
+import org.springframework.test.bean.Person;
+import org.springframework.test.bean.StaticInitBean;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ *
+ */
+public class DeferredClassLoadingTest {
+
+	@Test
+	public void testDeferredClassLoading() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		XmlBeanDefinitionReader beanDefinitionReader = new XmlBeanDefinitionReader(beanFactory);
+		beanDefinitionReader.loadBeanDefinitions("classpath:deferred-class-loading.xml");
+
+		//解析时只记录类名，找不到的类也不会报错
+		BeanDefinition personDefinition = beanFactory.getBeanDefinition("person");
+		assertThat(personDefinition.hasBeanClass()).isFalse();
+		assertThat(personDefinition.getBeanClassName()).isEqualTo(Person.class.getName());
+		assertThat(beanFactory.getBeanDefinition("missing").hasBeanClass()).isFalse();
+
+		//第一次使用时加载
+		Person person = beanFactory.getBean("person", Person.class);
+		assertThat(person.getName()).isEqualTo("derek");
+		assertThat(personDefinition.hasBeanClass()).isTrue();
+		assertThat(personDefinition.getBeanClass()).isEqualTo(Person.class);
+
+		assertThatThrownBy(() -> beanFactory.getBean("missing")).isInstanceOf(BeansException.class)
+				.hasMessageContaining("org.springframework.test.bean.DoesNotExist");
+	}
+
+	@Test
+	public void testPreloadEagerBeanClasses() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		XmlBeanDefinitionReader beanDefinitionReader = new XmlBeanDefinitionReader(beanFactory);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		beanDefinitionReader.setPreloadExecutor(executor);
+		beanDefinitionReader.loadBeanDefinitions("classpath:deferred-class-loading.xml");
+		executor.shutdown();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+		//只提前加载非懒加载的单例
+		assertThat(beanFactory.getBeanDefinition("car").hasBeanClass()).isTrue();
+		assertThat(beanFactory.getBeanDefinition("person").hasBeanClass()).isFalse();
+		assertThat(beanFactory.getBeanDefinition("prototypeCar").hasBeanClass()).isFalse();
+
+		assertThat(beanFactory.getBean("car", Car.class).getBrand()).isEqualTo("porsche");
+	}
+
+	@Test
+	public void testContextRefreshDoesNotLoadLazyBeanClasses() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:deferred-class-loading-context.xml");
+
+		//刷新时查找后处理器和监听器跳过懒加载的bean，类找不到也不影响刷新
+		BeanDefinition definition = applicationContext.getBeanFactory().getBeanDefinition("staticInitBean");
+		assertThat(definition.hasBeanClass()).isFalse();
+		assertThat(applicationContext.getBeanFactory().getBeanDefinition("missing").hasBeanClass()).isFalse();
+		assertThat(StaticInitBean.Log.INITIALIZED).isEmpty();
+
+		applicationContext.getBean("staticInitBean");
+		assertThat(definition.hasBeanClass()).isTrue();
+		assertThat(StaticInitBean.Log.INITIALIZED).containsExactly(StaticInitBean.class.getName());
+		assertThatThrownBy(() -> applicationContext.getBean("missing")).isInstanceOf(BeansException.class);
+		applicationContext.close();
+	}
+}
@@ -0,0 +1,164 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.EventCoalescer;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.common.event.ConfigChangedEvent;
+import org.springframework.test.common.event.ConfigChangedEventListener;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 演示：高频事件在合并窗口内只投递一次
+ */
+public class EventCoalescingTest {
+
+	@Test
+	public void testKeepLatestEvent() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-coalescing.xml");
+		ConfigChangedEventListener listener = applicationContext.getBean("configChangedEventListener", ConfigChangedEventListener.class);
+
+		for (int i = 0; i < 100; i++) {
+			applicationContext.publishEvent(new ConfigChangedEvent(applicationContext, "db", Collections.singleton("key" + i), false));
+		}
+		applicationContext.publishEvent(new ConfigChangedEvent(applicationContext, "cache", Collections.singleton("ttl"), false));
+		assertThat(listener.getReceivedEvents()).isEmpty();
+
+		Thread.sleep(400);
+		assertThat(listener.getReceivedEvents()).hasSize(2);
+		ConfigChangedEvent dbEvent = listener.getReceivedEvents().stream()
+				.filter(event -> "db".equals(event.getGroup())).findFirst().get();
+		assertThat(dbEvent.getChangedKeys()).containsExactly("key99");
+
+		EventCoalescer coalescer = getEventCoalescer(applicationContext);
+		assertThat(coalescer.getReceivedCount()).isEqualTo(101);
+		assertThat(coalescer.getDroppedCount()).isEqualTo(99);
+		assertThat(coalescer.getMergedCount()).isZero();
+		assertThat(coalescer.getDeliveredCount()).isEqualTo(2);
+		applicationContext.close();
+	}
+
+	@Test
+	public void testMergeEventsAndFlushOnClose() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-coalescing.xml");
+		ConfigChangedEventListener listener = applicationContext.getBean("configChangedEventListener", ConfigChangedEventListener.class);
+
+		for (int i = 0; i < 10; i++) {
+			applicationContext.publishEvent(new ConfigChangedEvent(applicationContext, "db", Collections.singleton("key" + i), true));
+		}
+		EventCoalescer coalescer = getEventCoalescer(applicationContext);
+		assertThat(coalescer.getPendingCount()).isEqualTo(1);
+
+		//关闭容器时立即投递窗口内的事件
+		applicationContext.close();
+		assertThat(listener.getReceivedEvents()).hasSize(1);
+		assertThat(listener.getReceivedEvents().get(0).getChangedKeys()).hasSize(10);
+		assertThat(coalescer.getMergedCount()).isEqualTo(9);
+	}
+
+	@Test
+	public void testScheduledFlushOnlyDeliversItsOwnWindow() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-coalescing.xml");
+		List<ApplicationEvent> delivered = new CopyOnWriteArrayList<>();
+		EventCoalescer coalescer = new EventCoalescer(delivered::add);
+
+		//第一个窗口被提前投递，它的定时任务在第二个窗口内触发时不能投递第二个窗口的事件
+		coalescer.submit(new ConfigChangedEvent(applicationContext, "db", Collections.singleton("first"), false, 400));
+		coalescer.flushAll();
+		Thread.sleep(200);
+		coalescer.submit(new ConfigChangedEvent(applicationContext, "db", Collections.singleton("second"), false, 400));
+		Thread.sleep(300);
+		assertThat(delivered).hasSize(1);
+		assertThat(coalescer.getPendingCount()).isEqualTo(1);
+
+		Thread.sleep(400);
+		assertThat(delivered).hasSize(2);
+		assertThat(((ConfigChangedEvent) delivered.get(1)).getChangedKeys()).containsExactly("second");
+		coalescer.shutdown();
+		applicationContext.close();
+	}
+
+	@Test
+	public void testDeliveryFailureIsCounted() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-coalescing.xml");
+		List<ApplicationEvent> delivered = new CopyOnWriteArrayList<>();
+		EventCoalescer coalescer = new EventCoalescer(event -> {
+			if ("db".equals(((ConfigChangedEvent) event).getGroup())) {
+				throw new IllegalStateException("listener failed");
+			}
+			delivered.add(event);
+		});
+
+		//监听器抛出异常不影响调度线程投递后续事件
+		coalescer.submit(new ConfigChangedEvent(applicationContext, "db", Collections.singleton("url"), false));
+		Thread.sleep(200);
+		coalescer.submit(new ConfigChangedEvent(applicationContext, "cache", Collections.singleton("ttl"), false));
+		Thread.sleep(200);
+		assertThat(delivered).hasSize(1);
+		assertThat(coalescer.getFailedCount()).isEqualTo(1);
+		assertThat(coalescer.getLastFailure()).isInstanceOf(IllegalStateException.class).hasMessage("listener failed");
+		coalescer.shutdown();
+		applicationContext.close();
+	}
+
+	@Test
+	public void testFlushAllRethrowsListenerFailures() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-coalescing.xml");
+		List<ApplicationEvent> delivered = new CopyOnWriteArrayList<>();
+		EventCoalescer coalescer = new EventCoalescer(event -> {
+			String group = ((ConfigChangedEvent) event).getGroup();
+			if (!"cache".equals(group)) {
+				throw new IllegalStateException(group + " listener failed");
+			}
+			delivered.add(event);
+		});
+
+		//同步投递时所有事件投递完后抛出监听器的异常
+		coalescer.submit(new ConfigChangedEvent(applicationContext, "db", Collections.singleton("url"), false, 10000));
+		coalescer.submit(new ConfigChangedEvent(applicationContext, "cache", Collections.singleton("ttl"), false, 10000));
+		coalescer.submit(new ConfigChangedEvent(applicationContext, "mq", Collections.singleton("queue"), false, 10000));
+		assertThatThrownBy(coalescer::flushAll).isInstanceOf(IllegalStateException.class)
+				.hasMessageEndingWith("listener failed")
+				.satisfies(e -> assertThat(e.getSuppressed()).hasSize(1));
+		assertThat(delivered).hasSize(1);
+		assertThat(coalescer.getPendingCount()).isZero();
+		assertThat(coalescer.getFailedCount()).isEqualTo(2);
+		coalescer.shutdown();
+		applicationContext.close();
+	}
+
+	@Test
+	public void testSubmitAfterShutdownDeliversSynchronously() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-coalescing.xml");
+		List<ApplicationEvent> delivered = new CopyOnWriteArrayList<>();
+		EventCoalescer coalescer = new EventCoalescer(event -> {
+			if ("db".equals(((ConfigChangedEvent) event).getGroup())) {
+				throw new IllegalStateException("listener failed");
+			}
+			delivered.add(event);
+		});
+		coalescer.shutdown();
+
+		//关闭后不再创建调度线程，事件直接投递，监听器的异常抛给提交方
+		coalescer.submit(new ConfigChangedEvent(applicationContext, "cache", Collections.singleton("ttl"), false, 10000));
+		assertThat(delivered).hasSize(1);
+		assertThat(coalescer.getPendingCount()).isZero();
+		assertThatThrownBy(() -> coalescer.submit(new ConfigChangedEvent(applicationContext, "db", Collections.singleton("url"), false, 10000)))
+				.isInstanceOf(IllegalStateException.class).hasMessage("listener failed");
+		applicationContext.close();
+	}
+
+	private EventCoalescer getEventCoalescer(ClassPathXmlApplicationContext applicationContext) {
+		SimpleApplicationEventMulticaster multicaster = applicationContext.getBean(
+				AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME, SimpleApplicationEventMulticaster.class);
+		return multicaster.getEventCoalescer();
+	}
+}
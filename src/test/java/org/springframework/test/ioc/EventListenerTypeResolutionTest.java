@@ -0,0 +1,64 @@
+package org.springframework.test.ioc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.common.event.CustomEvent;
+import org.springframework.test.common.event.CustomEventHandler;
+import org.springframework.test.common.event.RecordingEventListener;
+import org.springframework.util.IntrospectionCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 监听器通过子接口或泛型父类指定事件类型时，只收到对应类型的事件
+ */
+public class EventListenerTypeResolutionTest {
+
+	@Test
+	public void testResolveTypeArguments() throws Exception {
+		assertThat(IntrospectionCache.resolveTypeArguments(SubInterfaceListener.class, ApplicationListener.class))
+				.containsExactly(CustomEvent.class);
+		assertThat(IntrospectionCache.resolveTypeArguments(CustomEventRecorder.class, ApplicationListener.class))
+				.containsExactly(CustomEvent.class);
+		//泛型父类本身无法确定事件类型
+		assertThat(IntrospectionCache.resolveTypeArguments(RecordingEventListener.class, ApplicationListener.class)).isNull();
+	}
+
+	@Test
+	public void testSubInterfaceAndGenericBaseListeners() throws Exception {
+		SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster(null);
+		SubInterfaceListener subInterfaceListener = new SubInterfaceListener();
+		CustomEventRecorder recorder = new CustomEventRecorder();
+		multicaster.addApplicationListener(subInterfaceListener);
+		multicaster.addApplicationListener(recorder);
+
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:event-and-event-listener.xml");
+		CustomEvent customEvent = new CustomEvent(applicationContext);
+		multicaster.multicastEvent(new ContextRefreshedEvent(applicationContext));
+		multicaster.multicastEvent(customEvent);
+
+		assertThat(subInterfaceListener.events).containsExactly(customEvent);
+		assertThat(recorder.getEvents()).containsExactly(customEvent);
+		multicaster.shutdown();
+		applicationContext.close();
+	}
+
+	static class SubInterfaceListener implements CustomEventHandler {
+
+		final List<CustomEvent> events = new ArrayList<>();
+
+		@Override
+		public void onApplicationEvent(CustomEvent event) {
+			events.add(event);
+		}
+	}
+
+	static class CustomEventRecorder extends RecordingEventListener<CustomEvent> {
+	}
+}
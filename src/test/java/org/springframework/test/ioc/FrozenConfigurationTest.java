@@ -0,0 +1,51 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.Car;
+import org.springframework.test.bean.Person;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ *
+ */
+public class FrozenConfigurationTest {
+
+	@Test
+	public void testFreezeConfigurationOnRefresh() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:bean-handle.xml");
+
+		DefaultListableBeanFactory beanFactory = (DefaultListableBeanFactory) applicationContext.getBeanFactory();
+		assertThat(beanFactory.isConfigurationFrozen()).isTrue();
+		assertThat(applicationContext.getBeanDefinitionNames()).containsExactlyInAnyOrder("person", "prototypeCar", "factoryCar");
+		assertThat(applicationContext.getBean(Person.class)).isSameAs(applicationContext.getBean("person"));
+		assertThat(applicationContext.getBeansOfType(Person.class)).containsOnlyKeys("person");
+		assertThatThrownBy(() -> beanFactory.getBeanDefinition("missing")).isInstanceOf(BeansException.class);
+	}
+
+	@Test
+	public void testRegisterAfterFreeze() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		for (int i = 0; i < 100; i++) {
+			beanFactory.registerBeanDefinition("person" + i, new BeanDefinition(Person.class));
+		}
+		beanFactory.freezeConfiguration();
+		for (int i = 0; i < 100; i++) {
+			assertThat(beanFactory.containsBeanDefinition("person" + i)).isTrue();
+		}
+		assertThat(beanFactory.getBeansOfType(Person.class)).hasSize(100);
+
+		//冻结之后注册的BeanDefinition重新生成快照，按类型查找的缓存同时失效
+		beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+		assertThat(beanFactory.containsBeanDefinition("car")).isTrue();
+		assertThat(beanFactory.getBean(Car.class)).isSameAs(beanFactory.getBean("car"));
+		beanFactory.registerBeanDefinition("anotherCar", new BeanDefinition(Car.class));
+		assertThat(beanFactory.getBeansOfType(Car.class)).containsOnlyKeys("car", "anotherCar");
+		assertThat(beanFactory.getBeanDefinitionNames()).hasSize(102);
+	}
+}
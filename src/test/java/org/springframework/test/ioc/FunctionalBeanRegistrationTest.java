@@ -0,0 +1,69 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.Crankshaft;
+import org.springframework.test.bean.Engine;
+import org.springframework.test.service.WorldService;
+import org.springframework.test.service.WorldServiceImpl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *
+ */
+public class FunctionalBeanRegistrationTest {
+
+	@Test
+	public void testSupplierRegistration() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		AtomicInteger created = new AtomicInteger();
+		beanFactory.registerBean("crankshaft", Crankshaft.class, () -> {
+			created.incrementAndGet();
+			Crankshaft crankshaft = new Crankshaft();
+			crankshaft.setStroke(90);
+			return crankshaft;
+		});
+		beanFactory.registerBean("engine", Engine.class, factory -> {
+			Engine engine = new Engine();
+			engine.setCrankshaft(factory.getBean("crankshaft", Crankshaft.class));
+			return engine;
+		}, beanDefinition -> {
+			beanDefinition.setInitMethodName("start");
+			beanDefinition.setDestroyMethodName("stop");
+		});
+
+		Engine engine = beanFactory.getBean("engine", Engine.class);
+		assertThat(engine.isStarted()).isTrue();
+		assertThat(engine.getCrankshaft().getStroke()).isEqualTo(90);
+		assertThat(beanFactory.getBean("engine")).isSameAs(engine);
+		assertThat(beanFactory.getBeansOfType(Crankshaft.class)).containsOnlyKeys("crankshaft");
+		assertThat(created.get()).isEqualTo(1);
+
+		beanFactory.destroySingletons();
+		assertThat(engine.isStopped()).isTrue();
+	}
+
+	@Test
+	public void testPrototypeSupplier() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerBean("crankshaft", Crankshaft.class, Crankshaft::new,
+				beanDefinition -> beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE));
+		assertThat(beanFactory.getBean("crankshaft")).isNotSameAs(beanFactory.getBean("crankshaft"));
+	}
+
+	@Test
+	public void testAutoProxy() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:functional-registration.xml");
+		WorldService worldService = applicationContext.getBean("worldService", WorldService.class);
+		//函数式注册的bean同样经过BeanPostProcessor生成代理
+		assertThat(worldService.getClass()).isNotEqualTo(WorldServiceImpl.class);
+		assertThat(applicationContext.getBean("worldService")).isNotSameAs(worldService);
+		worldService.explode();
+		applicationContext.close();
+	}
+}
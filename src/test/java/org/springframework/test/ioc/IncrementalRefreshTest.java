@@ -0,0 +1,180 @@
+package org.springframework.test.ioc;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.beans.factory.PropertyPlaceholderConfigurer;
+import org.springframework.beans.factory.PropertyPlaceholderConfigurer.RefreshResult;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.Crankshaft;
+import org.springframework.test.bean.Engine;
+import org.springframework.test.bean.PricingService;
+import org.springframework.test.bean.ServerConfig;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *
+ */
+public class IncrementalRefreshTest {
+
+	private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<beans>\n";
+
+	private static final String FOOTER = "</beans>\n";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testRecreateChangedBeansAndDependents() throws Exception {
+		File config = temporaryFolder.newFile("engine.xml");
+		writeConfig(config, crankshaft("crankshaft", 86) + engine() + pricingService("pricingService"));
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{config.getPath()}, false);
+		applicationContext.setWarmUpIterations(0);
+		applicationContext.refresh();
+		Engine engine = applicationContext.getBean("engine", Engine.class);
+		PricingService pricingService = applicationContext.getBean("pricingService", PricingService.class);
+		assertThat(applicationContext.getBeanFactory().getDependentBeans("crankshaft")).containsExactly("engine");
+
+		//没有变化时什么都不做
+		assertThat(applicationContext.refreshIncrementally()).isEmpty();
+		assertThat(applicationContext.getBean("engine")).isSameAs(engine);
+
+		//修改被依赖的bean，依赖它的bean一起重新创建，其他单例不变
+		writeConfig(config, crankshaft("crankshaft", 90) + engine() + pricingService("pricingService"));
+		assertThat(applicationContext.refreshIncrementally()).containsExactlyInAnyOrder("crankshaft", "engine");
+		assertThat(engine.isStopped()).isTrue();
+		Engine newEngine = applicationContext.getBean("engine", Engine.class);
+		assertThat(newEngine).isNotSameAs(engine);
+		assertThat(newEngine.isStarted()).isTrue();
+		assertThat(newEngine.getCrankshaft().getStroke()).isEqualTo(90);
+		assertThat(applicationContext.getBean("pricingService")).isSameAs(pricingService);
+
+		//删除和新增bean
+		writeConfig(config, crankshaft("crankshaft", 90) + engine() + crankshaft("spareCrankshaft", 80));
+		assertThat(applicationContext.refreshIncrementally()).containsExactlyInAnyOrder("pricingService", "spareCrankshaft");
+		assertThat(applicationContext.containsBean("pricingService")).isFalse();
+		assertThat(applicationContext.getBean("spareCrankshaft", Crankshaft.class).getStroke()).isEqualTo(80);
+		assertThat(applicationContext.getBean("engine")).isSameAs(newEngine);
+		applicationContext.close();
+	}
+
+	@Test
+	public void testReloadPropertiesAfterIncrementalRefresh() throws Exception {
+		File properties = temporaryFolder.newFile("server.properties");
+		writeProperties(properties, "a=1\nb=2\n");
+		String configurer = "<bean class=\"org.springframework.beans.factory.PropertyPlaceholderConfigurer\">"
+				+ "<property name=\"location\" value=\"" + properties.getPath() + "\"/></bean>\n";
+		File config = temporaryFolder.newFile("servers.xml");
+		writeConfig(config, configurer + serverConfig("server", "a") + serverConfig("legacyServer", "a"));
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{config.getPath()}, false);
+		applicationContext.setWarmUpIterations(0);
+		applicationContext.refresh();
+		assertThat(applicationContext.getBean("server", ServerConfig.class).getPort()).isEqualTo(1);
+
+		//占位符从${a}改为${b}，删除legacyServer
+		writeConfig(config, configurer + serverConfig("server", "b"));
+		assertThat(applicationContext.refreshIncrementally()).containsExactlyInAnyOrder("server", "legacyServer");
+		ServerConfig server = applicationContext.getBean("server", ServerConfig.class);
+		assertThat(server.getPort()).isEqualTo(2);
+
+		//原来的绑定已经移除，a变化时不影响server，也不会访问被删除的legacyServer
+		PropertyPlaceholderConfigurer placeholderConfigurer = applicationContext.getBean(PropertyPlaceholderConfigurer.class);
+		writeProperties(properties, "a=10\nb=2\n");
+		RefreshResult result = placeholderConfigurer.refreshProperties();
+		assertThat(result.getChangedKeys()).containsExactly("a");
+		assertThat(result.getUpdatedBeanNames()).isEmpty();
+		assertThat(server.getPort()).isEqualTo(2);
+
+		writeProperties(properties, "a=10\nb=20\n");
+		assertThat(placeholderConfigurer.refreshProperties().getUpdatedBeanNames()).containsExactly("server");
+		assertThat(server.getPort()).isEqualTo(20);
+		applicationContext.close();
+	}
+
+	@Test
+	public void testFullRefreshDestroysPreviousSingletons() throws Exception {
+		File properties = temporaryFolder.newFile("engine.properties");
+		writeProperties(properties, "a=1\n");
+		File config = temporaryFolder.newFile("engine-with-configurer.xml");
+		writeConfig(config, crankshaft("crankshaft", 86) + engine() + placeholderConfigurer(properties, false));
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{config.getPath()}, false);
+		applicationContext.setWarmUpIterations(0);
+		applicationContext.refresh();
+		Engine engine = applicationContext.getBean("engine", Engine.class);
+
+		//BeanFactoryPostProcessor变化时执行完整的refresh，旧工厂中的单例被销毁
+		writeConfig(config, crankshaft("crankshaft", 86) + engine() + placeholderConfigurer(properties, true));
+		applicationContext.refreshIncrementally();
+		assertThat(engine.isStopped()).isTrue();
+		Engine newEngine = applicationContext.getBean("engine", Engine.class);
+		assertThat(newEngine).isNotSameAs(engine);
+		assertThat(newEngine.isStopped()).isFalse();
+		applicationContext.close();
+		assertThat(newEngine.isStopped()).isTrue();
+	}
+
+	@Test
+	public void testLargeContext() throws Exception {
+		File config = temporaryFolder.newFile("large.xml");
+		writeConfig(config, largeConfig(86));
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{config.getPath()}, false);
+		applicationContext.setWarmUpIterations(0);
+		long start = System.nanoTime();
+		applicationContext.refresh();
+		long fullRefreshNanos = System.nanoTime() - start;
+		Object unchanged = applicationContext.getBean("crankshaft1");
+
+		writeConfig(config, largeConfig(90));
+		start = System.nanoTime();
+		assertThat(applicationContext.refreshIncrementally()).containsExactly("crankshaft0");
+		long incrementalNanos = System.nanoTime() - start;
+		assertThat(applicationContext.getBean("crankshaft0", Crankshaft.class).getStroke()).isEqualTo(90);
+		assertThat(applicationContext.getBean("crankshaft1")).isSameAs(unchanged);
+		System.out.println("5000 beans: full refresh " + fullRefreshNanos / 1000_000 + "ms, incremental refresh " + incrementalNanos / 1000_000 + "ms");
+		applicationContext.close();
+	}
+
+	private static String largeConfig(int firstStroke) {
+		StringBuilder beans = new StringBuilder(crankshaft("crankshaft0", firstStroke));
+		for (int i = 1; i < 5000; i++) {
+			beans.append(crankshaft("crankshaft" + i, 86));
+		}
+		return beans.toString();
+	}
+
+	private static String crankshaft(String id, int stroke) {
+		return "<bean id=\"" + id + "\" class=\"org.springframework.test.bean.Crankshaft\"><property name=\"stroke\" value=\"" + stroke + "\"/></bean>\n";
+	}
+
+	private static String engine() {
+		return "<bean id=\"engine\" class=\"org.springframework.test.bean.Engine\" init-method=\"start\" destroy-method=\"stop\">"
+				+ "<property name=\"crankshaft\" ref=\"crankshaft\"/></bean>\n";
+	}
+
+	private static String pricingService(String id) {
+		return "<bean id=\"" + id + "\" class=\"org.springframework.test.bean.PricingService\"/>\n";
+	}
+
+	private static String serverConfig(String id, String portKey) {
+		return "<bean id=\"" + id + "\" class=\"org.springframework.test.bean.ServerConfig\"><property name=\"port\" value=\"${" + portKey + "}\"/></bean>\n";
+	}
+
+	private static String placeholderConfigurer(File properties, boolean largeThreshold) {
+		return "<bean class=\"org.springframework.beans.factory.PropertyPlaceholderConfigurer\">"
+				+ "<property name=\"location\" value=\"" + properties.getPath() + "\"/>"
+				+ (largeThreshold ? "<property name=\"memoryMapThreshold\" value=\"1048576\"/>" : "") + "</bean>\n";
+	}
+
+	private static void writeProperties(File properties, String content) throws Exception {
+		Files.write(properties.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+	}
+
+	private static void writeConfig(File config, String beans) throws Exception {
+		Files.write(config.toPath(), (HEADER + beans + FOOTER).getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,60 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+import org.springframework.test.bean.Car;
+import org.springframework.test.bean.Garage;
+import org.springframework.test.common.StringToIntegerConverter;
+import org.springframework.util.IntrospectionCache;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *
+ */
+public class IntrospectionCacheTest {
+
+	@Test
+	public void testIntrospectionCache() throws Exception {
+		//父类中声明的字段
+		Field brand = IntrospectionCache.getField(Garage.class, "brand");
+		assertThat(brand.getDeclaringClass().getSimpleName()).isEqualTo("AbstractGarage");
+		assertThat(IntrospectionCache.getField(Garage.class, "missing")).isNull();
+
+		assertThat(IntrospectionCache.getPublicMethod(Car.class, "getBrand")).isNotNull();
+		assertThat(IntrospectionCache.getPublicMethod(Car.class, "missing")).isNull();
+
+		assertThat(IntrospectionCache.getAnnotation(Car.class, Component.class)).isNotNull();
+		assertThat(IntrospectionCache.getAnnotation(Garage.class, Component.class)).isNull();
+
+		assertThat(IntrospectionCache.resolveTypeArguments(StringToIntegerConverter.class, Converter.class))
+				.containsExactly(String.class, Integer.class);
+		//ApplicationListener不是第一个实现的接口
+		assertThat(IntrospectionCache.resolveTypeArguments(RefreshedListener.class, ApplicationListener.class))
+				.containsExactly(ContextRefreshedEvent.class);
+		assertThat(IntrospectionCache.resolveTypeArguments(String.class, ApplicationListener.class)).isNull();
+
+		//再次查找命中缓存，包括不存在的结果
+		long hits = IntrospectionCache.getHitCount();
+		long misses = IntrospectionCache.getMissCount();
+		IntrospectionCache.getField(Garage.class, "brand");
+		IntrospectionCache.getPublicMethod(Car.class, "missing");
+		IntrospectionCache.resolveTypeArguments(RefreshedListener.class, ApplicationListener.class);
+		assertThat(IntrospectionCache.getHitCount()).isEqualTo(hits + 3);
+		assertThat(IntrospectionCache.getMissCount()).isEqualTo(misses);
+		assertThat(IntrospectionCache.getIntrospectedClassCount()).isPositive();
+	}
+
+	public static class RefreshedListener implements Serializable, ApplicationListener<ContextRefreshedEvent> {
+
+		@Override
+		public void onApplicationEvent(ContextRefreshedEvent event) {
+		}
+	}
+}
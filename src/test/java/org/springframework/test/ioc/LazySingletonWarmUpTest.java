@@ -0,0 +1,88 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.context.support.LazySingletonWarmer;
+import org.springframework.test.bean.WarmUpBean;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ *
+ */
+public class LazySingletonWarmUpTest {
+
+	@Test
+	public void testBackgroundWarmUp() throws Exception {
+		WarmUpBean.CREATED.clear();
+		WarmUpBean.STARTED = new CountDownLatch(1);
+		WarmUpBean.RELEASE = new CountDownLatch(1);
+
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:lazy-warm-up.xml"}, false);
+		applicationContext.setLazySingletonWarmUpThreads(1);
+		//优先级最高的bean在初始化时阻塞，refresh不等待懒加载单例
+		applicationContext.refresh();
+		assertThat(WarmUpBean.STARTED.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(WarmUpBean.CREATED).containsExactly("eager");
+
+		//业务线程获取正在预热的bean，等待这次创建完成
+		CompletableFuture<Object> request = CompletableFuture.supplyAsync(() -> applicationContext.getBean("blocking"));
+		Thread.sleep(100);
+		assertThat(request.isDone()).isFalse();
+		WarmUpBean.RELEASE.countDown();
+		Object blocking = request.get(10, TimeUnit.SECONDS);
+
+		LazySingletonWarmer warmer = applicationContext.getLazySingletonWarmer();
+		assertThat(warmer.awaitCompletion(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(applicationContext.getBean("blocking")).isSameAs(blocking);
+		//按优先级创建，每个bean只创建一次
+		assertThat(WarmUpBean.CREATED).containsExactly("eager", "blocking", "high", "low");
+		assertThat(warmer.getWarmedBeanNames()).containsExactly("blocking", "high", "low");
+		assertThat(warmer.getFailures()).isEmpty();
+		applicationContext.close();
+	}
+
+	@Test
+	public void testUnrelatedSingletonsAreCreatedInParallel() throws Exception {
+		WarmUpBean.CREATED.clear();
+		WarmUpBean.STARTED = new CountDownLatch(1);
+		WarmUpBean.RELEASE = new CountDownLatch(1);
+
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:lazy-warm-up.xml"}, false);
+		applicationContext.setLazySingletonWarmUpThreads(2);
+		applicationContext.refresh();
+		assertThat(WarmUpBean.STARTED.await(10, TimeUnit.SECONDS)).isTrue();
+
+		//blocking阻塞时，另一个预热线程和业务线程创建其他bean不需要等待它
+		Object low = CompletableFuture.supplyAsync(() -> applicationContext.getBean("low")).get(10, TimeUnit.SECONDS);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!WarmUpBean.CREATED.contains("high") && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertThat(WarmUpBean.CREATED).containsExactlyInAnyOrder("eager", "high", "low");
+
+		WarmUpBean.RELEASE.countDown();
+		LazySingletonWarmer warmer = applicationContext.getLazySingletonWarmer();
+		assertThat(warmer.awaitCompletion(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(WarmUpBean.CREATED).containsExactlyInAnyOrder("eager", "high", "low", "blocking");
+		assertThat(applicationContext.getBean("low")).isSameAs(low);
+		assertThat(warmer.getFailures()).isEmpty();
+		applicationContext.close();
+	}
+
+	@Test
+	public void testWithoutWarmUp() throws Exception {
+		WarmUpBean.CREATED.clear();
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:lazy-warm-up.xml"}, false);
+		applicationContext.refresh();
+		assertThat(applicationContext.getLazySingletonWarmer()).isNull();
+		assertThat(WarmUpBean.CREATED).containsExactly("eager");
+		applicationContext.getBean("low");
+		assertThat(WarmUpBean.CREATED).containsExactly("eager", "low");
+		applicationContext.close();
+	}
+}
@@ -0,0 +1,76 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.Car;
+import org.springframework.test.bean.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 子上下文从父上下文获取本地没有定义的bean，父上下文中的定义可以作为父定义使用
+ */
+public class ParentChildContextTest {
+
+	@Test
+	public void testChildDelegatesToParent() throws Exception {
+		ClassPathXmlApplicationContext parent = new ClassPathXmlApplicationContext("classpath:parent-context.xml");
+		ClassPathXmlApplicationContext child = new ClassPathXmlApplicationContext(new String[]{"classpath:child-context.xml"}, parent);
+
+		Car sharedCar = parent.getBean("sharedCar", Car.class);
+		assertThat(child.getParent()).isSameAs(parent);
+		assertThat(child.getBean("sharedCar")).isSameAs(sharedCar);
+		assertThat(child.getBean("tenant", Person.class).getCar()).isSameAs(sharedCar);
+		assertThat(child.containsBean("sharedCar")).isTrue();
+		assertThat(child.containsLocalBean("sharedCar")).isFalse();
+		assertThat(parent.containsBean("tenant")).isFalse();
+
+		//父定义来自父上下文
+		Car tenantCar = child.getBean("tenantCar", Car.class);
+		assertThat(tenantCar.getBrand()).isEqualTo("porsche");
+		assertThat(tenantCar.getPrice()).isEqualTo(500000);
+
+		//按类型查找：本地有时使用本地的bean，本地没有时从父上下文查找
+		assertThat(child.getBean(Car.class)).isSameAs(tenantCar);
+		assertThat(child.getBean(Person.class).getName()).isEqualTo("tenant");
+		assertThat(child.getBeanProvider("sharedCar", Car.class).getObject()).isSameAs(sharedCar);
+
+		child.close();
+		assertThat(parent.getBean("sharedCar")).isSameAs(sharedCar);
+		parent.close();
+	}
+
+	@Test
+	public void testManyChildrenShareParentSingletons() throws Exception {
+		ClassPathXmlApplicationContext parent = new ClassPathXmlApplicationContext("classpath:parent-context.xml");
+		Car sharedCar = parent.getBean("sharedCar", Car.class);
+
+		List<ClassPathXmlApplicationContext> tenants = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			tenants.add(new ClassPathXmlApplicationContext(new String[]{"classpath:child-context.xml"}, parent));
+		}
+		assertThat(tenants).allSatisfy(tenant -> assertThat(tenant.getBean("tenant", Person.class).getCar()).isSameAs(sharedCar));
+		assertThat(tenants.get(0).getBean("tenant")).isNotSameAs(tenants.get(1).getBean("tenant"));
+		tenants.forEach(ClassPathXmlApplicationContext::close);
+		parent.close();
+	}
+
+	@Test
+	public void testParentBeanFactoryCanOnlyBeSetOnce() throws Exception {
+		DefaultListableBeanFactory parent = new DefaultListableBeanFactory();
+		DefaultListableBeanFactory child = new DefaultListableBeanFactory(parent);
+		assertThat(child.getParentBeanFactory()).isSameAs(parent);
+		child.setParentBeanFactory(parent);
+
+		assertThatThrownBy(() -> child.setParentBeanFactory(new DefaultListableBeanFactory()))
+				.isInstanceOf(BeansException.class)
+				.hasMessageContaining("Already associated with parent BeanFactory");
+		assertThatThrownBy(() -> child.getBean("missing")).isInstanceOf(BeansException.class);
+	}
+}
@@ -0,0 +1,118 @@
+package org.springframework.test.ioc;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.SingletonDestructionReport;
+import org.springframework.test.bean.ClosableResource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ *
+ */
+public class SingletonDestructionTest {
+
+	@Before
+	public void setUp() {
+		ClosableResource.DESTROYED.clear();
+	}
+
+	@Test
+	public void testReverseDependencyOrder() throws Exception {
+		for (int parallelism : new int[]{1, 4}) {
+			ClosableResource.DESTROYED.clear();
+			DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+			//service -> repository(没有销毁方法) -> pool
+			beanFactory.registerBean("service", ClosableResource.class, factory -> {
+				factory.getBean("repository");
+				return new ClosableResource("service", 50, false);
+			});
+			beanFactory.registerBean("repository", Object.class, factory -> {
+				factory.getBean("pool");
+				return new Object();
+			});
+			beanFactory.registerBean("pool", ClosableResource.class, () -> new ClosableResource("pool", 0, false));
+			beanFactory.registerBean("cache", ClosableResource.class, () -> new ClosableResource("cache", 0, false));
+			beanFactory.preInstantiateSingletons();
+			beanFactory.setDestroyParallelism(parallelism);
+
+			beanFactory.destroySingletons();
+			assertThat(ClosableResource.DESTROYED).containsExactlyInAnyOrder("service", "pool", "cache");
+			assertThat(ClosableResource.DESTROYED.indexOf("service")).isLessThan(ClosableResource.DESTROYED.indexOf("pool"));
+			assertThat(beanFactory.getDestructionReport().getDestroyTimes()).containsOnlyKeys("service", "pool", "cache");
+		}
+	}
+
+	@Test
+	public void testParallelDestruction() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		for (int i = 0; i < 4; i++) {
+			String name = "buffer" + i;
+			beanFactory.registerBean(name, ClosableResource.class, () -> new ClosableResource(name, 300, false));
+		}
+		beanFactory.preInstantiateSingletons();
+		beanFactory.setDestroyParallelism(4);
+
+		beanFactory.destroySingletons();
+		SingletonDestructionReport report = beanFactory.getDestructionReport();
+		assertThat(ClosableResource.DESTROYED).hasSize(4);
+		assertThat(report.getDestroyTimes().values()).allMatch(time -> time.toMillis() >= 300);
+		assertThat(report.getTotalTime().toMillis()).isLessThan(1200);
+	}
+
+	@Test
+	public void testFailuresAreAggregated() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerBean("first", ClosableResource.class, () -> new ClosableResource("first", 0, false));
+		beanFactory.registerBean("broken", ClosableResource.class, () -> new ClosableResource("broken", 0, true));
+		beanFactory.registerBean("last", ClosableResource.class, () -> new ClosableResource("last", 0, false));
+		beanFactory.preInstantiateSingletons();
+
+		assertThatThrownBy(beanFactory::destroySingletons).isInstanceOf(BeansException.class).hasMessageContaining("broken");
+		assertThat(ClosableResource.DESTROYED).containsExactlyInAnyOrder("last", "first");
+		assertThat(beanFactory.getDestructionReport().getFailures()).containsOnlyKeys("broken");
+	}
+
+	@Test
+	public void testDestroyTimeout() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerBean("pool", ClosableResource.class, () -> new ClosableResource("pool", 0, false));
+		beanFactory.registerBean("stuck", ClosableResource.class, factory -> {
+			factory.getBean("pool");
+			return new ClosableResource("stuck", 10_000, false);
+		});
+		beanFactory.preInstantiateSingletons();
+		beanFactory.setDestroyTimeout(100, TimeUnit.MILLISECONDS);
+
+		//超时的bean记为失败，它依赖的bean继续销毁
+		assertThatThrownBy(beanFactory::destroySingletons).hasMessageContaining("stuck");
+		SingletonDestructionReport report = beanFactory.getDestructionReport();
+		assertThat(ClosableResource.DESTROYED).containsExactly("pool");
+		assertThat(report.getFailures().get("stuck")).isInstanceOf(TimeoutException.class);
+		assertThat(report.getTotalTime().toMillis()).isLessThan(5000);
+	}
+
+	@Test
+	public void testShutdownTimeout() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerBean("pool", ClosableResource.class, () -> new ClosableResource("pool", 0, false));
+		beanFactory.registerBean("slow", ClosableResource.class, factory -> {
+			factory.getBean("pool");
+			return new ClosableResource("slow", 10_000, false);
+		});
+		beanFactory.preInstantiateSingletons();
+		beanFactory.setShutdownTimeout(200, TimeUnit.MILLISECONDS);
+
+		assertThatThrownBy(beanFactory::destroySingletons).isInstanceOf(BeansException.class);
+		SingletonDestructionReport report = beanFactory.getDestructionReport();
+		assertThat(report.getFailures()).containsOnlyKeys("slow", "pool");
+		assertThat(ClosableResource.DESTROYED).isEmpty();
+		assertThat(report.getTotalTime().toMillis()).isLessThan(5000);
+	}
+}
@@ -2,6 +2,7 @@ package org.springframework.test.ioc;
 
 import org.junit.Test;
 import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.core.convert.support.GenericConversionService;
 import org.springframework.core.convert.support.StringToNumberConverterFactory;
 import org.springframework.test.common.StringToBooleanConverter;
@@ -62,4 +63,35 @@ public class TypeConversionFirstPartTest {
 		Boolean flag = conversionService.convert("true", Boolean.class);
 		assertThat(flag).isTrue();
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testConverterLookupWithInterfacesAndCache() throws Exception {
+		GenericConversionService conversionService = new GenericConversionService();
+		//没有匹配的转换器，结果会被缓存
+		assertThat(conversionService.canConvert(String.class, Integer.class)).isFalse();
+
+		//通过接口CharSequence匹配String类型的源对象，添加转换器后缓存失效
+		conversionService.addConverter(new Converter<CharSequence, Integer>() {
+			@Override
+			public Integer convert(CharSequence source) {
+				return Integer.valueOf(source.toString().trim());
+			}
+		});
+		assertThat(conversionService.canConvert(String.class, Integer.class)).isTrue();
+		assertThat(conversionService.canConvert(StringBuilder.class, int.class)).isTrue();
+		assertThat(conversionService.convert(" 8888 ", Integer.class)).isEqualTo(8888);
+		assertThat(conversionService.convert(new StringBuilder("42"), int.class)).isEqualTo(42);
+	}
+
+	@Test
+	public void testPrimitiveConversion() throws Exception {
+		DefaultConversionService conversionService = new DefaultConversionService();
+
+		assertThat(conversionService.canConvert(String.class, int.class)).isTrue();
+		assertThat(conversionService.convertToInt("8888")).isEqualTo(8888);
+		assertThat(conversionService.convertToLong("8888")).isEqualTo(8888L);
+		assertThat(conversionService.convertToDouble("0.5")).isEqualTo(0.5);
+		assertThat(conversionService.convertToBoolean("on")).isTrue();
+		assertThat(conversionService.convert("off", Boolean.class)).isFalse();
+	}
+}
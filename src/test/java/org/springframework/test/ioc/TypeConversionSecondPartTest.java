@@ -3,6 +3,7 @@ package org.springframework.test.ioc;
 import org.junit.Test;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.test.bean.Car;
+import org.springframework.test.bean.ServerConfig;
 
 import java.time.LocalDate;
 
@@ -21,4 +22,15 @@ public class TypeConversionSecondPartTest {
 		assertThat(car.getPrice()).isEqualTo(1000000);
 		assertThat(car.getProduceDate()).isEqualTo(LocalDate.of(2021, 1, 1));
 	}
+
+	@Test
+	public void testPrimitiveConversion() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:primitive-conversion.xml");
+
+		ServerConfig serverConfig = applicationContext.getBean("serverConfig", ServerConfig.class);
+		assertThat(serverConfig.getPort()).isEqualTo(8080);
+		assertThat(serverConfig.getTimeout()).isEqualTo(30000000000L);
+		assertThat(serverConfig.getLoadFactor()).isEqualTo(0.75);
+		assertThat(serverConfig.isEnabled()).isTrue();
+	}
 }
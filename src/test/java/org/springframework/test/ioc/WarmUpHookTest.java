@@ -0,0 +1,79 @@
+package org.springframework.test.ioc;
+
+import org.junit.Test;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.SingletonDestructionReport;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.test.bean.PricingService;
+import org.springframework.test.common.event.ContextReadyEventListener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ *
+ */
+public class WarmUpHookTest {
+
+	@Test
+	public void testWarmUpBeforeReady() throws Exception {
+		ContextReadyEventListener.lastEvent = null;
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:warm-up-hooks.xml"}, false);
+		applicationContext.setWarmUpIterations(500);
+		applicationContext.refresh();
+
+		PricingService pricingService = applicationContext.getBean("pricingService", PricingService.class);
+		PricingService primedPricingService = applicationContext.getBean("primedPricingService", PricingService.class);
+		assertThat(pricingService.getWarmUpCount()).isEqualTo(500);
+		//实现了WarmableBean又配置了预热方法时两者都执行
+		assertThat(primedPricingService.getWarmUpCount()).isEqualTo(500);
+		assertThat(primedPricingService.getPrimeCount()).isEqualTo(500);
+
+		//就绪事件在预热完成之后发布，携带每个bean的耗时；懒加载且还没有创建的bean不预热
+		assertThat(ContextReadyEventListener.warmUpCountWhenReady).isEqualTo(500);
+		assertThat(ContextReadyEventListener.lastEvent.getWarmUpTimings()).containsOnlyKeys("pricingService", "primedPricingService");
+		assertThat(applicationContext.getWarmUpTimings()).isEqualTo(ContextReadyEventListener.lastEvent.getWarmUpTimings());
+		assertThat(applicationContext.getBean("lazyPricingService", PricingService.class).getWarmUpCount()).isZero();
+		applicationContext.close();
+	}
+
+	@Test
+	public void testParallelWarmUp() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:warm-up-hooks.xml"}, false);
+		applicationContext.setWarmUpIterations(200);
+		applicationContext.setWarmUpParallelism(2);
+		applicationContext.refresh();
+
+		//同一个bean的预热在一个线程中执行
+		PricingService pricingService = applicationContext.getBean("pricingService", PricingService.class);
+		assertThat(pricingService.getWarmUpCount()).isEqualTo(200);
+		assertThat(pricingService.getWarmUpThreads()).hasSize(1).allMatch(name -> name.startsWith("bean-warm-up-"));
+		assertThat(applicationContext.getBean("primedPricingService", PricingService.class).getPrimeCount()).isEqualTo(200);
+		applicationContext.close();
+	}
+
+	@Test
+	public void testWarmUpFailureDestroysSingletons() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:warm-up-failure.xml"}, false);
+		applicationContext.setWarmUpIterations(10);
+
+		//预热失败时refresh抛出异常，已经创建的单例被销毁
+		assertThatThrownBy(applicationContext::refresh).isInstanceOf(BeansException.class)
+				.hasMessageContaining("missing");
+		SingletonDestructionReport report = ((DefaultListableBeanFactory) applicationContext.getBeanFactory()).getDestructionReport();
+		assertThat(report).isNotNull();
+		assertThat(report.getDestroyTimes()).containsOnlyKeys("engine");
+		assertThat(report.getFailures()).isEmpty();
+	}
+
+	@Test
+	public void testWarmUpDisabled() throws Exception {
+		ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext(new String[]{"classpath:warm-up-hooks.xml"}, false);
+		applicationContext.setWarmUpIterations(0);
+		applicationContext.refresh();
+		assertThat(applicationContext.getBean("pricingService", PricingService.class).getWarmUpCount()).isZero();
+		assertThat(applicationContext.getWarmUpTimings()).isEmpty();
+		applicationContext.close();
+	}
+}
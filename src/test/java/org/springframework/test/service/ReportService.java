@@ -0,0 +1,15 @@
+package org.springframework.test.service;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 耗时的业务方法，用于测试关闭时排空代理调用
+ */
+public interface ReportService {
+
+	String generate(CountDownLatch started, CountDownLatch release) throws InterruptedException;
+
+	String ping();
+
+	void run(Runnable task);
+}
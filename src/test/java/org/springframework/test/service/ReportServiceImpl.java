@@ -0,0 +1,39 @@
+package org.springframework.test.service;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 记录调用完成和销毁的先后顺序
+ */
+public class ReportServiceImpl implements ReportService, DisposableBean {
+
+	public static final List<String> EVENTS = new CopyOnWriteArrayList<>();
+
+	@Override
+	public String generate(CountDownLatch started, CountDownLatch release) throws InterruptedException {
+		started.countDown();
+		release.await();
+		EVENTS.add("generated");
+		return "report";
+	}
+
+	@Override
+	public String ping() {
+		return "pong";
+	}
+
+	@Override
+	public void run(Runnable task) {
+		task.run();
+		EVENTS.add("ran");
+	}
+
+	@Override
+	public void destroy() {
+		EVENTS.add("destroyed");
+	}
+}